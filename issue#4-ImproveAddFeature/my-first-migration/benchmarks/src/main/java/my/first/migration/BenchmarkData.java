@@ -0,0 +1,112 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Генератор тестовых данных для бенчмарков.
+ * Создает CSV строки формата name,value,enabled,description с заданной шириной полей
+ * и те же записи в раскладке фиксированной длины {@link FixedWidthRecordReader}.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Создает одну CSV строку.
+     *
+     * @param index порядковый номер записи
+     * @param fieldWidth ширина полей name и value (description в два раза шире)
+     * @return CSV строка
+     */
+    static String line(int index, int fieldWidth) {
+        String name = field("N" + index, fieldWidth, Main.MAX_NAME_LENGTH);
+        String value = field("V" + index, fieldWidth, Main.MAX_VALUE_LENGTH);
+        String description = field("Description " + index, fieldWidth * 2, Main.MAX_DESCRIPTION_LENGTH);
+        return name + "," + value + "," + (index % 2 == 0) + "," + description;
+    }
+
+    /**
+     * Создает список CSV строк.
+     *
+     * @param recordCount количество записей
+     * @param fieldWidth ширина полей
+     * @return список CSV строк
+     */
+    static List<String> lines(int recordCount, int fieldWidth) {
+        List<String> lines = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            lines.add(line(i, fieldWidth));
+        }
+        return lines;
+    }
+
+    /**
+     * Создает временный CSV файл.
+     *
+     * @param recordCount количество записей
+     * @param fieldWidth ширина полей
+     * @return путь к созданному файлу
+     * @throws IOException если произошла ошибка записи
+     */
+    static Path createCsvFile(int recordCount, int fieldWidth) throws IOException {
+        Path file = Files.createTempFile("bench-", ".csv");
+        file.toFile().deleteOnExit();
+        Files.write(file, lines(recordCount, fieldWidth), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Создает временный файл записей фиксированной длины с теми же данными, что и
+     * {@link #createCsvFile(int, int)}, записи идут подряд без разделителей.
+     *
+     * @param recordCount количество записей
+     * @param fieldWidth ширина полей
+     * @return путь к созданному файлу
+     * @throws IOException если произошла ошибка записи
+     */
+    static Path createFixedWidthFile(int recordCount, int fieldWidth) throws IOException {
+        StringBuilder content = new StringBuilder(recordCount * FixedWidthRecordReader.RECORD_LENGTH);
+        for (String line : lines(recordCount, fieldWidth)) {
+            String[] parts = line.split(",");
+            content.append(Main.padToLength(parts[0], FixedWidthRecordReader.NAME_LENGTH))
+                    .append(Main.padToLength(parts[1], FixedWidthRecordReader.VALUE_LENGTH))
+                    .append(Main.padToLength("", FixedWidthRecordReader.BLANK_LENGTH))
+                    .append(Main.padToLength(parts[2], FixedWidthRecordReader.FLAG_LENGTH))
+                    .append(Main.padToLength(parts[3], FixedWidthRecordReader.DESCRIPTION_LENGTH));
+        }
+        Path file = Files.createTempFile("bench-", ".dat");
+        file.toFile().deleteOnExit();
+        Files.write(file, content.toString().getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    /**
+     * Создает временный файл для вывода.
+     *
+     * @return путь к файлу
+     * @throws IOException если файл не удалось создать
+     */
+    static Path createOutputFile() throws IOException {
+        Path file = Files.createTempFile("bench-", ".json");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private static String field(String base, int width, int maxWidth) {
+        int target = Math.min(width, maxWidth);
+        StringBuilder sb = new StringBuilder(base.length() > target ? base.substring(0, target) : base);
+        while (sb.length() < target) {
+            sb.append('x');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Бенчмарк форматов вывода {@link OutputFormat}: кодирование CSV файла (JSON - кодировщиком
+ * {@link JsonRecordEncoder}, двоичных форматов - генератором Jackson) и чтение результата парсером Jackson. Размер вывода каждого формата возвращается
+ * из {@link #encode()} и выводится в результатах JMH.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    @Param({"100000"})
+    int recordCount;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    OutputFormat format;
+
+    private Path inputFile;
+    private Path outputFile;
+    private Path encodedFile;
+    private JsonFactory factory;
+
+    /**
+     * Создает входной файл и закодированный файл для чтения.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = BenchmarkData.createCsvFile(recordCount, 10);
+        outputFile = Files.createTempFile("bench-", "." + format.optionValue());
+        encodedFile = Files.createTempFile("bench-", "." + format.optionValue());
+        factory = format.createFactory();
+        try (OutputStream out = Files.newOutputStream(encodedFile)) {
+            converter().convert(inputFile.toString(), out);
+        }
+    }
+
+    /**
+     * Удаляет временные файлы.
+     *
+     * @throws IOException если произошла ошибка удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+        Files.deleteIfExists(outputFile);
+        Files.deleteIfExists(encodedFile);
+    }
+
+    /**
+     * Разбор CSV и кодирование записей в формат.
+     *
+     * @return количество записанных байт
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    public long encode() throws IOException {
+        FileConverter converter = converter();
+        try (OutputStream out = new ChannelOutputStream(outputFile, false)) {
+            converter.convert(inputFile.toString(), out);
+        }
+        return converter.getBytesWritten();
+    }
+
+    private FileConverter converter() {
+        // JSON кодируется тем же конвертером, что и в режиме --stream
+        return format.isBinary()
+                ? new BinaryFileConverter(format, false, CsvRecordReader::new)
+                : new StreamingFileConverter(OutputLayout.COMPACT_ARRAY, CsvRecordReader::new);
+    }
+
+    /**
+     * Чтение закодированного файла потоковым парсером.
+     *
+     * @return количество прочитанных лексем
+     * @throws IOException если произошла ошибка чтения
+     */
+    @Benchmark
+    public long decode() throws IOException {
+        long tokens = 0;
+        try (JsonParser parser = factory.createParser(encodedFile.toFile())) {
+            while (parser.nextToken() != null) {
+                tokens++;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,100 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк словаря повторяющихся значений {@link ValueDictionary}: потоковое преобразование
+ * файла, в котором поля value и description принимают {@code cardinality} различных значений,
+ * без словаря ({@code dictionarySize} 0) и со словарем заданного размера.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryBenchmark {
+
+    @Param({"0", "4096"})
+    int dictionarySize;
+
+    @Param({"100", "100000"})
+    int cardinality;
+
+    @Param({"100000"})
+    int recordCount;
+
+    private Path inputFile;
+    private Path outputFile;
+
+    /**
+     * Создает входной файл с повторяющимися значениями.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<String> lines = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            int value = i % cardinality;
+            lines.add("N" + i + ",V" + value + "," + (i % 2 == 0) + ",Description " + value);
+        }
+        inputFile = Files.createTempFile("bench-", ".csv");
+        inputFile.toFile().deleteOnExit();
+        Files.write(inputFile, lines, StandardCharsets.UTF_8);
+        outputFile = BenchmarkData.createOutputFile();
+    }
+
+    /**
+     * Удаляет временные файлы.
+     *
+     * @throws IOException если произошла ошибка удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+        Files.deleteIfExists(outputFile);
+    }
+
+    /**
+     * Потоковое преобразование файла в JSON массив.
+     *
+     * @return количество записанных байт JSON
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    public long convertFile() throws IOException {
+        ValueDictionary dictionary = dictionarySize > 0 ? new ValueDictionary(dictionarySize) : null;
+        StreamingFileConverter converter = new StreamingFileConverter(
+                FileModeSettings.DEFAULT.withEngine(SerializerEngine.ENCODER).withDictionary(dictionary),
+                CsvRecordReader::new);
+        try (OutputStream out = new ChannelOutputStream(outputFile, false)) {
+            converter.convert(inputFile.toString(), out);
+        }
+        return converter.getBytesWritten();
+    }
+}
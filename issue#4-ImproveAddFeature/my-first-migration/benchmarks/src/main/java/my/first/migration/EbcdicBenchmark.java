@@ -0,0 +1,106 @@
+package my.first.migration;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Бенчмарк перекодирования записи фиксированной длины из EBCDIC:
+ * таблица {@link EbcdicTranscoder} против декодирования через {@link Charset} JDK.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EbcdicBenchmark {
+
+    @Param({"cp037", "cp1047"})
+    String codePage;
+
+    private EbcdicTranscoder transcoder;
+    private Charset charset;
+    private byte[] record;
+    private byte[] timestamp;
+    private JsonRecordEncoder encoder;
+
+    /**
+     * Создает запись в EBCDIC для текущей кодовой страницы.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        transcoder = EbcdicTranscoder.forName(codePage);
+        charset = Charset.forName(codePage);
+        String text = String.format("%-10s%-10s%-10s%-5s%-20s", "José", "Müller", "", "true", "Customer [A] #1");
+        record = text.getBytes(charset);
+        timestamp = Main.generateTimestamp().getBytes(StandardCharsets.UTF_8);
+        encoder = new JsonRecordEncoder();
+    }
+
+    /**
+     * Декодирование записи в строку через Charset.
+     *
+     * @return строка записи
+     */
+    @Benchmark
+    public String charsetDecode() {
+        return new String(record, charset);
+    }
+
+    /**
+     * Декодирование записи в строку по таблице.
+     *
+     * @return строка записи
+     */
+    @Benchmark
+    public String tableDecode() {
+        return transcoder.decode(record, 0, record.length);
+    }
+
+    /**
+     * Декодирование через Charset, вырезание полей строками и кодирование WsRecord в JSON.
+     *
+     * @return длина документа
+     */
+    @Benchmark
+    public int charsetToJson() {
+        String text = new String(record, charset);
+        WsRecord wsRecord = new WsRecord();
+        wsRecord.setName(text.substring(FixedWidthRecordReader.NAME_OFFSET, FixedWidthRecordReader.VALUE_OFFSET));
+        wsRecord.setValue(text.substring(FixedWidthRecordReader.VALUE_OFFSET, FixedWidthRecordReader.BLANK_OFFSET));
+        wsRecord.setFlag(Boolean.parseBoolean(text.substring(FixedWidthRecordReader.FLAG_OFFSET,
+                FixedWidthRecordReader.DESCRIPTION_OFFSET).trim()));
+        wsRecord.setDescription(text.substring(FixedWidthRecordReader.DESCRIPTION_OFFSET));
+        wsRecord.setTimestamp(Main.generateTimestamp());
+        return encoder.encode(wsRecord);
+    }
+
+    /**
+     * Перекодирование байтов полей по таблице прямо в буфер JSON.
+     *
+     * @return длина документа
+     */
+    @Benchmark
+    public int tableToJson() {
+        return encoder.encodeFixedWidth(record, true, timestamp, transcoder);
+    }
+}
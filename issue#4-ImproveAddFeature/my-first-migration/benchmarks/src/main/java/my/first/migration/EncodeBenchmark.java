@@ -0,0 +1,143 @@
+package my.first.migration;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Бенчмарк стадии кодирования одной записи в JSON.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodeBenchmark {
+
+    @Param({"4", "10"})
+    int fieldWidth;
+
+    private WsRecord record;
+    private String rawName;
+    private JsonRecordEncoder encoder;
+    private JsonRecordEncoder prettyEncoder;
+    private WsRecordArena.Cursor arenaCursor;
+
+    /**
+     * Создает запись для текущей ширины полей.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        record = Main.parseRecord(BenchmarkData.line(1, fieldWidth), 1);
+        rawName = record.getName().trim();
+        encoder = new JsonRecordEncoder();
+        prettyEncoder = JsonRecordEncoder.pretty(JsonArrayWriter.ELEMENT_DEPTH);
+        WsRecordArena arena = WsRecordArena.onHeap();
+        arena.add(record);
+        arenaCursor = arena.cursor();
+    }
+
+    /**
+     * Исходный вариант: String.format(JSON_TEMPLATE) с trim() полей.
+     *
+     * @return JSON документ
+     */
+    @Benchmark
+    public String jsonTemplate() {
+        return String.format(
+            Main.JSON_TEMPLATE,
+            record.getName().trim(),
+            record.getValue().trim(),
+            record.getFlag(),
+            record.getDescription().trim(),
+            record.getTimestamp()
+        );
+    }
+
+    /**
+     * Кодирование в переиспользуемый буфер JsonRecordEncoder.
+     *
+     * @return длина документа
+     */
+    @Benchmark
+    public int recordEncoder() {
+        return encoder.encode(record);
+    }
+
+    /**
+     * Кодирование записи напрямую из байт WsRecordArena.
+     *
+     * @return длина документа
+     */
+    @Benchmark
+    public int arenaEncoder() {
+        return encoder.encode(arenaCursor);
+    }
+
+    /**
+     * Красивый вывод через generatePrettyJson.
+     *
+     * @return JSON документ
+     */
+    @Benchmark
+    public String generatePrettyJson() {
+        return Main.generatePrettyJson(record);
+    }
+
+    /**
+     * Исходный красивый вывод элемента массива: generatePrettyJson и сдвиг строк через replace.
+     *
+     * @return JSON документ
+     */
+    @Benchmark
+    public String reindentedPrettyJson() {
+        return Main.generatePrettyJson(record).replace("\n", "\n" + JsonArrayWriter.PRETTY_INDENT);
+    }
+
+    /**
+     * Красивый вывод элемента массива кодировщиком с отступами.
+     *
+     * @return длина документа
+     */
+    @Benchmark
+    public int prettyRecordEncoder() {
+        return prettyEncoder.encode(record);
+    }
+
+    /**
+     * Дополнение поля пробелами через padToLength.
+     *
+     * @return дополненная строка
+     */
+    @Benchmark
+    public String padToLength() {
+        return Main.padToLength(rawName, Main.MAX_NAME_LENGTH);
+    }
+
+    /**
+     * Получение временной метки через кеширующий TimestampClock.
+     *
+     * @return временная метка
+     */
+    @Benchmark
+    public String generateTimestamp() {
+        return Main.generateTimestamp();
+    }
+}
@@ -0,0 +1,122 @@
+package my.first.migration;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Бенчмарк полного преобразования файла: чтение, кодирование и запись.
+ * Сравнивает пакетный вариант processFileMode с потоковым и параллельным режимами.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int recordCount;
+
+    @Param({"4", "10"})
+    int fieldWidth;
+
+    private Path inputFile;
+    private Path outputFile;
+
+    /**
+     * Создает входной и выходной файлы.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = BenchmarkData.createCsvFile(recordCount, fieldWidth);
+        outputFile = BenchmarkData.createOutputFile();
+    }
+
+    /**
+     * Удаляет временные файлы.
+     *
+     * @throws IOException если произошла ошибка удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+        Files.deleteIfExists(outputFile);
+    }
+
+    /**
+     * Пакетное преобразование, повторяющее processFileMode без вывода в консоль.
+     *
+     * @return длина JSON массива
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    public int batchConversion() throws IOException {
+        List<WsRecord> records = Main.readRecordsFromFile(inputFile.toString());
+        List<String> jsonRecords = new ArrayList<>();
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        for (WsRecord record : records) {
+            jsonRecords.add(encoder.encodeToString(record));
+        }
+        String arrayJson = String.format(Main.ARRAY_JSON_TEMPLATE, String.join(",", jsonRecords));
+        Main.writeToFile(outputFile.toString(), arrayJson);
+        return arrayJson.length();
+    }
+
+    /**
+     * Потоковое преобразование через StreamingFileConverter.
+     *
+     * @return количество записанных байт
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    public long streamingConversion() throws IOException {
+        StreamingFileConverter converter = new StreamingFileConverter(false);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFile), Main.STREAM_BUFFER_SIZE)) {
+            converter.convert(inputFile.toString(), out);
+        }
+        return converter.getBytesWritten();
+    }
+
+    /**
+     * Параллельное преобразование через ParallelFileConverter.
+     *
+     * @return количество записанных байт
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    public long parallelConversion() throws IOException {
+        ParallelFileConverter converter = new ParallelFileConverter(false);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFile), Main.STREAM_BUFFER_SIZE)) {
+            converter.convert(inputFile.toString(), out);
+        }
+        return converter.getBytesWritten();
+    }
+}
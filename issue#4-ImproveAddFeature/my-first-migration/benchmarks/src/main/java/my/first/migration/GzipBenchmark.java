@@ -0,0 +1,105 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк потокового преобразования сжатого CSV файла в сжатый JSON Lines:
+ * сжатие в потоке записи против сжатия в отдельном потоке ({@link GzipCodec#isAsync()})
+ * при разных уровнях сжатия.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GzipBenchmark {
+
+    @Param({"100000"})
+    int recordCount;
+
+    @Param({"1", "6"})
+    int level;
+
+    private Path inputFile;
+    private Path outputFile;
+
+    /**
+     * Создает сжатый входной файл.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path csv = BenchmarkData.createCsvFile(recordCount, 10);
+        inputFile = csv.resolveSibling(csv.getFileName() + GzipCodec.EXTENSION);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(inputFile))) {
+            Files.copy(csv, out);
+        }
+        Files.delete(csv);
+        outputFile = Files.createTempFile("bench-", ".ndjson" + GzipCodec.EXTENSION);
+    }
+
+    /**
+     * Удаляет временные файлы.
+     *
+     * @throws IOException если произошла ошибка удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+        Files.deleteIfExists(outputFile);
+    }
+
+    /**
+     * Сжатие в потоке разбора и кодирования.
+     *
+     * @return количество записанных байт JSON
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    public long inlineCompression() throws IOException {
+        return convert(new GzipCodec(level, GzipCodec.DEFAULT_BUFFER_SIZE, false));
+    }
+
+    /**
+     * Сжатие в отдельном потоке.
+     *
+     * @return количество записанных байт JSON
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    public long asyncCompression() throws IOException {
+        return convert(new GzipCodec(level, GzipCodec.DEFAULT_BUFFER_SIZE, true));
+    }
+
+    private long convert(GzipCodec gzip) throws IOException {
+        StreamingFileConverter converter = new StreamingFileConverter(OutputLayout.NDJSON, gzip.csvReaderFactory());
+        try (OutputStream out = gzip.openOutput(outputFile, false)) {
+            converter.convert(inputFile.toString(), out);
+        }
+        return converter.getBytesWritten();
+    }
+}
@@ -0,0 +1,171 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Бенчмарк стадии чтения и разбора CSV файла и файла записей фиксированной длины.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"1000", "100000"})
+    int recordCount;
+
+    @Param({"4", "10"})
+    int fieldWidth;
+
+    private Path inputFile;
+    private Path fixedWidthFile;
+    private String line;
+
+    /**
+     * Создает входной файл для текущей комбинации параметров.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = BenchmarkData.createCsvFile(recordCount, fieldWidth);
+        fixedWidthFile = BenchmarkData.createFixedWidthFile(recordCount, fieldWidth);
+        line = BenchmarkData.line(recordCount, fieldWidth);
+    }
+
+    /**
+     * Удаляет входной файл.
+     *
+     * @throws IOException если произошла ошибка удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+        Files.deleteIfExists(fixedWidthFile);
+    }
+
+    /**
+     * Пакетное чтение всего файла через readRecordsFromFile.
+     *
+     * @return список записей
+     * @throws IOException если произошла ошибка чтения
+     */
+    @Benchmark
+    public List<WsRecord> readRecordsFromFile() throws IOException {
+        return Main.readRecordsFromFile(inputFile.toString());
+    }
+
+    /**
+     * Пакетное чтение файла через отображение в память.
+     *
+     * @return список записей
+     * @throws IOException если произошла ошибка чтения
+     */
+    @Benchmark
+    public List<WsRecord> readRecordsFromMappedFile() throws IOException {
+        return Main.readRecords(inputFile.toString(), FileModeSettings.DEFAULT.withMemoryMapped(true));
+    }
+
+    /**
+     * Потоковое чтение файла через CsvRecordReader.
+     *
+     * @param blackhole приемник результатов
+     * @throws IOException если произошла ошибка чтения
+     */
+    @Benchmark
+    public void streamRecords(Blackhole blackhole) throws IOException {
+        try (CsvRecordReader reader = new CsvRecordReader(inputFile.toString())) {
+            WsRecord record;
+            while ((record = reader.next()) != null) {
+                blackhole.consume(record);
+            }
+        }
+    }
+
+    /**
+     * Потоковое чтение файла записей фиксированной длины.
+     *
+     * @param blackhole приемник результатов
+     * @throws IOException если произошла ошибка чтения
+     */
+    @Benchmark
+    public void streamFixedWidthRecords(Blackhole blackhole) throws IOException {
+        try (FixedWidthRecordReader reader = new FixedWidthRecordReader(fixedWidthFile.toString())) {
+            WsRecord record;
+            while ((record = reader.next()) != null) {
+                blackhole.consume(record);
+            }
+        }
+    }
+
+    /**
+     * Чтение CSV файла с кодированием записей в JSON.
+     *
+     * @param blackhole приемник результатов
+     * @throws IOException если произошла ошибка чтения
+     */
+    @Benchmark
+    public void encodeCsvRecords(Blackhole blackhole) throws IOException {
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        try (CsvRecordReader reader = new CsvRecordReader(inputFile.toString())) {
+            WsRecord record;
+            while ((record = reader.next()) != null) {
+                blackhole.consume(encoder.encode(record));
+            }
+        }
+    }
+
+    /**
+     * Чтение файла записей фиксированной длины с кодированием в JSON прямо из байтов записи.
+     *
+     * @param blackhole приемник результатов
+     * @throws IOException если произошла ошибка чтения
+     */
+    @Benchmark
+    public void encodeFixedWidthRecords(Blackhole blackhole) throws IOException {
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        try (FixedWidthRecordReader reader = new FixedWidthRecordReader(fixedWidthFile.toString())) {
+            int length;
+            while ((length = reader.encodeNext(encoder)) >= 0) {
+                blackhole.consume(length);
+            }
+        }
+    }
+
+    /**
+     * Разбор одной строки.
+     *
+     * @return запись
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public WsRecord parseRecord() {
+        return Main.parseRecord(line, 1);
+    }
+}
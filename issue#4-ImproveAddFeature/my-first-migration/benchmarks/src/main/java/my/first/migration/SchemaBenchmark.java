@@ -0,0 +1,127 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Бенчмарк кодирования по схеме {@link RecordSchema}: разбор и кодирование строки
+ * за один проход {@link SchemaRecordEncoder} в сравнении с разбором {@link Main#parseRecord}
+ * и кодированием {@link JsonRecordEncoder}, а также потоковое преобразование файла.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaBenchmark {
+
+    @Param({"100000"})
+    int recordCount;
+
+    private String line;
+    private JsonRecordEncoder recordEncoder;
+    private SchemaRecordEncoder schemaEncoder;
+    private RecordSchema schema;
+    private Path inputFile;
+    private Path outputFile;
+
+    /**
+     * Создает кодировщики и входной файл.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        line = BenchmarkData.line(1, 10);
+        schema = RecordSchema.wsRecord();
+        recordEncoder = new JsonRecordEncoder();
+        schemaEncoder = new SchemaRecordEncoder(schema);
+        inputFile = BenchmarkData.createCsvFile(recordCount, 10);
+        outputFile = BenchmarkData.createOutputFile();
+    }
+
+    /**
+     * Удаляет временные файлы.
+     *
+     * @throws IOException если произошла ошибка удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+        Files.deleteIfExists(outputFile);
+    }
+
+    /**
+     * Разбор строки в запись и кодирование записи.
+     *
+     * @return длина документа
+     */
+    @Benchmark
+    public int parseAndEncode() {
+        return recordEncoder.encode(Main.parseRecord(line, 1));
+    }
+
+    /**
+     * Разбор и кодирование строки по схеме за один проход.
+     *
+     * @return длина документа
+     */
+    @Benchmark
+    public int schemaEncode() {
+        return schemaEncoder.encodeLine(line, 1);
+    }
+
+    /**
+     * Потоковое преобразование файла без схемы.
+     *
+     * @return количество записанных байт JSON
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long convertFile() throws IOException {
+        StreamingFileConverter converter = new StreamingFileConverter(OutputLayout.COMPACT_ARRAY,
+                CsvRecordReader::new);
+        try (OutputStream out = new ChannelOutputStream(outputFile, false)) {
+            converter.convert(inputFile.toString(), out);
+        }
+        return converter.getBytesWritten();
+    }
+
+    /**
+     * Потоковое преобразование файла по схеме.
+     *
+     * @return количество записанных байт JSON
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long convertFileWithSchema() throws IOException {
+        SchemaFileConverter converter = new SchemaFileConverter(schema, OutputLayout.of(false, false));
+        try (OutputStream out = new ChannelOutputStream(outputFile, false)) {
+            converter.convert(inputFile.toString(), out);
+        }
+        return converter.getBytesWritten();
+    }
+}
@@ -0,0 +1,104 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Бенчмарк реализаций кодирования {@link SerializerEngine}: кодирование одной записи
+ * и потоковое преобразование файла {@link StreamingFileConverter} с той же реализацией.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"TEMPLATE", "JACKSON", "ENCODER"})
+    SerializerEngine engine;
+
+    @Param({"false", "true"})
+    boolean prettyPrint;
+
+    @Param({"100000"})
+    int recordCount;
+
+    private WsRecord record;
+    private RecordSerializer serializer;
+    private Path inputFile;
+    private Path outputFile;
+
+    /**
+     * Создает запись, кодировщик и входной файл.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        record = Main.parseRecord(BenchmarkData.line(1, 10), 1);
+        serializer = engine.create(prettyPrint);
+        inputFile = BenchmarkData.createCsvFile(recordCount, 10);
+        outputFile = BenchmarkData.createOutputFile();
+    }
+
+    /**
+     * Удаляет временные файлы.
+     *
+     * @throws IOException если произошла ошибка удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(inputFile);
+        Files.deleteIfExists(outputFile);
+    }
+
+    /**
+     * Кодирование одной записи.
+     *
+     * @return длина документа
+     */
+    @Benchmark
+    public int encodeRecord() {
+        return serializer.encode(record);
+    }
+
+    /**
+     * Потоковое преобразование файла в JSON массив.
+     *
+     * @return количество записанных байт JSON
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long convertFile() throws IOException {
+        StreamingFileConverter converter = new StreamingFileConverter(
+                FileModeSettings.of(OutputLayout.of(prettyPrint, false)).withEngine(engine), CsvRecordReader::new);
+        try (OutputStream out = new ChannelOutputStream(outputFile, false)) {
+            converter.convert(inputFile.toString(), out);
+        }
+        return converter.getBytesWritten();
+    }
+}
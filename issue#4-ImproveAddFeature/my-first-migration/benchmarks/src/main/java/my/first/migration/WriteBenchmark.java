@@ -0,0 +1,118 @@
+package my.first.migration;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Бенчмарк стадии записи готового JSON в файл.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteBenchmark {
+
+    @Param({"1000", "100000"})
+    int recordCount;
+
+    private List<byte[]> jsonRecords;
+    private String arrayJson;
+    private Path outputFile;
+
+    /**
+     * Подготавливает закодированные записи и файл вывода.
+     *
+     * @throws IOException если файл не удалось создать
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        jsonRecords = new ArrayList<>(recordCount);
+        List<String> jsonStrings = new ArrayList<>(recordCount);
+        for (String line : BenchmarkData.lines(recordCount, Main.DEFAULT_PADDING_LENGTH)) {
+            WsRecord record = Main.parseRecord(line, 1);
+            String json = encoder.encodeToString(record);
+            jsonStrings.add(json);
+            jsonRecords.add(json.getBytes(StandardCharsets.UTF_8));
+        }
+        arrayJson = String.format(Main.ARRAY_JSON_TEMPLATE, String.join(",", jsonStrings));
+        outputFile = BenchmarkData.createOutputFile();
+    }
+
+    /**
+     * Удаляет файл вывода.
+     *
+     * @throws IOException если произошла ошибка удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(outputFile);
+    }
+
+    /**
+     * Запись готового массива одной строкой через writeToFile.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Benchmark
+    public void writeToFile() throws IOException {
+        Main.writeToFile(outputFile.toString(), arrayJson);
+    }
+
+    /**
+     * Инкрементальная запись элементов через JsonArrayWriter.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Benchmark
+    public void jsonArrayWriter() throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFile), Main.STREAM_BUFFER_SIZE);
+        try (JsonArrayWriter writer = new JsonArrayWriter(out, false)) {
+            for (byte[] json : jsonRecords) {
+                writer.writeRecord(json, 0, json.length);
+            }
+        }
+    }
+
+    /**
+     * Инкрементальная запись элементов через JsonArrayWriter в ChannelOutputStream.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Benchmark
+    public void channelArrayWriter() throws IOException {
+        try (JsonArrayWriter writer = new JsonArrayWriter(new ChannelOutputStream(outputFile), false)) {
+            for (byte[] json : jsonRecords) {
+                writer.writeRecord(json, 0, json.length);
+            }
+        }
+    }
+}
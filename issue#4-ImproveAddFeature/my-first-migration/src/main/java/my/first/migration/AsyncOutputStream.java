@@ -0,0 +1,181 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Поток вывода, передающий данные в другой поток вывода в отдельном потоке выполнения.
+ * Используется для сжатия вывода параллельно с разбором и кодированием записей:
+ * записанные байты собираются в буферы фиксированного размера, а фоновый поток
+ * записывает заполненные буферы в исходный поток. Количество буферов ограничено,
+ * поэтому при медленном исходном потоке запись ждет освобождения буфера.
+ * <p>
+ * {@link #flush()} передает накопленные данные и сброс исходного потока фоновому потоку,
+ * не дожидаясь их выполнения; {@link #close()} дожидается записи всех данных.
+ * Ошибка фонового потока передается при следующей записи или при закрытии.
+ * Экземпляр не потокобезопасен.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class AsyncOutputStream extends OutputStream {
+
+    /** Количество буферов по умолчанию */
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+
+    private static final Chunk FLUSH = new Chunk(new byte[0]);
+    private static final Chunk END = new Chunk(new byte[0]);
+
+    private final OutputStream out;
+    private final BlockingQueue<Chunk> filled;
+    private final BlockingQueue<Chunk> free;
+    private final Thread writer;
+    private volatile IOException failure;
+    private Chunk current;
+    private boolean closed = false;
+
+    /**
+     * @param out исходный поток; закрывается вместе с этим потоком
+     * @param bufferSize размер буфера в байтах
+     * @param bufferCount количество буферов
+     */
+    public AsyncOutputStream(OutputStream out, int bufferSize, int bufferCount) {
+        if (bufferSize < 1 || bufferCount < 1) {
+            throw new IllegalArgumentException("Buffer size and count must be positive");
+        }
+        this.out = out;
+        // Кроме буферов в очереди есть место для служебных отметок сброса и завершения
+        this.filled = new ArrayBlockingQueue<>(bufferCount + 2);
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 1; i < bufferCount; i++) {
+            free.add(new Chunk(new byte[bufferSize]));
+        }
+        this.current = new Chunk(new byte[bufferSize]);
+        this.writer = new Thread(this::drain, "async-output");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (current.length == current.data.length) {
+            handOff();
+        }
+        current.data[current.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (current.length == current.data.length) {
+                handOff();
+            }
+            int count = Math.min(len, current.data.length - current.length);
+            System.arraycopy(b, off, current.data, current.length, count);
+            current.length += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (current.length > 0) {
+            handOff();
+        }
+        put(FLUSH);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (current.length > 0) {
+                handOff();
+            }
+            put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            out.close();
+        }
+        checkFailure();
+    }
+
+    private void handOff() throws IOException {
+        put(current);
+        try {
+            current = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void put(Chunk chunk) throws IOException {
+        checkFailure();
+        try {
+            filled.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException error = failure;
+        if (error != null) {
+            throw new IOException(error.getMessage(), error);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Chunk chunk = filled.take();
+                if (chunk == END) {
+                    return;
+                }
+                try {
+                    if (chunk == FLUSH) {
+                        if (failure == null) {
+                            out.flush();
+                        }
+                        continue;
+                    }
+                    if (failure == null) {
+                        out.write(chunk.data, 0, chunk.length);
+                    }
+                } catch (IOException e) {
+                    // Дальнейшие данные отбрасываются, буферы продолжают возвращаться пишущему потоку
+                    failure = e;
+                }
+                chunk.length = 0;
+                free.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Буфер с количеством записанных байт.
+     */
+    private static final class Chunk {
+        private final byte[] data;
+        private int length;
+
+        Chunk(byte[] data) {
+            this.data = data;
+        }
+    }
+}
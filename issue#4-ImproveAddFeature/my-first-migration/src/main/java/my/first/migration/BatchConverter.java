@@ -0,0 +1,310 @@
+package my.first.migration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Преобразование множества файлов (директории или маски) одним запуском.
+ * Каждый входной файл преобразуется потоково в отдельный файл вывода, файлы обрабатываются
+ * одновременно, но открытыми одновременно остаются не более заданного количества файлов.
+ * На JVM с виртуальными потоками (Java 21+) каждый файл обрабатывается в своем виртуальном
+ * потоке, иначе используется пул потоков по количеству одновременно открытых файлов.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class BatchConverter {
+
+    /** Количество одновременно открытых входных файлов по умолчанию */
+    public static final int DEFAULT_MAX_OPEN_FILES = 16;
+    /** Маска файлов при указании директории: CSV файлы, в том числе сжатые */
+    public static final String DIRECTORY_PATTERN = "*.{csv,csv" + GzipCodec.EXTENSION + "}";
+    /** Расширение файла вывода JSON массива */
+    public static final String JSON_EXTENSION = ".json";
+    /** Расширение файла вывода JSON Lines */
+    public static final String NDJSON_EXTENSION = ".ndjson";
+    /** Формат строки итога по успешно преобразованному файлу */
+    public static final String FILE_SUMMARY_FORMAT = "%s -> %s: %d records%n";
+    /** Формат строки итога по файлу с ошибкой */
+    public static final String FILE_ERROR_FORMAT = "%s: " + Main.ERROR_PREFIX + "%s%n";
+    /** Формат общего итога */
+    public static final String BATCH_SUMMARY_FORMAT = "Files processed: %d, failed: %d, records: %d%n";
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final OutputLayout layout;
+    private final RecordReader.Factory readerFactory;
+    private final int maxOpenFiles;
+
+    /**
+     * @param layout раскладка вывода
+     * @param readerFactory способ открытия входных файлов
+     * @param maxOpenFiles максимальное количество одновременно обрабатываемых файлов
+     */
+    public BatchConverter(OutputLayout layout, RecordReader.Factory readerFactory, int maxOpenFiles) {
+        if (maxOpenFiles < 1) {
+            throw new IllegalArgumentException("maxOpenFiles must be positive");
+        }
+        this.layout = layout;
+        this.readerFactory = readerFactory;
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /**
+     * @param filename значение опции --file
+     * @return true, если указана директория или маска файлов
+     */
+    static boolean isBatchInput(String filename) {
+        return globStart(filename) >= 0 || Files.isDirectory(Paths.get(filename));
+    }
+
+    /**
+     * Находит входные файлы по директории или маске.
+     * Для директории выбираются файлы {@link #DIRECTORY_PATTERN} в ней самой, маска
+     * (например data/*.csv или data/**&#47;*.csv) применяется к пути относительно
+     * части пути до первого символа маски.
+     *
+     * @param filename директория или маска файлов
+     * @return базовая директория и найденные файлы в порядке сортировки путей
+     * @throws IOException если произошла ошибка чтения директории
+     */
+    static Inputs resolveInputs(String filename) throws IOException {
+        int globStart = globStart(filename);
+        Path base;
+        String pattern;
+        if (globStart < 0) {
+            base = Paths.get(filename);
+            pattern = DIRECTORY_PATTERN;
+        } else {
+            int separator = Math.max(filename.lastIndexOf('/', globStart), filename.lastIndexOf(File.separatorChar, globStart));
+            base = Paths.get(separator < 0 ? "." : separator == 0 ? filename.substring(0, 1) : filename.substring(0, separator));
+            pattern = filename.substring(separator + 1);
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        int maxDepth = pattern.contains("**") ? Integer.MAX_VALUE : (int) pattern.chars().filter(c -> c == '/').count() + 1;
+        try (Stream<Path> files = Files.walk(base, maxDepth)) {
+            List<Path> inputs = files
+                    .filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(base.relativize(path)))
+                    .sorted()
+                    .collect(Collectors.toList());
+            return new Inputs(base, inputs);
+        }
+    }
+
+    private static int globStart(String filename) {
+        for (int i = 0; i < filename.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(filename.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Определяет файл вывода для входного файла: то же имя с расширением
+     * {@link #JSON_EXTENSION} или {@link #NDJSON_EXTENSION} вместо расширения входного файла
+     * (для сжатого файла - вместе с {@link GzipCodec#EXTENSION}) рядом с входным файлом или
+     * в директории вывода с сохранением структуры поддиректорий.
+     *
+     * @param base базовая директория входных файлов
+     * @param input входной файл
+     * @param outputDir директория вывода (может быть null)
+     * @return файл вывода
+     */
+    Path outputFor(Path base, Path input, Path outputDir) {
+        String name = input.getFileName().toString();
+        if (GzipCodec.isGzip(name)) {
+            name = name.substring(0, name.length() - GzipCodec.EXTENSION.length());
+        }
+        int dot = name.lastIndexOf('.');
+        String outputName = (dot > 0 ? name.substring(0, dot) : name)
+                + (layout == OutputLayout.NDJSON ? NDJSON_EXTENSION : JSON_EXTENSION);
+        Path parent = input.toAbsolutePath().getParent();
+        if (outputDir != null) {
+            Path relativeParent = base.toAbsolutePath().relativize(parent);
+            parent = outputDir.resolve(relativeParent);
+        }
+        return parent.resolve(outputName);
+    }
+
+    /**
+     * Преобразует все файлы. Ошибка в одном файле не останавливает обработку остальных.
+     *
+     * @param inputs входные файлы
+     * @param outputDir директория вывода (может быть null - вывод рядом с входными файлами)
+     * @param append дописывать в конец файлов вывода вместо перезаписи
+     * @return итоги по файлам в порядке входных файлов
+     * @throws IllegalArgumentException если два входных файла дают один файл вывода
+     * @throws InterruptedException если поток был прерван
+     */
+    public List<FileResult> convertAll(Inputs inputs, Path outputDir, boolean append) throws InterruptedException {
+        // Файлы преобразуются одновременно, поэтому общий файл вывода проверяется до начала
+        Map<Path, Path> outputs = new HashMap<>();
+        for (Path input : inputs.getFiles()) {
+            Path output = outputFor(inputs.getBase(), input, outputDir);
+            Path previous = outputs.put(output, input);
+            if (previous != null) {
+                throw new IllegalArgumentException(previous + " and " + input
+                        + " cannot be written to the same output file " + output);
+            }
+        }
+        Semaphore openFiles = new Semaphore(maxOpenFiles);
+        ExecutorService executor = newExecutor(maxOpenFiles);
+        try {
+            List<Future<FileResult>> futures = new ArrayList<>();
+            for (Path input : inputs.getFiles()) {
+                Path output = outputFor(inputs.getBase(), input, outputDir);
+                futures.add(executor.submit(() -> convert(input, output, append, openFiles)));
+            }
+            List<FileResult> results = new ArrayList<>();
+            for (Future<FileResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FileResult convert(Path input, Path output, boolean append, Semaphore openFiles) throws InterruptedException {
+        openFiles.acquire();
+        try {
+            if (output.toAbsolutePath().equals(input.toAbsolutePath())) {
+                throw new IOException("Output file would overwrite input file");
+            }
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            StreamingFileConverter converter = new StreamingFileConverter(layout, readerFactory);
+            try (OutputStream out = new ChannelOutputStream(output, append)) {
+                converter.convert(input.toString(), out);
+            }
+            return new FileResult(input, output, converter.getRecordsProcessed(), null);
+        } catch (IOException | RuntimeException e) {
+            ConversionEvents.validationFailed(e);
+            return new FileResult(input, output, 0, e.getMessage());
+        } finally {
+            openFiles.release();
+        }
+    }
+
+    /**
+     * Создает исполнителя с виртуальным потоком на задачу, если JVM их поддерживает,
+     * иначе пул из указанного количества потоков.
+     *
+     * @param platformThreads размер пула, если виртуальные потоки недоступны
+     * @return исполнитель задач
+     */
+    static ExecutorService newExecutor(int platformThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(platformThreads, runnable -> {
+                Thread thread = new Thread(runnable, "batch-converter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Найденные входные файлы и директория, относительно которой строятся пути вывода.
+     */
+    public static final class Inputs {
+        private final Path base;
+        private final List<Path> files;
+
+        Inputs(Path base, List<Path> files) {
+            this.base = base;
+            this.files = files;
+        }
+
+        /**
+         * @return базовая директория входных файлов
+         */
+        public Path getBase() {
+            return base;
+        }
+
+        /**
+         * @return входные файлы
+         */
+        public List<Path> getFiles() {
+            return files;
+        }
+    }
+
+    /**
+     * Итог преобразования одного файла.
+     */
+    public static final class FileResult {
+        private final Path input;
+        private final Path output;
+        private final long recordsProcessed;
+        private final String error;
+
+        FileResult(Path input, Path output, long recordsProcessed, String error) {
+            this.input = input;
+            this.output = output;
+            this.recordsProcessed = recordsProcessed;
+            this.error = error;
+        }
+
+        /**
+         * @return входной файл
+         */
+        public Path getInput() {
+            return input;
+        }
+
+        /**
+         * @return файл вывода
+         */
+        public Path getOutput() {
+            return output;
+        }
+
+        /**
+         * @return количество обработанных записей
+         */
+        public long getRecordsProcessed() {
+            return recordsProcessed;
+        }
+
+        /**
+         * @return текст ошибки или null, если файл преобразован успешно
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * @return true, если файл преобразован успешно
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
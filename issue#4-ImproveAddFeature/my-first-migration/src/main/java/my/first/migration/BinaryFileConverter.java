@@ -0,0 +1,139 @@
+package my.first.migration;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Потоковый конвертер входного файла в двоичный формат ({@link OutputFormat#CBOR},
+ * {@link OutputFormat#SMILE}) через потоковый генератор Jackson.
+ * Записи кодируются по одной с теми же полями и значениями, что и в JSON выводе;
+ * последовательность записей выводится массивом или, как в JSON Lines,
+ * последовательностью документов верхнего уровня.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class BinaryFileConverter implements FileConverter {
+
+    private final JsonFactory factory;
+    private final boolean sequence;
+    private final RecordReader.Factory readerFactory;
+    private final ConversionMetrics metrics;
+    private long recordsProcessed = 0;
+    private long bytesWritten = 0;
+
+    /**
+     * @param format двоичный формат вывода
+     * @param sequence выводить последовательность документов вместо массива
+     * @param readerFactory фабрика читателя входного файла
+     */
+    public BinaryFileConverter(OutputFormat format, boolean sequence, RecordReader.Factory readerFactory) {
+        this(format, sequence, readerFactory, ConversionMetrics.DISABLED);
+    }
+
+    /**
+     * @param format двоичный формат вывода
+     * @param sequence выводить последовательность документов вместо массива
+     * @param readerFactory фабрика читателя входного файла
+     * @param metrics метрики, в которых отмечаются стадии преобразования
+     */
+    public BinaryFileConverter(OutputFormat format, boolean sequence, RecordReader.Factory readerFactory,
+            ConversionMetrics metrics) {
+        if (!format.isBinary()) {
+            throw new IllegalArgumentException("Binary output format required: " + format);
+        }
+        this.factory = format.createFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.sequence = sequence;
+        this.readerFactory = readerFactory;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void convert(String filename, OutputStream out) throws IOException {
+        ConversionEvents.FileOpen openEvent = ConversionEvents.FileOpen.start();
+        RecordReader reader = readerFactory.open(filename);
+        openEvent.finish(filename);
+        CountingOutputStream counter = new CountingOutputStream(out);
+        long count = 0;
+        try {
+            if (metrics.isEnabled()) {
+                metrics.addBytesIn(Files.size(Paths.get(filename)));
+            }
+            try (JsonGenerator generator = factory.createGenerator(counter)) {
+                if (!sequence) {
+                    generator.writeStartArray();
+                }
+                while (true) {
+                    long start = metrics.start(ConversionMetrics.Stage.PARSE);
+                    WsRecord record = reader.next();
+                    if (record == null) {
+                        break;
+                    }
+                    metrics.stop(ConversionMetrics.Stage.PARSE, start);
+                    // Генератор буферизует вывод, поэтому кодирование и запись не разделяются
+                    start = metrics.start(ConversionMetrics.Stage.ENCODE);
+                    JacksonRecordSerializer.writeRecord(generator, record);
+                    metrics.stop(ConversionMetrics.Stage.ENCODE, start);
+                    count++;
+                }
+                if (!sequence) {
+                    generator.writeEndArray();
+                }
+            }
+            out.flush();
+
+            recordsProcessed = count;
+            bytesWritten = counter.count;
+            metrics.addRecords(recordsProcessed);
+            metrics.addBytesOut(bytesWritten);
+        } catch (IOException | RuntimeException e) {
+            metrics.addError();
+            throw e;
+        } finally {
+            ConversionEvents.FileClose closeEvent = ConversionEvents.FileClose.start();
+            reader.close();
+            closeEvent.finish(filename, count);
+        }
+    }
+
+    @Override
+    public long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Поток, считающий записанные байты.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Поток вывода в файл через FileChannel.
+ * Данные копируются в прямые буферы фиксированного размера из {@link DirectBufferPool}
+ * и сбрасываются на диск одной операцией записи с разбросом (gathering write) сразу
+ * для нескольких буферов. Строки кодируются в UTF-8 прямо в эти буферы, без
+ * промежуточного массива байт всего документа.
+ * Экземпляр не потокобезопасен.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ChannelOutputStream extends OutputStream {
+
+    /** Количество буферов, записываемых за одну операцию */
+    public static final int GATHER_BUFFER_COUNT = 4;
+
+    private final FileChannel channel;
+    private final DirectBufferPool pool;
+    private final ByteBuffer[] buffers = new ByteBuffer[GATHER_BUFFER_COUNT];
+    private int current = 0;
+    private long position = 0;
+    private CharsetEncoder encoder;
+    private boolean closed = false;
+
+    /**
+     * Открывает файл для записи с усечением существующего содержимого.
+     *
+     * @param path путь к файлу
+     * @throws IOException если файл не удалось открыть
+     */
+    public ChannelOutputStream(Path path) throws IOException {
+        this(path, false);
+    }
+
+    /**
+     * Открывает файл для записи.
+     *
+     * @param path путь к файлу
+     * @param append дописывать в конец файла вместо усечения
+     * @throws IOException если файл не удалось открыть
+     */
+    public ChannelOutputStream(Path path, boolean append) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING), DirectBufferPool.shared());
+    }
+
+    /**
+     * @param channel открытый канал для записи; закрывается вместе с потоком
+     * @param pool пул буферов
+     */
+    public ChannelOutputStream(FileChannel channel, DirectBufferPool pool) {
+        this.channel = channel;
+        this.pool = pool;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer().put((byte) b);
+        position++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            ByteBuffer buffer = buffer();
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+            position += count;
+        }
+    }
+
+    /**
+     * Записывает строку в кодировке UTF-8 напрямую в буферы канала.
+     *
+     * @param text строка для записи
+     * @throws IOException если произошла ошибка записи
+     */
+    public void write(CharSequence text) throws IOException {
+        if (encoder == null) {
+            encoder = StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        encoder.reset();
+        CharBuffer chars = CharBuffer.wrap(text);
+        boolean endOfInput = false;
+        ByteBuffer buffer = buffer();
+        while (true) {
+            int before = buffer.position();
+            CoderResult result = endOfInput ? encoder.flush(buffer) : encoder.encode(chars, buffer, true);
+            position += buffer.position() - before;
+            if (result.isOverflow()) {
+                // Символ не поместился в остаток буфера: переходим к следующему
+                buffer = nextBuffer();
+                continue;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (endOfInput) {
+                return;
+            }
+            endOfInput = true;
+        }
+    }
+
+    /**
+     * @return количество байт, принятых потоком с момента открытия
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Записывает все накопленные буферы в канал.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Override
+    public void flush() throws IOException {
+        int count = buffers[current] == null ? current : current + 1;
+        if (count == 0) {
+            return;
+        }
+        ConversionEvents.OutputFlush event = new ConversionEvents.OutputFlush();
+        event.begin();
+        for (int i = 0; i < count; i++) {
+            buffers[i].flip();
+        }
+        long size = 0;
+        for (int i = 0; i < count; i++) {
+            size += buffers[i].remaining();
+        }
+        long remaining = size;
+        while (remaining > 0) {
+            remaining -= channel.write(buffers, 0, count);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.size = size;
+            event.position = position;
+            event.commit();
+        }
+        for (int i = 0; i < count; i++) {
+            buffers[i].clear();
+        }
+        current = 0;
+    }
+
+    /**
+     * Сбрасывает данные, возвращает буферы в пул и закрывает канал.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+        } finally {
+            for (int i = 0; i < buffers.length; i++) {
+                if (buffers[i] != null) {
+                    pool.release(buffers[i]);
+                    buffers[i] = null;
+                }
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Возвращает буфер с свободным местом, при необходимости сбрасывая заполненные.
+     */
+    private ByteBuffer buffer() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        ByteBuffer buffer = buffers[current];
+        if (buffer == null) {
+            buffer = pool.acquire();
+            buffers[current] = buffer;
+        }
+        if (buffer.hasRemaining()) {
+            return buffer;
+        }
+        return nextBuffer();
+    }
+
+    /**
+     * Переходит к следующему буферу; после заполнения всех буферов сбрасывает их в канал.
+     */
+    private ByteBuffer nextBuffer() throws IOException {
+        if (current + 1 == GATHER_BUFFER_COUNT) {
+            flush();
+        } else {
+            current++;
+        }
+        if (buffers[current] == null) {
+            buffers[current] = pool.acquire();
+        }
+        return buffers[current];
+    }
+}
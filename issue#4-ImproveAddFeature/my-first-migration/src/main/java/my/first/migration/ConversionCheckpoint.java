@@ -0,0 +1,316 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * Сохраненное состояние преобразования: до какого места прочитан входной файл и каким
+ * получился файл вывода. Хранится в файле свойств рядом с файлом вывода
+ * (имя вывода + {@link #FILE_SUFFIX}) и заменяется атомарно.
+ * <p>
+ * Чтобы обнаружить переписанный, а не дописанный входной файл, сохраняется хеш SHA-256
+ * всей прочитанной части. Проверка при продолжении читает эту часть один раз последовательно,
+ * а {@link PrefixHasher} при повторных сохранениях дочитывает только новые байты.
+ * <p>
+ * Для продолжения прерванного запуска с побайтно тем же выводом сохраняется также
+ * временная метка запуска ({@link #getTimestamp()}).
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ConversionCheckpoint {
+
+    /** Суффикс файла состояния */
+    public static final String FILE_SUFFIX = ".state";
+    /** Размер буфера чтения при вычислении хеша */
+    public static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    // Версия 1 хешировала только начало и конец прочитанной части
+    private static final String VERSION = "2";
+    private static final String VERSION_KEY = "version";
+    private static final String LAYOUT_KEY = "layout";
+    private static final String INPUT_OFFSET_KEY = "inputOffset";
+    private static final String LINE_NUMBER_KEY = "lineNumber";
+    private static final String RECORD_COUNT_KEY = "recordCount";
+    private static final String OUTPUT_BYTES_KEY = "outputBytes";
+    private static final String PREFIX_HASH_KEY = "prefixHash";
+    private static final String TIMESTAMP_KEY = "timestamp";
+
+    private final OutputLayout layout;
+    private final long inputOffset;
+    private final long lineNumber;
+    private final long recordCount;
+    private final long outputBytes;
+    private final String prefixHash;
+    private final String timestamp;
+
+    /**
+     * @param layout формат файла вывода
+     * @param inputOffset смещение в байтах после последней прочитанной строки
+     * @param lineNumber количество прочитанных строк
+     * @param recordCount количество записей в файле вывода
+     * @param outputBytes размер файла вывода в байтах
+     * @param prefixHash хеш прочитанной части входного файла ({@link #hashPrefix(Path, long)})
+     */
+    public ConversionCheckpoint(OutputLayout layout, long inputOffset, long lineNumber, long recordCount,
+            long outputBytes, String prefixHash) {
+        this(layout, inputOffset, lineNumber, recordCount, outputBytes, prefixHash, null);
+    }
+
+    /**
+     * @param layout формат файла вывода
+     * @param inputOffset смещение в байтах после последней прочитанной строки
+     * @param lineNumber количество прочитанных строк
+     * @param recordCount количество записей в файле вывода
+     * @param outputBytes размер файла вывода в байтах
+     * @param prefixHash хеш прочитанной части входного файла ({@link #hashPrefix(Path, long)})
+     * @param timestamp временная метка записей запуска или null, если метки разные
+     */
+    public ConversionCheckpoint(OutputLayout layout, long inputOffset, long lineNumber, long recordCount,
+            long outputBytes, String prefixHash, String timestamp) {
+        this.layout = layout;
+        this.inputOffset = inputOffset;
+        this.lineNumber = lineNumber;
+        this.recordCount = recordCount;
+        this.outputBytes = outputBytes;
+        this.prefixHash = prefixHash;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @param output файл вывода
+     * @return файл состояния для файла вывода
+     */
+    public static Path pathFor(Path output) {
+        return output.resolveSibling(output.getFileName() + FILE_SUFFIX);
+    }
+
+    /**
+     * Загружает состояние из файла.
+     *
+     * @param path файл состояния
+     * @return состояние или null, если файла нет или его содержимое неверное
+     * @throws IOException если файл не удалось прочитать
+     */
+    public static ConversionCheckpoint load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!VERSION.equals(properties.getProperty(VERSION_KEY))) {
+            return null;
+        }
+        try {
+            return new ConversionCheckpoint(
+                    OutputLayout.valueOf(properties.getProperty(LAYOUT_KEY)),
+                    Long.parseLong(properties.getProperty(INPUT_OFFSET_KEY)),
+                    Long.parseLong(properties.getProperty(LINE_NUMBER_KEY)),
+                    Long.parseLong(properties.getProperty(RECORD_COUNT_KEY)),
+                    Long.parseLong(properties.getProperty(OUTPUT_BYTES_KEY)),
+                    properties.getProperty(PREFIX_HASH_KEY),
+                    properties.getProperty(TIMESTAMP_KEY));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Сохраняет состояние: пишет во временный файл, сбрасывает его на диск и заменяет им
+     * файл состояния, поэтому после сбоя файл состояния не оказывается пустым.
+     *
+     * @param path файл состояния
+     * @throws IOException если произошла ошибка записи
+     */
+    public void save(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(VERSION_KEY, VERSION);
+        properties.setProperty(LAYOUT_KEY, layout.name());
+        properties.setProperty(INPUT_OFFSET_KEY, Long.toString(inputOffset));
+        properties.setProperty(LINE_NUMBER_KEY, Long.toString(lineNumber));
+        properties.setProperty(RECORD_COUNT_KEY, Long.toString(recordCount));
+        properties.setProperty(OUTPUT_BYTES_KEY, Long.toString(outputBytes));
+        properties.setProperty(PREFIX_HASH_KEY, prefixHash);
+        if (timestamp != null) {
+            properties.setProperty(TIMESTAMP_KEY, timestamp);
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            properties.store(writer, null);
+            writer.flush();
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Вычисляет хеш первых length байт файла.
+     *
+     * @param input входной файл
+     * @param length длина хешируемой части
+     * @return хеш в шестнадцатеричном виде
+     * @throws IOException если произошла ошибка чтения
+     */
+    public static String hashPrefix(Path input, long length) throws IOException {
+        return new PrefixHasher().hash(input, length);
+    }
+
+    /**
+     * Проверяет, что входной файл только дописывался после сохранения состояния.
+     *
+     * @param input входной файл
+     * @return true, если прочитанная часть файла не изменилась
+     * @throws IOException если произошла ошибка чтения
+     */
+    public boolean matchesInput(Path input) throws IOException {
+        return matchesInput(input, new PrefixHasher());
+    }
+
+    /**
+     * Проверяет, что входной файл только дописывался после сохранения состояния.
+     * Если часть не изменилась, хешер остается в конце прочитанной части и может
+     * продолжить хеш для следующих сохранений.
+     *
+     * @param input входной файл
+     * @param hasher хешер в начале файла
+     * @return true, если прочитанная часть файла не изменилась
+     * @throws IOException если произошла ошибка чтения
+     */
+    public boolean matchesInput(Path input, PrefixHasher hasher) throws IOException {
+        return Files.size(input) >= inputOffset && prefixHash.equals(hasher.hash(input, inputOffset));
+    }
+
+    /**
+     * @return формат файла вывода
+     */
+    public OutputLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return смещение в байтах после последней прочитанной строки
+     */
+    public long getInputOffset() {
+        return inputOffset;
+    }
+
+    /**
+     * @return количество прочитанных строк
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return количество записей в файле вывода
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return размер файла вывода в байтах
+     */
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    /**
+     * @return хеш прочитанной части входного файла
+     */
+    public String getPrefixHash() {
+        return prefixHash;
+    }
+
+    /**
+     * @return временная метка записей запуска или null, если она не сохранялась
+     */
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Хеш растущей начальной части файла: каждый вызов {@link #hash(Path, long)} дочитывает
+     * только байты после предыдущего вызова, поэтому частые сохранения состояния читают
+     * файл один раз. Экземпляр не потокобезопасен.
+     */
+    public static final class PrefixHasher {
+
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+        private long position = 0;
+
+        /**
+         * Создает хешер в начале файла.
+         */
+        public PrefixHasher() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Дочитывает файл до length байт и возвращает хеш первых length байт.
+         *
+         * @param input входной файл
+         * @param length длина хешируемой части, не меньше длины предыдущего вызова
+         * @return хеш в шестнадцатеричном виде
+         * @throws IOException если произошла ошибка чтения или файл короче length
+         */
+        public String hash(Path input, long length) throws IOException {
+            if (length < position) {
+                throw new IllegalArgumentException("Hashed prefix cannot shrink");
+            }
+            if (length > position) {
+                try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                    while (position < length) {
+                        buffer.clear();
+                        buffer.limit((int) Math.min(buffer.capacity(), length - position));
+                        int read = channel.read(buffer, position);
+                        if (read < 0) {
+                            throw new IOException("Input file is shorter than checkpoint");
+                        }
+                        buffer.flip();
+                        digest.update(buffer);
+                        position += read;
+                    }
+                }
+            }
+            byte[] value;
+            try {
+                // Копия позволяет продолжить хеш после получения значения
+                value = ((MessageDigest) digest.clone()).digest();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : value) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package my.first.migration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Тонкий клиент сервера преобразования {@link ConversionServer}.
+ * Принимает те же аргументы, что и {@link Main}, передает их серверу, выводит ответ сервера
+ * и завершается с тем же кодом, что и {@link Main}. Относительные пути передаются серверу
+ * абсолютными. Токен сервера читается из файла {@link ConversionServer#TOKEN_FILE_NAME}
+ * в домашней директории пользователя. Если сервер не запущен, задание выполняется в этой JVM.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public final class ConversionClient {
+
+    /** Сообщение об отсутствии сервера */
+    public static final String SERVER_NOT_RUNNING_MESSAGE = "Conversion server is not running on port ";
+
+    private ConversionClient() {
+    }
+
+    /**
+     * Главный метод клиента.
+     *
+     * @param args аргументы командной строки, как для {@link Main}, и необязательная опция --port
+     */
+    public static void main(String[] args) {
+        int port;
+        try {
+            port = ConversionServer.parsePort(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println(Main.ERROR_PREFIX + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        boolean stop = Arrays.asList(args).contains(ConversionServer.STOP_COMMAND);
+        String[] request = stop ? new String[]{ConversionServer.STOP_COMMAND} : ConversionOptions.absolutizePaths(args);
+
+        try {
+            int exitCode = execute(port, request, System.out);
+            System.out.flush();
+            System.exit(exitCode);
+        } catch (ConnectException e) {
+            if (stop) {
+                System.out.println(Main.ERROR_PREFIX + SERVER_NOT_RUNNING_MESSAGE + port);
+                System.exit(1);
+                return;
+            }
+            // Без сервера выполняем задание в этой JVM с тем же результатом
+            System.exit(Main.run(args, System.out));
+        } catch (IOException e) {
+            System.out.println(Main.ERROR_PREFIX + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Отправляет задание серверу с токеном из {@link ConversionServer#defaultTokenFile()}.
+     *
+     * @param port порт сервера на адресе loopback
+     * @param args аргументы задания
+     * @param out поток для вывода задания
+     * @return код завершения задания
+     * @throws ConnectException если сервер не запущен
+     * @throws IOException если произошла ошибка обмена с сервером
+     */
+    static int execute(int port, String[] args, OutputStream out) throws IOException {
+        return execute(port, ConversionServer.defaultTokenFile(), args, out);
+    }
+
+    /**
+     * Отправляет задание серверу и копирует его вывод.
+     *
+     * @param port порт сервера на адресе loopback
+     * @param tokenFile файл токена сервера
+     * @param args аргументы задания
+     * @param out поток для вывода задания
+     * @return код завершения задания
+     * @throws ConnectException если сервер не запущен или файла токена нет
+     * @throws IOException если произошла ошибка обмена с сервером
+     */
+    static int execute(int port, Path tokenFile, String[] args, OutputStream out) throws IOException {
+        String token;
+        try {
+            token = ConversionServer.readToken(tokenFile);
+        } catch (NoSuchFileException e) {
+            // Сервер удаляет файл токена при остановке
+            throw new ConnectException("Server token not found: " + tokenFile);
+        }
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            request.writeUTF(token);
+            request.writeInt(args.length);
+            for (String arg : args) {
+                request.writeUTF(arg);
+            }
+            request.flush();
+
+            DataInputStream response = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            byte[] buffer = new byte[Main.STREAM_BUFFER_SIZE];
+            int length;
+            while ((length = response.readInt()) != ConversionServer.END_OF_OUTPUT) {
+                if (length < 0) {
+                    throw new IOException("Invalid response block length: " + length);
+                }
+                while (length > 0) {
+                    int chunk = Math.min(length, buffer.length);
+                    response.readFully(buffer, 0, chunk);
+                    out.write(buffer, 0, chunk);
+                    length -= chunk;
+                }
+            }
+            out.flush();
+            return response.readInt();
+        }
+    }
+}
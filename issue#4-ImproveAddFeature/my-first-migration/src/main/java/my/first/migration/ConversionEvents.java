@@ -0,0 +1,286 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * События Java Flight Recorder для горячих участков преобразования: открытие и закрытие
+ * входного файла, разбор фрагмента, кодирование пачки записей, сброс вывода на диск
+ * и ошибки проверки записей. Вместе с событиями JVM (сборка мусора, профилирование)
+ * они показывают, на что ушло время медленного запуска.
+ * <p>
+ * Пока запись JFR не идет, событие не сохраняется, а {@link Event#shouldCommit()} и
+ * {@link Event#isEnabled()} - это проверка флага; поля, которые дорого вычислять
+ * (например, размер файла), заполняются только для сохраняемых событий.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public final class ConversionEvents {
+
+    /** Категория событий в JDK Mission Control */
+    public static final String CATEGORY = "My First Migration";
+    /** Количество записей в одном событии кодирования */
+    public static final int ENCODE_BATCH_SIZE = 1024;
+
+    private ConversionEvents() {
+    }
+
+    /**
+     * Сохраняет событие {@link ValidationFailure}, если ошибка - неверный формат записи.
+     *
+     * @param error ошибка преобразования
+     */
+    public static void validationFailed(Exception error) {
+        if (!(error instanceof RecordFormatException)) {
+            return;
+        }
+        ValidationFailure event = new ValidationFailure();
+        if (event.shouldCommit()) {
+            RecordFormatException formatError = (RecordFormatException) error;
+            event.lineNumber = formatError.getLineNumber();
+            event.reason = formatError.getReason();
+            event.commit();
+        }
+    }
+
+    private static long sizeOf(String filename) {
+        try {
+            return Files.size(Paths.get(filename));
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Открытие входного файла.
+     */
+    @Name("my.first.migration.FileOpen")
+    @Label("Input File Open")
+    @Category({CATEGORY, "File"})
+    @Description("Opening of an input file")
+    public static final class FileOpen extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Size")
+        @DataAmount
+        long size;
+
+        /**
+         * @return начатое событие
+         */
+        public static FileOpen start() {
+            FileOpen event = new FileOpen();
+            event.begin();
+            return event;
+        }
+
+        /**
+         * Завершает и сохраняет событие.
+         *
+         * @param filename имя открытого файла
+         */
+        public void finish(String filename) {
+            end();
+            if (shouldCommit()) {
+                path = filename;
+                size = sizeOf(filename);
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Закрытие входного файла.
+     */
+    @Name("my.first.migration.FileClose")
+    @Label("Input File Close")
+    @Category({CATEGORY, "File"})
+    @Description("Closing of an input file after conversion")
+    public static final class FileClose extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Record Count")
+        long recordCount;
+
+        /**
+         * @return начатое событие
+         */
+        public static FileClose start() {
+            FileClose event = new FileClose();
+            event.begin();
+            return event;
+        }
+
+        /**
+         * Завершает и сохраняет событие.
+         *
+         * @param filename имя закрытого файла
+         * @param records количество записей, прочитанных из файла
+         */
+        public void finish(String filename, long records) {
+            end();
+            if (shouldCommit()) {
+                path = filename;
+                recordCount = records;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Разбор фрагмента входного файла: всего файла в файловом режиме или одного
+     * фрагмента в параллельном режиме.
+     */
+    @Name("my.first.migration.ChunkParse")
+    @Label("Chunk Parse")
+    @Category({CATEGORY, "Parse"})
+    @Description("Parsing of an input file chunk into records")
+    public static final class ChunkParse extends Event {
+
+        @Label("Offset")
+        @DataAmount
+        long offset;
+
+        @Label("Size")
+        @DataAmount
+        long size;
+
+        @Label("Record Count")
+        long recordCount;
+
+        /**
+         * @return начатое событие
+         */
+        public static ChunkParse start() {
+            ChunkParse event = new ChunkParse();
+            event.begin();
+            return event;
+        }
+
+        /**
+         * Завершает и сохраняет событие.
+         *
+         * @param chunkOffset смещение фрагмента в файле
+         * @param chunkSize размер фрагмента в байтах
+         * @param records количество разобранных записей
+         */
+        public void finish(long chunkOffset, long chunkSize, long records) {
+            end();
+            if (shouldCommit()) {
+                offset = chunkOffset;
+                size = chunkSize;
+                recordCount = records;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Кодирование пачки из не более чем {@link #ENCODE_BATCH_SIZE} записей в JSON вместе с
+     * передачей их писателю.
+     */
+    @Name("my.first.migration.RecordEncodeBatch")
+    @Label("Record Encode Batch")
+    @Category({CATEGORY, "Encode"})
+    @Description("Encoding of a batch of records to JSON")
+    public static final class RecordEncodeBatch extends Event {
+
+        @Label("Record Count")
+        long recordCount;
+
+        @Label("Output Size")
+        @DataAmount
+        long size;
+
+        private transient long startSize;
+
+        /**
+         * @param outputSize количество байт вывода перед пачкой
+         * @return начатое событие
+         */
+        public static RecordEncodeBatch start(long outputSize) {
+            RecordEncodeBatch event = new RecordEncodeBatch();
+            event.startSize = outputSize;
+            event.begin();
+            return event;
+        }
+
+        /**
+         * Учитывает закодированную запись. После {@link #ENCODE_BATCH_SIZE} записей
+         * сохраняет событие и начинает следующее.
+         *
+         * @param outputSize количество байт вывода после записи
+         * @return текущее или новое событие
+         */
+        public RecordEncodeBatch next(long outputSize) {
+            if (++recordCount < ENCODE_BATCH_SIZE) {
+                return this;
+            }
+            finish(outputSize);
+            return start(outputSize);
+        }
+
+        /**
+         * Завершает и сохраняет событие, если в пачке есть записи.
+         *
+         * @param outputSize количество байт вывода после пачки
+         */
+        public void finish(long outputSize) {
+            if (recordCount == 0) {
+                return;
+            }
+            end();
+            if (shouldCommit()) {
+                size = outputSize - startSize;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Сброс буферов вывода в файл.
+     */
+    @Name("my.first.migration.OutputFlush")
+    @Label("Output Flush")
+    @Category({CATEGORY, "File"})
+    @Description("Write of buffered JSON output to the file channel")
+    public static final class OutputFlush extends Event {
+
+        @Label("Size")
+        @DataAmount
+        long size;
+
+        @Label("Position")
+        @DataAmount
+        long position;
+    }
+
+    /**
+     * Ошибка проверки записи входного файла.
+     */
+    @Name("my.first.migration.ValidationFailure")
+    @Label("Validation Failure")
+    @Category({CATEGORY, "Parse"})
+    @Description("Input record rejected by validation")
+    public static final class ValidationFailure extends Event {
+
+        @Label("Line Number")
+        long lineNumber;
+
+        @Label("Reason")
+        String reason;
+    }
+}
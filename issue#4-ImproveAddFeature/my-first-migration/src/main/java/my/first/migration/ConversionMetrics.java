@@ -0,0 +1,342 @@
+package my.first.migration;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Метрики одного преобразования по стадиям {@link Stage}: время и длительность обработки
+ * каждой записи ({@link LatencyHistogram}), количество записей, байты на входе и выходе
+ * и ошибки. Во время работы доступны через JMX ({@link #OBJECT_NAME}), по окончании
+ * выводятся одной строкой JSON ({@link #toJson()}).
+ * <p>
+ * Отключенный экземпляр {@link #DISABLED} не вызывает {@link System#nanoTime()} и ничего
+ * не записывает, поэтому инструментированный код без опции {@link Main#METRICS_OPTION_PREFIX}
+ * выполняет только проверку флага. Стадии отмечает один поток преобразования.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ConversionMetrics implements ConversionMetricsMBean {
+
+    /** Имя MBean метрик */
+    public static final String OBJECT_NAME = "my.first.migration:type=ConversionMetrics";
+    /** Отключенные метрики */
+    public static final ConversionMetrics DISABLED = new ConversionMetrics(false);
+
+    private static final double NANOS_PER_MICRO = 1_000.0;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final double[] REPORT_PERCENTILES = {50, 95, 99};
+
+    /**
+     * Стадия преобразования.
+     */
+    public enum Stage {
+        /** Чтение входных данных */
+        READ,
+        /** Разбор и проверка записей */
+        PARSE,
+        /** Кодирование записей в JSON */
+        ENCODE,
+        /** Запись вывода */
+        WRITE
+    }
+
+    private final boolean enabled;
+    private volatile long startNanos;
+    private final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+    private final AtomicLongArray errors = new AtomicLongArray(Stage.values().length);
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private volatile long finishNanos = -1;
+    private Stage current = Stage.READ;
+    private ObjectName registeredName;
+
+    /**
+     * Создает включенные метрики; отсчет времени начинается сразу.
+     */
+    public ConversionMetrics() {
+        this(true);
+    }
+
+    private ConversionMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.startNanos = enabled ? System.nanoTime() : 0;
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * @return true, если метрики собираются
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Отмечает начало стадии. Ошибки до следующего вызова относятся к этой стадии.
+     *
+     * @param stage стадия
+     * @return время начала для {@link #stop(Stage, long)}; 0, если метрики отключены
+     */
+    public long start(Stage stage) {
+        if (!enabled) {
+            return 0;
+        }
+        current = stage;
+        return System.nanoTime();
+    }
+
+    /**
+     * Отмечает окончание стадии для одной записи или одной операции.
+     *
+     * @param stage стадия
+     * @param startNanos значение, возвращенное {@link #start(Stage)}
+     */
+    public void stop(Stage stage, long startNanos) {
+        if (enabled) {
+            stages[stage.ordinal()].record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * @param count количество обработанных записей
+     */
+    public void addRecords(long count) {
+        if (enabled) {
+            records.addAndGet(count);
+        }
+    }
+
+    /**
+     * @param count количество прочитанных байт
+     */
+    public void addBytesIn(long count) {
+        if (enabled) {
+            bytesIn.addAndGet(count);
+        }
+    }
+
+    /**
+     * @param count количество записанных байт
+     */
+    public void addBytesOut(long count) {
+        if (enabled) {
+            bytesOut.addAndGet(count);
+        }
+    }
+
+    /**
+     * Учитывает JSON, записанный строкой, по длине в UTF-8 без кодирования строки.
+     *
+     * @param json записанный JSON
+     */
+    public void addBytesOut(String json) {
+        if (enabled) {
+            bytesOut.addAndGet(JsonRecordEncoder.utf8Length(json));
+        }
+    }
+
+    /**
+     * Учитывает ошибку в текущей стадии (последней, отмеченной {@link #start(Stage)}).
+     */
+    public void addError() {
+        if (enabled) {
+            errors.incrementAndGet(current.ordinal());
+        }
+    }
+
+    /**
+     * Останавливает отсчет общего времени.
+     */
+    public void finish() {
+        if (enabled && finishNanos < 0) {
+            finishNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Регистрирует метрики в платформенном MBeanServer под именем {@link #OBJECT_NAME},
+     * заменяя ранее зарегистрированные метрики предыдущего запуска. Отсчет общего времени
+     * начинается заново, чтобы в него не входила инициализация JMX.
+     *
+     * @throws JMException если MBean не удалось зарегистрировать
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        try {
+            server.registerMBean(this, name);
+        } catch (InstanceAlreadyExistsException e) {
+            server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        }
+        registeredName = name;
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Снимает регистрацию, выполненную {@link #register()}.
+     */
+    public void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (InstanceNotFoundException e) {
+            // Уже заменены метриками другого запуска
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+        registeredName = null;
+    }
+
+    /**
+     * @param stage стадия
+     * @return гистограмма длительностей стадии
+     */
+    public LatencyHistogram getHistogram(Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    /**
+     * @param stage стадия
+     * @return количество ошибок в стадии
+     */
+    public long getErrorCount(Stage stage) {
+        return errors.get(stage.ordinal());
+    }
+
+    /**
+     * Формирует итоговый отчет в одну строку JSON, например:
+     * {@code {"records":3,"elapsedMillis":12,"recordsPerSecond":250.0,"bytesIn":90,"bytesOut":420,
+     * "errors":0,"stages":{"read":{"count":1,"totalNanos":...,"errors":0,"p50Nanos":...,
+     * "p95Nanos":...,"p99Nanos":...,"maxNanos":...},...}}}.
+     *
+     * @return отчет
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"records\":").append(getRecordsProcessed())
+                .append(",\"elapsedMillis\":").append(getElapsedMillis())
+                .append(",\"recordsPerSecond\":").append(String.format(Locale.ROOT, "%.1f", getRecordsPerSecond()))
+                .append(",\"bytesIn\":").append(getBytesIn())
+                .append(",\"bytesOut\":").append(getBytesOut())
+                .append(",\"errors\":").append(getErrorCount())
+                .append(",\"stages\":{");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = getHistogram(stage);
+            if (stage.ordinal() > 0) {
+                json.append(',');
+            }
+            json.append('"').append(stage.name().toLowerCase(Locale.ROOT)).append("\":{")
+                    .append("\"count\":").append(histogram.getCount())
+                    .append(",\"totalNanos\":").append(histogram.getTotal())
+                    .append(",\"errors\":").append(getErrorCount(stage));
+            for (double percentile : REPORT_PERCENTILES) {
+                json.append(",\"p").append((int) percentile).append("Nanos\":")
+                        .append(histogram.getPercentile(percentile));
+            }
+            json.append(",\"maxNanos\":").append(histogram.getMax()).append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    @Override
+    public long getRecordsProcessed() {
+        return records.get();
+    }
+
+    @Override
+    public double getRecordsPerSecond() {
+        long elapsed = elapsedNanos();
+        return elapsed == 0 ? 0 : records.get() * 1e9 / elapsed;
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return elapsedNanos() / NANOS_PER_MILLI;
+    }
+
+    private long elapsedNanos() {
+        if (!enabled) {
+            return 0;
+        }
+        long end = finishNanos;
+        return (end < 0 ? System.nanoTime() : end) - startNanos;
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    @Override
+    public long getErrorCount() {
+        long total = 0;
+        for (int i = 0; i < errors.length(); i++) {
+            total += errors.get(i);
+        }
+        return total;
+    }
+
+    @Override
+    public long getReadMillis() {
+        return getHistogram(Stage.READ).getTotal() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getParseMillis() {
+        return getHistogram(Stage.PARSE).getTotal() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getEncodeMillis() {
+        return getHistogram(Stage.ENCODE).getTotal() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getWriteMillis() {
+        return getHistogram(Stage.WRITE).getTotal() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getParseP50Micros() {
+        return getHistogram(Stage.PARSE).getPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getParseP99Micros() {
+        return getHistogram(Stage.PARSE).getPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getEncodeP50Micros() {
+        return getHistogram(Stage.ENCODE).getPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getEncodeP99Micros() {
+        return getHistogram(Stage.ENCODE).getPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public String getReport() {
+        return toJson();
+    }
+}
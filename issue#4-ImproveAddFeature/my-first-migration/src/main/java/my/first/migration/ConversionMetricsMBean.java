@@ -0,0 +1,87 @@
+package my.first.migration;
+
+/**
+ * Интерфейс JMX для метрик текущего преобразования ({@link ConversionMetrics}).
+ * Времена стадий - суммарные, в миллисекундах; процентили - длительность обработки
+ * одной записи, в микросекундах.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public interface ConversionMetricsMBean {
+
+    /**
+     * @return количество обработанных записей
+     */
+    long getRecordsProcessed();
+
+    /**
+     * @return средняя скорость с начала преобразования, записей в секунду
+     */
+    double getRecordsPerSecond();
+
+    /**
+     * @return время с начала преобразования, мс
+     */
+    long getElapsedMillis();
+
+    /**
+     * @return количество прочитанных байт входных данных
+     */
+    long getBytesIn();
+
+    /**
+     * @return количество записанных байт JSON
+     */
+    long getBytesOut();
+
+    /**
+     * @return количество ошибок во всех стадиях
+     */
+    long getErrorCount();
+
+    /**
+     * @return время чтения входных данных, мс
+     */
+    long getReadMillis();
+
+    /**
+     * @return время разбора и проверки записей, мс
+     */
+    long getParseMillis();
+
+    /**
+     * @return время кодирования записей в JSON, мс
+     */
+    long getEncodeMillis();
+
+    /**
+     * @return время записи вывода, мс
+     */
+    long getWriteMillis();
+
+    /**
+     * @return медиана разбора записи, мкс
+     */
+    double getParseP50Micros();
+
+    /**
+     * @return 99-й процентиль разбора записи, мкс
+     */
+    double getParseP99Micros();
+
+    /**
+     * @return медиана кодирования записи, мкс
+     */
+    double getEncodeP50Micros();
+
+    /**
+     * @return 99-й процентиль кодирования записи, мкс
+     */
+    double getEncodeP99Micros();
+
+    /**
+     * @return итоговый отчет в формате JSON ({@link ConversionMetrics#toJson()})
+     */
+    String getReport();
+}
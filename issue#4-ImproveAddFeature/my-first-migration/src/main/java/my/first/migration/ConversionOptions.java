@@ -0,0 +1,688 @@
+package my.first.migration;
+
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * Опции одного запуска преобразования, разобранные из аргументов командной строки.
+ * Используются как при запуске из командной строки, так и для заданий сервера преобразования,
+ * поэтому разбор не изменяет глобального состояния и не завершает JVM.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ConversionOptions {
+
+    /** Опции, значением которых является путь к файлу */
+    public static final Set<String> PATH_OPTIONS = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(Main.FILE_MODE_PREFIX, Main.OUTPUT_OPTION_PREFIX, Main.OUTPUT_DIR_OPTION_PREFIX,
+                    Main.REJECT_FILE_OPTION_PREFIX, Main.SCHEMA_OPTION_PREFIX)));
+
+    private String outputFile;
+    private boolean prettyPrint;
+    private boolean fileMode;
+    private boolean streaming;
+    private boolean parallel;
+    private boolean memoryMapped;
+    private boolean ndjson;
+    private boolean append;
+    private boolean batchTimestamp;
+    private boolean incremental;
+    private boolean follow;
+    private boolean checkpoint;
+    private boolean fixedWidth;
+    private boolean metrics;
+    private boolean jfr;
+    private String filename;
+    private String outputDir;
+    private String maxOpenFiles;
+    private String encoding;
+    private String rejectFile;
+    private String maxErrorRate;
+    private String format;
+    private String serializer;
+    private String schema;
+    private String dictionary;
+    private String gzipLevel;
+    private String gzipBuffer;
+    private boolean gzipAsync;
+    private boolean server;
+    private boolean serverJob;
+
+    /**
+     * Разбирает аргументы командной строки, выводя сообщения о включенных опциях.
+     * Неизвестные аргументы игнорируются.
+     *
+     * @param args аргументы командной строки
+     * @param out поток для сообщений
+     * @return разобранные опции
+     */
+    public static ConversionOptions parse(String[] args, PrintStream out) {
+        ConversionOptions options = new ConversionOptions();
+
+        // Простая обработка только явных опций
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (Main.OUTPUT_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.outputFile = args[i + 1];
+                i++; // Пропускаем значение файла
+            } else if (Main.PRETTY_OPTION_PREFIX.equals(arg)) {
+                options.prettyPrint = true;
+                out.println(Main.PRETTY_ENABLED_MESSAGE);
+            } else if (Main.STREAM_OPTION_PREFIX.equals(arg)) {
+                options.streaming = true;
+                out.println(Main.STREAM_ENABLED_MESSAGE);
+            } else if (Main.PARALLEL_OPTION_PREFIX.equals(arg)) {
+                options.parallel = true;
+                out.println(Main.PARALLEL_ENABLED_MESSAGE);
+            } else if (Main.MMAP_OPTION_PREFIX.equals(arg)) {
+                options.memoryMapped = true;
+                out.println(Main.MMAP_ENABLED_MESSAGE);
+            } else if (Main.NDJSON_OPTION_PREFIX.equals(arg)) {
+                options.ndjson = true;
+                out.println(Main.NDJSON_ENABLED_MESSAGE);
+            } else if (Main.APPEND_OPTION_PREFIX.equals(arg)) {
+                options.append = true;
+                out.println(Main.APPEND_ENABLED_MESSAGE);
+            } else if (Main.BATCH_TIMESTAMP_OPTION_PREFIX.equals(arg)) {
+                options.batchTimestamp = true;
+                out.println(Main.BATCH_TIMESTAMP_ENABLED_MESSAGE);
+            } else if (Main.INCREMENTAL_OPTION_PREFIX.equals(arg)) {
+                options.incremental = true;
+                out.println(Main.INCREMENTAL_ENABLED_MESSAGE);
+            } else if (Main.FOLLOW_OPTION_PREFIX.equals(arg)) {
+                options.follow = true;
+                out.println(Main.FOLLOW_ENABLED_MESSAGE);
+            } else if (Main.CHECKPOINT_OPTION_PREFIX.equals(arg)) {
+                options.checkpoint = true;
+                out.println(Main.CHECKPOINT_ENABLED_MESSAGE);
+            } else if (Main.FIXED_WIDTH_OPTION_PREFIX.equals(arg)) {
+                options.fixedWidth = true;
+                out.println(Main.FIXED_WIDTH_ENABLED_MESSAGE);
+            } else if (Main.METRICS_OPTION_PREFIX.equals(arg)) {
+                options.metrics = true;
+                out.println(Main.METRICS_ENABLED_MESSAGE);
+            } else if (Main.JFR_OPTION_PREFIX.equals(arg)) {
+                options.jfr = true;
+                out.println(Main.JFR_ENABLED_MESSAGE);
+            } else if (Main.OUTPUT_DIR_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.outputDir = args[i + 1];
+                i++; // Пропускаем имя директории
+            } else if (Main.MAX_OPEN_FILES_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.maxOpenFiles = args[i + 1];
+                i++; // Пропускаем количество файлов
+            } else if (Main.ENCODING_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.encoding = args[i + 1];
+                i++; // Пропускаем кодовую страницу
+                out.println(Main.ENCODING_ENABLED_MESSAGE + options.encoding);
+            } else if (Main.REJECT_FILE_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.rejectFile = args[i + 1];
+                i++; // Пропускаем имя файла отклоненных строк
+                out.println(Main.REJECT_FILE_ENABLED_MESSAGE + options.rejectFile);
+            } else if (Main.MAX_ERROR_RATE_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.maxErrorRate = args[i + 1];
+                i++; // Пропускаем долю ошибок
+            } else if (Main.FORMAT_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.format = args[i + 1];
+                i++; // Пропускаем имя формата
+                out.println(Main.FORMAT_ENABLED_MESSAGE + options.format);
+            } else if (Main.SERIALIZER_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.serializer = args[i + 1];
+                i++; // Пропускаем имя реализации
+                out.println(Main.SERIALIZER_ENABLED_MESSAGE + options.serializer);
+            } else if (Main.SCHEMA_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.schema = args[i + 1];
+                i++; // Пропускаем имя файла схемы
+                out.println(Main.SCHEMA_ENABLED_MESSAGE + options.schema);
+            } else if (Main.DICTIONARY_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.dictionary = args[i + 1];
+                i++; // Пропускаем размер словаря
+                out.println(Main.DICTIONARY_ENABLED_MESSAGE + options.dictionary);
+            } else if (Main.GZIP_LEVEL_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.gzipLevel = args[i + 1];
+                i++; // Пропускаем уровень сжатия
+            } else if (Main.GZIP_BUFFER_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.gzipBuffer = args[i + 1];
+                i++; // Пропускаем размер буфера
+            } else if (Main.GZIP_ASYNC_OPTION_PREFIX.equals(arg)) {
+                options.gzipAsync = true;
+                out.println(Main.GZIP_ASYNC_ENABLED_MESSAGE);
+            } else if (ConversionServer.SERVER_OPTION_PREFIX.equals(arg)) {
+                options.server = true;
+            } else if (Main.FILE_MODE_PREFIX.equals(arg) && i + 1 < args.length) {
+                options.fileMode = true;
+                options.filename = args[i + 1];
+                i++; // Пропускаем имя файла
+            }
+            // Игнорируем все остальные аргументы
+        }
+
+        return options;
+    }
+
+    /**
+     * Заменяет относительные пути в значениях опций {@link #PATH_OPTIONS} на абсолютные
+     * относительно текущей директории. Нужно, когда аргументы выполняются процессом
+     * с другой рабочей директорией.
+     *
+     * @param args аргументы командной строки
+     * @return копия аргументов с абсолютными путями
+     */
+    public static String[] absolutizePaths(String[] args) {
+        String[] result = args.clone();
+        for (int i = 0; i + 1 < result.length; i++) {
+            if (PATH_OPTIONS.contains(result[i])) {
+                result[i + 1] = Paths.get(result[i + 1]).toAbsolutePath().toString();
+                i++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Проверяет совместимость опций.
+     *
+     * @return текст ошибки или null, если опции корректны
+     */
+    public String validate() {
+        if (serverJob) {
+            // Задания сервера выполняются по очереди, поэтому задание должно завершаться само
+            String unsupportedOption = server ? ConversionServer.SERVER_OPTION_PREFIX
+                    : follow ? Main.FOLLOW_OPTION_PREFIX
+                    : null;
+            if (unsupportedOption != null) {
+                return unsupportedOption + " cannot be used in a server job";
+            }
+        }
+        if (fileMode && filename == null) {
+            return "Filename required after " + Main.FILE_MODE_PREFIX;
+        }
+        if (fileMode && append && !ndjson) {
+            return Main.APPEND_OPTION_PREFIX + " requires " + Main.NDJSON_OPTION_PREFIX;
+        }
+        if (fileMode && ndjson && prettyPrint) {
+            // Каждый документ JSON Lines занимает ровно одну строку
+            return Main.PRETTY_OPTION_PREFIX + " cannot be combined with " + Main.NDJSON_OPTION_PREFIX;
+        }
+        if (fileMode && incremental && outputFile == null) {
+            return Main.INCREMENTAL_OPTION_PREFIX + " requires " + Main.OUTPUT_OPTION_PREFIX;
+        }
+        if (fileMode && incremental && BatchConverter.isBatchInput(filename)) {
+            return Main.INCREMENTAL_OPTION_PREFIX + " cannot be used with multiple input files";
+        }
+        if (fileMode && follow && !ndjson) {
+            return Main.FOLLOW_OPTION_PREFIX + " requires " + Main.NDJSON_OPTION_PREFIX;
+        }
+        if (fileMode && follow && incremental) {
+            return Main.FOLLOW_OPTION_PREFIX + " cannot be combined with " + Main.INCREMENTAL_OPTION_PREFIX;
+        }
+        if (fileMode && follow && BatchConverter.isBatchInput(filename)) {
+            return Main.FOLLOW_OPTION_PREFIX + " cannot be used with multiple input files";
+        }
+        if (fileMode && checkpoint) {
+            if (outputFile == null) {
+                return Main.CHECKPOINT_OPTION_PREFIX + " requires " + Main.OUTPUT_OPTION_PREFIX;
+            }
+            // Без общей метки продолженный запуск не совпадет побайтно с непрерывным
+            if (!batchTimestamp) {
+                return Main.CHECKPOINT_OPTION_PREFIX + " requires " + Main.BATCH_TIMESTAMP_OPTION_PREFIX;
+            }
+            String unsupportedOption = incremental ? Main.INCREMENTAL_OPTION_PREFIX
+                    : follow ? Main.FOLLOW_OPTION_PREFIX
+                    : append ? Main.APPEND_OPTION_PREFIX
+                    : parallel ? Main.PARALLEL_OPTION_PREFIX
+                    : memoryMapped ? Main.MMAP_OPTION_PREFIX
+                    : fixedWidth ? Main.FIXED_WIDTH_OPTION_PREFIX
+                    : metrics ? Main.METRICS_OPTION_PREFIX
+                    : rejectFile != null ? Main.REJECT_FILE_OPTION_PREFIX
+                    : null;
+            if (unsupportedOption != null) {
+                return Main.CHECKPOINT_OPTION_PREFIX + " cannot be combined with " + unsupportedOption;
+            }
+            if (BatchConverter.isBatchInput(filename)) {
+                return Main.CHECKPOINT_OPTION_PREFIX + " cannot be used with multiple input files";
+            }
+        }
+        if (fileMode && memoryMapped && parallel) {
+            // Параллельный режим сам читает фрагменты файла через FileChannel
+            return Main.MMAP_OPTION_PREFIX + " cannot be combined with " + Main.PARALLEL_OPTION_PREFIX;
+        }
+        if (fileMode && fixedWidth) {
+            // Эти режимы разбирают входной файл как CSV
+            String csvOnlyOption = parallel ? Main.PARALLEL_OPTION_PREFIX
+                    : memoryMapped ? Main.MMAP_OPTION_PREFIX
+                    : incremental ? Main.INCREMENTAL_OPTION_PREFIX
+                    : follow ? Main.FOLLOW_OPTION_PREFIX
+                    : null;
+            if (csvOnlyOption != null) {
+                return Main.FIXED_WIDTH_OPTION_PREFIX + " cannot be combined with " + csvOnlyOption;
+            }
+        }
+        if (fileMode && metrics) {
+            // Эти режимы не отмечают стадии преобразования
+            String unsupportedOption = parallel ? Main.PARALLEL_OPTION_PREFIX
+                    : incremental ? Main.INCREMENTAL_OPTION_PREFIX
+                    : null;
+            if (unsupportedOption != null) {
+                return Main.METRICS_OPTION_PREFIX + " cannot be combined with " + unsupportedOption;
+            }
+            if (BatchConverter.isBatchInput(filename)) {
+                return Main.METRICS_OPTION_PREFIX + " cannot be used with multiple input files";
+            }
+        }
+        if (encoding != null && getTranscoder() == null) {
+            return "Unsupported value for " + Main.ENCODING_OPTION_PREFIX + ": " + encoding;
+        }
+        if (fileMode && encoding != null && !fixedWidth) {
+            return Main.ENCODING_OPTION_PREFIX + " requires " + Main.FIXED_WIDTH_OPTION_PREFIX;
+        }
+        if (fileMode && rejectFile != null) {
+            // Инкрементальный режим сохраняет позицию во входном файле и не может пропускать строки
+            if (incremental) {
+                return Main.REJECT_FILE_OPTION_PREFIX + " cannot be combined with " + Main.INCREMENTAL_OPTION_PREFIX;
+            }
+            if (BatchConverter.isBatchInput(filename)) {
+                return Main.REJECT_FILE_OPTION_PREFIX + " cannot be used with multiple input files";
+            }
+        }
+        if (maxErrorRate != null && rejectFile == null) {
+            return Main.MAX_ERROR_RATE_OPTION_PREFIX + " requires " + Main.REJECT_FILE_OPTION_PREFIX;
+        }
+        double rate = getMaxErrorRate();
+        if (!(rate >= 0 && rate <= 1)) {
+            return "Invalid value for " + Main.MAX_ERROR_RATE_OPTION_PREFIX + ": " + maxErrorRate;
+        }
+        if (format != null && getFormat() == null) {
+            return "Unsupported value for " + Main.FORMAT_OPTION_PREFIX + ": " + format;
+        }
+        if (serializer != null && getSerializerEngine() == null) {
+            return "Unsupported value for " + Main.SERIALIZER_OPTION_PREFIX + ": " + serializer;
+        }
+        if (fileMode && serializer != null) {
+            // Эти режимы кодируют записи кодировщиком по умолчанию
+            String unsupportedOption = getFormat().isBinary() ? Main.FORMAT_OPTION_PREFIX
+                    : incremental ? Main.INCREMENTAL_OPTION_PREFIX
+                    : follow ? Main.FOLLOW_OPTION_PREFIX
+                    : checkpoint ? Main.CHECKPOINT_OPTION_PREFIX
+                    : null;
+            if (unsupportedOption != null) {
+                return Main.SERIALIZER_OPTION_PREFIX + " cannot be combined with " + unsupportedOption;
+            }
+            if (BatchConverter.isBatchInput(filename)) {
+                return Main.SERIALIZER_OPTION_PREFIX + " cannot be used with multiple input files";
+            }
+        }
+        if (fileMode && schema != null) {
+            // Схема поддерживается только потоковым разбором CSV
+            String unsupportedOption = getFormat().isBinary() ? Main.FORMAT_OPTION_PREFIX
+                    : serializer != null ? Main.SERIALIZER_OPTION_PREFIX
+                    : parallel ? Main.PARALLEL_OPTION_PREFIX
+                    : memoryMapped ? Main.MMAP_OPTION_PREFIX
+                    : fixedWidth ? Main.FIXED_WIDTH_OPTION_PREFIX
+                    : incremental ? Main.INCREMENTAL_OPTION_PREFIX
+                    : follow ? Main.FOLLOW_OPTION_PREFIX
+                    : checkpoint ? Main.CHECKPOINT_OPTION_PREFIX
+                    : rejectFile != null ? Main.REJECT_FILE_OPTION_PREFIX
+                    : null;
+            if (unsupportedOption != null) {
+                return Main.SCHEMA_OPTION_PREFIX + " cannot be combined with " + unsupportedOption;
+            }
+            if (BatchConverter.isBatchInput(filename)) {
+                return Main.SCHEMA_OPTION_PREFIX + " cannot be used with multiple input files";
+            }
+        }
+        if (dictionary != null && getDictionarySize() < 1) {
+            return "Invalid value for " + Main.DICTIONARY_OPTION_PREFIX + ": " + dictionary;
+        }
+        if (fileMode && dictionary != null) {
+            // Словарь используется при разборе CSV в записи WsRecord и кодировщиком ENCODER
+            String unsupportedOption = getFormat().isBinary() ? Main.FORMAT_OPTION_PREFIX
+                    : getSerializerEngine() != SerializerEngine.ENCODER ? Main.SERIALIZER_OPTION_PREFIX
+                    : schema != null ? Main.SCHEMA_OPTION_PREFIX
+                    : parallel ? Main.PARALLEL_OPTION_PREFIX
+                    : fixedWidth ? Main.FIXED_WIDTH_OPTION_PREFIX
+                    : incremental ? Main.INCREMENTAL_OPTION_PREFIX
+                    : follow ? Main.FOLLOW_OPTION_PREFIX
+                    : checkpoint ? Main.CHECKPOINT_OPTION_PREFIX
+                    : null;
+            if (unsupportedOption != null) {
+                return Main.DICTIONARY_OPTION_PREFIX + " cannot be combined with " + unsupportedOption;
+            }
+            if (BatchConverter.isBatchInput(filename)) {
+                return Main.DICTIONARY_OPTION_PREFIX + " cannot be used with multiple input files";
+            }
+        }
+        if (fileMode && getFormat().isBinary()) {
+            String binaryFormat = Main.FORMAT_OPTION_PREFIX + " " + getFormat().optionValue();
+            if (outputFile == null) {
+                return binaryFormat + " requires " + Main.OUTPUT_OPTION_PREFIX;
+            }
+            // Эти режимы пишут готовые байты JSON
+            String unsupportedOption = prettyPrint ? Main.PRETTY_OPTION_PREFIX
+                    : parallel ? Main.PARALLEL_OPTION_PREFIX
+                    : incremental ? Main.INCREMENTAL_OPTION_PREFIX
+                    : follow ? Main.FOLLOW_OPTION_PREFIX
+                    : checkpoint ? Main.CHECKPOINT_OPTION_PREFIX
+                    : memoryMapped ? Main.MMAP_OPTION_PREFIX
+                    : null;
+            if (unsupportedOption != null) {
+                return binaryFormat + " cannot be combined with " + unsupportedOption;
+            }
+            if (BatchConverter.isBatchInput(filename)) {
+                return binaryFormat + " cannot be used with multiple input files";
+            }
+        }
+        if (fileMode && isGzip()) {
+            // Эти режимы переходят по смещениям во входном файле или в файле вывода
+            String unsupportedOption = incremental ? Main.INCREMENTAL_OPTION_PREFIX
+                    : follow ? Main.FOLLOW_OPTION_PREFIX
+                    : checkpoint ? Main.CHECKPOINT_OPTION_PREFIX
+                    : !GzipCodec.isGzip(filename) ? null
+                    : memoryMapped ? Main.MMAP_OPTION_PREFIX
+                    : parallel ? Main.PARALLEL_OPTION_PREFIX
+                    : null;
+            if (unsupportedOption != null) {
+                return "Compressed " + GzipCodec.EXTENSION + " files cannot be used with " + unsupportedOption;
+            }
+        }
+        int level = getGzipLevel();
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            return "Invalid value for " + Main.GZIP_LEVEL_OPTION_PREFIX + ": " + gzipLevel;
+        }
+        if (getGzipBufferSize() < 1) {
+            return "Invalid value for " + Main.GZIP_BUFFER_OPTION_PREFIX + ": " + gzipBuffer;
+        }
+        if (fileMode && (gzipLevel != null || gzipAsync) && !GzipCodec.isGzip(outputFile)) {
+            // Уровень сжатия и отдельный поток относятся только к сжатию файла вывода
+            String gzipOption = gzipLevel != null ? Main.GZIP_LEVEL_OPTION_PREFIX : Main.GZIP_ASYNC_OPTION_PREFIX;
+            return gzipOption + " cannot be combined with an uncompressed output file";
+        }
+        // Директория или маска могут содержать сжатые входные файлы
+        if (fileMode && gzipBuffer != null && !isGzip() && !BatchConverter.isBatchInput(filename)) {
+            return Main.GZIP_BUFFER_OPTION_PREFIX + " cannot be combined with uncompressed input and output files";
+        }
+        if (getMaxOpenFiles() < 1) {
+            return "Invalid value for " + Main.MAX_OPEN_FILES_OPTION_PREFIX + ": " + maxOpenFiles;
+        }
+        return null;
+    }
+
+    /**
+     * @param serverJob true, если опции задания сервера {@link ConversionServer}
+     */
+    void setServerJob(boolean serverJob) {
+        this.serverJob = serverJob;
+    }
+
+    /**
+     * @return true, если опции задания сервера {@link ConversionServer}
+     */
+    public boolean isServerJob() {
+        return serverJob;
+    }
+
+    /**
+     * @return раскладка вывода по опциям --pretty и --ndjson
+     */
+    public OutputLayout getLayout() {
+        return OutputLayout.of(prettyPrint, ndjson);
+    }
+
+    /**
+     * @return имя файла для вывода (может быть null)
+     */
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * @return true, если включен красивый вывод
+     */
+    public boolean isPrettyPrint() {
+        return prettyPrint;
+    }
+
+    /**
+     * @return true, если задан файловый режим
+     */
+    public boolean isFileMode() {
+        return fileMode;
+    }
+
+    /**
+     * @return true, если включена потоковая обработка
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * @return true, если включена параллельная обработка
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @return true, если файл читается через отображение в память
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * @return true, если включен вывод JSON Lines
+     */
+    public boolean isNdjson() {
+        return ndjson;
+    }
+
+    /**
+     * @return true, если вывод дописывается в конец файла
+     */
+    public boolean isAppend() {
+        return append;
+    }
+
+    /**
+     * @return true, если используется одна временная метка на весь запуск
+     */
+    public boolean isBatchTimestamp() {
+        return batchTimestamp;
+    }
+
+    /**
+     * @return true, если преобразуются только новые строки входного файла
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @return true, если файл отслеживается на появление новых строк
+     */
+    public boolean isFollow() {
+        return follow;
+    }
+
+    /**
+     * @return true, если состояние сохраняется для продолжения прерванного преобразования
+     */
+    public boolean isCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * @return true, если входной файл состоит из записей фиксированной длины
+     */
+    public boolean isFixedWidth() {
+        return fixedWidth;
+    }
+
+    /**
+     * @return true, если собираются метрики по стадиям
+     */
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return true, если на время запуска ведется запись Java Flight Recorder
+     */
+    public boolean isJfr() {
+        return jfr;
+    }
+
+    /**
+     * @return кодовая страница EBCDIC входных записей или null, если записи в UTF-8 или кодовая страница неизвестна
+     */
+    public EbcdicTranscoder getTranscoder() {
+        return EbcdicTranscoder.forName(encoding);
+    }
+
+    /**
+     * @return фабрика читателя входного файла по опциям --fixed-width, --encoding и --mmap;
+     *         сжатые входные файлы распаковываются при чтении
+     */
+    public RecordReader.Factory getReaderFactory() {
+        GzipCodec gzip = getGzipCodec();
+        if (fixedWidth) {
+            EbcdicTranscoder transcoder = getTranscoder();
+            return path -> new FixedWidthRecordReader(gzip.openInput(Paths.get(path)), transcoder);
+        }
+        return memoryMapped ? MappedCsvReader::new : gzip.csvReaderFactory();
+    }
+
+    /**
+     * @return файл отклоненных строк (может быть null)
+     */
+    public String getRejectFile() {
+        return rejectFile;
+    }
+
+    /**
+     * @return максимальная доля отклоненных строк или -1, если значение неверное
+     */
+    public double getMaxErrorRate() {
+        if (maxErrorRate == null) {
+            return RejectWriter.DEFAULT_MAX_ERROR_RATE;
+        }
+        try {
+            return Double.parseDouble(maxErrorRate);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return формат кодирования вывода ({@link OutputFormat#JSON} по умолчанию) или null, если формат неизвестен
+     */
+    public OutputFormat getFormat() {
+        return format == null ? OutputFormat.JSON : OutputFormat.forName(format);
+    }
+
+    /**
+     * @return реализация кодирования JSON ({@link SerializerEngine#DEFAULT} по умолчанию) или null,
+     *         если реализация неизвестна
+     */
+    public SerializerEngine getSerializerEngine() {
+        return serializer == null ? SerializerEngine.DEFAULT : SerializerEngine.forName(serializer);
+    }
+
+    /**
+     * @return файл схемы записи или null, если записи разбираются в раскладке ws-record
+     */
+    public String getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return максимальное количество значений словаря, 0 без словаря или -1, если значение неверное
+     */
+    public int getDictionarySize() {
+        if (dictionary == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(dictionary);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return true, если входной файл или файл вывода сжат gzip
+     */
+    public boolean isGzip() {
+        return GzipCodec.isGzip(filename) || GzipCodec.isGzip(outputFile);
+    }
+
+    /**
+     * @return уровень сжатия вывода или -1, если значение неверное
+     */
+    public int getGzipLevel() {
+        if (gzipLevel == null) {
+            return GzipCodec.DEFAULT_LEVEL;
+        }
+        try {
+            return Integer.parseInt(gzipLevel);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return размер буферов сжатия и распаковки или -1, если значение неверное
+     */
+    public int getGzipBufferSize() {
+        if (gzipBuffer == null) {
+            return GzipCodec.DEFAULT_BUFFER_SIZE;
+        }
+        try {
+            return Integer.parseInt(gzipBuffer);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return настройки сжатия по опциям --gzip-level, --gzip-buffer и --gzip-async
+     */
+    public GzipCodec getGzipCodec() {
+        return new GzipCodec(getGzipLevel(), getGzipBufferSize(), gzipAsync);
+    }
+
+    /**
+     * @return директория вывода для нескольких входных файлов (может быть null)
+     */
+    public String getOutputDir() {
+        return outputDir;
+    }
+
+    /**
+     * @return максимальное количество одновременно открытых входных файлов или -1, если значение неверное
+     */
+    public int getMaxOpenFiles() {
+        if (maxOpenFiles == null) {
+            return BatchConverter.DEFAULT_MAX_OPEN_FILES;
+        }
+        try {
+            return Integer.parseInt(maxOpenFiles);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return имя входного файла, директории или маски файлов (может быть null)
+     */
+    public String getFilename() {
+        return filename;
+    }
+}
@@ -0,0 +1,366 @@
+package my.first.migration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Сервер преобразования, принимающий задания по локальному сокету.
+ * JVM запускается один раз, поэтому задания не тратят время на запуск JVM, загрузку классов
+ * и прогрев JIT, а кодировщики и пулы буферов переиспользуются между заданиями.
+ * <p>
+ * Протокол (все числа big-endian, строки в modified UTF-8 {@link DataOutputStream#writeUTF(String)}):
+ * <ul>
+ * <li>запрос: токен сервера, количество аргументов (int), затем аргументы командной строки,
+ * как для {@link Main};</li>
+ * <li>ответ: блоки вывода (длина int &gt; 0 и байты UTF-8), затем {@link #END_OF_OUTPUT}
+ * и код завершения (int).</li>
+ * </ul>
+ * Вывод задания совпадает с выводом {@link Main} при запуске из командной строки.
+ * Задания выполняются по очереди, так как опция --batch-timestamp меняет общий источник меток,
+ * поэтому задания, которые не завершаются сами (--follow), сервер не принимает.
+ * Токен и запрос должны прийти за {@link #REQUEST_TIMEOUT_MILLIS} мс, иначе соединение
+ * закрывается, чтобы клиент, который ничего не отправляет, не останавливал очередь заданий.
+ * <p>
+ * Сервер слушает только адрес loopback и выполняет задания только с токеном, который
+ * при запуске записывается в файл {@link #TOKEN_FILE_NAME} в домашней директории
+ * пользователя с правами только для владельца. Задания читают и пишут файлы с правами
+ * сервера, поэтому без токена другие локальные пользователи не могут отправить задание
+ * или остановить сервер. Файл токена удаляется при остановке сервера.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ConversionServer implements Closeable {
+
+    /** Опция запуска сервера */
+    public static final String SERVER_OPTION_PREFIX = "--server";
+    /** Опция порта сервера */
+    public static final String PORT_OPTION_PREFIX = "--port";
+    /** Порт сервера по умолчанию */
+    public static final int DEFAULT_PORT = 47474;
+    /** Команда остановки сервера */
+    public static final String STOP_COMMAND = "--stop-server";
+    /** Сообщение о запуске сервера */
+    public static final String LISTENING_MESSAGE = "Conversion server listening on port ";
+    /** Сообщение о файле токена сервера */
+    public static final String TOKEN_FILE_MESSAGE = "Server token written to: ";
+    /** Сообщение об остановке сервера */
+    public static final String STOPPED_MESSAGE = "Conversion server stopped";
+    /** Признак конца вывода задания в ответе */
+    public static final int END_OF_OUTPUT = -1;
+    /** Максимальное количество аргументов в запросе */
+    public static final int MAX_ARGS = 1024;
+    /** Имя файла токена в домашней директории пользователя */
+    public static final String TOKEN_FILE_NAME = ".my-first-migration-server.token";
+    /** Сообщение о неверном токене в запросе */
+    public static final String INVALID_TOKEN_MESSAGE = "Invalid server token";
+    /** Время ожидания токена и запроса после подключения клиента, мс */
+    public static final int REQUEST_TIMEOUT_MILLIS = 10_000;
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String OWNER_ONLY_PERMISSIONS = "rw-------";
+
+    private static final int BACKLOG = 50;
+
+    private final ServerSocket serverSocket;
+    private final Path tokenFile;
+    private final byte[] token;
+    private volatile boolean running = true;
+    private volatile int requestTimeout = REQUEST_TIMEOUT_MILLIS;
+
+    /**
+     * Открывает сокет сервера на адресе loopback с файлом токена {@link #defaultTokenFile()}.
+     *
+     * @param port порт (0 - любой свободный)
+     * @throws IOException если порт недоступен или файл токена не удалось записать
+     */
+    public ConversionServer(int port) throws IOException {
+        this(port, defaultTokenFile());
+    }
+
+    /**
+     * Открывает сокет сервера на адресе loopback и записывает новый токен в файл.
+     *
+     * @param port порт (0 - любой свободный)
+     * @param tokenFile файл токена; перезаписывается
+     * @throws IOException если порт недоступен или файл токена не удалось записать
+     */
+    public ConversionServer(int port, Path tokenFile) throws IOException {
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.tokenFile = tokenFile;
+        try {
+            this.token = writeToken(tokenFile);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return файл токена {@link #TOKEN_FILE_NAME} в домашней директории пользователя
+     */
+    static Path defaultTokenFile() {
+        return Paths.get(System.getProperty("user.home"), TOKEN_FILE_NAME);
+    }
+
+    private static byte[] writeToken(Path tokenFile) throws IOException {
+        byte[] random = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(random);
+        StringBuilder hex = new StringBuilder(TOKEN_BYTES * 2);
+        for (byte b : random) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        // Файл создается заново, чтобы права были только у владельца с самого начала
+        Files.deleteIfExists(tokenFile);
+        try {
+            Files.createFile(tokenFile,
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(OWNER_ONLY_PERMISSIONS)));
+        } catch (UnsupportedOperationException e) {
+            // Файловая система без прав POSIX: права наследуются от домашней директории
+            Files.createFile(tokenFile);
+        }
+        Files.writeString(tokenFile, hex);
+        return hex.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Читает токен сервера для клиента.
+     *
+     * @param tokenFile файл токена
+     * @return токен
+     * @throws IOException если файл не удалось прочитать
+     */
+    static String readToken(Path tokenFile) throws IOException {
+        return Files.readString(tokenFile, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * @param args аргументы командной строки
+     * @return true, если указана опция {@link #SERVER_OPTION_PREFIX}
+     */
+    static boolean isServerMode(String[] args) {
+        for (String arg : args) {
+            if (SERVER_OPTION_PREFIX.equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает порт из опции {@link #PORT_OPTION_PREFIX}.
+     *
+     * @param args аргументы командной строки
+     * @return порт или {@link #DEFAULT_PORT}, если опция не указана
+     * @throws IllegalArgumentException если порт неверный
+     */
+    static int parsePort(String[] args) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (PORT_OPTION_PREFIX.equals(args[i])) {
+                try {
+                    int port = Integer.parseInt(args[i + 1]);
+                    if (port < 0 || port > 0xFFFF) {
+                        throw new NumberFormatException();
+                    }
+                    return port;
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid port: " + args[i + 1]);
+                }
+            }
+        }
+        return DEFAULT_PORT;
+    }
+
+    /**
+     * Запускает сервер и обслуживает задания до команды {@link #STOP_COMMAND}.
+     *
+     * @param args аргументы командной строки
+     * @param out поток для сообщений сервера
+     * @return код завершения
+     */
+    static int serve(String[] args, PrintStream out) {
+        try (ConversionServer server = new ConversionServer(parsePort(args))) {
+            out.println(LISTENING_MESSAGE + server.getPort());
+            out.println(TOKEN_FILE_MESSAGE + server.getTokenFile());
+            server.serve(out);
+            out.println(STOPPED_MESSAGE);
+            return 0;
+        } catch (IllegalArgumentException | IOException e) {
+            out.println(Main.ERROR_PREFIX + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Задает время ожидания токена и запроса для следующих соединений.
+     *
+     * @param millis время ожидания, мс
+     */
+    void setRequestTimeout(int millis) {
+        this.requestTimeout = millis;
+    }
+
+    /**
+     * @return файл токена сервера
+     */
+    public Path getTokenFile() {
+        return tokenFile;
+    }
+
+    /**
+     * @return порт, на котором слушает сервер
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Обслуживает задания до команды {@link #STOP_COMMAND} или закрытия сервера.
+     * Ошибка одного соединения не останавливает сервер.
+     *
+     * @param log поток для сообщений об ошибках соединений
+     * @throws IOException если сокет сервера не может принимать соединения
+     */
+    public void serve(PrintStream log) throws IOException {
+        while (running) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (!running) {
+                    return;
+                }
+                throw e;
+            }
+            try (socket) {
+                handle(socket);
+            } catch (IOException e) {
+                log.println(Main.ERROR_PREFIX + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream response = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        // Задания выполняются по очереди, поэтому молчащий клиент не должен держать сервер
+        socket.setSoTimeout(requestTimeout);
+        boolean authorized;
+        String[] args;
+        try {
+            authorized = MessageDigest.isEqual(token, in.readUTF().getBytes(StandardCharsets.UTF_8));
+            args = readRequest(in);
+        } catch (SocketTimeoutException e) {
+            throw new IOException("Request not received within " + requestTimeout + " ms");
+        }
+        PrintStream jobOut = new PrintStream(
+                new BufferedOutputStream(new FrameOutputStream(response), Main.STREAM_BUFFER_SIZE),
+                false, StandardCharsets.UTF_8);
+        int exitCode;
+        if (!authorized) {
+            jobOut.println(Main.ERROR_PREFIX + INVALID_TOKEN_MESSAGE);
+            exitCode = 1;
+        } else if (args.length == 1 && STOP_COMMAND.equals(args[0])) {
+            jobOut.println(STOPPED_MESSAGE);
+            exitCode = 0;
+            running = false;
+        } else {
+            exitCode = runJob(args, jobOut);
+        }
+        jobOut.flush();
+        if (jobOut.checkError()) {
+            throw new IOException("Client disconnected");
+        }
+        response.writeInt(END_OF_OUTPUT);
+        response.writeInt(exitCode);
+        response.flush();
+        if (!running) {
+            close();
+        }
+    }
+
+    private static int runJob(String[] args, PrintStream out) {
+        try {
+            return Main.run(args, true, out);
+        } catch (RuntimeException e) {
+            out.println(Main.ERROR_PREFIX + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static String[] readRequest(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > MAX_ARGS) {
+            throw new IOException("Invalid request: " + count + " arguments");
+        }
+        String[] args = new String[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = in.readUTF();
+        }
+        return args;
+    }
+
+    /**
+     * Останавливает прием заданий.
+     *
+     * @throws IOException если произошла ошибка закрытия сокета
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            serverSocket.close();
+        } finally {
+            Files.deleteIfExists(tokenFile);
+        }
+    }
+
+    /**
+     * Поток, записывающий каждый блок вывода задания с префиксом длины.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+
+        FrameOutputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            out.writeInt(len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
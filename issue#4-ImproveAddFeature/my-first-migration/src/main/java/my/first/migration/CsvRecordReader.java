@@ -0,0 +1,66 @@
+package my.first.migration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Потоковый читатель записей из CSV файла.
+ * В отличие от {@link Main#readRecordsFromFile(String)} не загружает файл целиком,
+ * а разбирает строки по одной, поэтому расход памяти не зависит от размера файла.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class CsvRecordReader implements RecordReader {
+
+    private final BufferedReader reader;
+    private long lineNumber = 0;
+
+    /**
+     * Открывает файл для потокового чтения в кодировке UTF-8.
+     *
+     * @param filename имя файла для чтения
+     * @throws IOException если файл не удалось открыть
+     */
+    public CsvRecordReader(String filename) throws IOException {
+        this(Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Создает читатель поверх уже открытого потока символов.
+     *
+     * @param reader источник строк CSV
+     */
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public WsRecord next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            WsRecord record = Main.parseRecord(line, lineNumber);
+            if (record != null) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,135 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Читатель записей CSV файла, начиная с заданного смещения в байтах.
+ * Разбирает только завершенные строки (оканчивающиеся переводом строки): незавершенная
+ * последняя строка, которую источник еще дописывает, остается для следующего чтения.
+ * После каждой строки известно смещение ее конца ({@link #getOffset()}), с которого
+ * можно продолжить чтение в следующий раз. Строки разбираются {@link Main#parseRecord(String, long)}.
+ * Если файл уже не дописывается, последнюю строку без перевода строки можно прочитать
+ * конструктором с параметром complete.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class CsvTailReader implements RecordReader {
+
+    /** Начальный размер буфера чтения */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte NEW_LINE = '\n';
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long offset;
+    private long lineNumber;
+    private final boolean complete;
+
+    /**
+     * @param path путь к файлу
+     * @param offset смещение начала первой непрочитанной строки
+     * @param lineNumber количество уже прочитанных строк до смещения
+     * @throws IOException если файл не удалось открыть
+     */
+    public CsvTailReader(Path path, long offset, long lineNumber) throws IOException {
+        this(path, offset, lineNumber, false);
+    }
+
+    /**
+     * @param path путь к файлу
+     * @param offset смещение начала первой непрочитанной строки
+     * @param lineNumber количество уже прочитанных строк до смещения
+     * @param complete файл не дописывается, и последняя строка без перевода строки тоже читается
+     * @throws IOException если файл не удалось открыть
+     */
+    public CsvTailReader(Path path, long offset, long lineNumber, boolean complete) throws IOException {
+        this.complete = complete;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.offset = offset;
+        this.lineNumber = lineNumber;
+        channel.position(offset);
+        buffer.flip();
+    }
+
+    @Override
+    public WsRecord next() throws IOException {
+        while (true) {
+            int end = indexOfNewLine();
+            int next = end + 1;
+            if (end < 0) {
+                if (fill()) {
+                    continue;
+                }
+                if (!complete || !buffer.hasRemaining()) {
+                    return null;
+                }
+                // Последняя строка без перевода строки
+                end = buffer.limit();
+                next = end;
+            }
+            int start = buffer.position();
+            String line = new String(buffer.array(), start, end - start, StandardCharsets.UTF_8);
+            buffer.position(next);
+            offset += next - start;
+            lineNumber++;
+            WsRecord record = Main.parseRecord(line, lineNumber);
+            if (record != null) {
+                return record;
+            }
+        }
+    }
+
+    private int indexOfNewLine() {
+        byte[] bytes = buffer.array();
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (bytes[i] == NEW_LINE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Дочитывает данные файла в буфер, увеличивая его, если строка не помещается.
+     *
+     * @return false, если новых данных нет
+     */
+    private boolean fill() throws IOException {
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+
+    /**
+     * @return смещение в байтах сразу после последней прочитанной строки
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
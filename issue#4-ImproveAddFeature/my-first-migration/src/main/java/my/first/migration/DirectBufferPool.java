@@ -0,0 +1,85 @@
+package my.first.migration;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул прямых (direct) буферов ByteBuffer фиксированного размера.
+ * Прямые буферы дорого создавать и они освобождаются только сборщиком мусора,
+ * поэтому буферы переиспользуются между записями файлов. Пул потокобезопасен.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class DirectBufferPool {
+
+    /** Размер буфера по умолчанию в байтах */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    /** Максимальное количество свободных буферов в пуле по умолчанию */
+    public static final int DEFAULT_MAX_POOLED = 32;
+
+    private static final DirectBufferPool SHARED = new DirectBufferPool(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POOLED);
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+
+    /**
+     * @param bufferSize размер буфера в байтах
+     * @param maxPooled максимальное количество свободных буферов, хранимых в пуле
+     */
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * @return общий пул приложения
+     */
+    public static DirectBufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Выдает очищенный буфер из пула или создает новый.
+     *
+     * @return буфер, готовый к записи
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        freeCount.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Возвращает буфер в пул. Лишние буферы отбрасываются.
+     *
+     * @param buffer буфер, полученный из {@link #acquire()}
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || !buffer.isDirect()) {
+            return;
+        }
+        if (freeCount.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else {
+            freeCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return размер буфера в байтах
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
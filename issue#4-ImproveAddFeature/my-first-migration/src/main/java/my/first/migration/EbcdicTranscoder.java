@@ -0,0 +1,199 @@
+package my.first.migration;
+
+import java.util.Locale;
+
+/**
+ * Табличное перекодирование EBCDIC (кодовые страницы CP037 и CP1047) в UTF-8.
+ * Каждый байт EBCDIC соответствует одному символу Unicode из диапазона U+0000..U+00FF,
+ * поэтому для каждого из 256 байтов заранее вычислены символ и его представление
+ * в строке JSON: байты UTF-8 (не больше двух) или экранированная последовательность
+ * для кавычки, обратной косой черты и управляющих символов.
+ * Перекодирование выполняется прямо из буфера записи в буфер JSON без промежуточных
+ * строк и без {@link java.nio.charset.CharsetDecoder}.
+ * <p>
+ * Таблицы совпадают с кодировками IBM037 и IBM1047 JDK; CP1047 отличается от CP037
+ * только семью позициями (квадратные скобки, крышка, знак отрицания, Ý, ¨ и перевод строки).
+ * Экземпляры неизменяемы и потокобезопасны.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public final class EbcdicTranscoder {
+
+    /** Максимальная длина представления одного байта в строке JSON (\\u00XX) */
+    public static final int MAX_JSON_BYTES = 6;
+
+    private static final byte[] HEX_DIGITS = {
+        '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    private static final String CP037_CHARS =
+            "\u0000\u0001\u0002\u0003\u009c\u0009\u0086\u007f\u0097\u008d\u008e\u000b\u000c\r\u000e\u000f" +
+            "\u0010\u0011\u0012\u0013\u009d\n\u0008\u0087\u0018\u0019\u0092\u008f\u001c\u001d\u001e\u001f" +
+            "\u0080\u0081\u0082\u0083\u0084\n\u0017\u001b\u0088\u0089\u008a\u008b\u008c\u0005\u0006\u0007" +
+            "\u0090\u0091\u0016\u0093\u0094\u0095\u0096\u0004\u0098\u0099\u009a\u009b\u0014\u0015\u009e\u001a" +
+            "\u0020\u00a0\u00e2\u00e4\u00e0\u00e1\u00e3\u00e5\u00e7\u00f1\u00a2\u002e\u003c\u0028\u002b\u007c" +
+            "\u0026\u00e9\u00ea\u00eb\u00e8\u00ed\u00ee\u00ef\u00ec\u00df\u0021\u0024\u002a\u0029\u003b\u00ac" +
+            "\u002d\u002f\u00c2\u00c4\u00c0\u00c1\u00c3\u00c5\u00c7\u00d1\u00a6\u002c\u0025\u005f\u003e\u003f" +
+            "\u00f8\u00c9\u00ca\u00cb\u00c8\u00cd\u00ce\u00cf\u00cc\u0060\u003a\u0023\u0040\u0027\u003d\"" +
+            "\u00d8\u0061\u0062\u0063\u0064\u0065\u0066\u0067\u0068\u0069\u00ab\u00bb\u00f0\u00fd\u00fe\u00b1" +
+            "\u00b0\u006a\u006b\u006c\u006d\u006e\u006f\u0070\u0071\u0072\u00aa\u00ba\u00e6\u00b8\u00c6\u00a4" +
+            "\u00b5\u007e\u0073\u0074\u0075\u0076\u0077\u0078\u0079\u007a\u00a1\u00bf\u00d0\u00dd\u00de\u00ae" +
+            "\u005e\u00a3\u00a5\u00b7\u00a9\u00a7\u00b6\u00bc\u00bd\u00be\u005b\u005d\u00af\u00a8\u00b4\u00d7" +
+            "\u007b\u0041\u0042\u0043\u0044\u0045\u0046\u0047\u0048\u0049\u00ad\u00f4\u00f6\u00f2\u00f3\u00f5" +
+            "\u007d\u004a\u004b\u004c\u004d\u004e\u004f\u0050\u0051\u0052\u00b9\u00fb\u00fc\u00f9\u00fa\u00ff" +
+            "\\\u00f7\u0053\u0054\u0055\u0056\u0057\u0058\u0059\u005a\u00b2\u00d4\u00d6\u00d2\u00d3\u00d5" +
+            "\u0030\u0031\u0032\u0033\u0034\u0035\u0036\u0037\u0038\u0039\u00b3\u00db\u00dc\u00d9\u00da\u009f";
+
+    /** Кодовая страница CP037 (IBM037, США/Канада) */
+    public static final EbcdicTranscoder CP037 = new EbcdicTranscoder("cp037", CP037_CHARS.toCharArray());
+
+    /** Кодовая страница CP1047 (IBM1047, Latin-1 для z/OS) */
+    public static final EbcdicTranscoder CP1047 = new EbcdicTranscoder("cp1047",
+            withChanges(CP037_CHARS, new int[] {0x25, 0x5F, 0xAD, 0xB0, 0xBA, 0xBB, 0xBD},
+                    "\u0085^[\u00ac\u00dd\u00a8]"));
+
+    private final String name;
+    private final char[] chars;
+    private final byte[] json = new byte[256 * MAX_JSON_BYTES];
+    private final byte[] jsonLength = new byte[256];
+
+    private EbcdicTranscoder(String name, char[] chars) {
+        this.name = name;
+        this.chars = chars;
+        for (int b = 0; b < 256; b++) {
+            jsonLength[b] = (byte) toJson(chars[b], json, b * MAX_JSON_BYTES);
+        }
+    }
+
+    private static char[] withChanges(String base, int[] positions, String replacements) {
+        char[] result = base.toCharArray();
+        for (int i = 0; i < positions.length; i++) {
+            result[positions[i]] = replacements.charAt(i);
+        }
+        return result;
+    }
+
+    private static int toJson(char c, byte[] target, int offset) {
+        int pos = offset;
+        if (c == '"' || c == '\\') {
+            target[pos++] = '\\';
+            target[pos++] = (byte) c;
+        } else if (c < 0x20) {
+            target[pos++] = '\\';
+            target[pos++] = 'u';
+            target[pos++] = '0';
+            target[pos++] = '0';
+            target[pos++] = HEX_DIGITS[c >> 4];
+            target[pos++] = HEX_DIGITS[c & 0xF];
+        } else if (c < 0x80) {
+            target[pos++] = (byte) c;
+        } else {
+            target[pos++] = (byte) (0xC0 | (c >> 6));
+            target[pos++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Находит кодовую страницу по имени без учета регистра: cp037, ibm037, cp1047 или ibm1047.
+     *
+     * @param name имя кодовой страницы
+     * @return перекодировщик или null, если кодовая страница не поддерживается
+     */
+    public static EbcdicTranscoder forName(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "cp037":
+            case "ibm037":
+                return CP037;
+            case "cp1047":
+            case "ibm1047":
+                return CP1047;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return имя кодовой страницы
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param b байт EBCDIC
+     * @return символ Unicode
+     */
+    public char decode(byte b) {
+        return chars[b & 0xFF];
+    }
+
+    /**
+     * Декодирует байты EBCDIC в строку.
+     *
+     * @param source буфер с байтами EBCDIC
+     * @param offset начало
+     * @param length количество байт
+     * @return строка
+     */
+    public String decode(byte[] source, int offset, int length) {
+        char[] result = new char[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = chars[source[offset + i] & 0xFF];
+        }
+        return new String(result);
+    }
+
+    /**
+     * Находит байт EBCDIC для символа.
+     *
+     * @param c символ
+     * @return байт EBCDIC
+     * @throws IllegalArgumentException если символа нет в кодовой странице
+     */
+    public byte encode(char c) {
+        for (int b = 0; b < 256; b++) {
+            if (chars[b] == c) {
+                return (byte) b;
+            }
+        }
+        throw new IllegalArgumentException("Character is not in " + name + ": " + (int) c);
+    }
+
+    /**
+     * Перекодирует байты EBCDIC в содержимое строки JSON в UTF-8, экранируя кавычки,
+     * обратную косую черту и управляющие символы.
+     *
+     * @param source буфер с байтами EBCDIC
+     * @param start начало (включительно)
+     * @param end конец (исключительно)
+     * @param target буфер JSON; должен вмещать {@link #MAX_JSON_BYTES} байт на каждый входной байт
+     * @param position позиция записи в буфере JSON
+     * @return позиция сразу после записанных байт
+     */
+    public int appendJson(byte[] source, int start, int end, byte[] target, int position) {
+        byte[] table = json;
+        int pos = position;
+        for (int i = start; i < end; i++) {
+            int b = source[i] & 0xFF;
+            int offset = b * MAX_JSON_BYTES;
+            int count = jsonLength[b];
+            if (count == 1) {
+                target[pos++] = table[offset];
+            } else {
+                System.arraycopy(table, offset, target, pos, count);
+                pos += count;
+            }
+        }
+        return pos;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,35 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Конвертер входного файла в JSON, записывающий результат напрямую в поток.
+ * Реализации отличаются способом чтения и разбора файла, но дают одинаковый вывод.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public interface FileConverter {
+
+    /**
+     * Преобразует файл в JSON, записывая результат в поток.
+     * Поток вывода не закрывается, только сбрасывается.
+     *
+     * @param filename имя входного файла
+     * @param out поток для вывода JSON
+     * @throws IOException если произошла ошибка чтения или записи
+     * @throws IllegalArgumentException если формат файла неверный
+     */
+    void convert(String filename, OutputStream out) throws IOException;
+
+    /**
+     * @return количество обработанных записей после последнего преобразования
+     */
+    long getRecordsProcessed();
+
+    /**
+     * @return количество записанных байт JSON после последнего преобразования
+     */
+    long getBytesWritten();
+}
@@ -0,0 +1,170 @@
+package my.first.migration;
+
+/**
+ * Настройки файлового преобразования, общие для режима в памяти и конвертеров
+ * {@link StreamingFileConverter} и {@link ParallelFileConverter}: формат вывода, способ чтения,
+ * реализация кодирования, словарь значений, метрики и файл отклоненных строк.
+ * Неизменяемый объект: методы {@code with*} возвращают копию с измененной настройкой,
+ * а {@link #from(ConversionOptions, ConversionMetrics, RejectWriter, ValueDictionary)}
+ * собирает настройки по опциям командной строки.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public final class FileModeSettings {
+
+    /** Настройки по умолчанию: компактный JSON массив, чтение CSV, кодировщик по умолчанию */
+    public static final FileModeSettings DEFAULT = new FileModeSettings(OutputLayout.COMPACT_ARRAY, false,
+            SerializerEngine.DEFAULT, null, ConversionMetrics.DISABLED, null);
+
+    private final OutputLayout layout;
+    private final boolean memoryMapped;
+    private final SerializerEngine engine;
+    private final ValueDictionary dictionary;
+    private final ConversionMetrics metrics;
+    private final RejectWriter rejects;
+
+    private FileModeSettings(OutputLayout layout, boolean memoryMapped, SerializerEngine engine,
+            ValueDictionary dictionary, ConversionMetrics metrics, RejectWriter rejects) {
+        this.layout = layout;
+        this.memoryMapped = memoryMapped;
+        this.engine = engine;
+        this.dictionary = dictionary;
+        this.metrics = metrics;
+        this.rejects = rejects;
+    }
+
+    /**
+     * @param layout формат вывода
+     * @return настройки по умолчанию с заданным форматом вывода
+     */
+    public static FileModeSettings of(OutputLayout layout) {
+        return DEFAULT.withLayout(layout);
+    }
+
+    /**
+     * Собирает настройки по опциям командной строки.
+     *
+     * @param options опции запуска
+     * @param metrics метрики преобразования
+     * @param rejects файл отклоненных строк или null
+     * @param dictionary словарь значений или null
+     * @return настройки
+     */
+    public static FileModeSettings from(ConversionOptions options, ConversionMetrics metrics, RejectWriter rejects,
+            ValueDictionary dictionary) {
+        return new FileModeSettings(options.getLayout(), options.isMemoryMapped(), options.getSerializerEngine(),
+                dictionary, metrics, rejects);
+    }
+
+    /**
+     * @param layout формат вывода
+     * @return копия настроек
+     */
+    public FileModeSettings withLayout(OutputLayout layout) {
+        return new FileModeSettings(layout, memoryMapped, engine, dictionary, metrics, rejects);
+    }
+
+    /**
+     * @param memoryMapped читать файл через отображение в память
+     * @return копия настроек
+     */
+    public FileModeSettings withMemoryMapped(boolean memoryMapped) {
+        return new FileModeSettings(layout, memoryMapped, engine, dictionary, metrics, rejects);
+    }
+
+    /**
+     * @param engine реализация кодирования записей
+     * @return копия настроек
+     */
+    public FileModeSettings withEngine(SerializerEngine engine) {
+        return new FileModeSettings(layout, memoryMapped, engine, dictionary, metrics, rejects);
+    }
+
+    /**
+     * @param dictionary словарь значений или null
+     * @return копия настроек
+     */
+    public FileModeSettings withDictionary(ValueDictionary dictionary) {
+        return new FileModeSettings(layout, memoryMapped, engine, dictionary, metrics, rejects);
+    }
+
+    /**
+     * @param metrics метрики преобразования
+     * @return копия настроек
+     */
+    public FileModeSettings withMetrics(ConversionMetrics metrics) {
+        return new FileModeSettings(layout, memoryMapped, engine, dictionary, metrics, rejects);
+    }
+
+    /**
+     * @param rejects файл отклоненных строк или null, если неверная строка прерывает преобразование
+     * @return копия настроек
+     */
+    public FileModeSettings withRejects(RejectWriter rejects) {
+        return new FileModeSettings(layout, memoryMapped, engine, dictionary, metrics, rejects);
+    }
+
+    /**
+     * Создает кодировщик элементов массива и подключает к нему словарь значений.
+     * Словарь не потокобезопасен, поэтому кодировщик предназначен для одного потока.
+     *
+     * @return новый кодировщик уровня {@link JsonArrayWriter#ELEMENT_DEPTH}
+     */
+    public RecordSerializer createSerializer() {
+        RecordSerializer serializer = engine.create(layout.isPretty(), JsonArrayWriter.ELEMENT_DEPTH);
+        if (dictionary != null && serializer instanceof JsonRecordEncoder) {
+            ((JsonRecordEncoder) serializer).setDictionary(dictionary);
+        }
+        return serializer;
+    }
+
+    /**
+     * @return формат вывода
+     */
+    public OutputLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return true, если включен красивый вывод
+     */
+    public boolean isPrettyPrint() {
+        return layout.isPretty();
+    }
+
+    /**
+     * @return true, если файл читается через отображение в память
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * @return реализация кодирования записей
+     */
+    public SerializerEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return словарь значений или null
+     */
+    public ValueDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return метрики преобразования
+     */
+    public ConversionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return файл отклоненных строк или null
+     */
+    public RejectWriter getRejects() {
+        return rejects;
+    }
+}
@@ -0,0 +1,269 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Читатель записей фиксированной длины в раскладке ws-record из json_generate.cbl:
+ * ws-record-name PIC X(10), ws-record-value PIC X(10), ws-record-blank PIC X(10),
+ * ws-record-flag PIC X(5) и description PIC X(20) Java версии, всего {@link #RECORD_LENGTH} байт.
+ * <p>
+ * Поля вырезаются из байтов по смещениям, без разбиения строки по запятым и без обрезки
+ * и повторного дополнения пробелами. Записи могут идти подряд без разделителей (как в
+ * выгрузках RECFM=F) или заканчиваться переводом строки; короткая строка дополняется
+ * пробелами, как при передаче с удалением хвостовых пробелов. Записи из одних пробелов
+ * пропускаются. Текст полей читается в UTF-8 или, для выгрузок с мейнфрейма, в EBCDIC
+ * ({@link EbcdicTranscoder}); в EBCDIC пробелом и переводом строки считаются байты этой
+ * кодовой страницы.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class FixedWidthRecordReader implements RecordReader {
+
+    /** Смещение ws-record-name */
+    public static final int NAME_OFFSET = 0;
+    /** Длина ws-record-name, PIC X(10) */
+    public static final int NAME_LENGTH = Main.MAX_NAME_LENGTH;
+    /** Смещение ws-record-value */
+    public static final int VALUE_OFFSET = NAME_OFFSET + NAME_LENGTH;
+    /** Длина ws-record-value, PIC X(10) */
+    public static final int VALUE_LENGTH = Main.MAX_VALUE_LENGTH;
+    /** Смещение ws-record-blank */
+    public static final int BLANK_OFFSET = VALUE_OFFSET + VALUE_LENGTH;
+    /** Длина ws-record-blank, PIC X(10) */
+    public static final int BLANK_LENGTH = Main.DEFAULT_PADDING_LENGTH;
+    /** Смещение ws-record-flag */
+    public static final int FLAG_OFFSET = BLANK_OFFSET + BLANK_LENGTH;
+    /** Длина ws-record-flag, PIC X(5) */
+    public static final int FLAG_LENGTH = 5;
+    /** Смещение description */
+    public static final int DESCRIPTION_OFFSET = FLAG_OFFSET + FLAG_LENGTH;
+    /** Длина description, PIC X(20) */
+    public static final int DESCRIPTION_LENGTH = Main.MAX_DESCRIPTION_LENGTH;
+    /** Длина входной записи в байтах */
+    public static final int RECORD_LENGTH = DESCRIPTION_OFFSET + DESCRIPTION_LENGTH;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] TRUE_BYTES = Main.TRUE_STRING.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE_BYTES = Main.FALSE_STRING.getBytes(StandardCharsets.US_ASCII);
+
+    private final InputStream in;
+    private final EbcdicTranscoder transcoder;
+    private final byte pad;
+    private final byte carriageReturn;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] record = new byte[RECORD_LENGTH];
+    private int position = 0;
+    private int limit = 0;
+    private long recordNumber = 0;
+    private boolean flag;
+
+    /**
+     * @param filename имя файла для чтения
+     * @throws IOException если файл не удалось открыть
+     */
+    public FixedWidthRecordReader(String filename) throws IOException {
+        this(filename, null);
+    }
+
+    /**
+     * @param filename имя файла для чтения
+     * @param transcoder кодовая страница EBCDIC или null, если файл в UTF-8
+     * @throws IOException если файл не удалось открыть
+     */
+    public FixedWidthRecordReader(String filename, EbcdicTranscoder transcoder) throws IOException {
+        this(Files.newInputStream(Paths.get(filename)), transcoder);
+    }
+
+    /**
+     * @param in источник байтов записей; закрывается вместе с читателем
+     */
+    public FixedWidthRecordReader(InputStream in) {
+        this(in, null);
+    }
+
+    /**
+     * @param in источник байтов записей; закрывается вместе с читателем
+     * @param transcoder кодовая страница EBCDIC или null, если записи в UTF-8
+     */
+    public FixedWidthRecordReader(InputStream in, EbcdicTranscoder transcoder) {
+        this.in = in;
+        this.transcoder = transcoder;
+        this.pad = transcoder == null ? (byte) ' ' : transcoder.encode(' ');
+        this.carriageReturn = transcoder == null ? (byte) '\r' : transcoder.encode('\r');
+    }
+
+    @Override
+    public WsRecord next() throws IOException {
+        if (!nextRecord()) {
+            return null;
+        }
+        WsRecord result = new WsRecord();
+        result.setName(field(NAME_OFFSET, NAME_LENGTH));
+        result.setValue(field(VALUE_OFFSET, VALUE_LENGTH));
+        result.setBlank(field(BLANK_OFFSET, BLANK_LENGTH));
+        result.setFlag(flag);
+        result.setDescription(isBlank(DESCRIPTION_OFFSET, DESCRIPTION_LENGTH)
+                ? Main.DEFAULT_DESCRIPTION
+                : field(DESCRIPTION_OFFSET, DESCRIPTION_LENGTH));
+        result.setTimestamp(Main.generateTimestamp());
+        return result;
+    }
+
+    /**
+     * Читает следующую непустую запись и кодирует ее в компактный JSON прямо из байтов записи.
+     *
+     * @param encoder кодировщик
+     * @return длина документа в буфере кодировщика или -1, если файл закончился
+     * @throws IOException если произошла ошибка чтения
+     * @throws RecordFormatException если флаг записи неверный
+     */
+    public int encodeNext(JsonRecordEncoder encoder) throws IOException {
+        if (!nextRecord()) {
+            return -1;
+        }
+        return encoder.encodeFixedWidth(record, flag, Main.getTimestampClock().nowBytes(), transcoder);
+    }
+
+    /**
+     * Читает следующую непустую запись в буфер записи и проверяет флаг.
+     *
+     * @return false, если файл закончился
+     */
+    private boolean nextRecord() throws IOException {
+        while (readRecord()) {
+            recordNumber++;
+            if (isBlank(0, RECORD_LENGTH)) {
+                continue; // Пропускаем пустые записи
+            }
+            flag = parseFlag();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean readRecord() throws IOException {
+        int count = 0;
+        while (count < RECORD_LENGTH) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            byte b = buffer[position++];
+            if (isNewLine(b)) {
+                // Короткая запись, завершенная переводом строки
+                if (count > 0 && record[count - 1] == carriageReturn) {
+                    count--;
+                }
+                Arrays.fill(record, count, RECORD_LENGTH, pad);
+                return true;
+            }
+            record[count++] = b;
+        }
+        if (count == 0) {
+            return false;
+        }
+        Arrays.fill(record, count, RECORD_LENGTH, pad);
+        skipLineEnd();
+        return true;
+    }
+
+    private void skipLineEnd() throws IOException {
+        if (position == limit && !fill()) {
+            return;
+        }
+        if (buffer[position] == carriageReturn) {
+            position++;
+            if (position == limit && !fill()) {
+                return;
+            }
+        }
+        if (isNewLine(buffer[position])) {
+            position++;
+        }
+    }
+
+    private boolean isNewLine(byte b) {
+        // В CP037 переводу строки соответствуют два байта: 0x15 и 0x25
+        return transcoder == null ? b == '\n' : transcoder.decode(b) == '\n';
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private boolean parseFlag() {
+        int start = FLAG_OFFSET;
+        int end = start + FLAG_LENGTH;
+        while (start < end && record[start] == pad) {
+            start++;
+        }
+        while (end > start && record[end - 1] == pad) {
+            end--;
+        }
+        if (start == end) {
+            return Main.DEFAULT_FLAG;
+        }
+        if (equalsIgnoreCase(start, end, TRUE_BYTES)) {
+            return true;
+        }
+        if (equalsIgnoreCase(start, end, FALSE_BYTES)) {
+            return false;
+        }
+        throw new RecordFormatException(Main.ENABLED_FLAG_MESSAGE, recordNumber, field(0, RECORD_LENGTH));
+    }
+
+    private boolean equalsIgnoreCase(int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            // Ожидаемые значения - строчные латинские буквы
+            int c = transcoder == null ? record[start + i] & 0xFF : transcoder.decode(record[start + i]);
+            if ((c | 0x20) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isBlank(int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (record[i] != pad) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String field(int offset, int length) {
+        return transcoder == null
+                ? new String(record, offset, length, StandardCharsets.UTF_8)
+                : transcoder.decode(record, offset, length);
+    }
+
+    /**
+     * @return номер последней прочитанной записи (с 1)
+     */
+    @Override
+    public long getLineNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
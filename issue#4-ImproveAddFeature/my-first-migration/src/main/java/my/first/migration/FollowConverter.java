@@ -0,0 +1,276 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Непрерывное преобразование дописываемого CSV файла в JSON Lines (аналог tail -f).
+ * Новые завершенные строки разбираются тем же {@link Main#parseRecord(String, long)} через
+ * {@link CsvTailReader} и сразу сбрасываются в вывод; уже прочитанные данные повторно не читаются.
+ * <p>
+ * Об изменениях файла сообщает {@link WatchService} директории, а на случай, если он
+ * недоступен или запаздывает (на некоторых платформах он сам работает опросом), файл
+ * дополнительно проверяется каждые {@link #getPollIntervalMillis()} мс.
+ * Усечение файла (размер меньше прочитанного) приводит к чтению с начала, а ротация
+ * (по пути появился другой файл) - к дочитыванию старого файла и переходу на новый.
+ * Файл узнается по {@link BasicFileAttributes#fileKey()}, а где его нет (Windows) - по времени создания.
+ * <p>
+ * Строка с ошибкой формата не останавливает отслеживание: она записывается в файл
+ * отклоненных строк, если он задан, иначе пропускается и учитывается в метриках и событиях JFR.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class FollowConverter {
+
+    /** Интервал проверки файла по умолчанию, мс */
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 250;
+
+    private final Path input;
+    private final long pollIntervalMillis;
+    private final ConversionMetrics metrics;
+    private final RejectWriter rejects;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile boolean running = true;
+    private volatile long recordsProcessed = 0;
+    private volatile long bytesWritten = 0;
+    private volatile int reopenCount = 0;
+    private volatile long rejectedCount = 0;
+
+    /**
+     * @param input отслеживаемый файл
+     */
+    public FollowConverter(Path input) {
+        this(input, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param input отслеживаемый файл
+     * @param pollIntervalMillis интервал проверки файла, мс
+     */
+    public FollowConverter(Path input, long pollIntervalMillis) {
+        this(input, pollIntervalMillis, ConversionMetrics.DISABLED);
+    }
+
+    /**
+     * @param input отслеживаемый файл
+     * @param pollIntervalMillis интервал проверки файла, мс
+     * @param metrics метрики, обновляемые после каждой порции новых строк
+     */
+    public FollowConverter(Path input, long pollIntervalMillis, ConversionMetrics metrics) {
+        this(input, pollIntervalMillis, metrics, null);
+    }
+
+    /**
+     * @param input отслеживаемый файл
+     * @param pollIntervalMillis интервал проверки файла, мс
+     * @param metrics метрики, обновляемые после каждой порции новых строк
+     * @param rejects файл отклоненных строк или null, чтобы только пропускать неверные строки
+     */
+    public FollowConverter(Path input, long pollIntervalMillis, ConversionMetrics metrics, RejectWriter rejects) {
+        this.input = input;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.metrics = metrics;
+        this.rejects = rejects;
+    }
+
+    /**
+     * Преобразует файл и затем новые строки до вызова {@link #stop()}.
+     * Вывод сбрасывается после каждой порции новых строк.
+     *
+     * @param out поток для вывода JSON Lines
+     * @throws IOException если произошла ошибка чтения или записи
+     * @throws IllegalStateException если доля отклоненных строк превышена
+     */
+    public void follow(OutputStream out) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(out);
+        WatchService watcher = openWatcher();
+        Object fileKey = fileKey();
+        CsvTailReader reader = new CsvTailReader(input, 0, 0);
+        try {
+            while (running) {
+                drain(reader, writer);
+
+                BasicFileAttributes attributes = attributes();
+                if (attributes != null && !Objects.equals(identity(attributes), fileKey)) {
+                    // Ротация: дочитываем старый файл и переходим на новый
+                    drain(reader, writer);
+                    reader.close();
+                    fileKey = identity(attributes);
+                    reader = new CsvTailReader(input, 0, 0);
+                    reopenCount++;
+                    continue;
+                }
+                if (attributes != null && attributes.size() < reader.getOffset()) {
+                    // Усечение: файл переписан с начала
+                    reader.close();
+                    reader = new CsvTailReader(input, 0, 0);
+                    reopenCount++;
+                    continue;
+                }
+                await(watcher);
+            }
+            drain(reader, writer);
+        } finally {
+            reader.close();
+            if (watcher != null) {
+                watcher.close();
+            }
+            stopped.countDown();
+        }
+    }
+
+    /**
+     * Останавливает отслеживание. Текущая порция строк дописывается.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Ожидает завершения {@link #follow(OutputStream)} после {@link #stop()}.
+     *
+     * @param timeoutMillis максимальное время ожидания, мс
+     * @return true, если отслеживание завершилось
+     * @throws InterruptedException если поток был прерван
+     */
+    public boolean awaitStopped(long timeoutMillis) throws InterruptedException {
+        return stopped.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void drain(CsvTailReader reader, NdjsonWriter writer) throws IOException {
+        long before = writer.getRecordCount();
+        long offsetBefore = reader.getOffset();
+        long bytesBefore = writer.getBytesWritten();
+        long rejectedBefore = rejectedCount;
+        RecordSerializer serializer = SerializerEngine.DEFAULT.create(false, JsonArrayWriter.ELEMENT_DEPTH);
+        while (true) {
+            try {
+                StreamingFileConverter.writeRecords(reader, writer, serializer, metrics);
+                break;
+            } catch (RecordFormatException e) {
+                // Неверная строка уже прочитана, поэтому чтение продолжается со следующей
+                metrics.addError();
+                rejectedCount++;
+                if (rejects != null) {
+                    rejects.reject(e, reader.getLineNumber());
+                } else {
+                    ConversionEvents.validationFailed(e);
+                }
+            } catch (IOException | RuntimeException e) {
+                metrics.addError();
+                throw e;
+            }
+        }
+        if (rejects != null && rejectedCount > rejectedBefore) {
+            rejects.flush();
+        }
+        if (writer.getRecordCount() > before) {
+            writer.flush();
+            recordsProcessed = writer.getRecordCount();
+            bytesWritten = writer.getBytesWritten();
+            metrics.addRecords(recordsProcessed - before);
+            metrics.addBytesIn(reader.getOffset() - offsetBefore);
+            metrics.addBytesOut(bytesWritten - bytesBefore);
+        }
+    }
+
+    private WatchService openWatcher() {
+        Path directory = input.toAbsolutePath().getParent();
+        try {
+            WatchService watcher = directory.getFileSystem().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            // Остается только опрос
+            return null;
+        }
+    }
+
+    private void await(WatchService watcher) throws IOException {
+        try {
+            if (watcher == null) {
+                Thread.sleep(pollIntervalMillis);
+                return;
+            }
+            WatchKey key = watcher.poll(pollIntervalMillis, TimeUnit.MILLISECONDS);
+            if (key != null) {
+                key.pollEvents();
+                key.reset();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } catch (ClosedWatchServiceException e) {
+            running = false;
+        }
+    }
+
+    private Object fileKey() throws IOException {
+        return identity(Files.readAttributes(input, BasicFileAttributes.class));
+    }
+
+    /**
+     * @param attributes атрибуты файла
+     * @return ключ файла или время создания, если файловая система не дает ключа (Windows)
+     */
+    static Object identity(BasicFileAttributes attributes) {
+        Object key = attributes.fileKey();
+        return key != null ? key : attributes.creationTime();
+    }
+
+    private BasicFileAttributes attributes() throws IOException {
+        try {
+            return Files.readAttributes(input, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // Файл переименован, а новый еще не создан
+            return null;
+        }
+    }
+
+    /**
+     * @return интервал проверки файла, мс
+     */
+    public long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    /**
+     * @return количество преобразованных записей
+     */
+    public long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    /**
+     * @return количество записанных байт JSON
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return количество неверных строк, отклоненных или пропущенных
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @return количество повторных открытий файла после ротации или усечения
+     */
+    public int getReopenCount() {
+        return reopenCount;
+    }
+}
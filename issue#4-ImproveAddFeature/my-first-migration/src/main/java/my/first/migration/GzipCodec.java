@@ -0,0 +1,148 @@
+package my.first.migration;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Потоковое сжатие gzip для файлов, имя которых оканчивается на {@link #EXTENSION}.
+ * Входной файл распаковывается при чтении, а вывод сжимается при записи, без
+ * промежуточных несжатых файлов на диске. Файлы с другими именами читаются и пишутся
+ * как есть. Сжатие может выполняться в отдельном потоке ({@link AsyncOutputStream}),
+ * параллельно с разбором и кодированием записей.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class GzipCodec {
+
+    /** Расширение сжатых файлов */
+    public static final String EXTENSION = ".gz";
+    /** Уровень сжатия по умолчанию */
+    public static final int DEFAULT_LEVEL = 6;
+    /** Размер буферов сжатия и распаковки по умолчанию в байтах */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    /** Настройки по умолчанию: сжатие в потоке записи */
+    public static final GzipCodec DEFAULT = new GzipCodec(DEFAULT_LEVEL, DEFAULT_BUFFER_SIZE, false);
+
+    private final int level;
+    private final int bufferSize;
+    private final boolean async;
+
+    /**
+     * @param level уровень сжатия от {@link Deflater#NO_COMPRESSION} до {@link Deflater#BEST_COMPRESSION}
+     * @param bufferSize размер буферов сжатия и распаковки в байтах
+     * @param async сжимать вывод в отдельном потоке
+     */
+    public GzipCodec(int level, int bufferSize, boolean async) {
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.level = level;
+        this.bufferSize = bufferSize;
+        this.async = async;
+    }
+
+    /**
+     * @param filename имя файла
+     * @return true, если файл сжат gzip
+     */
+    public static boolean isGzip(String filename) {
+        return filename != null && filename.endsWith(EXTENSION);
+    }
+
+    /**
+     * Открывает входной файл, распаковывая его, если он сжат.
+     *
+     * @param path путь к файлу
+     * @return поток байтов файла
+     * @throws IOException если файл не удалось открыть
+     */
+    public InputStream openInput(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (!isGzip(path.toString())) {
+            return in;
+        }
+        try {
+            return new GZIPInputStream(in, bufferSize);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return фабрика потокового читателя CSV, распаковывающего сжатые файлы
+     */
+    public RecordReader.Factory csvReaderFactory() {
+        return filename -> isGzip(filename)
+                ? new CsvRecordReader(new InputStreamReader(openInput(Paths.get(filename)), StandardCharsets.UTF_8))
+                : new CsvRecordReader(filename);
+    }
+
+    /**
+     * Открывает файл вывода, сжимая вывод, если имя файла оканчивается на {@link #EXTENSION}.
+     * При дописывании в конец сжатого файла добавляется новый член gzip, который
+     * распаковывается вместе с предыдущими.
+     *
+     * @param path путь к файлу
+     * @param append дописывать в конец файла вместо перезаписи
+     * @return поток вывода; закрытие потока завершает сжатие и закрывает файл
+     * @throws IOException если файл не удалось открыть
+     */
+    public OutputStream openOutput(Path path, boolean append) throws IOException {
+        ChannelOutputStream file = new ChannelOutputStream(path, append);
+        if (!isGzip(path.toString())) {
+            return file;
+        }
+        OutputStream gzip = new LevelGzipOutputStream(file, bufferSize, level);
+        // Deflater обрабатывает каждый вызов записи отдельно, поэтому мелкие записи собираются в буфер
+        return async
+                ? new AsyncOutputStream(gzip, bufferSize, AsyncOutputStream.DEFAULT_BUFFER_COUNT)
+                : new BufferedOutputStream(gzip, bufferSize);
+    }
+
+    /**
+     * @return уровень сжатия
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return размер буферов сжатия и распаковки в байтах
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return true, если вывод сжимается в отдельном потоке
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Поток сжатия gzip с заданным уровнем сжатия.
+     */
+    private static final class LevelGzipOutputStream extends GZIPOutputStream {
+
+        LevelGzipOutputStream(OutputStream out, int bufferSize, int level) throws IOException {
+            super(out, bufferSize);
+            def.setLevel(level);
+        }
+    }
+}
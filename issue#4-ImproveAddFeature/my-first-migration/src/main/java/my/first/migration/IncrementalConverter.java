@@ -0,0 +1,260 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Инкрементальное преобразование дописываемого CSV файла.
+ * После каждого запуска сохраняется {@link ConversionCheckpoint}: смещение и номер строки,
+ * до которых прочитан входной файл, и размер файла вывода. Следующий запуск разбирает только
+ * новые строки и добавляет их в конец JSON Lines или внутрь существующего JSON массива.
+ * Если входной файл был переписан, файл вывода укорочен или состояния нет, файл
+ * преобразуется с начала. Разбираются только завершенные строки ({@link CsvTailReader}).
+ * <p>
+ * Состояние также сохраняется каждые {@link #getCheckpointInterval()} записей, поэтому
+ * прерванное преобразование продолжается с последнего сохранения. В режиме перезапуска
+ * ({@link #isRestart()}) входной файл считается законченным: читается и последняя строка
+ * без перевода строки, вместе с состоянием сохраняется общая временная метка запуска
+ * ({@link TimestampClock#isBatchWide()}), которая присваивается записям продолжения, а после
+ * успешного завершения файл состояния удаляется. Так вывод прерванного и продолженного
+ * запуска побайтно совпадает с выводом непрерывного.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class IncrementalConverter {
+
+    /** Количество записей между сохранениями состояния по умолчанию */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 100_000;
+
+    private final OutputLayout layout;
+    private final long checkpointInterval;
+    private final boolean restart;
+    private long recordsProcessed = 0;
+    private long bytesWritten = 0;
+    private boolean resumed = false;
+    private long startLineNumber = 0;
+
+    /**
+     * @param layout формат вывода
+     */
+    public IncrementalConverter(OutputLayout layout) {
+        this(layout, DEFAULT_CHECKPOINT_INTERVAL, false);
+    }
+
+    /**
+     * @param layout формат вывода
+     * @param checkpointInterval количество записей между сохранениями состояния
+     * @param restart режим перезапуска: файл законченный, состояние удаляется после завершения
+     */
+    public IncrementalConverter(OutputLayout layout, long checkpointInterval, boolean restart) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.layout = layout;
+        this.checkpointInterval = checkpointInterval;
+        this.restart = restart;
+    }
+
+    /**
+     * Преобразует новые строки входного файла и сохраняет состояние.
+     * При ошибке остается последнее сохраненное состояние, а вывод после него отбрасывается
+     * следующим запуском. В режиме перезапуска записи продолжения получают сохраненную временную
+     * метку; общие часы {@link Main#getTimestampClock()} не меняются.
+     *
+     * @param filename имя входного файла
+     * @param output файл вывода
+     * @throws IOException если произошла ошибка чтения или записи
+     * @throws RecordFormatException если формат строки неверный
+     */
+    public void convert(String filename, Path output) throws IOException {
+        Path input = Paths.get(filename);
+        Path checkpointPath = ConversionCheckpoint.pathFor(output);
+        ConversionCheckpoint previous = ConversionCheckpoint.load(checkpointPath);
+
+        FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try (ChannelOutputStream out = new ChannelOutputStream(channel, DirectBufferPool.shared())) {
+            // Байты после сохраненного вывода без окончания массива всегда переписываются,
+            // поэтому прерванный запуск не мешает продолжению
+            long keptBytes = 0;
+            if (previous != null && previous.getLayout() == layout) {
+                keptBytes = previous.getOutputBytes();
+                if (layout != OutputLayout.NDJSON) {
+                    keptBytes -= JsonArrayWriter.endLength(layout.isPretty(), previous.getRecordCount());
+                }
+            }
+            // Хеш прочитанной части продолжается при сохранениях, поэтому файл хешируется один раз
+            ConversionCheckpoint.PrefixHasher hasher = new ConversionCheckpoint.PrefixHasher();
+            resumed = previous != null
+                    && previous.getLayout() == layout
+                    && channel.size() >= keptBytes
+                    && previous.matchesInput(input, hasher);
+            if (!resumed) {
+                keptBytes = 0;
+                hasher = new ConversionCheckpoint.PrefixHasher();
+            }
+            long existingRecords = resumed ? previous.getRecordCount() : 0;
+            // Отбрасываем окончание массива и остатки прерванного запуска
+            channel.truncate(keptBytes);
+            channel.position(keptBytes);
+            startLineNumber = resumed ? previous.getLineNumber() : 0;
+            TimestampClock clock = Main.getTimestampClock();
+            TimestampClock restoredClock = null;
+            if (resumed && restart && previous.getTimestamp() != null && clock.isBatchWide()) {
+                restoredClock = TimestampClock.fixed(previous.getTimestamp());
+                clock = restoredClock;
+            }
+
+            try (CsvTailReader reader = new CsvTailReader(input, resumed ? previous.getInputOffset() : 0, startLineNumber,
+                    restart)) {
+                JsonOutputWriter writer;
+                if (layout == OutputLayout.NDJSON) {
+                    writer = new NdjsonWriter(out);
+                } else if (resumed) {
+                    writer = JsonArrayWriter.continuation(out, layout.isPretty(), existingRecords);
+                } else {
+                    writer = new JsonArrayWriter(out, layout.isPretty());
+                }
+                writer.start();
+                Segment segment = new Segment(reader, restoredClock);
+                while (true) {
+                    StreamingFileConverter.writeRecords(segment, writer, layout.isPretty());
+                    if (!segment.reachedLimit()) {
+                        break;
+                    }
+                    // Окончания массива еще нет, но в состоянии хранится размер законченного вывода
+                    out.flush();
+                    channel.force(false);
+                    long totalRecords = totalRecords(writer, existingRecords);
+                    long outputBytes = channel.size()
+                            + (layout == OutputLayout.NDJSON ? 0 : JsonArrayWriter.endLength(layout.isPretty(), totalRecords));
+                    saveCheckpoint(input, hasher, reader, totalRecords, outputBytes, clock, checkpointPath);
+                    segment.reset();
+                }
+                writer.finish();
+                out.flush();
+                channel.force(false);
+
+                recordsProcessed = totalRecords(writer, existingRecords) - existingRecords;
+                bytesWritten = writer.getBytesWritten();
+                if (restart) {
+                    Files.deleteIfExists(checkpointPath);
+                } else {
+                    saveCheckpoint(input, hasher, reader, existingRecords + recordsProcessed, channel.size(), clock,
+                            checkpointPath);
+                }
+            }
+        }
+    }
+
+    private static long totalRecords(JsonOutputWriter writer, long existingRecords) {
+        // Писатель продолжения массива уже учитывает существующие записи
+        return writer.getRecordCount() + (writer instanceof JsonArrayWriter ? 0 : existingRecords);
+    }
+
+    private void saveCheckpoint(Path input, ConversionCheckpoint.PrefixHasher hasher, CsvTailReader reader,
+            long totalRecords, long outputBytes, TimestampClock clock, Path path) throws IOException {
+        String timestamp = restart && clock.isBatchWide() ? clock.now() : null;
+        new ConversionCheckpoint(layout, reader.getOffset(), reader.getLineNumber(), totalRecords, outputBytes,
+                hasher.hash(input, reader.getOffset()), timestamp)
+                .save(path);
+    }
+
+    /**
+     * @return количество записей между сохранениями состояния
+     */
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * @return true, если включен режим перезапуска
+     */
+    public boolean isRestart() {
+        return restart;
+    }
+
+    /**
+     * @return количество новых записей после последнего преобразования
+     */
+    public long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    /**
+     * @return количество байт, дописанных в файл вывода
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return true, если преобразование продолжило сохраненное состояние
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * @return номер строки, после которой началось чтение
+     */
+    public long getStartLineNumber() {
+        return startLineNumber;
+    }
+
+    /**
+     * Часть записей читателя между сохранениями состояния: после {@link #checkpointInterval}
+     * записей сообщает о конце файла, и следующая часть продолжает тот же читатель.
+     * При продолжении записи получают метку восстановленных часов прерванного запуска.
+     */
+    private final class Segment implements RecordReader {
+
+        private final CsvTailReader reader;
+        private final TimestampClock restoredClock;
+        private long count = 0;
+
+        Segment(CsvTailReader reader, TimestampClock restoredClock) {
+            this.reader = reader;
+            this.restoredClock = restoredClock;
+        }
+
+        @Override
+        public WsRecord next() throws IOException {
+            if (count == checkpointInterval) {
+                return null;
+            }
+            WsRecord record = reader.next();
+            if (record != null) {
+                count++;
+                if (restoredClock != null) {
+                    record.setTimestamp(restoredClock.now());
+                }
+            }
+            return record;
+        }
+
+        boolean reachedLimit() {
+            return count == checkpointInterval;
+        }
+
+        void reset() {
+            count = 0;
+        }
+
+        @Override
+        public long getLineNumber() {
+            return reader.getLineNumber();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package my.first.migration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Кодировщик записи через потоковый генератор Jackson {@link JsonGenerator}.
+ * Один генератор пишет все документы в переиспользуемый буфер без разделителей
+ * между документами верхнего уровня; после каждой записи генератор сбрасывается в буфер.
+ * Красивый вывод совпадает по форме с {@link Main#generatePrettyJson}; отступ уровня вложенности
+ * добавляется к каждому переводу строки. В отличие от
+ * {@link TemplateRecordSerializer}, специальные символы в значениях экранируются.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class JacksonRecordSerializer implements RecordSerializer {
+
+    private static final JsonFactory FACTORY = new JsonFactory().setRootValueSeparator(null);
+
+    private final boolean prettyPrint;
+    private final Buffer out = new Buffer();
+    private final JsonGenerator generator;
+
+    /**
+     * @param prettyPrint флаг красивого вывода
+     */
+    public JacksonRecordSerializer(boolean prettyPrint) {
+        this(prettyPrint, 0);
+    }
+
+    /**
+     * @param prettyPrint флаг красивого вывода
+     * @param depth уровень вложенности документа
+     */
+    public JacksonRecordSerializer(boolean prettyPrint, int depth) {
+        this.prettyPrint = prettyPrint;
+        try {
+            this.generator = FACTORY.createGenerator(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (prettyPrint) {
+            generator.setPrettyPrinter(new RecordPrettyPrinter("\n" + JsonArrayWriter.PRETTY_INDENT.repeat(depth)));
+        }
+    }
+
+    @Override
+    public int encode(WsRecord record) {
+        out.reset();
+        try {
+            writeRecord(generator, record);
+            generator.flush();
+        } catch (IOException e) {
+            // Буфер в памяти не выбрасывает IOException
+            throw new UncheckedIOException(e);
+        }
+        return out.size();
+    }
+
+    /**
+     * Записывает запись как объект с полями JSON вывода ({@link Main#JSON_TEMPLATE}).
+     * Используется также для двоичных форматов {@link BinaryFileConverter}.
+     *
+     * @param generator генератор
+     * @param record запись
+     * @throws IOException если произошла ошибка записи
+     */
+    static void writeRecord(JsonGenerator generator, WsRecord record) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField(Main.NAME_FIELD, record.getName().trim());
+        generator.writeStringField(Main.VALUE_FIELD, record.getValue().trim());
+        generator.writeBooleanField(Main.ENABLED_FIELD, record.getFlag());
+        generator.writeStringField(Main.DESCRIPTION_FIELD, record.getDescription().trim());
+        generator.writeStringField(Main.TIMESTAMP_FIELD, record.getTimestamp());
+        generator.writeEndObject();
+    }
+
+    @Override
+    public byte[] buffer() {
+        return out.array();
+    }
+
+    @Override
+    public int length() {
+        return out.size();
+    }
+
+    @Override
+    public boolean isPretty() {
+        return prettyPrint;
+    }
+
+    /**
+     * Буфер с доступом к внутреннему массиву без копирования.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(JsonRecordEncoder.INITIAL_CAPACITY);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+
+    /**
+     * Отступ в два пробела, перевод строки со сдвигом уровня вложенности и разделитель {@code ": "}, как в {@link Main#generatePrettyJson}.
+     */
+    private static final class RecordPrettyPrinter extends DefaultPrettyPrinter {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String lineBreak;
+
+        RecordPrettyPrinter(String lineBreak) {
+            super((SerializableString) null);
+            this.lineBreak = lineBreak;
+            indentObjectsWith(new DefaultIndenter(JsonArrayWriter.PRETTY_INDENT, lineBreak));
+        }
+
+        @Override
+        public DefaultPrettyPrinter createInstance() {
+            return new RecordPrettyPrinter(lineBreak);
+        }
+
+        @Override
+        public void writeObjectFieldValueSeparator(JsonGenerator generator) throws IOException {
+            generator.writeRaw(": ");
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package my.first.migration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Инкрементальный писатель JSON массива.
+ * Выводит открывающую скобку, разделители и закрывающую скобку по мере поступления записей,
+ * не накапливая весь массив в памяти. Формат вывода совпадает с пакетным режимом
+ * {@link Main#processFileMode(String, String, boolean)}.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class JsonArrayWriter implements JsonOutputWriter {
+
+    /** Отступ записи внутри массива при красивом выводе */
+    static final String PRETTY_INDENT = "  ";
+    /** Уровень вложенности записи внутри массива */
+    public static final int ELEMENT_DEPTH = 1;
+
+    private static final byte[] ARRAY_START = "[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ARRAY_END = "]".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INDENT = PRETTY_INDENT.getBytes(StandardCharsets.UTF_8);
+
+    private final OutputStream out;
+    private final boolean prettyPrint;
+    private final boolean fragment;
+    private long recordCount = 0;
+    private long bytesWritten = 0;
+    private boolean started = false;
+    private boolean finished = false;
+
+    /**
+     * @param out поток для вывода
+     * @param prettyPrint флаг красивого вывода
+     */
+    public JsonArrayWriter(OutputStream out, boolean prettyPrint) {
+        this(out, prettyPrint, false);
+    }
+
+    private JsonArrayWriter(OutputStream out, boolean prettyPrint, boolean fragment) {
+        this.out = out;
+        this.prettyPrint = prettyPrint;
+        this.fragment = fragment;
+    }
+
+    /**
+     * Создает писатель фрагмента массива: элементы и разделители без скобок.
+     * Фрагменты, подготовленные параллельно, затем добавляются в общий массив
+     * через {@link #writeFragment(ByteArrayOutputStream, long)}.
+     *
+     * @param out поток для вывода фрагмента
+     * @param prettyPrint флаг красивого вывода
+     * @return писатель фрагмента
+     */
+    public static JsonArrayWriter fragment(OutputStream out, boolean prettyPrint) {
+        return new JsonArrayWriter(out, prettyPrint, true);
+    }
+
+    /**
+     * Создает писатель, продолжающий ранее записанный массив, у которого удалено окончание
+     * длиной {@link #endLength(boolean, long)} байт. Новые записи добавляются через разделитель
+     * после существующих, а {@link #finish()} снова записывает окончание массива.
+     *
+     * @param out поток для вывода, установленный на место удаленного окончания
+     * @param prettyPrint флаг красивого вывода, совпадающий с записанным массивом
+     * @param existingCount количество записей в ранее записанном массиве
+     * @return писатель продолжения массива; {@link #getRecordCount()} включает существующие записи
+     */
+    public static JsonArrayWriter continuation(OutputStream out, boolean prettyPrint, long existingCount) {
+        JsonArrayWriter writer = new JsonArrayWriter(out, prettyPrint, false);
+        writer.started = true;
+        writer.recordCount = existingCount;
+        return writer;
+    }
+
+    /**
+     * Возвращает длину окончания завершенного массива: "]" или, при красивом выводе непустого
+     * массива, перевод строки и "]".
+     *
+     * @param prettyPrint флаг красивого вывода
+     * @param recordCount количество записей в массиве
+     * @return длина окончания в байтах
+     */
+    public static int endLength(boolean prettyPrint, long recordCount) {
+        return ARRAY_END.length + (prettyPrint && recordCount > 0 ? NEW_LINE.length : 0);
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (started) {
+            return;
+        }
+        started = true;
+        if (fragment) {
+            return;
+        }
+        write(ARRAY_START);
+        if (prettyPrint) {
+            write(NEW_LINE);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * При красивом выводе документ уже должен быть сдвинут на уровень {@link #ELEMENT_DEPTH}
+     * (например {@link JsonRecordEncoder#pretty(int)}); отступ перед первой строкой добавляет писатель.
+     */
+    @Override
+    public void writeRecord(byte[] json, int offset, int length) throws IOException {
+        beginElement();
+        out.write(json, offset, length);
+        bytesWritten += length;
+        recordCount++;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Фрагмент должен быть подготовлен писателем {@link #fragment(OutputStream, boolean)}
+     * с тем же режимом вывода.
+     */
+    @Override
+    public void writeFragment(ByteArrayOutputStream fragmentBytes, long count) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        start();
+        if (recordCount > 0) {
+            writeSeparator();
+        }
+        fragmentBytes.writeTo(out);
+        bytesWritten += fragmentBytes.size();
+        recordCount += count;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        start();
+        finished = true;
+        if (fragment) {
+            out.flush();
+            return;
+        }
+        if (prettyPrint && recordCount > 0) {
+            write(NEW_LINE);
+        }
+        write(ARRAY_END);
+        out.flush();
+    }
+
+    @Override
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Завершает массив и закрывает поток вывода.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void beginElement() throws IOException {
+        start();
+        if (recordCount > 0) {
+            writeSeparator();
+        }
+        if (prettyPrint) {
+            write(INDENT);
+        }
+    }
+
+    private void writeSeparator() throws IOException {
+        write(SEPARATOR);
+        if (prettyPrint) {
+            write(NEW_LINE);
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        bytesWritten += bytes.length;
+    }
+}
@@ -0,0 +1,59 @@
+package my.first.migration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Писатель последовательности JSON документов в поток.
+ * Реализации определяют обрамление документов: JSON массив или JSON Lines.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public interface JsonOutputWriter extends Closeable, Flushable {
+
+    /**
+     * Записывает начало вывода. Вызывается автоматически при первой записи.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    void start() throws IOException;
+
+    /**
+     * Записывает уже закодированный в UTF-8 JSON документ.
+     *
+     * @param json буфер с документом
+     * @param offset смещение документа в буфере
+     * @param length длина документа в байтах
+     * @throws IOException если произошла ошибка записи
+     */
+    void writeRecord(byte[] json, int offset, int length) throws IOException;
+
+    /**
+     * Добавляет фрагмент, подготовленный писателем фрагмента того же формата.
+     *
+     * @param fragmentBytes содержимое фрагмента
+     * @param count количество документов во фрагменте
+     * @throws IOException если произошла ошибка записи
+     */
+    void writeFragment(ByteArrayOutputStream fragmentBytes, long count) throws IOException;
+
+    /**
+     * Записывает окончание вывода и сбрасывает поток.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    void finish() throws IOException;
+
+    /**
+     * @return количество записанных документов
+     */
+    long getRecordCount();
+
+    /**
+     * @return количество записанных байт, включая обрамление
+     */
+    long getBytesWritten();
+}
@@ -0,0 +1,452 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Кодировщик записи WsRecord в компактный JSON без промежуточных объектов.
+ * Заменяет {@code String.format(JSON_TEMPLATE, ...)}: ключи заранее закодированы в байты,
+ * поля записываются напрямую в переиспользуемый буфер UTF-8, а пробелы выравнивания
+ * пропускаются по индексам, без создания обрезанных копий строк.
+ * Результат совпадает с {@link Main#JSON_TEMPLATE} для полей без специальных символов;
+ * кавычки, обратная косая черта и управляющие символы экранируются.
+ * Кодировщик красивого вывода ({@link #pretty(int)}) пишет документ сразу с отступами
+ * нужного уровня вложенности, поэтому запись массива не сдвигается повторно.
+ * Экземпляр не потокобезопасен: используйте отдельный кодировщик на каждый поток.
+ * Реализация {@link SerializerEngine#ENCODER}.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class JsonRecordEncoder implements RecordSerializer {
+
+    /** Начальная емкость буфера в байтах */
+    public static final int INITIAL_CAPACITY = 256;
+
+    private static final String[] FIELD_NAMES = {Main.NAME_FIELD, Main.VALUE_FIELD, Main.ENABLED_FIELD,
+            Main.DESCRIPTION_FIELD, Main.TIMESTAMP_FIELD};
+    private static final byte[] TRUE_BYTES = bytes(Main.TRUE_STRING);
+    private static final byte[] FALSE_BYTES = bytes(Main.FALSE_STRING);
+    private static final byte[] HEX_DIGITS = bytes("0123456789abcdef");
+    private static final byte[] DEFAULT_DESCRIPTION_BYTES = bytes(Main.DEFAULT_DESCRIPTION);
+
+    private final boolean prettyPrint;
+    private final byte[] namePrefix;
+    private final byte[] valuePrefix;
+    private final byte[] enabledPrefix;
+    private final byte[] descriptionPrefix;
+    private final byte[] timestampPrefix;
+    private final byte[] recordSuffix;
+    private ValueDictionary dictionary;
+    private byte[] buffer;
+    private int length = 0;
+
+    /**
+     * Создает кодировщик с буфером емкостью {@link #INITIAL_CAPACITY}.
+     */
+    public JsonRecordEncoder() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity начальная емкость буфера в байтах
+     */
+    public JsonRecordEncoder(int initialCapacity) {
+        this(initialCapacity, false, 0);
+    }
+
+    private JsonRecordEncoder(int initialCapacity, boolean prettyPrint, int depth) {
+        this.buffer = new byte[initialCapacity];
+        this.prettyPrint = prettyPrint;
+        // Ключи вместе с разделителями, отступами и кавычками значений
+        String[] prefixes = new String[FIELD_NAMES.length];
+        String indent = prettyPrint ? JsonArrayWriter.PRETTY_INDENT.repeat(depth) : "";
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            String key = "\"" + FIELD_NAMES[i] + "\":";
+            prefixes[i] = prettyPrint ? "\n" + indent + JsonArrayWriter.PRETTY_INDENT + key + " " : key;
+        }
+        this.namePrefix = bytes("{" + prefixes[0] + "\"");
+        this.valuePrefix = bytes("\"," + prefixes[1] + "\"");
+        this.enabledPrefix = bytes("\"," + prefixes[2]);
+        this.descriptionPrefix = bytes("," + prefixes[3] + "\"");
+        this.timestampPrefix = bytes("\"," + prefixes[4] + "\"");
+        this.recordSuffix = bytes(prettyPrint ? "\"\n" + indent + "}" : "\"}");
+    }
+
+    /**
+     * Создает кодировщик красивого вывода в формате {@link Main#generatePrettyJson}.
+     * Все строки документа, кроме первой, сдвигаются на {@code depth} отступов
+     * {@link JsonArrayWriter#PRETTY_INDENT}; первую строку сдвигает писатель массива.
+     *
+     * @param depth уровень вложенности документа: 0 для отдельного документа,
+     *              {@link JsonArrayWriter#ELEMENT_DEPTH} для элемента массива
+     * @return кодировщик
+     */
+    public static JsonRecordEncoder pretty(int depth) {
+        return new JsonRecordEncoder(INITIAL_CAPACITY, true, depth);
+    }
+
+    /**
+     * Кодирует запись в компактный JSON, заменяя предыдущее содержимое буфера.
+     *
+     * @param record запись для кодирования
+     * @return длина закодированного документа в байтах
+     */
+    @Override
+    public int encode(WsRecord record) {
+        length = 0;
+        append(namePrefix);
+        appendTrimmed(record.getName());
+        append(valuePrefix);
+        appendValue(record.getValue(), record.getValueJson());
+        append(enabledPrefix);
+        append(record.getFlag() ? TRUE_BYTES : FALSE_BYTES);
+        append(descriptionPrefix);
+        appendValue(record.getDescription(), record.getDescriptionJson());
+        append(timestampPrefix);
+        appendEscaped(record.getTimestamp(), 0, record.getTimestamp().length());
+        append(recordSuffix);
+        return length;
+    }
+
+    /**
+     * Кодирует запись арены, копируя байты полей напрямую из арены.
+     *
+     * @param cursor курсор, установленный на запись
+     * @return длина закодированного документа в байтах
+     */
+    public int encode(WsRecordArena.Cursor cursor) {
+        length = 0;
+        append(namePrefix);
+        appendTrimmed(cursor, WsRecordArena.NAME_OFFSET, WsRecordArena.NAME_LENGTH);
+        append(valuePrefix);
+        appendTrimmed(cursor, WsRecordArena.VALUE_OFFSET, WsRecordArena.VALUE_LENGTH);
+        append(enabledPrefix);
+        append(cursor.getFlag() ? TRUE_BYTES : FALSE_BYTES);
+        append(descriptionPrefix);
+        appendTrimmed(cursor, WsRecordArena.DESCRIPTION_OFFSET, WsRecordArena.DESCRIPTION_LENGTH);
+        append(timestampPrefix);
+        appendTrimmed(cursor, WsRecordArena.TIMESTAMP_OFFSET, WsRecordArena.TIMESTAMP_LENGTH);
+        append(recordSuffix);
+        return length;
+    }
+
+    /**
+     * Кодирует запись фиксированной длины ({@link FixedWidthRecordReader}) в компактный JSON,
+     * копируя байты полей UTF-8 напрямую из записи. Пустое описание заменяется
+     * {@link Main#DEFAULT_DESCRIPTION}, как при разборе CSV.
+     *
+     * @param record байты записи в раскладке {@link FixedWidthRecordReader}
+     * @param flag разобранный флаг enabled
+     * @param timestamp временная метка в UTF-8
+     * @return длина закодированного документа в байтах
+     */
+    public int encodeFixedWidth(byte[] record, boolean flag, byte[] timestamp) {
+        return encodeFixedWidth(record, flag, timestamp, null);
+    }
+
+    /**
+     * Кодирует запись фиксированной длины в компактный JSON, перекодируя байты полей
+     * из EBCDIC по таблице {@link EbcdicTranscoder} прямо в буфер кодировщика.
+     *
+     * @param record байты записи в раскладке {@link FixedWidthRecordReader}
+     * @param flag разобранный флаг enabled
+     * @param timestamp временная метка в UTF-8
+     * @param transcoder кодовая страница записи или null, если запись в UTF-8
+     * @return длина закодированного документа в байтах
+     */
+    public int encodeFixedWidth(byte[] record, boolean flag, byte[] timestamp, EbcdicTranscoder transcoder) {
+        length = 0;
+        append(namePrefix);
+        appendTrimmed(record, FixedWidthRecordReader.NAME_OFFSET, FixedWidthRecordReader.NAME_LENGTH, transcoder);
+        append(valuePrefix);
+        appendTrimmed(record, FixedWidthRecordReader.VALUE_OFFSET, FixedWidthRecordReader.VALUE_LENGTH, transcoder);
+        append(enabledPrefix);
+        append(flag ? TRUE_BYTES : FALSE_BYTES);
+        append(descriptionPrefix);
+        int before = length;
+        appendTrimmed(record, FixedWidthRecordReader.DESCRIPTION_OFFSET, FixedWidthRecordReader.DESCRIPTION_LENGTH, transcoder);
+        if (length == before) {
+            append(DEFAULT_DESCRIPTION_BYTES);
+        }
+        append(timestampPrefix);
+        append(timestamp);
+        append(recordSuffix);
+        return length;
+    }
+
+    /**
+     * Включает словарь повторяющихся значений: поля value и description записей WsRecord
+     * берутся из словаря уже закодированными. Записи, прошедшие {@link ValueDictionary#intern},
+     * кодируются из сохраненных в них байтов без словаря. Записи арены и фиксированной длины
+     * кодируются без словаря.
+     *
+     * @param dictionary словарь значений или null, чтобы кодировать каждое значение заново
+     */
+    public void setDictionary(ValueDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * @return внутренний буфер; действительны только первые {@link #length()} байт
+     */
+    @Override
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return длина последнего закодированного документа в байтах
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public boolean isPretty() {
+        return prettyPrint;
+    }
+
+    /**
+     * Записывает последний закодированный документ в поток.
+     *
+     * @param out поток для вывода
+     * @throws IOException если произошла ошибка записи
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    /**
+     * @return последний закодированный документ в виде строки
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Кодирует запись в строку JSON. Удобный метод для единичных записей.
+     *
+     * @param record запись для кодирования
+     * @return JSON документ
+     */
+    @Override
+    public String encodeToString(WsRecord record) {
+        encode(record);
+        return toString();
+    }
+
+    /**
+     * Вычисляет длину строки в UTF-8 без ее кодирования. Одиночный суррогат считается одним
+     * байтом, так как кодировщик заменяет его символом '?'.
+     *
+     * @param str строка
+     * @return количество байт UTF-8
+     */
+    public static long utf8Length(String str) {
+        long length = 0;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < str.length()
+                    && Character.isLowSurrogate(str.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Начинает новый документ, составляемый по частям ({@link SchemaRecordEncoder}).
+     */
+    void clear() {
+        length = 0;
+    }
+
+    /**
+     * Добавляет заранее закодированные байты: ключи, разделители и литералы.
+     *
+     * @param bytes байты UTF-8
+     */
+    void appendBytes(byte[] bytes) {
+        append(bytes);
+    }
+
+    /**
+     * Добавляет часть строки с экранированием специальных символов JSON.
+     *
+     * @param str строка
+     * @param start начало части
+     * @param end конец части (не включая)
+     */
+    void appendString(String str, int start, int end) {
+        appendEscaped(str, start, end);
+    }
+
+    private void appendValue(String str, byte[] json) {
+        if (json != null) {
+            // Значение уже закодировано словарем при чтении записи
+            append(json);
+        } else if (dictionary != null) {
+            append(dictionary.encoded(str));
+        } else {
+            appendTrimmed(str);
+        }
+    }
+
+    private void appendTrimmed(String str) {
+        // Те же границы, что и у String.trim(), но без создания новой строки
+        int start = 0;
+        int end = str.length();
+        while (start < end && str.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        appendEscaped(str, start, end);
+    }
+
+    private void appendTrimmed(WsRecordArena.Cursor cursor, int offset, int fieldLength) {
+        int start = offset;
+        int end = offset + fieldLength;
+        while (start < end && (cursor.byteAt(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (cursor.byteAt(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        ensureCapacity((end - start) * 6);
+        for (int i = start; i < end; i++) {
+            byte b = cursor.byteAt(i);
+            // Байты многобайтовых последовательностей UTF-8 копируются как есть
+            if (b >= 0 && (b == '"' || b == '\\' || b < 0x20)) {
+                appendEscapedAscii((char) b);
+            } else {
+                buffer[length++] = b;
+            }
+        }
+    }
+
+    private void appendTrimmed(byte[] source, int offset, int fieldLength) {
+        int start = offset;
+        int end = offset + fieldLength;
+        while (start < end && (source[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (source[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        ensureCapacity((end - start) * 6);
+        for (int i = start; i < end; i++) {
+            byte b = source[i];
+            // Байты многобайтовых последовательностей UTF-8 копируются как есть
+            if (b >= 0 && (b == '"' || b == '\\' || b < 0x20)) {
+                appendEscapedAscii((char) b);
+            } else {
+                buffer[length++] = b;
+            }
+        }
+    }
+
+    private void appendTrimmed(byte[] source, int offset, int fieldLength, EbcdicTranscoder transcoder) {
+        if (transcoder == null) {
+            appendTrimmed(source, offset, fieldLength);
+            return;
+        }
+        int start = offset;
+        int end = offset + fieldLength;
+        while (start < end && transcoder.decode(source[start]) <= ' ') {
+            start++;
+        }
+        while (end > start && transcoder.decode(source[end - 1]) <= ' ') {
+            end--;
+        }
+        ensureCapacity((end - start) * EbcdicTranscoder.MAX_JSON_BYTES);
+        length = transcoder.appendJson(source, start, end, buffer, length);
+    }
+
+    private void appendEscapedAscii(char c) {
+        buffer[length++] = '\\';
+        if (c == '"' || c == '\\') {
+            buffer[length++] = (byte) c;
+        } else {
+            buffer[length++] = 'u';
+            buffer[length++] = '0';
+            buffer[length++] = '0';
+            buffer[length++] = HEX_DIGITS[c >> 4];
+            buffer[length++] = HEX_DIGITS[c & 0xF];
+        }
+    }
+
+    private void appendEscaped(String str, int start, int end) {
+        // В худшем случае символ занимает 6 байт (\\uXXXX)
+        ensureCapacity((end - start) * 6);
+        byte[] buf = buffer;
+        int pos = length;
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buf[pos++] = '\\';
+                    buf[pos++] = (byte) c;
+                } else if (c < 0x20) {
+                    buf[pos++] = '\\';
+                    buf[pos++] = 'u';
+                    buf[pos++] = '0';
+                    buf[pos++] = '0';
+                    buf[pos++] = HEX_DIGITS[c >> 4];
+                    buf[pos++] = HEX_DIGITS[c & 0xF];
+                } else {
+                    buf[pos++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(str.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, str.charAt(++i));
+                buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buf[pos++] = '?'; // Одиночный суррогат, как при String.getBytes(UTF_8)
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        length = pos;
+    }
+
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+}
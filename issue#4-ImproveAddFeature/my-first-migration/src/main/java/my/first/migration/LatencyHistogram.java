@@ -0,0 +1,102 @@
+package my.first.migration;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма длительностей в наносекундах с логарифмическими корзинами постоянного размера.
+ * Каждая степень двойки делится на {@link #SUB_BUCKETS} корзин, поэтому процентиль
+ * определяется с относительной погрешностью не больше 1/{@link #SUB_BUCKETS},
+ * а запись значения - это один инкремент без выделения памяти.
+ * Значения записывает один поток, читать их можно из любого потока (например, через JMX).
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+    /** Количество корзин на одну степень двойки */
+    public static final int SUB_BUCKETS = 16;
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Добавляет значение.
+     *
+     * @param nanos длительность в наносекундах; отрицательные значения считаются нулем
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        if (value > max.get()) {
+            max.set(value);
+        }
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * @param percentile процентиль от 0 до 100
+     * @return верхняя граница корзины, в которую попадает процентиль, но не больше максимума; 0, если значений нет
+     */
+    public long getPercentile(double percentile) {
+        long values = count.get();
+        if (values == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(values * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @return количество значений
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return сумма значений в наносекундах
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * @return максимальное значение в наносекундах
+     */
+    public long getMax() {
+        return max.get();
+    }
+}
@@ -1,14 +1,24 @@
 package my.first.migration;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.IllegalFormatException;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
 
 /**
  * Главный класс приложения для генерации JSON документов из записей.
@@ -30,6 +40,8 @@ public class Main {
     public static final int DEFAULT_PADDING_LENGTH = 10;
     /** Начальная длина JSON вывода */
     public static final int JSON_OUTPUT_INITIAL_LENGTH = 256;
+    /** Размер буфера потокового вывода в байтах */
+    public static final int STREAM_BUFFER_SIZE = 64 * 1024;
     /** Минимальное количество требуемых аргументов */
     public static final int MIN_REQUIRED_ARGS = 2;
     
@@ -37,7 +49,7 @@ public class Main {
     /** Префикс сообщений об ошибках */
     public static final String ERROR_PREFIX = "Error: ";
     /** Сообщение о использовании программы */
-    public static final String USAGE_MESSAGE = "Usage: java Main [name value enabled description] [-o outputfile] [--pretty] OR java Main --file filename [-o outputfile] [--pretty]";
+    public static final String USAGE_MESSAGE = "Usage: java Main [name value enabled description] [-o outputfile] [--pretty] OR java Main --file filename|directory|glob [-o outputfile | --output-dir directory] [--max-open-files n] [--pretty] [--stream | --parallel] [--mmap | --fixed-width [--encoding cp037|cp1047]] [--batch-timestamp] [--ndjson [--append]] [--incremental | --follow | --checkpoint] [--reject-file path [--max-error-rate fraction]] [--format json|cbor|smile] [--serializer encoder|jackson|template] [--schema copybook] [--dictionary entries] [--gzip-level 0-9] [--gzip-buffer bytes] [--gzip-async] [--metrics] [--jfr] OR java Main --server [--port port]";
     /** Сообщение об ограничении длины имени */
     public static final String NAME_LIMIT_MESSAGE = "Name cannot exceed " + MAX_NAME_LENGTH + " characters";
     /** Сообщение об ограничении длины значения */
@@ -78,8 +90,19 @@ public class Main {
     public static final String OUTPUT_SAVED_MESSAGE = "Output saved to: ";
     
     // JSON template constants
+    /** Имя поля JSON с именем записи */
+    public static final String NAME_FIELD = "name";
+    /** Имя поля JSON со значением записи */
+    public static final String VALUE_FIELD = "value";
+    /** Имя поля JSON с флагом enabled */
+    public static final String ENABLED_FIELD = "enabled";
+    /** Имя поля JSON с описанием записи */
+    public static final String DESCRIPTION_FIELD = "description";
+    /** Имя поля JSON с временной меткой */
+    public static final String TIMESTAMP_FIELD = "timestamp";
     /** Шаблон JSON документа */
-    public static final String JSON_TEMPLATE = "{\"name\":\"%s\",\"value\":\"%s\",\"enabled\":%b,\"description\":\"%s\",\"timestamp\":\"%s\"}";
+    public static final String JSON_TEMPLATE = "{\"" + NAME_FIELD + "\":\"%s\",\"" + VALUE_FIELD + "\":\"%s\",\""
+            + ENABLED_FIELD + "\":%b,\"" + DESCRIPTION_FIELD + "\":\"%s\",\"" + TIMESTAMP_FIELD + "\":\"%s\"}";
     /** Разделитель вывода */
     public static final String OUTPUT_SEPARATOR = "----------------------------";
     /** Формат подсчета символов */
@@ -106,6 +129,108 @@ public class Main {
     // Timestamp format
     /** Формат временной метки */
     public static final String TIMESTAMP_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    /** Префикс опции вывода в формате JSON Lines */
+    public static final String NDJSON_OPTION_PREFIX = "--ndjson";
+    /** Сообщение о включении вывода JSON Lines */
+    public static final String NDJSON_ENABLED_MESSAGE = "JSON Lines output enabled";
+    /** Префикс опции дописывания в конец файла вывода */
+    public static final String APPEND_OPTION_PREFIX = "--append";
+    /** Сообщение о включении дописывания в конец файла вывода */
+    public static final String APPEND_ENABLED_MESSAGE = "Appending to output file";
+    /** Префикс опции директории вывода для нескольких входных файлов */
+    public static final String OUTPUT_DIR_OPTION_PREFIX = "--output-dir";
+    /** Префикс опции количества одновременно открытых входных файлов */
+    public static final String MAX_OPEN_FILES_OPTION_PREFIX = "--max-open-files";
+    /** Сообщение об отсутствии файлов по маске */
+    public static final String NO_INPUT_FILES_MESSAGE = "No input files found: ";
+    /** Префикс опции инкрементального преобразования */
+    public static final String INCREMENTAL_OPTION_PREFIX = "--incremental";
+    /** Сообщение о включении инкрементального преобразования */
+    public static final String INCREMENTAL_ENABLED_MESSAGE = "Incremental mode enabled";
+    /** Сообщение о продолжении с сохраненного места */
+    public static final String RESUMING_MESSAGE = "Resuming after line ";
+    /** Сообщение о преобразовании с начала файла */
+    public static final String FULL_CONVERSION_MESSAGE = "No valid checkpoint, converting from the beginning";
+    /** Префикс опции периодического сохранения состояния для продолжения прерванного преобразования */
+    public static final String CHECKPOINT_OPTION_PREFIX = "--checkpoint";
+    /** Сообщение о включении периодического сохранения состояния */
+    public static final String CHECKPOINT_ENABLED_MESSAGE = "Checkpoints enabled, an interrupted run resumes on restart";
+    /** Префикс опции отслеживания дописываемого файла */
+    public static final String FOLLOW_OPTION_PREFIX = "--follow";
+    /** Сообщение о включении отслеживания файла */
+    public static final String FOLLOW_ENABLED_MESSAGE = "Follow mode enabled";
+    /** Сообщение о начале отслеживания файла */
+    public static final String FOLLOWING_MESSAGE = "Following file for new lines (Ctrl+C to stop)";
+    /** Время ожидания завершения отслеживания при остановке JVM, мс */
+    public static final long FOLLOW_STOP_TIMEOUT_MILLIS = 5000;
+    /** Префикс опции входных записей фиксированной длины */
+    public static final String FIXED_WIDTH_OPTION_PREFIX = "--fixed-width";
+    /** Сообщение о включении входных записей фиксированной длины */
+    public static final String FIXED_WIDTH_ENABLED_MESSAGE = "Fixed-width input enabled";
+    /** Префикс опции кодовой страницы EBCDIC входных записей */
+    public static final String ENCODING_OPTION_PREFIX = "--encoding";
+    /** Сообщение о выбранной кодовой странице EBCDIC */
+    public static final String ENCODING_ENABLED_MESSAGE = "EBCDIC input encoding: ";
+    /** Префикс опции формата кодирования вывода */
+    public static final String FORMAT_OPTION_PREFIX = "--format";
+    /** Сообщение о выбранном формате вывода */
+    public static final String FORMAT_ENABLED_MESSAGE = "Output format: ";
+    /** Префикс опции реализации кодирования JSON */
+    public static final String SERIALIZER_OPTION_PREFIX = "--serializer";
+    /** Сообщение о выбранной реализации кодирования JSON */
+    public static final String SERIALIZER_ENABLED_MESSAGE = "JSON serializer: ";
+    /** Префикс опции словаря повторяющихся значений */
+    public static final String DICTIONARY_OPTION_PREFIX = "--dictionary";
+    /** Сообщение о включении словаря повторяющихся значений */
+    public static final String DICTIONARY_ENABLED_MESSAGE = "Value dictionary enabled, max entries: ";
+    /** Формат итога по словарю: попадания, промахи, доля попаданий, размер, предел и вытеснения */
+    public static final String DICTIONARY_SUMMARY_FORMAT =
+            "Dictionary: %d hits, %d misses, hit rate %.1f%%, %d of %d entries, %d evicted";
+    /** Префикс опции файла схемы записи */
+    public static final String SCHEMA_OPTION_PREFIX = "--schema";
+    /** Сообщение о файле схемы записи */
+    public static final String SCHEMA_ENABLED_MESSAGE = "Record schema: ";
+    /** Префикс опции уровня сжатия вывода gzip */
+    public static final String GZIP_LEVEL_OPTION_PREFIX = "--gzip-level";
+    /** Префикс опции размера буферов сжатия и распаковки gzip */
+    public static final String GZIP_BUFFER_OPTION_PREFIX = "--gzip-buffer";
+    /** Префикс опции сжатия вывода gzip в отдельном потоке */
+    public static final String GZIP_ASYNC_OPTION_PREFIX = "--gzip-async";
+    /** Сообщение о включении сжатия вывода в отдельном потоке */
+    public static final String GZIP_ASYNC_ENABLED_MESSAGE = "Compressing output on a separate thread";
+    /** Префикс опции сбора метрик по стадиям */
+    public static final String METRICS_OPTION_PREFIX = "--metrics";
+    /** Сообщение о включении сбора метрик */
+    public static final String METRICS_ENABLED_MESSAGE = "Metrics enabled, JMX: " + ConversionMetrics.OBJECT_NAME;
+    /** Префикс итогового отчета метрик в формате JSON */
+    public static final String METRICS_REPORT_PREFIX = "Metrics: ";
+    /** Префикс опции записи Java Flight Recorder на время запуска */
+    public static final String JFR_OPTION_PREFIX = "--jfr";
+    /** Сообщение о включении записи JFR */
+    public static final String JFR_ENABLED_MESSAGE = "JFR recording enabled";
+    /** Сообщение о сохранении записи JFR */
+    public static final String JFR_SAVED_MESSAGE = "JFR recording saved to: ";
+    /** Имя файла записи JFR, если файл вывода не задан; иначе к имени файла вывода добавляется .jfr */
+    public static final String JFR_FILE_NAME = "conversion.jfr";
+    /** Конфигурация JFR с событиями профилирования и сборки мусора */
+    public static final String JFR_CONFIGURATION = "profile";
+    /** Префикс опции файла отклоненных строк */
+    public static final String REJECT_FILE_OPTION_PREFIX = "--reject-file";
+    /** Префикс опции максимальной доли отклоненных строк */
+    public static final String MAX_ERROR_RATE_OPTION_PREFIX = "--max-error-rate";
+    /** Сообщение о записи неверных строк в файл отклоненных строк */
+    public static final String REJECT_FILE_ENABLED_MESSAGE = "Rejected lines will be written to: ";
+    /** Сообщение о количестве отклоненных строк */
+    public static final String REJECTED_MESSAGE = "Lines rejected: ";
+    /** Формат сообщения о превышении доли отклоненных строк */
+    public static final String ERROR_RATE_EXCEEDED_FORMAT = "Error rate exceeded: %d of %d lines rejected (max %s)";
+    /** Префикс опции одной временной метки на весь запуск */
+    public static final String BATCH_TIMESTAMP_OPTION_PREFIX = "--batch-timestamp";
+    /** Сообщение о включении одной временной метки на весь запуск */
+    public static final String BATCH_TIMESTAMP_ENABLED_MESSAGE = "Batch-wide timestamp enabled";
+    
+    /** Источник временных меток для записей */
+    private static volatile TimestampClock timestampClock = TimestampClock.system();
     
     // Pretty print option
     /** Префикс опции красивого вывода */
@@ -113,51 +238,192 @@ public class Main {
     /** Сообщение о включении красивого вывода */
     public static final String PRETTY_ENABLED_MESSAGE = "Pretty print enabled";
     
+    // Streaming option
+    /** Префикс опции потоковой обработки файла */
+    public static final String STREAM_OPTION_PREFIX = "--stream";
+    /** Сообщение о включении потоковой обработки */
+    public static final String STREAM_ENABLED_MESSAGE = "Streaming mode enabled";
+    /** Префикс опции параллельной обработки файла */
+    public static final String PARALLEL_OPTION_PREFIX = "--parallel";
+    /** Сообщение о включении параллельной обработки */
+    public static final String PARALLEL_ENABLED_MESSAGE = "Parallel mode enabled";
+    /** Префикс опции чтения файла через отображение в память */
+    public static final String MMAP_OPTION_PREFIX = "--mmap";
+    /** Сообщение о включении чтения через отображение в память */
+    public static final String MMAP_ENABLED_MESSAGE = "Memory-mapped input enabled";
+    
     /**
      * Главный метод приложения.
      * Обрабатывает аргументы командной строки и запускает соответствующий режим работы.
+     * С опцией {@link ConversionServer#SERVER_OPTION_PREFIX} запускает сервер преобразования.
      *
      * @param args аргументы командной строки
      */
     public static void main(String[] args) {
+        if (ConversionServer.isServerMode(args)) {
+            System.exit(ConversionServer.serve(args, System.out));
+            return;
+        }
+        System.exit(run(args, System.out));
+    }
+    
+    /**
+     * Выполняет один запуск преобразования без завершения JVM.
+     * Используется главным методом и сервером преобразования.
+     *
+     * @param args аргументы командной строки
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения: 0 при успехе, 1 при ошибке
+     */
+    static int run(String[] args, PrintStream out) {
+        return run(args, false, out);
+    }
+    
+    /**
+     * Выполняет один запуск преобразования без завершения JVM.
+     *
+     * @param args аргументы командной строки
+     * @param serverJob запуск как задания сервера {@link ConversionServer}: задания,
+     *                  которые не завершаются сами, отклоняются
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения: 0 при успехе, 1 при ошибке
+     */
+    static int run(String[] args, boolean serverJob, PrintStream out) {
         // Всегда используем значения по умолчанию при запуске из Eclipse
-        System.out.println("Running with default values...");
+        out.println("Running with default values...");
         
-        String outputFile = null;
-        boolean prettyPrint = false;
-        boolean fileMode = false;
-        String filename = null;
-        
-        // Простая обработка только явных опций
-        for (int i = 0; i < args.length; i++) {
-            String arg = args[i];
-            
-            if (OUTPUT_OPTION_PREFIX.equals(arg) && i + 1 < args.length) {
-                outputFile = args[i + 1];
-                i++; // Пропускаем значение файла
-            } else if (PRETTY_OPTION_PREFIX.equals(arg)) {
-                prettyPrint = true;
-                System.out.println(PRETTY_ENABLED_MESSAGE);
-            } else if (FILE_MODE_PREFIX.equals(arg) && i + 1 < args.length) {
-                fileMode = true;
-                filename = args[i + 1];
-                i++; // Пропускаем имя файла
+        ConversionOptions options = ConversionOptions.parse(args, out);
+        options.setServerJob(serverJob);
+        TimestampClock previousClock = timestampClock;
+        if (options.isBatchTimestamp()) {
+            setTimestampClock(TimestampClock.batch());
+        }
+        ConversionMetrics metrics = options.isMetrics() ? new ConversionMetrics() : ConversionMetrics.DISABLED;
+        Recording recording = null;
+        try {
+            if (options.isJfr()) {
+                recording = new Recording(Configuration.getConfiguration(JFR_CONFIGURATION));
+                recording.start();
+            }
+            if (metrics.isEnabled()) {
+                metrics.register();
+            }
+            return run(options, metrics, out);
+        } catch (JMException | IOException | ParseException e) {
+            out.println(ERROR_PREFIX + e.getMessage());
+            return 1;
+        } finally {
+            setTimestampClock(previousClock);
+            if (recording != null) {
+                saveRecording(recording, options.getOutputFile(), out);
+            }
+            if (metrics.isEnabled()) {
+                metrics.finish();
+                metrics.unregister();
+                out.println(METRICS_REPORT_PREFIX + metrics.toJson());
             }
-            // Игнорируем все остальные аргументы
         }
-        
-        if (fileMode) {
-            if (filename == null) {
-                System.out.println(ERROR_PREFIX + "Filename required after --file");
-                System.out.println(USAGE_MESSAGE);
-                System.exit(1);
-                return;
+    }
+    
+    /**
+     * Останавливает запись JFR и сохраняет ее рядом с файлом вывода или в {@link #JFR_FILE_NAME}.
+     */
+    private static void saveRecording(Recording recording, String outputFile, PrintStream out) {
+        Path path = Paths.get(outputFile != null ? outputFile + ".jfr" : JFR_FILE_NAME);
+        try (recording) {
+            recording.stop();
+            recording.dump(path);
+            out.println(JFR_SAVED_MESSAGE + path);
+        } catch (IOException e) {
+            out.println(ERROR_PREFIX + e.getMessage());
+        }
+    }
+    
+    private static int run(ConversionOptions options, ConversionMetrics metrics, PrintStream out)
+            throws IOException {
+        if (options.isFileMode() || options.isServerJob()) {
+            String error = options.validate();
+            if (error != null) {
+                out.println(ERROR_PREFIX + error);
+                out.println(USAGE_MESSAGE);
+                return 1;
+            }
+        }
+        if (options.isFileMode()) {
+            if (options.getRejectFile() == null) {
+                return processFile(options, metrics, null, out);
+            }
+            try (RejectWriter rejects = new RejectWriter(Paths.get(options.getRejectFile()), options.getMaxErrorRate())) {
+                int result = processFile(options, metrics, rejects, out);
+                out.println(REJECTED_MESSAGE + rejects.getRejectedCount());
+                return result;
             }
-            processFileMode(filename, outputFile, prettyPrint);
         } else {
             // Всегда используем значения по умолчанию для командного режима
-            processCommandLineMode(new String[]{}, outputFile, prettyPrint);
+            return processCommandLineMode(new String[]{}, options.getOutputFile(), options.isPrettyPrint(),
+                    options.getSerializerEngine(), metrics, out);
+        }
+    }
+    
+    /**
+     * Выбирает режим файлового преобразования по опциям.
+     */
+    private static int processFile(ConversionOptions options, ConversionMetrics metrics, RejectWriter rejects,
+            PrintStream out) {
+        String filename = options.getFilename();
+        String outputFile = options.getOutputFile();
+        if (options.isFollow()) {
+            return processFollowMode(filename, outputFile, options.isAppend(), metrics, rejects, out);
+        }
+        if (options.isIncremental()) {
+            return processIncrementalMode(filename, outputFile, options.getLayout(), out);
+        }
+        if (options.isCheckpoint()) {
+            return processIncrementalMode(filename, outputFile,
+                    new IncrementalConverter(options.getLayout(), IncrementalConverter.DEFAULT_CHECKPOINT_INTERVAL, true), out);
         }
+        if (BatchConverter.isBatchInput(filename)) {
+            return processBatchMode(options, out);
+        }
+        // JSON Lines не имеет общего обрамления, поэтому всегда выводится потоково
+        OutputLayout layout = options.getLayout();
+        RecordReader.Factory readerFactory = rejects == null ? options.getReaderFactory()
+                : RejectingRecordReader.wrap(options.getReaderFactory(), rejects);
+        if (options.getSchema() != null) {
+            RecordSchema schema;
+            try {
+                schema = RecordSchema.load(Paths.get(options.getSchema()));
+            } catch (IOException | IllegalArgumentException e) {
+                out.println(ERROR_PREFIX + e.getMessage());
+                return 1;
+            }
+            return processStreamingFileMode(filename, outputFile,
+                    new SchemaFileConverter(schema, layout, metrics, options.getGzipCodec()), options.isAppend(),
+                    options.getGzipCodec(), out);
+        } else if (options.getFormat().isBinary()) {
+            return processStreamingFileMode(filename, outputFile,
+                    new BinaryFileConverter(options.getFormat(), options.isNdjson(), readerFactory, metrics),
+                    options.isAppend(), options.getGzipCodec(), out);
+        } else if (options.isParallel()) {
+            return processStreamingFileMode(filename, outputFile,
+                    new ParallelFileConverter(FileModeSettings.from(options, metrics, rejects, null)),
+                    options.isAppend(), options.getGzipCodec(), out);
+        }
+        ValueDictionary dictionary = options.getDictionarySize() > 0
+                ? new ValueDictionary(options.getDictionarySize()) : null;
+        FileModeSettings settings = FileModeSettings.from(options, metrics, rejects, dictionary);
+        int result;
+        if (options.isStreaming() || options.isNdjson() || options.isFixedWidth() || options.isGzip()) {
+            // Сжатые файлы читаются и пишутся потоково, без массива записей в памяти
+            result = processStreamingFileMode(filename, outputFile,
+                    new StreamingFileConverter(settings, readerFactory), options.isAppend(), options.getGzipCodec(), out);
+        } else {
+            result = processFileMode(filename, outputFile, settings, out);
+        }
+        if (dictionary != null) {
+            out.println(dictionary.summary());
+        }
+        return result;
     }
     
     /**
@@ -167,66 +433,328 @@ public class Main {
      * @param filename имя файла для чтения
      * @param outputFile имя файла для вывода (может быть null)
      * @param prettyPrint флаг красивого вывода
+     * @return код завершения
      */
-    static void processFileMode(String filename, String outputFile, boolean prettyPrint) {
+    static int processFileMode(String filename, String outputFile, boolean prettyPrint) {
+        return processFileMode(filename, outputFile, FileModeSettings.of(OutputLayout.of(prettyPrint, false)),
+                System.out);
+    }
+    
+    /**
+     * Обрабатывает файловый режим работы с заданными настройками: способом чтения,
+     * реализацией кодирования, словарем значений, метриками и файлом отклоненных строк.
+     *
+     * @param filename имя файла для чтения
+     * @param outputFile имя файла для вывода (может быть null)
+     * @param settings настройки преобразования
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения
+     */
+    static int processFileMode(String filename, String outputFile, FileModeSettings settings, PrintStream out) {
+        ConversionMetrics metrics = settings.getMetrics();
         try {
-            System.out.println(FILE_PROCESSING_MESSAGE + filename);
+            out.println(FILE_PROCESSING_MESSAGE + filename);
             
-            List<WsRecord> records = readRecordsFromFile(filename);
-            List<String> jsonRecords = new ArrayList<>();
+            // Записи хранятся в арене байтами полей, а не объектами WsRecord
+            WsRecordArena arena = readArena(filename, settings);
+            // Записи кодируются сразу с отступом элемента массива и добавляются в массив по мере кодирования
+            ByteArrayOutputStream arrayBytes = new ByteArrayOutputStream();
+            JsonArrayWriter writer = new JsonArrayWriter(arrayBytes, settings.isPrettyPrint());
+            RecordSerializer serializer = settings.createSerializer();
+            // Кодировщик по умолчанию без словаря копирует байты полей прямо из арены
+            JsonRecordEncoder arenaEncoder = settings.getDictionary() == null && serializer instanceof JsonRecordEncoder
+                    ? (JsonRecordEncoder) serializer : null;
+            WsRecordArena.Cursor cursor = arena.cursor();
+            ConversionEvents.RecordEncodeBatch batch = ConversionEvents.RecordEncodeBatch.start(0);
             
-            for (WsRecord record : records) {
-                String jsonContent;
-                if (prettyPrint) {
-                    jsonContent = generatePrettyJson(record);
-                } else {
-                    jsonContent = String.format(
-                        JSON_TEMPLATE,
-                        record.getName().trim(),
-                        record.getValue().trim(),
-                        record.getFlag(),
-                        record.getDescription().trim(),
-                        record.getTimestamp()
-                    );
+            for (int i = 0; i < arena.size(); i++) {
+                cursor.moveTo(i);
+                long start = metrics.start(ConversionMetrics.Stage.ENCODE);
+                int length = arenaEncoder != null ? arenaEncoder.encode(cursor) : serializer.encode(cursor.toRecord());
+                metrics.stop(ConversionMetrics.Stage.ENCODE, start);
+                start = metrics.start(ConversionMetrics.Stage.WRITE);
+                writer.writeRecord(serializer.buffer(), 0, length);
+                metrics.stop(ConversionMetrics.Stage.WRITE, start);
+                batch = batch.next(writer.getBytesWritten());
+            }
+            batch.finish(writer.getBytesWritten());
+            metrics.addRecords(arena.size());
+            
+            // Завершение массива и вывод относятся к стадии записи
+            long writeStart = metrics.start(ConversionMetrics.Stage.WRITE);
+            writer.finish();
+            
+            // Записываем в файл, если указана опция -o; файл получает уже закодированные байты
+            if (outputFile != null) {
+                writeToFile(outputFile, arrayBytes);
+                out.println(OUTPUT_SAVED_MESSAGE + outputFile);
+            }
+            // Строка нужна только для вывода в консоль
+            String arrayJson = arrayBytes.toString(StandardCharsets.UTF_8);
+            int charCount = arrayJson.length();
+            
+            out.println(RECORDS_PROCESSED_MESSAGE + arena.size());
+            out.println(OUTPUT_SEPARATOR);
+            out.println(arrayJson);
+            out.println(OUTPUT_SEPARATOR);
+            metrics.stop(ConversionMetrics.Stage.WRITE, writeStart);
+            metrics.addBytesOut(arrayBytes.size());
+            out.printf(CHAR_COUNT_FORMAT, charCount);
+            out.println(DONE_MESSAGE);
+            return 0;
+            
+        } catch (Exception e) {
+            metrics.addError();
+            ConversionEvents.validationFailed(e);
+            out.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * Обрабатывает файловый режим в потоковом варианте.
+     * Записи читаются, преобразуются и выводятся без накопления массива в памяти.
+     * При указании файла вывода JSON пишется только в файл, иначе - в консоль.
+     *
+     * @param filename имя файла для чтения
+     * @param outputFile имя файла для вывода (может быть null)
+     * @param converter конвертер, определяющий способ чтения и разбора файла
+     * @return код завершения
+     */
+    static int processStreamingFileMode(String filename, String outputFile, FileConverter converter) {
+        return processStreamingFileMode(filename, outputFile, converter, false, System.out);
+    }
+    
+    /**
+     * Обрабатывает файловый режим в потоковом варианте с выбором режима открытия файла вывода.
+     *
+     * @param filename имя файла для чтения
+     * @param outputFile имя файла для вывода (может быть null)
+     * @param converter конвертер, определяющий способ чтения и разбора файла
+     * @param append дописывать в конец файла вывода вместо перезаписи
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения
+     */
+    static int processStreamingFileMode(String filename, String outputFile, FileConverter converter, boolean append,
+            PrintStream out) {
+        return processStreamingFileMode(filename, outputFile, converter, append, GzipCodec.DEFAULT, out);
+    }
+    
+    /**
+     * Обрабатывает файловый режим в потоковом варианте с настройками сжатия файла вывода.
+     * Файл вывода с расширением {@link GzipCodec#EXTENSION} сжимается при записи.
+     *
+     * @param filename имя файла для чтения
+     * @param outputFile имя файла для вывода (может быть null)
+     * @param converter конвертер, определяющий способ чтения и разбора файла
+     * @param append дописывать в конец файла вывода вместо перезаписи
+     * @param gzip настройки сжатия
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения
+     */
+    static int processStreamingFileMode(String filename, String outputFile, FileConverter converter, boolean append,
+            GzipCodec gzip, PrintStream out) {
+        try {
+            out.println(FILE_PROCESSING_MESSAGE + filename);
+            
+            if (outputFile != null) {
+                try (OutputStream fileOut = gzip.openOutput(Paths.get(outputFile), append)) {
+                    converter.convert(filename, fileOut);
                 }
-                jsonRecords.add(jsonContent);
+                out.println(OUTPUT_SAVED_MESSAGE + outputFile);
+            } else {
+                out.println(OUTPUT_SEPARATOR);
+                OutputStream consoleOut = new BufferedOutputStream(out, STREAM_BUFFER_SIZE);
+                converter.convert(filename, consoleOut);
+                out.println();
+                out.println(OUTPUT_SEPARATOR);
+            }
+            
+            out.println(RECORDS_PROCESSED_MESSAGE + converter.getRecordsProcessed());
+            out.printf(CHAR_COUNT_FORMAT, converter.getBytesWritten());
+            out.println(DONE_MESSAGE);
+            return 0;
+            
+        } catch (Exception e) {
+            ConversionEvents.validationFailed(e);
+            out.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * Обрабатывает файловый режим для директории или маски файлов.
+     * Каждый файл преобразуется в отдельный файл вывода, после чего выводится итог по каждому файлу.
+     *
+     * @param options опции запуска
+     * @param out поток для сообщений
+     * @return код завершения: 1, если хотя бы один файл не преобразован
+     */
+    static int processBatchMode(ConversionOptions options, PrintStream out) {
+        try {
+            out.println(FILE_PROCESSING_MESSAGE + options.getFilename());
+            if (options.getOutputFile() != null) {
+                out.println(ERROR_PREFIX + OUTPUT_OPTION_PREFIX + " cannot be used with multiple input files, use "
+                        + OUTPUT_DIR_OPTION_PREFIX);
+                out.println(USAGE_MESSAGE);
+                return 1;
+            }
+            BatchConverter.Inputs inputs = BatchConverter.resolveInputs(options.getFilename());
+            if (inputs.getFiles().isEmpty()) {
+                out.println(ERROR_PREFIX + NO_INPUT_FILES_MESSAGE + options.getFilename());
+                return 1;
             }
             
-            // Формируем массив JSON
-            String arrayJson;
-            if (prettyPrint) {
-                // Для pretty print формируем массив с отступами
-                StringBuilder arrayBuilder = new StringBuilder("[\n");
-                for (int i = 0; i < jsonRecords.size(); i++) {
-                    arrayBuilder.append("  ").append(jsonRecords.get(i).replace("\n", "\n  "));
-                    if (i < jsonRecords.size() - 1) {
-                        arrayBuilder.append(",");
-                    }
-                    arrayBuilder.append("\n");
+            BatchConverter converter = new BatchConverter(options.getLayout(), options.getReaderFactory(),
+                    options.getMaxOpenFiles());
+            Path outputDir = options.getOutputDir() == null ? null : Paths.get(options.getOutputDir());
+            List<BatchConverter.FileResult> results = converter.convertAll(inputs, outputDir, options.isAppend());
+            
+            long records = 0;
+            int failed = 0;
+            for (BatchConverter.FileResult result : results) {
+                if (result.isSuccess()) {
+                    records += result.getRecordsProcessed();
+                    out.printf(BatchConverter.FILE_SUMMARY_FORMAT, result.getInput(), result.getOutput(),
+                            result.getRecordsProcessed());
+                } else {
+                    failed++;
+                    out.printf(BatchConverter.FILE_ERROR_FORMAT, result.getInput(), result.getError());
                 }
-                arrayBuilder.append("]");
-                arrayJson = arrayBuilder.toString();
+            }
+            out.printf(BatchConverter.BATCH_SUMMARY_FORMAT, results.size(), failed, records);
+            out.println(DONE_MESSAGE);
+            return failed == 0 ? 0 : 1;
+            
+        } catch (Exception e) {
+            ConversionEvents.validationFailed(e);
+            out.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * Обрабатывает файловый режим инкрементально: преобразуются только строки, дописанные
+     * после предыдущего запуска, и добавляются в существующий файл вывода.
+     *
+     * @param filename имя файла для чтения
+     * @param outputFile имя файла для вывода
+     * @param layout формат вывода
+     * @param out поток для сообщений
+     * @return код завершения
+     */
+    static int processIncrementalMode(String filename, String outputFile, OutputLayout layout, PrintStream out) {
+        return processIncrementalMode(filename, outputFile, new IncrementalConverter(layout), out);
+    }
+    
+    /**
+     * Обрабатывает файловый режим с сохранением состояния заданным конвертером, например
+     * в режиме перезапуска прерванного преобразования.
+     *
+     * @param filename имя файла для чтения
+     * @param outputFile имя файла для вывода
+     * @param converter инкрементальный конвертер
+     * @param out поток для сообщений
+     * @return код завершения
+     */
+    static int processIncrementalMode(String filename, String outputFile, IncrementalConverter converter,
+            PrintStream out) {
+        try {
+            out.println(FILE_PROCESSING_MESSAGE + filename);
+            
+            converter.convert(filename, Paths.get(outputFile));
+            if (converter.isResumed()) {
+                out.println(RESUMING_MESSAGE + converter.getStartLineNumber());
             } else {
-                arrayJson = String.format(ARRAY_JSON_TEMPLATE, String.join(",", jsonRecords));
+                out.println(FULL_CONVERSION_MESSAGE);
             }
-            int charCount = arrayJson.length();
+            out.println(OUTPUT_SAVED_MESSAGE + outputFile);
+            out.println(RECORDS_PROCESSED_MESSAGE + converter.getRecordsProcessed());
+            out.printf(CHAR_COUNT_FORMAT, converter.getBytesWritten());
+            out.println(DONE_MESSAGE);
+            return 0;
+            
+        } catch (Exception e) {
+            ConversionEvents.validationFailed(e);
+            out.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * Обрабатывает файловый режим с отслеживанием дописываемого файла.
+     * Записи выводятся в формате JSON Lines по мере появления новых строк до остановки JVM.
+     *
+     * @param filename имя файла для чтения
+     * @param outputFile имя файла для вывода (может быть null)
+     * @param append дописывать в конец файла вывода вместо перезаписи
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения
+     */
+    static int processFollowMode(String filename, String outputFile, boolean append, PrintStream out) {
+        return processFollowMode(filename, outputFile, append, ConversionMetrics.DISABLED, null, out);
+    }
+    
+    /**
+     * Обрабатывает файловый режим с отслеживанием дописываемого файла со сбором метрик по стадиям.
+     * Метрики доступны через JMX, пока файл отслеживается. Неверные строки не останавливают
+     * отслеживание: они записываются в файл отклоненных строк или пропускаются.
+     *
+     * @param filename имя файла для чтения
+     * @param outputFile имя файла для вывода (может быть null)
+     * @param append дописывать в конец файла вывода вместо перезаписи
+     * @param metrics метрики преобразования
+     * @param rejects файл отклоненных строк или null, чтобы только пропускать неверные строки
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения
+     */
+    static int processFollowMode(String filename, String outputFile, boolean append, ConversionMetrics metrics,
+            RejectWriter rejects, PrintStream out) {
+        FollowConverter converter = new FollowConverter(Paths.get(filename), FollowConverter.DEFAULT_POLL_INTERVAL_MILLIS,
+                metrics, rejects);
+        Thread shutdownHook = new Thread(() -> {
+            converter.stop();
+            try {
+                converter.awaitStopped(FOLLOW_STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            out.println(FILE_PROCESSING_MESSAGE + filename);
+            out.println(FOLLOWING_MESSAGE);
             
-            // Записываем в файл, если указана опция -o
             if (outputFile != null) {
-                writeToFile(outputFile, arrayJson);
-                System.out.println(OUTPUT_SAVED_MESSAGE + outputFile);
+                try (OutputStream fileOut = new ChannelOutputStream(Paths.get(outputFile), append)) {
+                    converter.follow(fileOut);
+                }
+                out.println(OUTPUT_SAVED_MESSAGE + outputFile);
+            } else {
+                out.println(OUTPUT_SEPARATOR);
+                converter.follow(new BufferedOutputStream(out, STREAM_BUFFER_SIZE));
+                out.println(OUTPUT_SEPARATOR);
             }
             
-            System.out.println(RECORDS_PROCESSED_MESSAGE + records.size());
-            System.out.println(OUTPUT_SEPARATOR);
-            System.out.println(arrayJson);
-            System.out.println(OUTPUT_SEPARATOR);
-            System.out.printf(CHAR_COUNT_FORMAT, charCount);
-            System.out.println(DONE_MESSAGE);
+            out.println(RECORDS_PROCESSED_MESSAGE + converter.getRecordsProcessed());
+            if (rejects == null && converter.getRejectedCount() > 0) {
+                // С файлом отклоненных строк их количество выводится после преобразования
+                out.println(REJECTED_MESSAGE + converter.getRejectedCount());
+            }
+            out.printf(CHAR_COUNT_FORMAT, converter.getBytesWritten());
+            out.println(DONE_MESSAGE);
+            return 0;
             
         } catch (Exception e) {
-            System.out.println("Error: " + e.getMessage());
-            System.exit(1);
+            ConversionEvents.validationFailed(e);
+            out.println("Error: " + e.getMessage());
+            return 1;
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // JVM уже завершается, хук выполняется
+            }
         }
     }
     
@@ -239,69 +767,201 @@ public class Main {
      * @throws IllegalArgumentException если формат файла неверный
      */
     static List<WsRecord> readRecordsFromFile(String filename) throws IOException {
+        return readRecords(filename, FileModeSettings.DEFAULT);
+    }
+    
+    /**
+     * Читает записи из CSV файла с заданными настройками. Стадии чтения и разбора отмечаются
+     * в метриках; если задан файл отклоненных строк, неверные строки записываются в него,
+     * а чтение продолжается; если задан словарь, повторяющиеся значения заменяются его общими строками.
+     * При чтении через отображение в память файл не декодируется целиком и строка на каждую
+     * строку файла не создается, а стадия чтения - это только отображение файла.
+     *
+     * @param filename имя файла для чтения
+     * @param settings настройки преобразования
+     * @return список записей WsRecord
+     * @throws IOException если произошла ошибка чтения файла
+     * @throws IllegalArgumentException если формат файла неверный
+     * @throws IllegalStateException если доля отклоненных строк превышена
+     */
+    static List<WsRecord> readRecords(String filename, FileModeSettings settings) throws IOException {
+        List<WsRecord> records = new ArrayList<>();
+        readRecords(filename, settings, records::add);
+        return records;
+    }
+    
+    /**
+     * Читает записи из CSV файла в компактную арену. Словарь значений при чтении не применяется:
+     * арена хранит байты полей, а не общие строки.
+     *
+     * @param filename имя файла для чтения
+     * @param settings настройки преобразования
+     * @return арена с записями файла
+     * @throws IOException если произошла ошибка чтения файла
+     * @throws IllegalArgumentException если формат файла неверный
+     * @throws IllegalStateException если доля отклоненных строк превышена
+     */
+    static WsRecordArena readArena(String filename, FileModeSettings settings) throws IOException {
+        WsRecordArena arena = WsRecordArena.onHeap();
+        readRecords(filename, settings.withDictionary(null), arena::add);
+        return arena;
+    }
+    
+    private static void readRecords(String filename, FileModeSettings settings, Consumer<WsRecord> sink)
+            throws IOException {
+        if (settings.isMemoryMapped()) {
+            readMappedRecords(filename, settings.getMetrics(), settings.getRejects(), settings.getDictionary(), sink);
+        } else {
+            readCsvRecords(filename, settings.getMetrics(), settings.getRejects(), settings.getDictionary(), sink);
+        }
+    }
+    
+    private static void readCsvRecords(String filename, ConversionMetrics metrics, RejectWriter rejects,
+            ValueDictionary dictionary, Consumer<WsRecord> sink) throws IOException {
         Path path = Paths.get(filename);
+        long readStart = metrics.start(ConversionMetrics.Stage.READ);
         List<String> lines = Files.readAllLines(path);
-        List<WsRecord> records = new ArrayList<>();
+        metrics.stop(ConversionMetrics.Stage.READ, readStart);
+        if (metrics.isEnabled()) {
+            metrics.addBytesIn(Files.size(path));
+        }
+        int count = 0;
+        ConversionEvents.ChunkParse event = ConversionEvents.ChunkParse.start();
         
         for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) {
-                continue; // Пропускаем пустые строки
+            long start = metrics.start(ConversionMetrics.Stage.PARSE);
+            WsRecord record;
+            try {
+                record = parseRecord(lines.get(i), i + 1);
+            } catch (RecordFormatException e) {
+                if (rejects == null) {
+                    throw e;
+                }
+                rejects.reject(e, i + 1);
+                record = null;
             }
-            
-            String[] parts = line.split(",", -1); // Используем -1 чтобы сохранять пустые значения
-            if (parts.length < 2) {
-                throw new IllegalArgumentException(INVALID_FILE_FORMAT + " at line " + (i + 1));
+            if (record != null && dictionary != null) {
+                dictionary.intern(record);
             }
-            
-            WsRecord record = new WsRecord();
-            
-            // Обрабатываем name
-            String name = parts[0].trim();
-            if (name.length() > MAX_NAME_LENGTH) {
-                throw new IllegalArgumentException(NAME_LIMIT_MESSAGE + " at line " + (i + 1));
+            metrics.stop(ConversionMetrics.Stage.PARSE, start);
+            if (record != null) {
+                sink.accept(record);
+                count++;
             }
-            record.setName(padToLength(name, MAX_NAME_LENGTH));
-            
-            // Обрабатываем value
-            String value = parts[1].trim();
-            if (value.length() > MAX_VALUE_LENGTH) {
-                throw new IllegalArgumentException(VALUE_LIMIT_MESSAGE + " at line " + (i + 1));
+        }
+        if (rejects != null) {
+            rejects.finish(lines.size());
+        }
+        
+        if (event.isEnabled()) {
+            event.finish(0, Files.size(path), count);
+        }
+    }
+    
+    private static void readMappedRecords(String filename, ConversionMetrics metrics, RejectWriter rejects,
+            ValueDictionary dictionary, Consumer<WsRecord> sink) throws IOException {
+        int count = 0;
+        long readStart = metrics.start(ConversionMetrics.Stage.READ);
+        ConversionEvents.FileOpen openEvent = ConversionEvents.FileOpen.start();
+        RecordReader reader = new MappedCsvReader(filename);
+        if (rejects != null) {
+            reader = new RejectingRecordReader(reader, rejects);
+        }
+        openEvent.finish(filename);
+        try {
+            metrics.stop(ConversionMetrics.Stage.READ, readStart);
+            ConversionEvents.ChunkParse parseEvent = ConversionEvents.ChunkParse.start();
+            if (metrics.isEnabled()) {
+                metrics.addBytesIn(Files.size(Paths.get(filename)));
             }
-            record.setValue(padToLength(value, MAX_VALUE_LENGTH));
-            
-            // Обрабатываем enabled (если есть)
-            if (parts.length >= 3 && !parts[2].trim().isEmpty()) {
-                String enabledFlag = parts[2].trim().toLowerCase();
-                if (TRUE_STRING.equals(enabledFlag)) {
-                    record.setFlag(true);
-                } else if (FALSE_STRING.equals(enabledFlag)) {
-                    record.setFlag(false);
-                } else {
-                    throw new IllegalArgumentException(ENABLED_FLAG_MESSAGE + " at line " + (i + 1));
+            while (true) {
+                long start = metrics.start(ConversionMetrics.Stage.PARSE);
+                WsRecord record = reader.next();
+                if (record == null) {
+                    break;
                 }
-            } else {
-                record.setFlag(DEFAULT_FLAG);
-            }
-            
-            // Обрабатываем description (если есть)
-            if (parts.length >= 4 && !parts[3].trim().isEmpty()) {
-                String description = parts[3].trim();
-                if (description.length() > MAX_DESCRIPTION_LENGTH) {
-                    throw new IllegalArgumentException(DESCRIPTION_LIMIT_MESSAGE + " at line " + (i + 1));
+                if (dictionary != null) {
+                    dictionary.intern(record);
                 }
-                record.setDescription(padToLength(description, MAX_DESCRIPTION_LENGTH));
+                metrics.stop(ConversionMetrics.Stage.PARSE, start);
+                sink.accept(record);
+                count++;
+            }
+            if (parseEvent.isEnabled()) {
+                parseEvent.finish(0, Files.size(Paths.get(filename)), count);
+            }
+        } finally {
+            ConversionEvents.FileClose closeEvent = ConversionEvents.FileClose.start();
+            reader.close();
+            closeEvent.finish(filename, count);
+        }
+    }
+    
+    /**
+     * Разбирает одну строку CSV файла в запись WsRecord.
+     * Используется как пакетным, так и потоковым чтением файла.
+     *
+     * @param rawLine строка файла
+     * @param lineNumber номер строки (с 1) для сообщений об ошибках
+     * @return запись WsRecord или null, если строка пустая
+     * @throws RecordFormatException если формат строки неверный
+     */
+    static WsRecord parseRecord(String rawLine, long lineNumber) {
+        String line = rawLine.trim();
+        if (line.isEmpty()) {
+            return null; // Пропускаем пустые строки
+        }
+        
+        String[] parts = line.split(",", -1); // Используем -1 чтобы сохранять пустые значения
+        if (parts.length < 2) {
+            throw new RecordFormatException(INVALID_FILE_FORMAT, lineNumber, rawLine);
+        }
+        
+        WsRecord record = new WsRecord();
+        
+        // Обрабатываем name
+        String name = parts[0].trim();
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new RecordFormatException(NAME_LIMIT_MESSAGE, lineNumber, rawLine);
+        }
+        record.setName(padToLength(name, MAX_NAME_LENGTH));
+        
+        // Обрабатываем value
+        String value = parts[1].trim();
+        if (value.length() > MAX_VALUE_LENGTH) {
+            throw new RecordFormatException(VALUE_LIMIT_MESSAGE, lineNumber, rawLine);
+        }
+        record.setValue(padToLength(value, MAX_VALUE_LENGTH));
+        
+        // Обрабатываем enabled (если есть)
+        if (parts.length >= 3 && !parts[2].trim().isEmpty()) {
+            String enabledFlag = parts[2].trim().toLowerCase();
+            if (TRUE_STRING.equals(enabledFlag)) {
+                record.setFlag(true);
+            } else if (FALSE_STRING.equals(enabledFlag)) {
+                record.setFlag(false);
             } else {
-                record.setDescription(DEFAULT_DESCRIPTION);
+                throw new RecordFormatException(ENABLED_FLAG_MESSAGE, lineNumber, rawLine);
             }
-            
-            // Устанавливаем timestamp
-            record.setTimestamp(generateTimestamp());
-            
-            records.add(record);
+        } else {
+            record.setFlag(DEFAULT_FLAG);
         }
         
-        return records;
+        // Обрабатываем description (если есть)
+        if (parts.length >= 4 && !parts[3].trim().isEmpty()) {
+            String description = parts[3].trim();
+            if (description.length() > MAX_DESCRIPTION_LENGTH) {
+                throw new RecordFormatException(DESCRIPTION_LIMIT_MESSAGE, lineNumber, rawLine);
+            }
+            record.setDescription(padToLength(description, MAX_DESCRIPTION_LENGTH));
+        } else {
+            record.setDescription(DEFAULT_DESCRIPTION);
+        }
+        
+        // Устанавливаем timestamp
+        record.setTimestamp(generateTimestamp());
+        
+        return record;
     }
     
     /**
@@ -311,67 +971,99 @@ public class Main {
      * @param args аргументы командной строки
      * @param outputFile имя файла для вывода (может быть null)
      * @param prettyPrint флаг красивого вывода
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения
      */
-    static void processCommandLineMode(String[] args, String outputFile, boolean prettyPrint) {
+    static int processCommandLineMode(String[] args, String outputFile, boolean prettyPrint, PrintStream out) {
+        return processCommandLineMode(args, outputFile, prettyPrint, ConversionMetrics.DISABLED, out);
+    }
+    
+    /**
+     * Обрабатывает режим командной строки со сбором метрик по стадиям.
+     *
+     * @param args аргументы командной строки
+     * @param outputFile имя файла для вывода (может быть null)
+     * @param prettyPrint флаг красивого вывода
+     * @param metrics метрики преобразования
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения
+     */
+    static int processCommandLineMode(String[] args, String outputFile, boolean prettyPrint, ConversionMetrics metrics,
+            PrintStream out) {
+        return processCommandLineMode(args, outputFile, prettyPrint, SerializerEngine.DEFAULT, metrics, out);
+    }
+    
+    /**
+     * Обрабатывает режим командной строки с выбранной реализацией кодирования JSON.
+     *
+     * @param args аргументы командной строки
+     * @param outputFile имя файла для вывода (может быть null)
+     * @param prettyPrint флаг красивого вывода
+     * @param engine реализация кодирования записи
+     * @param metrics метрики преобразования
+     * @param out поток для сообщений и вывода JSON
+     * @return код завершения
+     */
+    static int processCommandLineMode(String[] args, String outputFile, boolean prettyPrint, SerializerEngine engine,
+            ConversionMetrics metrics, PrintStream out) {
         String wsJsonOutput = " ".repeat(JSON_OUTPUT_INITIAL_LENGTH);
         int wsJsonCharCount = 0;
         
         WsRecord wsRecord;
         
+        long parseStart = metrics.start(ConversionMetrics.Stage.PARSE);
         try {
             wsRecord = createWsRecordFromArgs(args);
         } catch (IllegalArgumentException e) {
-            System.out.println(ERROR_PREFIX + e.getMessage());
-            System.out.println(USAGE_MESSAGE);
-            System.exit(1);
-            return;
+            metrics.addError();
+            out.println(ERROR_PREFIX + e.getMessage());
+            out.println(USAGE_MESSAGE);
+            return 1;
         }
+        metrics.stop(ConversionMetrics.Stage.PARSE, parseStart);
         
         try {
             if (wsRecord == null || wsRecord.getName() == null || wsRecord.getValue() == null) {
                 throw new IllegalStateException(NULL_RECORD_ERROR);
             }
             
-            String jsonContent;
-            if (prettyPrint) {
-                jsonContent = generatePrettyJson(wsRecord);
-            } else {
-                jsonContent = String.format(
-                    JSON_TEMPLATE,
-                    wsRecord.getName().trim(),
-                    wsRecord.getValue().trim(),
-                    wsRecord.getFlag(),
-                    wsRecord.getDescription().trim(),
-                    wsRecord.getTimestamp()
-                );
-            }
+            long encodeStart = metrics.start(ConversionMetrics.Stage.ENCODE);
+            String jsonContent = engine.create(prettyPrint).encodeToString(wsRecord);
+            metrics.stop(ConversionMetrics.Stage.ENCODE, encodeStart);
+            metrics.addRecords(1);
             wsJsonOutput = jsonContent;
             wsJsonCharCount = jsonContent.length();
-            System.out.println(JSON_SUCCESS_MESSAGE);
+            out.println(JSON_SUCCESS_MESSAGE);
             
             // Записываем в файл, если указана опция -o
             if (outputFile != null) {
+                long writeStart = metrics.start(ConversionMetrics.Stage.WRITE);
                 writeToFile(outputFile, jsonContent);
-                System.out.println(OUTPUT_SAVED_MESSAGE + outputFile);
+                metrics.stop(ConversionMetrics.Stage.WRITE, writeStart);
+                out.println(OUTPUT_SAVED_MESSAGE + outputFile);
             }
         } catch (IllegalFormatException e) {
-            System.out.println(JSON_FORMAT_ERROR + e.getMessage());
-            System.exit(1);
+            metrics.addError();
+            out.println(JSON_FORMAT_ERROR + e.getMessage());
+            return 1;
         } catch (NullPointerException e) {
-            System.out.println(NULL_VALUE_ERROR + e.getMessage());
-            System.exit(1);
+            metrics.addError();
+            out.println(NULL_VALUE_ERROR + e.getMessage());
+            return 1;
         } catch (Exception e) {
-            System.out.println(UNEXPECTED_JSON_ERROR + e.getMessage());
-            System.exit(1);
+            metrics.addError();
+            out.println(UNEXPECTED_JSON_ERROR + e.getMessage());
+            return 1;
         }
         
-        System.out.println(GENERATED_JSON_PREFIX + wsRecord.getDisplayString());
-        System.out.println(OUTPUT_SEPARATOR);
-        System.out.println(wsJsonOutput);
-        System.out.println(OUTPUT_SEPARATOR);
-        System.out.printf(CHAR_COUNT_FORMAT, wsJsonCharCount);
-        System.out.println(DONE_MESSAGE);
-        System.exit(0);
+        out.println(GENERATED_JSON_PREFIX + wsRecord.getDisplayString());
+        out.println(OUTPUT_SEPARATOR);
+        out.println(wsJsonOutput);
+        out.println(OUTPUT_SEPARATOR);
+        metrics.addBytesOut(wsJsonOutput);
+        out.printf(CHAR_COUNT_FORMAT, wsJsonCharCount);
+        out.println(DONE_MESSAGE);
+        return 0;
     }
     
     /**
@@ -415,24 +1107,56 @@ public class Main {
     
     /**
      * Генерирует временную метку в формате "yyyy-MM-dd HH:mm:ss".
+     * Метка берется из кеша {@link TimestampClock} и пересчитывается не чаще раза в секунду.
      *
      * @return строка с текущей временной меткой
      */
     static String generateTimestamp() {
-        return LocalDateTime.now().format(DateTimeFormatter.ofPattern(TIMESTAMP_FORMAT));
+        return timestampClock.now();
     }
     
     /**
-     * Записывает содержимое в файл.
+     * Устанавливает источник временных меток, например часы с фиксированным временем для тестов.
+     *
+     * @param clock источник временных меток
+     */
+    static void setTimestampClock(TimestampClock clock) {
+        timestampClock = clock;
+    }
+    
+    /**
+     * @return текущий источник временных меток
+     */
+    static TimestampClock getTimestampClock() {
+        return timestampClock;
+    }
+    
+    /**
+     * Записывает содержимое в файл в кодировке UTF-8.
+     * Строка кодируется частями в буферы канала, без копии всего документа в массив байт.
      *
      * @param filename имя файла для записи
      * @param content содержимое для записи
      * @throws IOException если произошла ошибка записи
      */
     static void writeToFile(String filename, String content) throws IOException {
-        try {
-            Path path = Paths.get(filename);
-            Files.write(path, content.getBytes());
+        try (ChannelOutputStream out = new ChannelOutputStream(Paths.get(filename))) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new IOException(FILE_WRITE_ERROR + e.getMessage());
+        }
+    }
+    
+    /**
+     * Записывает уже закодированное в UTF-8 содержимое в файл без промежуточной строки.
+     *
+     * @param filename имя файла для записи
+     * @param content содержимое для записи
+     * @throws IOException если произошла ошибка записи
+     */
+    static void writeToFile(String filename, ByteArrayOutputStream content) throws IOException {
+        try (ChannelOutputStream out = new ChannelOutputStream(Paths.get(filename))) {
+            content.writeTo(out);
         } catch (IOException e) {
             throw new IOException(FILE_WRITE_ERROR + e.getMessage());
         }
@@ -468,6 +1192,9 @@ public class Main {
         private String description = " ".repeat(MAX_DESCRIPTION_LENGTH);
         private String timestamp = "";
         private boolean flag = false;
+        // Байты JSON полей value и description из словаря значений
+        private byte[] valueJson;
+        private byte[] descriptionJson;
         
         /**
          * Устанавливает флаг в состояние enabled (true).
@@ -558,6 +1285,7 @@ public class Main {
          */
         public void setValue(String value) {
             this.value = value;
+            this.valueJson = null;
         }
         
         /**
@@ -576,6 +1304,34 @@ public class Main {
          */
         public void setDescription(String description) {
             this.description = description;
+            this.descriptionJson = null;
+        }
+        
+        /**
+         * Сохраняет закодированные словарем {@link ValueDictionary} байты JSON полей value
+         * и description, чтобы кодировщик не искал значения в словаре повторно.
+         * Сбрасываются при изменении соответствующего поля.
+         *
+         * @param valueJson байты JSON значения
+         * @param descriptionJson байты JSON описания
+         */
+        void setEncodedValues(byte[] valueJson, byte[] descriptionJson) {
+            this.valueJson = valueJson;
+            this.descriptionJson = descriptionJson;
+        }
+        
+        /**
+         * @return байты JSON значения из словаря или null
+         */
+        byte[] getValueJson() {
+            return valueJson;
+        }
+        
+        /**
+         * @return байты JSON описания из словаря или null
+         */
+        byte[] getDescriptionJson() {
+            return descriptionJson;
         }
         
         /**
@@ -0,0 +1,275 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Читатель CSV файла через отображение в память ({@link FileChannel#map}).
+ * Разделители {@code ,} и {@code \n} ищутся прямо в отображенных байтах, без декодирования
+ * всего файла и без создания строки на каждую строку файла. Строки создаются только для
+ * полей, которые попадают в WsRecord; флаг enabled разбирается прямо из байт.
+ * Файл отображается окнами, поэтому поддерживаются файлы больше 2 ГБ.
+ * Правила разбора совпадают с {@link Main#parseRecord(String, long)};
+ * концом строки считается {@code \n} (завершающий {@code \r} отбрасывается как пробел).
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class MappedCsvReader implements RecordReader {
+
+    /** Размер окна отображения по умолчанию в байтах */
+    public static final long DEFAULT_WINDOW_SIZE = 256L * 1024 * 1024;
+    /** Количество полей CSV, которые используются в записи */
+    public static final int RECORD_FIELD_COUNT = 4;
+
+    private static final int NAME_FIELD = 0;
+    private static final int VALUE_FIELD = 1;
+    private static final int ENABLED_FIELD = 2;
+    private static final int DESCRIPTION_FIELD = 3;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private long position = 0;
+    private long lineNumber = 0;
+
+    // Границы полей текущей строки относительно начала окна
+    private final int[] fieldStart = new int[RECORD_FIELD_COUNT];
+    private final int[] fieldEnd = new int[RECORD_FIELD_COUNT];
+    private byte[] scratch = new byte[Main.MAX_DESCRIPTION_LENGTH * 4];
+
+    /**
+     * Открывает файл с окном отображения {@link #DEFAULT_WINDOW_SIZE}.
+     *
+     * @param filename имя файла для чтения
+     * @throws IOException если файл не удалось открыть
+     */
+    public MappedCsvReader(String filename) throws IOException {
+        this(filename, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param filename имя файла для чтения
+     * @param windowSize размер окна отображения в байтах (не больше Integer.MAX_VALUE)
+     * @throws IOException если файл не удалось открыть
+     */
+    public MappedCsvReader(String filename, long windowSize) throws IOException {
+        if (windowSize < 1 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window size must be between 1 and " + Integer.MAX_VALUE);
+        }
+        this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public WsRecord next() throws IOException {
+        while (position < size) {
+            int lineStart = (int) (position - windowStart);
+            int lineEnd = findLineEnd(lineStart);
+            if (lineEnd < 0) {
+                // Строка не помещается в текущее окно: отображаем окно с начала строки
+                map(position);
+                continue;
+            }
+            lineStart = (int) (position - windowStart);
+            position = windowStart + lineEnd + 1;
+            lineNumber++;
+
+            WsRecord record;
+            try {
+                record = parseLine(lineStart, lineEnd);
+            } catch (RecordFormatException e) {
+                throw e.withLine(line(lineStart, lineEnd));
+            }
+            if (record != null) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Ищет конец строки, начинающейся с указанной позиции окна.
+     *
+     * @return индекс {@code \n} (или конца файла) в окне; -1, если нужно сместить окно
+     */
+    private int findLineEnd(int lineStart) throws IOException {
+        if (window == null || lineStart < 0) {
+            map(position);
+            lineStart = 0;
+        }
+        int limit = window.limit();
+        for (int i = lineStart; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        if (windowStart + limit == size) {
+            return limit;
+        }
+        if (lineStart == 0) {
+            throw new IOException("Line " + (lineNumber + 1) + " exceeds mapping window of " + windowSize + " bytes");
+        }
+        return -1;
+    }
+
+    private void map(long start) throws IOException {
+        long length = Math.min(windowSize, size - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+    }
+
+    /**
+     * Разбирает строку [start, end) окна по тем же правилам, что и {@link Main#parseRecord}.
+     */
+    private WsRecord parseLine(int start, int end) {
+        // line.trim()
+        while (start < end && isBlank(window.get(start))) {
+            start++;
+        }
+        while (end > start && isBlank(window.get(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return null;
+        }
+
+        // line.split(",", -1): нужны только первые четыре поля
+        int parts = 0;
+        int partStart = start;
+        for (int i = start; i <= end && parts < RECORD_FIELD_COUNT; i++) {
+            if (i == end || window.get(i) == ',') {
+                fieldStart[parts] = partStart;
+                fieldEnd[parts] = i;
+                parts++;
+                partStart = i + 1;
+            }
+        }
+        if (parts < 2) {
+            throw new RecordFormatException(Main.INVALID_FILE_FORMAT, lineNumber);
+        }
+        for (int i = 0; i < parts; i++) {
+            trimField(i);
+        }
+
+        WsRecord record = new WsRecord();
+
+        String name = materialize(NAME_FIELD);
+        if (name.length() > Main.MAX_NAME_LENGTH) {
+            throw new RecordFormatException(Main.NAME_LIMIT_MESSAGE, lineNumber);
+        }
+        record.setName(Main.padToLength(name, Main.MAX_NAME_LENGTH));
+
+        String value = materialize(VALUE_FIELD);
+        if (value.length() > Main.MAX_VALUE_LENGTH) {
+            throw new RecordFormatException(Main.VALUE_LIMIT_MESSAGE, lineNumber);
+        }
+        record.setValue(Main.padToLength(value, Main.MAX_VALUE_LENGTH));
+
+        if (parts > ENABLED_FIELD && fieldLength(ENABLED_FIELD) > 0) {
+            if (fieldEqualsIgnoreCase(ENABLED_FIELD, Main.TRUE_STRING)) {
+                record.setFlag(true);
+            } else if (fieldEqualsIgnoreCase(ENABLED_FIELD, Main.FALSE_STRING)) {
+                record.setFlag(false);
+            } else {
+                throw new RecordFormatException(Main.ENABLED_FLAG_MESSAGE, lineNumber);
+            }
+        } else {
+            record.setFlag(Main.DEFAULT_FLAG);
+        }
+
+        if (parts > DESCRIPTION_FIELD && fieldLength(DESCRIPTION_FIELD) > 0) {
+            String description = materialize(DESCRIPTION_FIELD);
+            if (description.length() > Main.MAX_DESCRIPTION_LENGTH) {
+                throw new RecordFormatException(Main.DESCRIPTION_LIMIT_MESSAGE, lineNumber);
+            }
+            record.setDescription(Main.padToLength(description, Main.MAX_DESCRIPTION_LENGTH));
+        } else {
+            record.setDescription(Main.DEFAULT_DESCRIPTION);
+        }
+
+        record.setTimestamp(Main.generateTimestamp());
+        return record;
+    }
+
+    private void trimField(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        while (start < end && isBlank(window.get(start))) {
+            start++;
+        }
+        while (end > start && isBlank(window.get(end - 1))) {
+            end--;
+        }
+        fieldStart[field] = start;
+        fieldEnd[field] = end;
+    }
+
+    private int fieldLength(int field) {
+        return fieldEnd[field] - fieldStart[field];
+    }
+
+    private boolean fieldEqualsIgnoreCase(int field, String expected) {
+        if (fieldLength(field) != expected.length()) {
+            return false;
+        }
+        int start = fieldStart[field];
+        for (int i = 0; i < expected.length(); i++) {
+            byte b = window.get(start + i);
+            if (b < 0 || Character.toLowerCase((char) b) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String line(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        // Абсолютный ByteBuffer.get(int, byte[]) появился только в Java 13
+        ByteBuffer slice = window.duplicate();
+        slice.position(start);
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String materialize(int field) {
+        int length = fieldLength(field);
+        if (length > scratch.length) {
+            scratch = new byte[length];
+        }
+        boolean ascii = true;
+        int start = fieldStart[field];
+        for (int i = 0; i < length; i++) {
+            byte b = window.get(start + i);
+            scratch[i] = b;
+            ascii &= b >= 0;
+        }
+        // Для ASCII декодирование ISO-8859-1 сводится к копированию байт
+        return new String(scratch, 0, length, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    private static boolean isBlank(byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+}
@@ -0,0 +1,87 @@
+package my.first.migration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Писатель формата JSON Lines (NDJSON): один компактный документ на строку.
+ * У вывода нет общего обрамления, поэтому его можно сбрасывать после любой записи,
+ * дописывать в конец существующего файла и делить на части по переводам строк.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class NdjsonWriter implements JsonOutputWriter {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final OutputStream out;
+    private long recordCount = 0;
+    private long bytesWritten = 0;
+
+    /**
+     * @param out поток для вывода
+     */
+    public NdjsonWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void start() {
+        // У JSON Lines нет открывающего обрамления
+    }
+
+    /**
+     * {@inheritDoc}
+     * Документ должен быть однострочным.
+     */
+    @Override
+    public void writeRecord(byte[] json, int offset, int length) throws IOException {
+        out.write(json, offset, length);
+        out.write(NEW_LINE);
+        bytesWritten += length + 1;
+        recordCount++;
+    }
+
+    @Override
+    public void writeFragment(ByteArrayOutputStream fragmentBytes, long count) throws IOException {
+        fragmentBytes.writeTo(out);
+        bytesWritten += fragmentBytes.size();
+        recordCount += count;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Сбрасывает данные и закрывает поток вывода.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+}
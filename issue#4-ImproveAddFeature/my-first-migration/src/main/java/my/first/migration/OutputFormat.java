@@ -0,0 +1,71 @@
+package my.first.migration;
+
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Формат кодирования записей в файле вывода (опция --format).
+ * Текстовый JSON кодируется собственным кодировщиком {@link JsonRecordEncoder},
+ * а двоичные форматы - потоковыми генераторами Jackson ({@link BinaryFileConverter}).
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public enum OutputFormat {
+
+    /** Текстовый JSON */
+    JSON,
+    /** Concise Binary Object Representation (RFC 8949) */
+    CBOR,
+    /** Двоичный JSON Smile */
+    SMILE;
+
+    /**
+     * @param name имя формата без учета регистра, например cbor
+     * @return формат или null, если формат неизвестен или имя не задано
+     */
+    public static OutputFormat forName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (OutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true, если формат двоичный
+     */
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    /**
+     * Создает фабрику генераторов Jackson для формата.
+     *
+     * @return новая фабрика
+     */
+    public JsonFactory createFactory() {
+        switch (this) {
+            case CBOR:
+                return new CBORFactory();
+            case SMILE:
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+
+    /**
+     * @return имя формата для опции --format
+     */
+    public String optionValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
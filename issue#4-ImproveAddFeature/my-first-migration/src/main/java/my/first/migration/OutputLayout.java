@@ -0,0 +1,61 @@
+package my.first.migration;
+
+import java.io.OutputStream;
+
+/**
+ * Формат вывода последовательности записей.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public enum OutputLayout {
+
+    /** Компактный JSON массив в одну строку */
+    COMPACT_ARRAY,
+    /** JSON массив с отступами (--pretty) */
+    PRETTY_ARRAY,
+    /** JSON Lines: один компактный документ на строку (--ndjson) */
+    NDJSON;
+
+    /**
+     * Выбирает формат по опциям командной строки. NDJSON всегда компактный.
+     *
+     * @param prettyPrint флаг красивого вывода
+     * @param ndjson флаг вывода JSON Lines
+     * @return формат вывода
+     */
+    public static OutputLayout of(boolean prettyPrint, boolean ndjson) {
+        if (ndjson) {
+            return NDJSON;
+        }
+        return prettyPrint ? PRETTY_ARRAY : COMPACT_ARRAY;
+    }
+
+    /**
+     * @return true, если документы выводятся с отступами
+     */
+    public boolean isPretty() {
+        return this == PRETTY_ARRAY;
+    }
+
+    /**
+     * Создает писатель полного вывода.
+     *
+     * @param out поток для вывода
+     * @return писатель
+     */
+    public JsonOutputWriter open(OutputStream out) {
+        return this == NDJSON ? new NdjsonWriter(out) : new JsonArrayWriter(out, isPretty());
+    }
+
+    /**
+     * Создает писатель фрагмента, который затем добавляется через
+     * {@link JsonOutputWriter#writeFragment(java.io.ByteArrayOutputStream, long)}.
+     *
+     * @param out поток для вывода фрагмента
+     * @return писатель фрагмента
+     */
+    public JsonOutputWriter fragment(OutputStream out) {
+        return this == NDJSON ? new NdjsonWriter(out) : JsonArrayWriter.fragment(out, isPretty());
+    }
+}
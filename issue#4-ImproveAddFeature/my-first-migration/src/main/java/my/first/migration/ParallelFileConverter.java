@@ -0,0 +1,311 @@
+package my.first.migration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Параллельный конвертер CSV файла в JSON массив или JSON Lines.
+ * Файл делится на фрагменты по границам строк, фрагменты читаются, разбираются
+ * и кодируются одновременно в пуле ForkJoinPool, а результат собирается в исходном
+ * порядке строк. Одновременно в обработке находится ограниченное число фрагментов,
+ * поэтому расход памяти не зависит от размера файла. Если задан {@link RejectWriter},
+ * неверные строки собираются по фрагментам и записываются в файл отклоненных строк
+ * в исходном порядке.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ParallelFileConverter implements FileConverter {
+
+    /** Размер фрагмента файла по умолчанию в байтах */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    /** Количество фрагментов в обработке на один поток */
+    public static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+    /** Наибольшая длина фрагмента в байтах: фрагмент читается в один массив */
+    public static final int MAX_CHUNK_LENGTH = Integer.MAX_VALUE - 8;
+
+    private static final int BOUNDARY_PROBE_SIZE = 4096;
+
+    private final OutputLayout layout;
+    private final int parallelism;
+    private final int chunkSize;
+    private final int maxChunkLength;
+    private final RejectWriter rejects;
+    private final SerializerEngine engine;
+    private long recordsProcessed = 0;
+    private long bytesWritten = 0;
+
+    /**
+     * Создает конвертер с числом потоков по количеству процессоров.
+     *
+     * @param prettyPrint флаг красивого вывода
+     */
+    public ParallelFileConverter(boolean prettyPrint) {
+        this(FileModeSettings.of(OutputLayout.of(prettyPrint, false)));
+    }
+
+    /**
+     * @param prettyPrint флаг красивого вывода
+     * @param parallelism количество потоков
+     * @param chunkSize примерный размер фрагмента в байтах
+     */
+    public ParallelFileConverter(boolean prettyPrint, int parallelism, int chunkSize) {
+        this(FileModeSettings.of(OutputLayout.of(prettyPrint, false)), parallelism, chunkSize);
+    }
+
+    /**
+     * Создает конвертер с числом потоков по количеству процессоров.
+     *
+     * @param settings формат вывода, реализация кодирования и файл отклоненных строк
+     */
+    public ParallelFileConverter(FileModeSettings settings) {
+        this(settings, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Из настроек используются формат вывода, реализация кодирования (каждый фрагмент
+     * кодируется своим экземпляром) и файл отклоненных строк. Файл всегда читается
+     * фрагментами, а словарь значений не потокобезопасен, поэтому способ чтения
+     * и словарь из настроек не используются.
+     *
+     * @param settings настройки преобразования
+     * @param parallelism количество потоков
+     * @param chunkSize примерный размер фрагмента в байтах
+     */
+    public ParallelFileConverter(FileModeSettings settings, int parallelism, int chunkSize) {
+        this(settings, parallelism, chunkSize, MAX_CHUNK_LENGTH);
+    }
+
+    /**
+     * @param settings настройки преобразования
+     * @param parallelism количество потоков
+     * @param chunkSize примерный размер фрагмента в байтах
+     * @param maxChunkLength наибольшая длина фрагмента с учетом поиска конца строки
+     */
+    ParallelFileConverter(FileModeSettings settings, int parallelism, int chunkSize, int maxChunkLength) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        }
+        if (chunkSize > maxChunkLength) {
+            throw new IllegalArgumentException("Chunk size must not exceed " + maxChunkLength + " bytes");
+        }
+        this.layout = settings.getLayout();
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.maxChunkLength = maxChunkLength;
+        this.rejects = settings.getRejects();
+        this.engine = settings.getEngine();
+    }
+
+    @Override
+    public void convert(String filename, OutputStream out) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ConversionEvents.FileOpen openEvent = ConversionEvents.FileOpen.start();
+        FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        openEvent.finish(filename);
+        try {
+            JsonOutputWriter writer = layout.open(out);
+            writer.start();
+
+            Deque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+            int maxInFlight = parallelism * CHUNKS_IN_FLIGHT_PER_THREAD;
+            long size = channel.size();
+            long position = 0;
+            long lineOffset = 0;
+
+            while (position < size || !inFlight.isEmpty()) {
+                if (position < size && inFlight.size() < maxInFlight) {
+                    long end = findChunkEnd(channel, position, size);
+                    inFlight.addLast(pool.submit(new ChunkTask(channel, position, end)));
+                    position = end;
+                    continue;
+                }
+                ChunkResult result = join(inFlight.removeFirst());
+                if (result.error != null) {
+                    inFlight.forEach(task -> task.cancel(true));
+                    throw result.error.withLineOffset(lineOffset);
+                }
+                for (RecordFormatException rejected : result.rejected) {
+                    rejects.reject(rejected.withLineOffset(lineOffset), lineOffset + rejected.getLineNumber());
+                }
+                writer.writeFragment(result.json, result.recordCount);
+                lineOffset += result.lineCount;
+            }
+            if (rejects != null) {
+                rejects.finish(lineOffset);
+            }
+            writer.finish();
+
+            recordsProcessed = writer.getRecordCount();
+            bytesWritten = writer.getBytesWritten();
+        } finally {
+            pool.shutdownNow();
+            ConversionEvents.FileClose closeEvent = ConversionEvents.FileClose.start();
+            channel.close();
+            closeEvent.finish(filename, recordsProcessed);
+        }
+    }
+
+    @Override
+    public long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Находит конец фрагмента: первую позицию после перевода строки,
+     * начиная с {@code start + chunkSize}.
+     *
+     * @throws IOException если до конца фрагмента наибольшей длины нет перевода строки
+     */
+    private long findChunkEnd(FileChannel channel, long start, long size) throws IOException {
+        long position = start + chunkSize;
+        long limit = start + maxChunkLength;
+        if (position >= size) {
+            return checkChunkEnd(start, size);
+        }
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_SIZE);
+        while (position < size && position < limit) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return checkChunkEnd(start, position + i + 1);
+                }
+            }
+            position += read;
+        }
+        return checkChunkEnd(start, size);
+    }
+
+    private long checkChunkEnd(long start, long end) throws IOException {
+        if (end - start > maxChunkLength) {
+            throw new IOException("No line break within " + maxChunkLength + " bytes after offset " + start
+                    + ", convert this file without " + Main.PARALLEL_OPTION_PREFIX);
+        }
+        return end;
+    }
+
+    private static ChunkResult join(ForkJoinTask<ChunkResult> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            // ForkJoinTask может передать исключение из другого потока обернутым в новый экземпляр
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Результат обработки фрагмента.
+     */
+    private static final class ChunkResult {
+        private final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        private long recordCount = 0;
+        private long lineCount = 0;
+        private RecordFormatException error;
+        private final List<RecordFormatException> rejected = new ArrayList<>();
+    }
+
+    /**
+     * Задача чтения, разбора и кодирования одного фрагмента файла.
+     * Номера строк в ошибках считаются от начала фрагмента. Неверные строки отклоняются
+     * только в основном потоке, поэтому здесь они лишь собираются в {@link ChunkResult}.
+     */
+    private final class ChunkTask extends RecursiveTask<ChunkResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        ChunkTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            ChunkResult result = new ChunkResult();
+            ConversionEvents.ChunkParse event = ConversionEvents.ChunkParse.start();
+            try {
+                String text = new String(read(), StandardCharsets.UTF_8);
+                JsonOutputWriter fragment = layout.fragment(result.json);
+                RecordSerializer serializer = engine.create(layout.isPretty(), JsonArrayWriter.ELEMENT_DEPTH);
+
+                int lineStart = 0;
+                while (lineStart < text.length()) {
+                    int lineEnd = text.indexOf('\n', lineStart);
+                    if (lineEnd < 0) {
+                        lineEnd = text.length();
+                    }
+                    result.lineCount++;
+                    WsRecord record;
+                    try {
+                        record = Main.parseRecord(text.substring(lineStart, lineEnd), result.lineCount);
+                    } catch (RecordFormatException e) {
+                        if (rejects == null) {
+                            throw e;
+                        }
+                        result.rejected.add(e);
+                        record = null;
+                    }
+                    if (record != null) {
+                        int length = serializer.encode(record);
+                        fragment.writeRecord(serializer.buffer(), 0, length);
+                    }
+                    lineStart = lineEnd + 1;
+                }
+                result.recordCount = fragment.getRecordCount();
+                event.finish(start, end - start, result.recordCount);
+            } catch (RecordFormatException e) {
+                result.error = e;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return result;
+        }
+
+        private byte[] read() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(end - start));
+            long position = start;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+            return buffer.array();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package my.first.migration;
+
+/**
+ * Исключение о неверном формате строки входного файла.
+ * Хранит причину ошибки и номер строки отдельно, чтобы номер можно было пересчитать,
+ * когда строка разбиралась в составе фрагмента файла, а также текст строки, если он
+ * известен, для записи в файл отклоненных строк ({@link RejectWriter}).
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class RecordFormatException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String reason;
+    private final long lineNumber;
+    private final String line;
+
+    /**
+     * @param reason причина ошибки, например {@link Main#NAME_LIMIT_MESSAGE}
+     * @param lineNumber номер строки (с 1)
+     */
+    public RecordFormatException(String reason, long lineNumber) {
+        this(reason, lineNumber, null);
+    }
+
+    /**
+     * @param reason причина ошибки, например {@link Main#NAME_LIMIT_MESSAGE}
+     * @param lineNumber номер строки (с 1)
+     * @param line текст строки (может быть null)
+     */
+    public RecordFormatException(String reason, long lineNumber, String line) {
+        super(reason + " at line " + lineNumber);
+        this.reason = reason;
+        this.lineNumber = lineNumber;
+        this.line = line;
+    }
+
+    /**
+     * @return причина ошибки без номера строки
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * @return номер строки (с 1)
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return текст строки или null, если он неизвестен
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Создает копию исключения с текстом строки.
+     *
+     * @param text текст строки
+     * @return исключение с текстом строки
+     */
+    public RecordFormatException withLine(String text) {
+        return new RecordFormatException(reason, lineNumber, text);
+    }
+
+    /**
+     * Создает копию исключения с номером строки, сдвинутым на заданное смещение.
+     *
+     * @param lineOffset количество строк перед фрагментом
+     * @return исключение с номером строки в исходном файле
+     */
+    public RecordFormatException withLineOffset(long lineOffset) {
+        return new RecordFormatException(reason, lineNumber + lineOffset, line);
+    }
+}
@@ -0,0 +1,43 @@
+package my.first.migration;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Последовательный источник записей WsRecord из входного файла.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public interface RecordReader extends Closeable {
+
+    /**
+     * Читает следующую запись, пропуская пустые строки.
+     *
+     * @return следующая запись или null, если файл закончился
+     * @throws IOException если произошла ошибка чтения
+     * @throws RecordFormatException если формат строки неверный
+     */
+    WsRecord next() throws IOException;
+
+    /**
+     * @return номер последней прочитанной строки (с 1)
+     */
+    long getLineNumber();
+
+    /**
+     * Фабрика, открывающая читатель для файла.
+     */
+    @FunctionalInterface
+    interface Factory {
+
+        /**
+         * @param filename имя файла для чтения
+         * @return открытый читатель
+         * @throws IOException если файл не удалось открыть
+         */
+        RecordReader open(String filename) throws IOException;
+    }
+}
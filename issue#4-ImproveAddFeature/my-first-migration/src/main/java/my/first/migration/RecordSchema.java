@@ -0,0 +1,288 @@
+package my.first.migration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Описание полей записи, прочитанное из схемы в виде копибука COBOL (опция --schema).
+ * Поддерживается подмножество копибука, которого достаточно для структур вида ws-record
+ * из json_generate.cbl:
+ * <ul>
+ * <li>группа уровня 01 и элементарные поля {@code PIC X(n)} любых уровней ниже;</li>
+ * <li>{@code VALUE 'text'} - значение по умолчанию для пустого или отсутствующего столбца;
+ *     поля без значения по умолчанию обязательны;</li>
+ * <li>поля {@code FILLER} занимают место в записи, но не попадают в JSON, как в JSON GENERATE;</li>
+ * <li>фраза {@code NAME OF поле IS 'имя'} задает имя поля в JSON, как в JSON GENERATE;
+ *     без нее используется имя поля COBOL;</li>
+ * <li>фраза {@code CONVERTING поле TO JSON BOOLEAN} выводит поле как true или false.</li>
+ * </ul>
+ * Строки, начинающиеся с {@code *}, считаются комментариями. Столбцы CSV соответствуют
+ * полям JSON по порядку, а в конец каждой записи добавляется временная метка, как
+ * в {@link Main#JSON_TEMPLATE}. Схема ws-record поставляется вместе с программой
+ * ({@link #wsRecord()}).
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class RecordSchema {
+
+    /** Ресурс со схемой ws-record */
+    public static final String WS_RECORD_RESOURCE = "ws-record.cpy";
+    /** Имя поля временной метки, добавляемого в конец каждой записи */
+    public static final String TIMESTAMP_FIELD = "timestamp";
+
+    private static final Pattern ITEM = Pattern.compile(
+            "(\\d{1,2})\\s+([\\w-]+)(?:\\s+PIC\\s+X\\((\\d+)\\))?(?:\\s+VALUE\\s+'([^']*)')?\\s*\\.?",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern NAME_OF = Pattern.compile("NAME\\s+OF\\s+([\\w-]+)\\s+IS\\s+'([^']+)'",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CONVERTING = Pattern.compile("CONVERTING\\s+([\\w-]+)\\s+TO\\s+JSON\\s+BOOLEAN",
+            Pattern.CASE_INSENSITIVE);
+    private static final String FILLER = "FILLER";
+
+    private final String recordName;
+    private final List<Field> fields;
+    private final int requiredColumns;
+
+    private RecordSchema(String recordName, List<Field> fields) {
+        this.recordName = recordName;
+        this.fields = Collections.unmodifiableList(fields);
+        int required = 0;
+        int column = 0;
+        for (Field field : fields) {
+            if (!field.isFiller()) {
+                column++;
+                if (field.defaultValue == null) {
+                    required = column;
+                }
+            }
+        }
+        this.requiredColumns = required;
+    }
+
+    /**
+     * Загружает схему из файла в UTF-8.
+     *
+     * @param path файл схемы
+     * @return схема
+     * @throws IOException если файл не удалось прочитать
+     * @throws IllegalArgumentException если схема неверная
+     */
+    public static RecordSchema load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * @return схема ws-record из json_generate.cbl, совпадающая с разбором {@link Main#parseRecord}
+     */
+    public static RecordSchema wsRecord() {
+        try (InputStream in = RecordSchema.class.getResourceAsStream(WS_RECORD_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Schema resource not found: " + WS_RECORD_RESOURCE);
+            }
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Schema resource cannot be read: " + WS_RECORD_RESOURCE, e);
+        }
+    }
+
+    /**
+     * Разбирает схему.
+     *
+     * @param reader текст схемы
+     * @return схема
+     * @throws IOException если текст не удалось прочитать
+     * @throws IllegalArgumentException если схема неверная
+     */
+    public static RecordSchema parse(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String recordName = null;
+        List<Field> fields = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            String text = line.trim();
+            if (text.isEmpty() || text.startsWith("*")) {
+                continue;
+            }
+            Matcher matcher;
+            if ((matcher = ITEM.matcher(text)).matches()) {
+                int level = Integer.parseInt(matcher.group(1));
+                String name = matcher.group(2);
+                if (level == 1) {
+                    if (recordName != null || matcher.group(3) != null) {
+                        throw invalid(lineNumber, "only one group item of level 01 is supported");
+                    }
+                    recordName = name;
+                } else if (recordName == null || matcher.group(3) == null) {
+                    throw invalid(lineNumber, "expected an elementary PIC X(n) item of level 01 group");
+                } else {
+                    int length = Integer.parseInt(matcher.group(3));
+                    String defaultValue = matcher.group(4);
+                    if (length < 1 || defaultValue != null && defaultValue.length() > length) {
+                        throw invalid(lineNumber, "value does not fit into PIC X(" + length + ")");
+                    }
+                    if (!FILLER.equalsIgnoreCase(name) && find(fields, name) != null) {
+                        throw invalid(lineNumber, "duplicate field " + name);
+                    }
+                    fields.add(new Field(name, name, length, defaultValue, false));
+                }
+            } else if ((matcher = NAME_OF.matcher(text)).matches()) {
+                Field field = require(fields, matcher.group(1), lineNumber);
+                fields.set(fields.indexOf(field), new Field(field.cobolName, matcher.group(2), field.length,
+                        field.defaultValue, field.booleanValue));
+            } else if ((matcher = CONVERTING.matcher(text)).matches()) {
+                Field field = require(fields, matcher.group(1), lineNumber);
+                if (field.defaultValue != null && !Main.TRUE_STRING.equals(field.defaultValue)
+                        && !Main.FALSE_STRING.equals(field.defaultValue)) {
+                    throw invalid(lineNumber, "boolean value must be '" + Main.TRUE_STRING + "' or '"
+                            + Main.FALSE_STRING + "'");
+                }
+                fields.set(fields.indexOf(field), new Field(field.cobolName, field.jsonName, field.length,
+                        field.defaultValue, true));
+            } else {
+                throw invalid(lineNumber, text);
+            }
+        }
+        if (fields.stream().allMatch(Field::isFiller)) {
+            throw new IllegalArgumentException("Schema has no fields");
+        }
+        return new RecordSchema(recordName, fields);
+    }
+
+    private static Field find(List<Field> fields, String cobolName) {
+        for (Field field : fields) {
+            if (!field.isFiller() && field.cobolName.equalsIgnoreCase(cobolName)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static Field require(List<Field> fields, String cobolName, int lineNumber) {
+        Field field = find(fields, cobolName);
+        if (field == null) {
+            throw invalid(lineNumber, "unknown field " + cobolName);
+        }
+        return field;
+    }
+
+    private static IllegalArgumentException invalid(int lineNumber, String reason) {
+        return new IllegalArgumentException("Invalid schema line " + lineNumber + ": " + reason);
+    }
+
+    /**
+     * @return имя группы уровня 01
+     */
+    public String getRecordName() {
+        return recordName;
+    }
+
+    /**
+     * @return поля в порядке записи, включая FILLER
+     */
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return минимальное количество столбцов CSV: до последнего поля без значения по умолчанию
+     */
+    public int getRequiredColumns() {
+        return requiredColumns;
+    }
+
+    /**
+     * Поле записи.
+     */
+    public static final class Field {
+        private final String cobolName;
+        private final String jsonName;
+        private final int length;
+        private final String defaultValue;
+        private final boolean booleanValue;
+
+        Field(String cobolName, String jsonName, int length, String defaultValue, boolean booleanValue) {
+            this.cobolName = cobolName;
+            this.jsonName = jsonName;
+            this.length = length;
+            this.defaultValue = defaultValue;
+            this.booleanValue = booleanValue;
+        }
+
+        /**
+         * @return имя поля COBOL
+         */
+        public String getCobolName() {
+            return cobolName;
+        }
+
+        /**
+         * @return имя поля в JSON
+         */
+        public String getJsonName() {
+            return jsonName;
+        }
+
+        /**
+         * @return длина поля PIC X(n)
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * @return значение по умолчанию или null, если поле обязательное
+         */
+        public String getDefaultValue() {
+            return defaultValue;
+        }
+
+        /**
+         * @return true, если поле выводится как true или false
+         */
+        public boolean isBoolean() {
+            return booleanValue;
+        }
+
+        /**
+         * @return true, если поле FILLER и не выводится в JSON
+         */
+        public boolean isFiller() {
+            return FILLER.equalsIgnoreCase(cobolName);
+        }
+
+        /**
+         * @return сообщение о слишком длинном значении, как {@link Main#NAME_LIMIT_MESSAGE}
+         */
+        String limitMessage() {
+            return capitalize(jsonName) + " cannot exceed " + length + " characters";
+        }
+
+        /**
+         * @return сообщение о неверном логическом значении, как {@link Main#ENABLED_FLAG_MESSAGE}
+         */
+        String flagMessage() {
+            return capitalize(jsonName) + " flag must be '" + Main.TRUE_STRING + "' or '" + Main.FALSE_STRING + "'";
+        }
+
+        private static String capitalize(String name) {
+            return name.substring(0, 1).toUpperCase(Locale.ROOT) + name.substring(1);
+        }
+    }
+}
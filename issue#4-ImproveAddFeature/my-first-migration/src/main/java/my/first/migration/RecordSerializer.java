@@ -0,0 +1,52 @@
+package my.first.migration;
+
+import java.nio.charset.StandardCharsets;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Кодировщик записи WsRecord в JSON документ. Реализации выбираются по
+ * {@link SerializerEngine} и отличаются только способом построения документа,
+ * поэтому их можно сравнивать в одних и тех же режимах и бенчмарках.
+ * Документ кодируется в переиспользуемый буфер UTF-8, действительный до следующего вызова
+ * {@link #encode(WsRecord)}. Экземпляры не потокобезопасны.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public interface RecordSerializer {
+
+    /**
+     * Кодирует запись, заменяя предыдущее содержимое буфера.
+     *
+     * @param record запись для кодирования
+     * @return длина закодированного документа в байтах
+     */
+    int encode(WsRecord record);
+
+    /**
+     * @return внутренний буфер; действительны только первые {@link #length()} байт
+     */
+    byte[] buffer();
+
+    /**
+     * @return длина последнего закодированного документа в байтах
+     */
+    int length();
+
+    /**
+     * @return true, если документы многострочные, с отступами
+     */
+    boolean isPretty();
+
+    /**
+     * Кодирует запись в строку JSON.
+     *
+     * @param record запись для кодирования
+     * @return JSON документ
+     */
+    default String encodeToString(WsRecord record) {
+        int length = encode(record);
+        return new String(buffer(), 0, length, StandardCharsets.UTF_8);
+    }
+}
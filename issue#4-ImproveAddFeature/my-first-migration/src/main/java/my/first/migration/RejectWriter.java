@@ -0,0 +1,119 @@
+package my.first.migration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Файл отклоненных строк для режима, в котором неверные строки не прерывают преобразование.
+ * Каждая строка с ошибкой формата записывается в файл как номер строки, причина
+ * (например {@link Main#NAME_LIMIT_MESSAGE}) и текст строки, разделенные табуляцией,
+ * а преобразование продолжается со следующей строки.
+ * <p>
+ * Доля отклоненных строк ограничена: если она превышает {@link #getMaxErrorRate()},
+ * преобразование прерывается с {@link IllegalStateException}. Во время чтения доля
+ * проверяется только после {@link #MIN_LINES_FOR_RATE} строк, чтобы несколько ошибок
+ * в начале файла не прерывали преобразование, а в конце файла - по всем строкам.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class RejectWriter implements Closeable {
+
+    /** Максимальная доля отклоненных строк по умолчанию (без ограничения) */
+    public static final double DEFAULT_MAX_ERROR_RATE = 1.0;
+    /** Количество прочитанных строк, после которого доля ошибок проверяется во время чтения */
+    public static final long MIN_LINES_FOR_RATE = 1000;
+
+    private static final char SEPARATOR = '\t';
+
+    private final Path path;
+    private final double maxErrorRate;
+    private final Writer writer;
+    private long rejectedCount = 0;
+
+    /**
+     * @param path файл отклоненных строк; перезаписывается
+     * @param maxErrorRate максимальная доля отклоненных строк от 0 до 1
+     * @throws IOException если файл не удалось открыть
+     */
+    public RejectWriter(Path path, double maxErrorRate) throws IOException {
+        this.path = path;
+        this.maxErrorRate = maxErrorRate;
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Записывает отклоненную строку и проверяет долю ошибок.
+     *
+     * @param error ошибка формата строки
+     * @param linesRead количество прочитанных строк, включая отклоненную
+     * @throws IOException если произошла ошибка записи
+     * @throws IllegalStateException если доля отклоненных строк превышена
+     */
+    public void reject(RecordFormatException error, long linesRead) throws IOException {
+        ConversionEvents.validationFailed(error);
+        writer.append(Long.toString(error.getLineNumber())).append(SEPARATOR)
+                .append(error.getReason()).append(SEPARATOR)
+                .append(error.getLine() == null ? "" : error.getLine()).append('\n');
+        rejectedCount++;
+        if (linesRead >= MIN_LINES_FOR_RATE) {
+            checkRate(linesRead);
+        }
+    }
+
+    /**
+     * Проверяет долю ошибок по всем строкам файла.
+     *
+     * @param totalLines количество строк файла
+     * @throws IllegalStateException если доля отклоненных строк превышена
+     */
+    public void finish(long totalLines) {
+        checkRate(totalLines);
+    }
+
+    private void checkRate(long linesRead) {
+        if (rejectedCount > maxErrorRate * linesRead) {
+            throw new IllegalStateException(String.format(Main.ERROR_RATE_EXCEEDED_FORMAT, rejectedCount, linesRead,
+                    maxErrorRate));
+        }
+    }
+
+    /**
+     * @return файл отклоненных строк
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return максимальная доля отклоненных строк
+     */
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    /**
+     * @return количество отклоненных строк
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Сбрасывает записанные строки в файл, не закрывая его.
+     *
+     * @throws IOException если произошла ошибка записи
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,62 @@
+package my.first.migration;
+
+import java.io.IOException;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Читатель, передающий строки с ошибкой формата в {@link RejectWriter} вместо прерывания чтения.
+ * Все читатели увеличивают номер строки до разбора, поэтому после ошибки чтение
+ * продолжается со следующей строки. В конце файла проверяется доля отклоненных строк.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class RejectingRecordReader implements RecordReader {
+
+    private final RecordReader delegate;
+    private final RejectWriter rejects;
+
+    /**
+     * @param delegate исходный читатель; закрывается вместе с этим читателем
+     * @param rejects файл отклоненных строк
+     */
+    public RejectingRecordReader(RecordReader delegate, RejectWriter rejects) {
+        this.delegate = delegate;
+        this.rejects = rejects;
+    }
+
+    /**
+     * @param factory фабрика исходного читателя
+     * @param rejects файл отклоненных строк
+     * @return фабрика читателя, отклоняющего неверные строки
+     */
+    public static RecordReader.Factory wrap(RecordReader.Factory factory, RejectWriter rejects) {
+        return filename -> new RejectingRecordReader(factory.open(filename), rejects);
+    }
+
+    @Override
+    public WsRecord next() throws IOException {
+        while (true) {
+            try {
+                WsRecord record = delegate.next();
+                if (record == null) {
+                    rejects.finish(delegate.getLineNumber());
+                }
+                return record;
+            } catch (RecordFormatException e) {
+                rejects.reject(e, delegate.getLineNumber());
+            }
+        }
+    }
+
+    @Override
+    public long getLineNumber() {
+        return delegate.getLineNumber();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
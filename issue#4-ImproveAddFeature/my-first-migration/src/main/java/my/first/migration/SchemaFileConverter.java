@@ -0,0 +1,109 @@
+package my.first.migration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Потоковый конвертер CSV файла в JSON массив или JSON Lines по схеме записи {@link RecordSchema}.
+ * Строки разбираются и кодируются {@link SchemaRecordEncoder} за один проход, поэтому
+ * стадии разбора и кодирования совмещены и учитываются как кодирование.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class SchemaFileConverter implements FileConverter {
+
+    private final RecordSchema schema;
+    private final OutputLayout layout;
+    private final ConversionMetrics metrics;
+    private final GzipCodec gzip;
+    private long recordsProcessed = 0;
+    private long bytesWritten = 0;
+
+    /**
+     * @param schema схема записи
+     * @param layout формат вывода
+     */
+    public SchemaFileConverter(RecordSchema schema, OutputLayout layout) {
+        this(schema, layout, ConversionMetrics.DISABLED, GzipCodec.DEFAULT);
+    }
+
+    /**
+     * @param schema схема записи
+     * @param layout формат вывода
+     * @param metrics метрики, в которых отмечаются стадии преобразования
+     * @param gzip настройки распаковки входных файлов {@link GzipCodec#EXTENSION}
+     */
+    public SchemaFileConverter(RecordSchema schema, OutputLayout layout, ConversionMetrics metrics, GzipCodec gzip) {
+        this.schema = schema;
+        this.layout = layout;
+        this.metrics = metrics;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public void convert(String filename, OutputStream out) throws IOException {
+        Path path = Paths.get(filename);
+        ConversionEvents.FileOpen openEvent = ConversionEvents.FileOpen.start();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(gzip.openInput(path), StandardCharsets.UTF_8));
+        openEvent.finish(filename);
+        long lineNumber = 0;
+        try {
+            if (metrics.isEnabled()) {
+                metrics.addBytesIn(Files.size(path));
+            }
+            SchemaRecordEncoder encoder = new SchemaRecordEncoder(schema, layout.isPretty(),
+                    JsonArrayWriter.ELEMENT_DEPTH);
+            JsonOutputWriter writer = layout.open(out);
+            writer.start();
+            ConversionEvents.RecordEncodeBatch batch = ConversionEvents.RecordEncodeBatch.start(writer.getBytesWritten());
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    long start = metrics.start(ConversionMetrics.Stage.ENCODE);
+                    int length = encoder.encodeLine(line, lineNumber);
+                    metrics.stop(ConversionMetrics.Stage.ENCODE, start);
+                    if (length < 0) {
+                        continue;
+                    }
+                    start = metrics.start(ConversionMetrics.Stage.WRITE);
+                    writer.writeRecord(encoder.buffer(), 0, length);
+                    metrics.stop(ConversionMetrics.Stage.WRITE, start);
+                    batch = batch.next(writer.getBytesWritten());
+                }
+            } finally {
+                batch.finish(writer.getBytesWritten());
+            }
+            writer.finish();
+
+            recordsProcessed = writer.getRecordCount();
+            bytesWritten = writer.getBytesWritten();
+            metrics.addRecords(recordsProcessed);
+            metrics.addBytesOut(bytesWritten);
+        } catch (IOException | RuntimeException e) {
+            metrics.addError();
+            throw e;
+        } finally {
+            ConversionEvents.FileClose closeEvent = ConversionEvents.FileClose.start();
+            reader.close();
+            closeEvent.finish(filename, lineNumber);
+        }
+    }
+
+    @Override
+    public long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+}
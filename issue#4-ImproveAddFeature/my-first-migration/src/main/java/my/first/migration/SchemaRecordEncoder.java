@@ -0,0 +1,199 @@
+package my.first.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Кодировщик строк CSV в JSON по схеме {@link RecordSchema}.
+ * При создании схема компилируется в таблицу полей: ключи JSON вместе с разделителями,
+ * отступами и кавычками, значения по умолчанию и сообщения об ошибках кодируются заранее.
+ * Строка разбирается и кодируется за один проход по индексам, без разбиения на подстроки,
+ * без объекта записи и без дополнения полей пробелами, поэтому схема работает так же быстро,
+ * как разбор {@link Main#parseRecord} с кодировщиком {@link JsonRecordEncoder}, и для схемы
+ * ws-record выдает тот же документ и те же ошибки.
+ * Экземпляр не потокобезопасен.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class SchemaRecordEncoder {
+
+    private static final byte[] TRUE_BYTES = bytes(Main.TRUE_STRING);
+    private static final byte[] FALSE_BYTES = bytes(Main.FALSE_STRING);
+
+    private final RecordSchema.Field[] fields;
+    private final byte[][] prefixes;
+    private final byte[][] defaults;
+    private final String[] limitMessages;
+    private final String[] flagMessages;
+    private final byte[] suffix;
+    private final int requiredColumns;
+    private final String invalidFormatMessage;
+    private final JsonRecordEncoder out = new JsonRecordEncoder();
+
+    /**
+     * Создает кодировщик компактного JSON.
+     *
+     * @param schema схема записи
+     */
+    public SchemaRecordEncoder(RecordSchema schema) {
+        this(schema, false, 0);
+    }
+
+    /**
+     * @param schema схема записи
+     * @param prettyPrint флаг красивого вывода
+     * @param depth уровень вложенности документа, {@link JsonArrayWriter#ELEMENT_DEPTH} для элементов массива
+     */
+    public SchemaRecordEncoder(RecordSchema schema, boolean prettyPrint, int depth) {
+        List<RecordSchema.Field> jsonFields = new ArrayList<>();
+        for (RecordSchema.Field field : schema.getFields()) {
+            if (!field.isFiller()) {
+                jsonFields.add(field);
+            }
+        }
+        this.fields = jsonFields.toArray(new RecordSchema.Field[0]);
+        this.prefixes = new byte[fields.length + 1][];
+        this.defaults = new byte[fields.length][];
+        this.limitMessages = new String[fields.length];
+        this.flagMessages = new String[fields.length];
+        String indent = prettyPrint ? JsonArrayWriter.PRETTY_INDENT.repeat(depth) : "";
+        String keyIndent = prettyPrint ? "\n" + indent + JsonArrayWriter.PRETTY_INDENT : "";
+        String keySeparator = prettyPrint ? ": " : ":";
+        // Кавычка, закрывающая строковое значение, входит в начало следующего ключа
+        String previousClose = "";
+        for (int i = 0; i <= fields.length; i++) {
+            boolean isString = i == fields.length || !fields[i].isBoolean();
+            String name = i == fields.length ? RecordSchema.TIMESTAMP_FIELD : fields[i].getJsonName();
+            prefixes[i] = bytes(previousClose + (i == 0 ? "{" : ",") + keyIndent + quote(name) + keySeparator
+                    + (isString ? "\"" : ""));
+            previousClose = isString ? "\"" : "";
+            if (i < fields.length) {
+                RecordSchema.Field field = fields[i];
+                String defaultValue = field.getDefaultValue();
+                if (defaultValue != null) {
+                    defaults[i] = field.isBoolean()
+                            ? (Main.TRUE_STRING.equals(defaultValue) ? TRUE_BYTES : FALSE_BYTES)
+                            : escape(defaultValue);
+                }
+                limitMessages[i] = field.limitMessage();
+                flagMessages[i] = field.flagMessage();
+            }
+        }
+        this.suffix = bytes(previousClose + (prettyPrint ? "\n" + indent : "") + "}");
+        this.requiredColumns = schema.getRequiredColumns();
+        this.invalidFormatMessage = "Invalid file format. Expected format: "
+                + jsonFields.stream().map(RecordSchema.Field::getJsonName).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Разбирает строку CSV и кодирует запись, заменяя предыдущее содержимое буфера.
+     * Значения обрезаются по краям, как в {@link Main#parseRecord}; пустое или отсутствующее
+     * значение заменяется значением по умолчанию из схемы.
+     *
+     * @param line строка CSV
+     * @param lineNumber номер строки для сообщения об ошибке
+     * @return длина закодированного документа в байтах или -1, если строка пустая
+     * @throws RecordFormatException если столбцов меньше обязательных, значение длиннее поля
+     *         или логическое значение неверное
+     */
+    public int encodeLine(String line, long lineNumber) {
+        int start = 0;
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return -1;
+        }
+        int columns = 1;
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) == ',') {
+                columns++;
+            }
+        }
+        if (columns < requiredColumns) {
+            throw new RecordFormatException(invalidFormatMessage, lineNumber, line);
+        }
+
+        out.clear();
+        int position = start;
+        for (int i = 0; i < fields.length; i++) {
+            out.appendBytes(prefixes[i]);
+            int valueStart = position;
+            int valueEnd = position;
+            if (i < columns) {
+                valueEnd = line.indexOf(',', position);
+                if (valueEnd < 0 || valueEnd > end) {
+                    valueEnd = end;
+                }
+                position = valueEnd + 1;
+                while (valueStart < valueEnd && line.charAt(valueStart) <= ' ') {
+                    valueStart++;
+                }
+                while (valueEnd > valueStart && line.charAt(valueEnd - 1) <= ' ') {
+                    valueEnd--;
+                }
+            }
+            if (valueStart == valueEnd && defaults[i] != null) {
+                out.appendBytes(defaults[i]);
+            } else if (fields[i].isBoolean()) {
+                out.appendBytes(parseBoolean(line, valueStart, valueEnd, i, lineNumber));
+            } else if (valueEnd - valueStart > fields[i].getLength()) {
+                throw new RecordFormatException(limitMessages[i], lineNumber, line);
+            } else {
+                out.appendString(line, valueStart, valueEnd);
+            }
+        }
+        out.appendBytes(prefixes[fields.length]);
+        String timestamp = Main.generateTimestamp();
+        out.appendString(timestamp, 0, timestamp.length());
+        out.appendBytes(suffix);
+        return out.length();
+    }
+
+    /**
+     * @return внутренний буфер; действительны только первые {@link #length()} байт
+     */
+    public byte[] buffer() {
+        return out.buffer();
+    }
+
+    /**
+     * @return длина последнего закодированного документа в байтах
+     */
+    public int length() {
+        return out.length();
+    }
+
+    private byte[] parseBoolean(String line, int start, int end, int field, long lineNumber) {
+        int length = end - start;
+        if (length == Main.TRUE_STRING.length() && line.regionMatches(true, start, Main.TRUE_STRING, 0, length)) {
+            return TRUE_BYTES;
+        }
+        if (length == Main.FALSE_STRING.length() && line.regionMatches(true, start, Main.FALSE_STRING, 0, length)) {
+            return FALSE_BYTES;
+        }
+        throw new RecordFormatException(flagMessages[field], lineNumber, line);
+    }
+
+    private static String quote(String name) {
+        return "\"" + new String(escape(name), StandardCharsets.UTF_8) + "\"";
+    }
+
+    private static byte[] escape(String value) {
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        encoder.appendString(value, 0, value.length());
+        return Arrays.copyOf(encoder.buffer(), encoder.length());
+    }
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,74 @@
+package my.first.migration;
+
+import java.util.Locale;
+
+/**
+ * Реализация кодирования записей в JSON (опция --serializer).
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public enum SerializerEngine {
+
+    /** Исходный вывод по шаблону {@link Main#JSON_TEMPLATE} и {@link Main#generatePrettyJson} */
+    TEMPLATE,
+    /** Потоковый генератор Jackson {@link com.fasterxml.jackson.core.JsonGenerator} */
+    JACKSON,
+    /** Собственный кодировщик {@link JsonRecordEncoder} */
+    ENCODER;
+
+    /** Реализация по умолчанию */
+    public static final SerializerEngine DEFAULT = ENCODER;
+
+    /**
+     * @param name имя реализации без учета регистра, например jackson
+     * @return реализация или null, если реализация неизвестна или имя не задано
+     */
+    public static SerializerEngine forName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (SerializerEngine engine : values()) {
+            if (engine.name().equalsIgnoreCase(name)) {
+                return engine;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Создает кодировщик отдельного документа.
+     *
+     * @param prettyPrint флаг красивого вывода
+     * @return новый кодировщик
+     */
+    public RecordSerializer create(boolean prettyPrint) {
+        return create(prettyPrint, 0);
+    }
+
+    /**
+     * Создает кодировщик документов заданного уровня вложенности. При красивом выводе
+     * строки документа, кроме первой, сдвигаются на {@code depth} отступов.
+     *
+     * @param prettyPrint флаг красивого вывода
+     * @param depth уровень вложенности, {@link JsonArrayWriter#ELEMENT_DEPTH} для элементов массива
+     * @return новый кодировщик
+     */
+    public RecordSerializer create(boolean prettyPrint, int depth) {
+        switch (this) {
+            case JACKSON:
+                return new JacksonRecordSerializer(prettyPrint, depth);
+            case ENCODER:
+                return prettyPrint ? JsonRecordEncoder.pretty(depth) : new JsonRecordEncoder();
+            default:
+                return new TemplateRecordSerializer(prettyPrint, depth);
+        }
+    }
+
+    /**
+     * @return имя реализации для опции --serializer
+     */
+    public String optionValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
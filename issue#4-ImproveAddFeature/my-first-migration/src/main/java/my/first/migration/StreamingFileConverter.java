@@ -0,0 +1,158 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Потоковый конвертер CSV файла в JSON массив или JSON Lines.
+ * Строки читаются, преобразуются и записываются по одной, поэтому объем используемой
+ * памяти остается постоянным независимо от размера входного файла.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class StreamingFileConverter implements FileConverter {
+
+    private final FileModeSettings settings;
+    private final RecordReader.Factory readerFactory;
+    private long recordsProcessed = 0;
+    private long bytesWritten = 0;
+
+    /**
+     * @param prettyPrint флаг красивого вывода
+     */
+    public StreamingFileConverter(boolean prettyPrint) {
+        this(OutputLayout.of(prettyPrint, false), CsvRecordReader::new);
+    }
+
+    /**
+     * @param layout формат вывода
+     * @param readerFactory фабрика читателя входного файла
+     */
+    public StreamingFileConverter(OutputLayout layout, RecordReader.Factory readerFactory) {
+        this(FileModeSettings.of(layout), readerFactory);
+    }
+
+    /**
+     * Файл читается фабрикой readerFactory, поэтому способ чтения и файл отклоненных строк
+     * из настроек не используются: они уже учтены фабрикой.
+     *
+     * @param settings формат вывода, реализация кодирования, словарь значений и метрики
+     * @param readerFactory фабрика читателя входного файла
+     */
+    public StreamingFileConverter(FileModeSettings settings, RecordReader.Factory readerFactory) {
+        this.settings = settings;
+        this.readerFactory = readerFactory;
+    }
+
+    @Override
+    public void convert(String filename, OutputStream out) throws IOException {
+        ConversionMetrics metrics = settings.getMetrics();
+        ConversionEvents.FileOpen openEvent = ConversionEvents.FileOpen.start();
+        RecordReader reader = readerFactory.open(filename);
+        openEvent.finish(filename);
+        try {
+            if (metrics.isEnabled()) {
+                metrics.addBytesIn(Files.size(Paths.get(filename)));
+            }
+            JsonOutputWriter writer = settings.getLayout().open(out);
+            writer.start();
+            writeRecords(reader, writer, settings.createSerializer(), metrics);
+            writer.finish();
+
+            recordsProcessed = writer.getRecordCount();
+            bytesWritten = writer.getBytesWritten();
+            metrics.addRecords(recordsProcessed);
+            metrics.addBytesOut(bytesWritten);
+        } catch (IOException | RuntimeException e) {
+            metrics.addError();
+            throw e;
+        } finally {
+            ConversionEvents.FileClose closeEvent = ConversionEvents.FileClose.start();
+            reader.close();
+            closeEvent.finish(filename, reader.getLineNumber());
+        }
+    }
+
+    /**
+     * Преобразует все оставшиеся записи читателя и передает их писателю.
+     *
+     * @param reader источник записей
+     * @param writer писатель JSON массива или JSON Lines
+     * @param prettyPrint флаг красивого вывода
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    static void writeRecords(RecordReader reader, JsonOutputWriter writer, boolean prettyPrint) throws IOException {
+        writeRecords(reader, writer, SerializerEngine.DEFAULT.create(prettyPrint, JsonArrayWriter.ELEMENT_DEPTH),
+                ConversionMetrics.DISABLED);
+    }
+
+    /**
+     * Преобразует все оставшиеся записи читателя заданным кодировщиком и передает их писателю,
+     * отмечая стадии в метриках. Чтение и разбор записи выполняет читатель за один вызов,
+     * поэтому они учитываются как стадия разбора. Каждые {@link ConversionEvents#ENCODE_BATCH_SIZE}
+     * записей сохраняется событие JFR {@link ConversionEvents.RecordEncodeBatch}.
+     *
+     * @param reader источник записей
+     * @param writer писатель JSON массива или JSON Lines
+     * @param serializer кодировщик записей уровня {@link JsonArrayWriter#ELEMENT_DEPTH}
+     * @param metrics метрики преобразования
+     * @throws IOException если произошла ошибка чтения или записи
+     */
+    static void writeRecords(RecordReader reader, JsonOutputWriter writer, RecordSerializer serializer,
+            ConversionMetrics metrics) throws IOException {
+        ConversionEvents.RecordEncodeBatch batch = ConversionEvents.RecordEncodeBatch.start(writer.getBytesWritten());
+        try {
+            if (serializer instanceof JsonRecordEncoder && reader instanceof FixedWidthRecordReader) {
+                JsonRecordEncoder encoder = (JsonRecordEncoder) serializer;
+                // Записи фиксированной длины кодируются из байтов без создания строк,
+                // разбор и кодирование совмещены и учитываются как кодирование
+                FixedWidthRecordReader fixedWidthReader = (FixedWidthRecordReader) reader;
+                while (true) {
+                    long start = metrics.start(ConversionMetrics.Stage.ENCODE);
+                    int length = fixedWidthReader.encodeNext(encoder);
+                    if (length < 0) {
+                        break;
+                    }
+                    metrics.stop(ConversionMetrics.Stage.ENCODE, start);
+                    start = metrics.start(ConversionMetrics.Stage.WRITE);
+                    writer.writeRecord(encoder.buffer(), 0, length);
+                    metrics.stop(ConversionMetrics.Stage.WRITE, start);
+                    batch = batch.next(writer.getBytesWritten());
+                }
+                return;
+            }
+            while (true) {
+                long start = metrics.start(ConversionMetrics.Stage.PARSE);
+                WsRecord record = reader.next();
+                if (record == null) {
+                    break;
+                }
+                metrics.stop(ConversionMetrics.Stage.PARSE, start);
+                start = metrics.start(ConversionMetrics.Stage.ENCODE);
+                int length = serializer.encode(record);
+                metrics.stop(ConversionMetrics.Stage.ENCODE, start);
+                start = metrics.start(ConversionMetrics.Stage.WRITE);
+                writer.writeRecord(serializer.buffer(), 0, length);
+                metrics.stop(ConversionMetrics.Stage.WRITE, start);
+                batch = batch.next(writer.getBytesWritten());
+            }
+        } finally {
+            batch.finish(writer.getBytesWritten());
+        }
+    }
+
+    @Override
+    public long getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,67 @@
+package my.first.migration;
+
+import java.nio.charset.StandardCharsets;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Исходный кодировщик записи: компактный JSON строится через {@code String.format}
+ * по шаблону {@link Main#JSON_TEMPLATE}, а красивый - через {@link Main#generatePrettyJson}
+ * со сдвигом строк на уровень вложенности. Значения полей не экранируются.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class TemplateRecordSerializer implements RecordSerializer {
+
+    private final boolean prettyPrint;
+    private final String lineBreak;
+    private byte[] buffer = new byte[0];
+
+    /**
+     * @param prettyPrint флаг красивого вывода
+     */
+    public TemplateRecordSerializer(boolean prettyPrint) {
+        this(prettyPrint, 0);
+    }
+
+    /**
+     * @param prettyPrint флаг красивого вывода
+     * @param depth уровень вложенности документа
+     */
+    public TemplateRecordSerializer(boolean prettyPrint, int depth) {
+        this.prettyPrint = prettyPrint;
+        this.lineBreak = depth > 0 ? "\n" + JsonArrayWriter.PRETTY_INDENT.repeat(depth) : null;
+    }
+
+    @Override
+    public int encode(WsRecord record) {
+        buffer = encodeToString(record).getBytes(StandardCharsets.UTF_8);
+        return buffer.length;
+    }
+
+    @Override
+    public String encodeToString(WsRecord record) {
+        if (prettyPrint) {
+            String json = Main.generatePrettyJson(record);
+            return lineBreak == null ? json : json.replace("\n", lineBreak);
+        }
+        return String.format(Main.JSON_TEMPLATE, record.getName().trim(), record.getValue().trim(), record.getFlag(),
+                record.getDescription().trim(), record.getTimestamp());
+    }
+
+    @Override
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int length() {
+        return buffer.length;
+    }
+
+    @Override
+    public boolean isPretty() {
+        return prettyPrint;
+    }
+}
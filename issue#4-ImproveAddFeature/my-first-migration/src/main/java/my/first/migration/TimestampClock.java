@@ -0,0 +1,129 @@
+package my.first.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Источник временных меток в формате {@link Main#TIMESTAMP_FORMAT} с кешированием на секунду.
+ * Формат имеет точность до секунды, поэтому строка и ее байты UTF-8 создаются один раз в секунду,
+ * а не для каждой записи. Потокобезопасен: кеш хранится в неизменяемом объекте, публикуемом
+ * через {@link AtomicReference}, и может одновременно использоваться параллельными режимами.
+ * Общая метка запуска публикуется один раз, поэтому все потоки получают одну и ту же метку,
+ * даже если первые обращения пришлись на разные секунды.
+ * Часы передаются извне, что позволяет получать детерминированные метки в тестах.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class TimestampClock {
+
+    /** Форматтер временной метки */
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(Main.TIMESTAMP_FORMAT);
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private final Clock clock;
+    private final boolean batchWide;
+    private final AtomicReference<Entry> cached = new AtomicReference<>();
+
+    /**
+     * @param clock источник текущего времени
+     * @param batchWide использовать одну метку, полученную при первом обращении, для всего запуска
+     */
+    public TimestampClock(Clock clock, boolean batchWide) {
+        this.clock = clock;
+        this.batchWide = batchWide;
+    }
+
+    /**
+     * @return часы по системному времени с обновлением метки каждую секунду
+     */
+    public static TimestampClock system() {
+        return new TimestampClock(Clock.systemDefaultZone(), false);
+    }
+
+    /**
+     * @return часы по системному времени с одной меткой на весь запуск
+     */
+    public static TimestampClock batch() {
+        return new TimestampClock(Clock.systemDefaultZone(), true);
+    }
+
+    /**
+     * Создает часы с одной заданной меткой на весь запуск, например чтобы продолжить
+     * прерванный запуск с той же меткой.
+     *
+     * @param timestamp временная метка в формате {@link Main#TIMESTAMP_FORMAT}
+     * @return часы с постоянной меткой
+     * @throws java.time.format.DateTimeParseException если формат метки неверный
+     */
+    public static TimestampClock fixed(String timestamp) {
+        ZoneId zone = ZoneId.systemDefault();
+        Instant instant = LocalDateTime.parse(timestamp, FORMATTER).atZone(zone).toInstant();
+        return new TimestampClock(Clock.fixed(instant, zone), true);
+    }
+
+    /**
+     * @return текущая временная метка
+     */
+    public String now() {
+        return current().text;
+    }
+
+    /**
+     * Возвращает текущую временную метку в UTF-8. Массив общий для всех вызывающих
+     * в пределах секунды и не должен изменяться.
+     *
+     * @return байты текущей временной метки
+     */
+    public byte[] nowBytes() {
+        return current().bytes;
+    }
+
+    /**
+     * @return true, если используется одна метка на весь запуск
+     */
+    public boolean isBatchWide() {
+        return batchWide;
+    }
+
+    private Entry current() {
+        Entry entry = cached.get();
+        if (entry != null && batchWide) {
+            return entry;
+        }
+        long second = Math.floorDiv(clock.millis(), MILLIS_PER_SECOND);
+        if (entry != null && entry.second == second) {
+            return entry;
+        }
+        Entry next = new Entry(second, LocalDateTime.ofInstant(Instant.ofEpochSecond(second), clock.getZone()));
+        if (batchWide) {
+            // Потоки могли прочитать время по разные стороны границы секунды:
+            // используется метка того, кто опубликовал ее первым
+            return cached.compareAndSet(null, next) ? next : cached.get();
+        }
+        // Для посекундной метки гонка безопасна: поток публикует метку своей секунды
+        cached.set(next);
+        return next;
+    }
+
+    /**
+     * Кешированная метка для одной секунды.
+     */
+    private static final class Entry {
+        private final long second;
+        private final String text;
+        private final byte[] bytes;
+
+        Entry(long second, LocalDateTime time) {
+            this.second = second;
+            this.text = time.format(FORMATTER);
+            this.bytes = text.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package my.first.migration;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Словарь повторяющихся значений полей value и description (опция --dictionary).
+ * В выгрузках эти поля принимают немного различных значений на большое количество строк,
+ * поэтому словарь хранит для каждого значения одну общую строку и ее заранее
+ * закодированные байты JSON: повторное значение не экранируется и не кодируется в UTF-8
+ * заново, а записи, удерживаемые в памяти, ссылаются на общие строки.
+ * <p>
+ * Размер словаря ограничен: при превышении {@link #getMaxEntries()} удаляется значение,
+ * к которому дольше всего не обращались, поэтому при большом количестве различных
+ * значений память остается ограниченной, а доля попаданий ({@link #getHitRate()})
+ * показывает, окупается ли словарь. Экземпляр не потокобезопасен.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ValueDictionary {
+
+    /** Максимальное количество значений по умолчанию */
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private final int maxEntries;
+    private final Map<String, Cached> entries;
+    // Кодировщик для экранирования новых значений
+    private final JsonRecordEncoder scratch = new JsonRecordEncoder();
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Создает словарь на {@link #DEFAULT_MAX_ENTRIES} значений.
+     */
+    public ValueDictionary() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries максимальное количество значений
+     */
+    public ValueDictionary(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Dictionary size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        // Порядок доступа: первым удаляется значение, к которому дольше всего не обращались
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                if (size() > ValueDictionary.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Заменяет значения полей value и description записи общими строками словаря
+     * и сохраняет в записи их байты JSON, поэтому при кодировании записи значения
+     * в словаре повторно не ищутся и каждое значение учитывается один раз.
+     *
+     * @param record запись
+     */
+    public void intern(WsRecord record) {
+        Cached value = lookup(record.getValue());
+        Cached description = lookup(record.getDescription());
+        record.setValue(value.value);
+        record.setDescription(description.value);
+        record.setEncodedValues(value.json, description.json);
+    }
+
+    /**
+     * Возвращает байты JSON значения: обрезанного, с экранированием специальных символов
+     * и без кавычек, как их записывает {@link JsonRecordEncoder}.
+     *
+     * @param value значение поля с пробелами выравнивания
+     * @return байты UTF-8; массив общий и не должен изменяться
+     */
+    public byte[] encoded(String value) {
+        return lookup(value).json;
+    }
+
+    private Cached lookup(String value) {
+        Cached entry = entries.get(value);
+        if (entry != null) {
+            hits++;
+            return entry;
+        }
+        misses++;
+        entry = new Cached(value, encode(value));
+        entries.put(value, entry);
+        return entry;
+    }
+
+    private byte[] encode(String value) {
+        // Те же границы, что и у String.trim()
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        scratch.clear();
+        scratch.appendString(value, start, end);
+        return Arrays.copyOf(scratch.buffer(), scratch.length());
+    }
+
+    /**
+     * @return максимальное количество значений
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return текущее количество значений
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return количество обращений, для которых значение уже было в словаре
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return количество обращений, для которых значение добавлено в словарь
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return количество значений, удаленных из-за ограничения размера
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return доля попаданий от 0 до 1 или 0, если обращений не было
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return итог по словарю в формате {@link Main#DICTIONARY_SUMMARY_FORMAT}
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, Main.DICTIONARY_SUMMARY_FORMAT, hits, misses, getHitRate() * 100,
+                entries.size(), maxEntries, evictions);
+    }
+
+    /**
+     * Общая строка значения и ее байты JSON.
+     */
+    private static final class Cached {
+        private final String value;
+        private final byte[] json;
+
+        Cached(String value, byte[] json) {
+            this.value = value;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package my.first.migration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Компактное хранилище записей в непрерывной области байт (арене).
+ * Поля записи идут в порядке структуры ws-record в json_generate.cbl (ws-record-name PIC X(10),
+ * ws-record-value PIC X(10), ws-record-blank PIC X(10), ws-record-flag PIC X(5)), после которых
+ * идут поля Java версии: description PIC X(20) и timestamp PIC X(19).
+ * Длина поля, как и в {@link Main#parseRecord(String, long)}, ограничена числом символов,
+ * а текст хранится в UTF-8, поэтому текстовое поле занимает до {@link #MAX_BYTES_PER_CHAR}
+ * байт на символ и дополняется пробелами. Вместо пяти объектов String на запись хранится
+ * {@link #RECORD_LENGTH} байт, поэтому миллионы записей почти не нагружают сборщик мусора.
+ * Доступ к записям идет через переиспользуемый {@link Cursor} без создания объектов.
+ * Экземпляр не потокобезопасен.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class WsRecordArena {
+
+    /** Наибольшее число байт UTF-8 на один символ Java (суррогатная пара занимает 4 байта на 2 символа) */
+    public static final int MAX_BYTES_PER_CHAR = 3;
+    /** Длина флага в символах, PIC X(5) */
+    public static final int FLAG_CHARS = 5;
+    /** Смещение ws-record-name */
+    public static final int NAME_OFFSET = 0;
+    /** Длина ws-record-name в байтах, PIC X(10) */
+    public static final int NAME_LENGTH = Main.MAX_NAME_LENGTH * MAX_BYTES_PER_CHAR;
+    /** Смещение ws-record-value */
+    public static final int VALUE_OFFSET = NAME_OFFSET + NAME_LENGTH;
+    /** Длина ws-record-value в байтах, PIC X(10) */
+    public static final int VALUE_LENGTH = Main.MAX_VALUE_LENGTH * MAX_BYTES_PER_CHAR;
+    /** Смещение ws-record-blank */
+    public static final int BLANK_OFFSET = VALUE_OFFSET + VALUE_LENGTH;
+    /** Длина ws-record-blank в байтах, PIC X(10) */
+    public static final int BLANK_LENGTH = Main.DEFAULT_PADDING_LENGTH * MAX_BYTES_PER_CHAR;
+    /** Смещение ws-record-flag */
+    public static final int FLAG_OFFSET = BLANK_OFFSET + BLANK_LENGTH;
+    /** Длина ws-record-flag в байтах: значение true или false */
+    public static final int FLAG_LENGTH = FLAG_CHARS;
+    /** Смещение description */
+    public static final int DESCRIPTION_OFFSET = FLAG_OFFSET + FLAG_LENGTH;
+    /** Длина description в байтах, PIC X(20) */
+    public static final int DESCRIPTION_LENGTH = Main.MAX_DESCRIPTION_LENGTH * MAX_BYTES_PER_CHAR;
+    /** Смещение timestamp */
+    public static final int TIMESTAMP_OFFSET = DESCRIPTION_OFFSET + DESCRIPTION_LENGTH;
+    /** Длина timestamp в байтах, формат {@link Main#TIMESTAMP_FORMAT} */
+    public static final int TIMESTAMP_LENGTH = Main.TIMESTAMP_FORMAT.length();
+    /** Полная длина записи в байтах */
+    public static final int RECORD_LENGTH = TIMESTAMP_OFFSET + TIMESTAMP_LENGTH;
+    /** Количество записей в одном сегменте арены */
+    public static final int RECORDS_PER_SEGMENT = 4 * 1024;
+
+    private static final byte PAD = ' ';
+
+    private final boolean direct;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private int size = 0;
+
+    /**
+     * @param direct хранить записи вне кучи (direct ByteBuffer)
+     */
+    public WsRecordArena(boolean direct) {
+        this.direct = direct;
+    }
+
+    /**
+     * @return арена в куче Java
+     */
+    public static WsRecordArena onHeap() {
+        return new WsRecordArena(false);
+    }
+
+    /**
+     * @return арена вне кучи Java
+     */
+    public static WsRecordArena offHeap() {
+        return new WsRecordArena(true);
+    }
+
+    /**
+     * Читает все записи из читателя в арену.
+     *
+     * @param reader источник записей
+     * @return заполненная арена
+     * @throws IOException если произошла ошибка чтения
+     */
+    public WsRecordArena addAll(RecordReader reader) throws IOException {
+        WsRecord record;
+        while ((record = reader.next()) != null) {
+            add(record);
+        }
+        return this;
+    }
+
+    /**
+     * Добавляет запись в арену.
+     *
+     * @param record запись для добавления
+     * @return индекс добавленной записи
+     * @throws IllegalArgumentException если значение длиннее поля записи
+     */
+    public int add(WsRecord record) {
+        if (size % RECORDS_PER_SEGMENT == 0) {
+            int capacity = RECORDS_PER_SEGMENT * RECORD_LENGTH;
+            segments.add(direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+        }
+        ByteBuffer segment = segments.get(segments.size() - 1);
+        int base = (size % RECORDS_PER_SEGMENT) * RECORD_LENGTH;
+        putField(segment, base + NAME_OFFSET, NAME_LENGTH, Main.MAX_NAME_LENGTH, record.getName());
+        putField(segment, base + VALUE_OFFSET, VALUE_LENGTH, Main.MAX_VALUE_LENGTH, record.getValue());
+        putField(segment, base + BLANK_OFFSET, BLANK_LENGTH, Main.DEFAULT_PADDING_LENGTH, record.getBlank());
+        putField(segment, base + FLAG_OFFSET, FLAG_LENGTH, FLAG_CHARS, record.getFlagAsString());
+        putField(segment, base + DESCRIPTION_OFFSET, DESCRIPTION_LENGTH, Main.MAX_DESCRIPTION_LENGTH,
+                record.getDescription());
+        putField(segment, base + TIMESTAMP_OFFSET, TIMESTAMP_LENGTH, TIMESTAMP_LENGTH, record.getTimestamp());
+        return size++;
+    }
+
+    /**
+     * @return количество записей в арене
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return объем памяти, занятый сегментами арены, в байтах
+     */
+    public long capacityBytes() {
+        return (long) segments.size() * RECORDS_PER_SEGMENT * RECORD_LENGTH;
+    }
+
+    /**
+     * Создает курсор для чтения записей. Курсор переиспользуется через {@link Cursor#moveTo(int)}.
+     *
+     * @return курсор, установленный на первую запись
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Записывает все записи арены в JSON.
+     *
+     * @param writer писатель JSON массива или JSON Lines
+     * @param prettyPrint флаг красивого вывода
+     * @throws IOException если произошла ошибка записи
+     */
+    public void writeTo(JsonOutputWriter writer, boolean prettyPrint) throws IOException {
+        Cursor cursor = cursor();
+        JsonRecordEncoder encoder = prettyPrint ? JsonRecordEncoder.pretty(JsonArrayWriter.ELEMENT_DEPTH)
+                : new JsonRecordEncoder();
+        for (int i = 0; i < size; i++) {
+            cursor.moveTo(i);
+            int length = encoder.encode(cursor);
+            writer.writeRecord(encoder.buffer(), 0, length);
+        }
+    }
+
+    private static void putField(ByteBuffer segment, int offset, int length, int chars, String value) {
+        // Дополнение пробелами справа не входит в длину значения
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == PAD) {
+            end--;
+        }
+        byte[] bytes = value.substring(0, end).getBytes(StandardCharsets.UTF_8);
+        if (end > chars || bytes.length > length) {
+            throw new IllegalArgumentException("Value '" + value.trim() + "' does not fit into PIC X(" + chars + ")");
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            segment.put(offset + i, bytes[i]);
+        }
+        for (int i = bytes.length; i < length; i++) {
+            segment.put(offset + i, PAD);
+        }
+    }
+
+    /**
+     * Курсор (flyweight) для доступа к полям записи арены без копирования.
+     */
+    public final class Cursor {
+
+        private ByteBuffer segment;
+        private int base;
+        private int index = -1;
+
+        private Cursor() {
+            if (size > 0) {
+                moveTo(0);
+            }
+        }
+
+        /**
+         * Перемещает курсор на запись с указанным индексом.
+         *
+         * @param index индекс записи
+         * @return этот курсор
+         */
+        public Cursor moveTo(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Record " + index + " of " + size);
+            }
+            this.segment = segments.get(index / RECORDS_PER_SEGMENT);
+            this.base = (index % RECORDS_PER_SEGMENT) * RECORD_LENGTH;
+            this.index = index;
+            return this;
+        }
+
+        /**
+         * @return индекс текущей записи
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * @return имя записи, дополненное пробелами
+         */
+        public String getName() {
+            return field(NAME_OFFSET, NAME_LENGTH, Main.MAX_NAME_LENGTH);
+        }
+
+        /**
+         * @return значение записи, дополненное пробелами
+         */
+        public String getValue() {
+            return field(VALUE_OFFSET, VALUE_LENGTH, Main.MAX_VALUE_LENGTH);
+        }
+
+        /**
+         * @return пустое поле
+         */
+        public String getBlank() {
+            return field(BLANK_OFFSET, BLANK_LENGTH, Main.DEFAULT_PADDING_LENGTH);
+        }
+
+        /**
+         * @return описание записи, дополненное пробелами
+         */
+        public String getDescription() {
+            return field(DESCRIPTION_OFFSET, DESCRIPTION_LENGTH, Main.MAX_DESCRIPTION_LENGTH);
+        }
+
+        /**
+         * @return временная метка записи
+         */
+        public String getTimestamp() {
+            return field(TIMESTAMP_OFFSET, TIMESTAMP_LENGTH, TIMESTAMP_LENGTH).trim();
+        }
+
+        /**
+         * @return флаг enabled (88 ws-record-flag-enabled)
+         */
+        public boolean getFlag() {
+            return segment.get(base + FLAG_OFFSET) == 't';
+        }
+
+        /**
+         * Создает обычную запись WsRecord с данными текущей записи.
+         *
+         * @return новая запись
+         */
+        public WsRecord toRecord() {
+            WsRecord record = new WsRecord();
+            record.setName(getName());
+            record.setValue(getValue());
+            record.setBlank(getBlank());
+            record.setFlag(getFlag());
+            record.setDescription(getDescription());
+            record.setTimestamp(getTimestamp());
+            return record;
+        }
+
+        /**
+         * Возвращает байт поля текущей записи.
+         *
+         * @param offset смещение байта от начала записи
+         * @return байт поля
+         */
+        byte byteAt(int offset) {
+            return segment.get(base + offset);
+        }
+
+        private String field(int offset, int length, int chars) {
+            int count = length;
+            while (count > 0 && segment.get(base + offset + count - 1) == PAD) {
+                count--;
+            }
+            byte[] bytes = new byte[count];
+            for (int i = 0; i < count; i++) {
+                bytes[i] = segment.get(base + offset + i);
+            }
+            // Значение дополняется пробелами до длины поля в символах, как в WsRecord
+            return Main.padToLength(new String(bytes, StandardCharsets.UTF_8), chars);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тестовый класс для вывода в отдельном потоке.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class AsyncOutputStreamTest {
+
+    /**
+     * Тестирование порядка данных при записи больше суммарного размера буферов.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testWritesInOrder() throws Exception {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try (AsyncOutputStream out = new AsyncOutputStream(target, 7, 2)) {
+            for (int i = 0; i < 1000; i++) {
+                byte[] chunk = ("record " + i + "\n").getBytes();
+                out.write(chunk, 0, chunk.length);
+                expected.write(chunk);
+                if (i % 100 == 0) {
+                    out.write('#');
+                    expected.write('#');
+                    out.flush();
+                }
+            }
+        }
+        assertArrayEquals(expected.toByteArray(), target.toByteArray());
+    }
+
+    /**
+     * Тестирование передачи ошибки фонового потока при закрытии.
+     */
+    @Test
+    void testFailureIsReported() {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+        };
+        IOException error = assertThrows(IOException.class, () -> {
+            try (AsyncOutputStream out = new AsyncOutputStream(failing, 4, 2)) {
+                for (int i = 0; i < 100; i++) {
+                    out.write(i);
+                }
+            }
+        });
+        assertEquals("Disk full", error.getMessage());
+    }
+}
@@ -0,0 +1,184 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.normalizeTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для преобразования нескольких файлов.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class BatchConverterTest {
+
+    /**
+     * Тестирование выбора файлов по директории и по маске.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testResolveInputs(@TempDir Path tempDir) throws Exception {
+        Files.write(tempDir.resolve("b.csv"), List.of("B,1"));
+        Files.write(tempDir.resolve("a.csv"), List.of("A,1"));
+        Files.write(tempDir.resolve("notes.txt"), List.of("N,1"));
+        Files.write(tempDir.resolve("c.csv.gz"), new byte[0]);
+        Files.createDirectories(tempDir.resolve("sub"));
+        Files.write(tempDir.resolve("sub").resolve("c.csv"), List.of("C,1"));
+
+        assertTrue(BatchConverter.isBatchInput(tempDir.toString()));
+        assertTrue(BatchConverter.isBatchInput(tempDir + "/*.txt"));
+        assertFalse(BatchConverter.isBatchInput(tempDir.resolve("a.csv").toString()));
+
+        assertEquals(List.of(tempDir.resolve("a.csv"), tempDir.resolve("b.csv"), tempDir.resolve("c.csv.gz")),
+                BatchConverter.resolveInputs(tempDir.toString()).getFiles());
+        assertEquals(List.of(tempDir.resolve("notes.txt")),
+                BatchConverter.resolveInputs(tempDir + "/*.txt").getFiles());
+        assertEquals(List.of(tempDir.resolve("sub").resolve("c.csv")),
+                BatchConverter.resolveInputs(tempDir + "/sub/*.csv").getFiles());
+        assertEquals(List.of(tempDir.resolve("a.csv"), tempDir.resolve("b.csv"), tempDir.resolve("sub").resolve("c.csv")),
+                BatchConverter.resolveInputs(tempDir + "/**.csv").getFiles());
+    }
+
+    /**
+     * Тестирование вывода по файлу на входной файл, совпадающего с потоковым преобразованием.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testOneOutputPerInput(@TempDir Path tempDir) throws Exception {
+        Path input = Files.createDirectories(tempDir.resolve("in"));
+        for (int f = 0; f < 20; f++) {
+            Files.write(input.resolve("file" + f + ".csv"), List.of("Name" + f + ",Value,true,Desc " + f, "Other,V" + f));
+        }
+        Path outputDir = tempDir.resolve("out");
+
+        BatchConverter converter = new BatchConverter(OutputLayout.COMPACT_ARRAY, CsvRecordReader::new, 4);
+        List<BatchConverter.FileResult> results =
+                converter.convertAll(BatchConverter.resolveInputs(input.toString()), outputDir, false);
+
+        assertEquals(20, results.size());
+        for (BatchConverter.FileResult result : results) {
+            assertTrue(result.isSuccess());
+            assertEquals(2, result.getRecordsProcessed());
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            new StreamingFileConverter(false).convert(result.getInput().toString(), expected);
+            assertEquals(outputDir.resolve(result.getInput().getFileName().toString().replace(".csv", ".json")),
+                    result.getOutput());
+            assertEquals(normalizeTimestamps(expected.toString(StandardCharsets.UTF_8)),
+                    normalizeTimestamps(Files.readString(result.getOutput())));
+        }
+    }
+
+    /**
+     * Тестирование отказа, если два входных файла дают один файл вывода.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testDuplicateOutputs(@TempDir Path tempDir) throws Exception {
+        Files.write(tempDir.resolve("data.csv"), List.of("A,1"));
+        Files.write(tempDir.resolve("data.txt"), List.of("B,2"));
+        BatchConverter converter = new BatchConverter(OutputLayout.COMPACT_ARRAY, CsvRecordReader::new, 4);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> converter.convertAll(BatchConverter.resolveInputs(tempDir + "/data.*"), null, false));
+        assertTrue(e.getMessage().contains("cannot be written to the same output file " + tempDir.resolve("data.json")),
+                e.getMessage());
+        assertFalse(Files.exists(tempDir.resolve("data.json")));
+        assertEquals(tempDir.resolve("data.json"),
+                converter.outputFor(tempDir, tempDir.resolve("data.csv.gz"), null));
+    }
+
+    /**
+     * Тестирование ограничения количества одновременно открытых файлов.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testBoundedOpenFiles(@TempDir Path tempDir) throws Exception {
+        for (int f = 0; f < 30; f++) {
+            Files.write(tempDir.resolve("file" + f + ".csv"), List.of("Name,Value"));
+        }
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+        RecordReader.Factory trackingFactory = filename -> {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            CsvRecordReader reader = new CsvRecordReader(filename);
+            return new RecordReader() {
+                @Override
+                public Main.WsRecord next() throws IOException {
+                    return reader.next();
+                }
+
+                @Override
+                public long getLineNumber() {
+                    return reader.getLineNumber();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    open.decrementAndGet();
+                    reader.close();
+                }
+            };
+        };
+
+        List<BatchConverter.FileResult> results = new BatchConverter(OutputLayout.NDJSON, trackingFactory, 3)
+                .convertAll(BatchConverter.resolveInputs(tempDir.toString()), tempDir.resolve("out"), false);
+
+        assertEquals(30, results.size());
+        assertTrue(maxOpen.get() <= 3, "max open files: " + maxOpen.get());
+        assertEquals(0, open.get());
+    }
+
+    /**
+     * Тестирование итога по файлам и кода завершения при ошибке в одном из файлов.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testPerFileSummary(@TempDir Path tempDir) throws Exception {
+        Files.write(tempDir.resolve("good.csv"), List.of("John,Doe", "Jane,Smith"));
+        Files.write(tempDir.resolve("bad.csv"), List.of("John,Doe,maybe"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int code = Main.run(new String[]{"--file", tempDir.toString(), "--ndjson"},
+                new PrintStream(out, true, StandardCharsets.UTF_8));
+        String text = out.toString(StandardCharsets.UTF_8);
+
+        assertEquals(1, code);
+        assertTrue(text.contains(tempDir.resolve("bad.csv") + ": Error: " + Main.ENABLED_FLAG_MESSAGE + " at line 1"));
+        assertTrue(text.contains(tempDir.resolve("good.csv") + " -> " + tempDir.resolve("good.ndjson") + ": 2 records"));
+        assertTrue(text.contains("Files processed: 2, failed: 1, records: 2"));
+        assertEquals(2, Files.readAllLines(tempDir.resolve("good.ndjson")).size());
+
+        out.reset();
+        assertEquals(1, Main.run(new String[]{"--file", tempDir.toString(), "-o", "x.json"},
+                new PrintStream(out, true, StandardCharsets.UTF_8)));
+        assertEquals(1, Main.run(new String[]{"--file", tempDir + "/*.none"},
+                new PrintStream(out, true, StandardCharsets.UTF_8)));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains(Main.NO_INPUT_FILES_MESSAGE));
+    }
+}
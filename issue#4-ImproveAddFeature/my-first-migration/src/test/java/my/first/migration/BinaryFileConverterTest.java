@@ -0,0 +1,109 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Тестовый класс для двоичных форматов вывода CBOR и Smile.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class BinaryFileConverterTest {
+
+    private static List<JsonNode> readRecords(OutputFormat format, Path file, boolean sequence) throws Exception {
+        ObjectMapper mapper = new ObjectMapper(format.createFactory());
+        List<JsonNode> records = new ArrayList<>();
+        if (sequence) {
+            try (MappingIterator<JsonNode> values = mapper.readerFor(JsonNode.class).readValues(file.toFile())) {
+                values.forEachRemaining(records::add);
+            }
+        } else {
+            mapper.readTree(file.toFile()).forEach(records::add);
+        }
+        // Отметка времени зависит от момента запуска
+        records.forEach(record -> ((ObjectNode) record).remove("timestamp"));
+        return records;
+    }
+
+    /**
+     * Тестирование кодирования CBOR и Smile: записи совпадают с выводом JSON, а двоичный вывод меньше.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testBinaryFormatsMatchJson(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            csv.append("Name").append(i % 100).append(",Пётр,").append(i % 3 == 0).append(",Line ").append(i)
+                    .append('\n');
+        }
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, csv);
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+
+        for (boolean sequence : new boolean[]{false, true}) {
+            String layout = sequence ? "--ndjson" : "--stream";
+            Path json = tempDir.resolve("output.json");
+            assertEquals(0, Main.run(new String[]{"--file", input.toString(), layout, "-o", json.toString()}, out));
+            List<JsonNode> expected = readRecords(OutputFormat.JSON, json, sequence);
+            assertEquals(2000, expected.size());
+
+            for (OutputFormat format : new OutputFormat[]{OutputFormat.CBOR, OutputFormat.SMILE}) {
+                Path output = tempDir.resolve("output." + format.optionValue());
+                String[] args = sequence
+                        ? new String[]{"--file", input.toString(), "--ndjson", "--format", format.optionValue(),
+                                "-o", output.toString()}
+                        : new String[]{"--file", input.toString(), "--format", format.optionValue(),
+                                "-o", output.toString()};
+                assertEquals(0, Main.run(args, out), format + " " + layout);
+                assertEquals(expected, readRecords(format, output, sequence), format + " " + layout);
+                assertTrue(Files.size(output) < Files.size(json),
+                        format + " " + Files.size(output) + " >= " + Files.size(json));
+            }
+        }
+    }
+
+    /**
+     * Тестирование проверки опции формата.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testFormatValidation(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, "John,Doe,true,First\n");
+        String output = tempDir.resolve("output.cbor").toString();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--format", "xml", "-o", output}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("Unsupported value for --format: xml"));
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--format", "cbor"}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("--format cbor requires -o"));
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--format", "smile", "--pretty",
+                "-o", output}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("--format smile cannot be combined with --pretty"));
+
+        // Формат JSON совпадает с выводом по умолчанию
+        assertEquals(0, Main.run(new String[]{"--file", input.toString(), "--format", "json", "-o", output}, out));
+        assertTrue(Files.readString(Path.of(output)).startsWith("[{\"name\":\"John\""));
+    }
+}
@@ -0,0 +1,94 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для вывода в файл через FileChannel.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ChannelOutputStreamTest {
+
+    private static ChannelOutputStream open(Path file, DirectBufferPool pool) throws Exception {
+        return new ChannelOutputStream(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), pool);
+    }
+
+    /**
+     * Тестирование записи строки, превышающей суммарный размер буферов,
+     * с многобайтовыми символами на границах буферов.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testWriteTextAcrossBuffers(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("out.json");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("{\"name\":\"Иван ").append(i).append("\"} 😀 ");
+        }
+
+        try (ChannelOutputStream out = open(file, new DirectBufferPool(7, 2))) {
+            out.write(text);
+            assertEquals(text.toString().getBytes(StandardCharsets.UTF_8).length, out.getPosition());
+        }
+
+        assertEquals(text.toString(), Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Тестирование смешанной записи байт и строк.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testMixedWrites(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("out.json");
+        byte[] payload = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+        try (ChannelOutputStream out = open(file, new DirectBufferPool(8, 4))) {
+            out.write('[');
+            out.write(payload);
+            out.flush();
+            out.write("ё");
+            out.write(payload, 10, 10);
+            out.write(']');
+        }
+
+        assertEquals("[0123456789abcdefghijёabcdefghij]", Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Тестирование перезаписи файла через writeToFile в UTF-8.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testWriteToFileTruncatesAndUsesUtf8(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("out.json");
+        Main.writeToFile(file.toString(), "a much longer previous content");
+        Main.writeToFile(file.toString(), "{\"name\":\"Пётр\"}");
+
+        assertEquals("{\"name\":\"Пётр\"}", Files.readString(file, StandardCharsets.UTF_8));
+
+        // Уже закодированный документ пишется байтами
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        encoded.write("[\"Ж\"]".getBytes(StandardCharsets.UTF_8));
+        Main.writeToFile(file.toString(), encoded);
+        assertEquals("[\"Ж\"]", Files.readString(file, StandardCharsets.UTF_8));
+    }
+}
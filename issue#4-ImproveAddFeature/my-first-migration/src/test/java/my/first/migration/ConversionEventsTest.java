@@ -0,0 +1,121 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Тестовый класс для событий Java Flight Recorder.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ConversionEventsTest {
+
+    private static List<RecordedEvent> events(List<RecordedEvent> all, String name) {
+        return all.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    /**
+     * Тестирование событий потокового, параллельного и файлового режимов.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testConversionEvents(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("data.csv");
+        StringBuilder csv = new StringBuilder();
+        int recordCount = ConversionEvents.ENCODE_BATCH_SIZE + 10;
+        for (int i = 0; i < recordCount; i++) {
+            csv.append("Name").append(i % 100).append(",Value,true,Line\n");
+        }
+        Files.writeString(input, csv);
+        Path invalid = tempDir.resolve("invalid.csv");
+        Files.writeString(invalid, "John,Doe\nJane,Doe,maybe\n");
+
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        Path dump = tempDir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"FileOpen", "FileClose", "ChunkParse", "RecordEncodeBatch", "OutputFlush",
+                    "ValidationFailure"}) {
+                recording.enable("my.first.migration." + name);
+            }
+            recording.start();
+            assertEquals(0, Main.run(new String[]{"--file", input.toString(), "--stream", "-o",
+                    tempDir.resolve("stream.json").toString()}, out));
+            assertEquals(0, Main.run(new String[]{"--file", input.toString(), "--parallel", "-o",
+                    tempDir.resolve("parallel.json").toString()}, out));
+            assertEquals(1, Main.run(new String[]{"--file", invalid.toString()}, out));
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> all = RecordingFile.readAllEvents(dump);
+
+        List<RecordedEvent> opens = events(all, "my.first.migration.FileOpen");
+        assertEquals(2, opens.size());
+        assertEquals(input.toString(), opens.get(0).getString("path"));
+        assertEquals(Files.size(input), opens.get(0).getLong("size"));
+
+        List<RecordedEvent> closes = events(all, "my.first.migration.FileClose");
+        assertEquals(2, closes.size());
+        assertEquals(recordCount, closes.get(1).getLong("recordCount"));
+
+        List<RecordedEvent> chunks = events(all, "my.first.migration.ChunkParse");
+        assertEquals(recordCount, chunks.get(0).getLong("recordCount"));
+        assertEquals(Files.size(input), chunks.get(0).getLong("size"));
+
+        // Потоковый режим: полная пачка и остаток
+        List<RecordedEvent> batches = events(all, "my.first.migration.RecordEncodeBatch");
+        assertEquals(2, batches.size());
+        assertEquals(ConversionEvents.ENCODE_BATCH_SIZE, batches.get(0).getLong("recordCount"));
+        assertEquals(10, batches.get(1).getLong("recordCount"));
+        assertEquals(Files.size(tempDir.resolve("stream.json")) - 2,
+                batches.get(0).getLong("size") + batches.get(1).getLong("size"));
+
+        long flushed = events(all, "my.first.migration.OutputFlush").stream().mapToLong(e -> e.getLong("size")).sum();
+        assertEquals(Files.size(tempDir.resolve("stream.json")) + Files.size(tempDir.resolve("parallel.json")), flushed);
+
+        List<RecordedEvent> failures = events(all, "my.first.migration.ValidationFailure");
+        assertEquals(1, failures.size());
+        assertEquals(2, failures.get(0).getLong("lineNumber"));
+        assertEquals(Main.ENABLED_FLAG_MESSAGE, failures.get(0).getString("reason"));
+    }
+
+    /**
+     * Тестирование опции --jfr: запись сохраняется рядом с файлом вывода.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testJfrOption(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, "John,Doe,true,User\n");
+        Path output = tempDir.resolve("output.json");
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(log, true, StandardCharsets.UTF_8);
+
+        assertEquals(0, Main.run(new String[]{"--file", input.toString(), "--stream", "--jfr", "-o", output.toString()},
+                out));
+
+        Path recording = tempDir.resolve("output.json.jfr");
+        assertTrue(log.toString(StandardCharsets.UTF_8).contains(Main.JFR_SAVED_MESSAGE + recording));
+        List<RecordedEvent> all = RecordingFile.readAllEvents(recording);
+        assertEquals(1, events(all, "my.first.migration.FileOpen").size());
+        assertEquals(1, events(all, "my.first.migration.RecordEncodeBatch").get(0).getLong("recordCount"));
+    }
+}
@@ -0,0 +1,131 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Тестовый класс для метрик преобразования.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ConversionMetricsTest {
+
+    /**
+     * Тестирование учета стадий, ошибок и чтения метрик через JMX.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testStagesAndJmx() throws Exception {
+        ConversionMetrics metrics = new ConversionMetrics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ConversionMetrics.OBJECT_NAME);
+        metrics.register();
+        try {
+            for (int i = 0; i < 3; i++) {
+                long start = metrics.start(ConversionMetrics.Stage.PARSE);
+                metrics.stop(ConversionMetrics.Stage.PARSE, start);
+            }
+            metrics.start(ConversionMetrics.Stage.WRITE);
+            metrics.addError();
+            metrics.addRecords(3);
+            metrics.addBytesIn(100);
+            metrics.addBytesOut("{\"name\":\"Пётр\"}");
+
+            assertEquals(3L, server.getAttribute(name, "RecordsProcessed"));
+            assertEquals(100L, server.getAttribute(name, "BytesIn"));
+            assertEquals(19L, server.getAttribute(name, "BytesOut"));
+            assertEquals(1L, server.getAttribute(name, "ErrorCount"));
+            assertEquals(1, metrics.getErrorCount(ConversionMetrics.Stage.WRITE));
+            assertEquals(3, metrics.getHistogram(ConversionMetrics.Stage.PARSE).getCount());
+
+            // Повторная регистрация заменяет метрики предыдущего запуска
+            ConversionMetrics next = new ConversionMetrics();
+            next.register();
+            assertEquals(0L, server.getAttribute(name, "RecordsProcessed"));
+            next.unregister();
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    /**
+     * Тестирование отключенных метрик: ничего не учитывается.
+     */
+    @Test
+    void testDisabled() {
+        ConversionMetrics metrics = ConversionMetrics.DISABLED;
+        assertFalse(metrics.isEnabled());
+        assertEquals(0, metrics.start(ConversionMetrics.Stage.ENCODE));
+        metrics.stop(ConversionMetrics.Stage.ENCODE, 0);
+        metrics.addRecords(5);
+        metrics.addBytesOut("abc");
+        metrics.addError();
+        assertEquals(0, metrics.getRecordsProcessed());
+        assertEquals(0, metrics.getBytesOut());
+        assertEquals(0, metrics.getErrorCount());
+        assertEquals(0, metrics.getHistogram(ConversionMetrics.Stage.ENCODE).getCount());
+    }
+
+    /**
+     * Тестирование итогового отчета в файловом и потоковом режимах.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testEndOfRunReport(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, "John,Doe,true,User\nJane,Smith\n\nBob,Brown,false\n");
+        ObjectMapper mapper = new ObjectMapper();
+
+        for (String mode : new String[]{"--pretty", "--stream"}) {
+            ByteArrayOutputStream log = new ByteArrayOutputStream();
+            PrintStream out = new PrintStream(log, true, StandardCharsets.UTF_8);
+            Path output = tempDir.resolve("output.json");
+            assertEquals(0, Main.run(new String[]{"--file", input.toString(), mode, "--metrics", "-o", output.toString()},
+                    out));
+
+            String report = lastLine(log);
+            assertTrue(report.startsWith(Main.METRICS_REPORT_PREFIX), report);
+            JsonNode json = mapper.readTree(report.substring(Main.METRICS_REPORT_PREFIX.length()));
+            assertEquals(3, json.get("records").asLong());
+            assertEquals(Files.size(input), json.get("bytesIn").asLong());
+            assertEquals(0, json.get("errors").asLong());
+            assertEquals(3, json.get("stages").get("encode").get("count").asLong());
+            assertTrue(json.get("stages").get("parse").get("p99Nanos").asLong() > 0);
+        }
+
+        // Ошибка разбора учитывается в стадии разбора
+        Files.writeString(input, "John,Doe,maybe\n");
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(log, true, StandardCharsets.UTF_8);
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--metrics"}, out));
+        JsonNode json = mapper.readTree(lastLine(log).substring(Main.METRICS_REPORT_PREFIX.length()));
+        assertEquals(1, json.get("stages").get("parse").get("errors").asLong());
+
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--metrics", "--parallel"}, out));
+    }
+
+    private static String lastLine(ByteArrayOutputStream log) {
+        String[] lines = log.toString(StandardCharsets.UTF_8).split("\\R");
+        return lines[lines.length - 1];
+    }
+}
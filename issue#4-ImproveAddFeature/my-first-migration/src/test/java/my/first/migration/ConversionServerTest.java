@@ -0,0 +1,225 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.normalizeTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для сервера преобразования и его клиента.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ConversionServerTest {
+
+    @TempDir
+    Path tokenDir;
+
+    private Path tokenFile;
+    private ConversionServer server;
+    private Thread serverThread;
+    private final ByteArrayOutputStream serverLog = new ByteArrayOutputStream();
+
+    /**
+     * Запуск сервера на свободном порту.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @BeforeEach
+    void setUp() throws Exception {
+        tokenFile = tokenDir.resolve(ConversionServer.TOKEN_FILE_NAME);
+        server = new ConversionServer(0, tokenFile);
+        PrintStream log = new PrintStream(serverLog, true, StandardCharsets.UTF_8);
+        serverThread = new Thread(() -> {
+            try {
+                server.serve(log);
+            } catch (Exception e) {
+                log.println(e.getMessage());
+            }
+        });
+        serverThread.start();
+    }
+
+    /**
+     * Остановка сервера после теста.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        server.close();
+        serverThread.join(5000);
+    }
+
+    /**
+     * Тестирование совпадения вывода и кода завершения с запуском в той же JVM.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testSameOutputAsMain(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true,User John", "Jane,Smith,false,User Jane"));
+
+        for (String[] args : new String[][]{
+                {"--file", testFile.toString()},
+                {"--file", testFile.toString(), "--pretty", "--stream"},
+                {"--file", testFile.toString(), "--ndjson"},
+                {}}) {
+            ByteArrayOutputStream remote = new ByteArrayOutputStream();
+            int remoteCode = ConversionClient.execute(server.getPort(), tokenFile, args, remote);
+            ByteArrayOutputStream local = new ByteArrayOutputStream();
+            int localCode = Main.run(args, new PrintStream(local, true, StandardCharsets.UTF_8));
+
+            assertEquals(localCode, remoteCode);
+            assertEquals(0, remoteCode);
+            assertEquals(normalizeTimestamps(local.toString(StandardCharsets.UTF_8)),
+                    normalizeTimestamps(remote.toString(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Тестирование кода завершения и сообщения при ошибке, без остановки сервера.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testErrorExitCode(@TempDir Path tempDir) throws Exception {
+        Path output = tempDir.resolve("out.json");
+        ByteArrayOutputStream remote = new ByteArrayOutputStream();
+        int code = ConversionClient.execute(server.getPort(), tokenFile,
+                new String[]{"--file", tempDir.resolve("missing.csv").toString()}, remote);
+        assertEquals(1, code);
+        assertTrue(remote.toString(StandardCharsets.UTF_8).contains(Main.ERROR_PREFIX));
+
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,maybe"));
+        remote.reset();
+        code = ConversionClient.execute(server.getPort(), tokenFile,
+                new String[]{"--file", testFile.toString(), "-o", output.toString()}, remote);
+        assertEquals(1, code);
+        assertTrue(remote.toString(StandardCharsets.UTF_8).contains(Main.ENABLED_FLAG_MESSAGE + " at line 1"));
+
+        Files.write(testFile, List.of("John,Doe,true"));
+        assertEquals(0, ConversionClient.execute(server.getPort(), tokenFile,
+                new String[]{"--file", testFile.toString(), "-o", output.toString()}, new ByteArrayOutputStream()));
+        assertTrue(Files.readString(output).startsWith("[{\"name\":\"John\""));
+    }
+
+    /**
+     * Тестирование остановки сервера командой клиента.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testStopCommand() throws Exception {
+        int port = server.getPort();
+        ByteArrayOutputStream remote = new ByteArrayOutputStream();
+        assertEquals(0, ConversionClient.execute(port, tokenFile, new String[]{ConversionServer.STOP_COMMAND}, remote));
+        assertEquals(ConversionServer.STOPPED_MESSAGE, remote.toString(StandardCharsets.UTF_8).trim());
+
+        serverThread.join(5000);
+        assertFalse(serverThread.isAlive());
+        assertThrows(ConnectException.class, () -> ConversionClient.execute(port, tokenFile, new String[]{}, remote));
+    }
+
+    /**
+     * Тестирование токена: файл только для владельца, задание с неверным токеном не выполняется,
+     * а при остановке сервера файл удаляется.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testToken(@TempDir Path tempDir) throws Exception {
+        if (Files.getFileStore(tokenFile).supportsFileAttributeView("posix")) {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+        }
+        Path forged = tempDir.resolve("forged.token");
+        Files.writeString(forged, "0123456789abcdef");
+        ByteArrayOutputStream remote = new ByteArrayOutputStream();
+        assertEquals(1, ConversionClient.execute(server.getPort(), forged,
+                new String[]{ConversionServer.STOP_COMMAND}, remote));
+        assertEquals(Main.ERROR_PREFIX + ConversionServer.INVALID_TOKEN_MESSAGE,
+                remote.toString(StandardCharsets.UTF_8).trim());
+        assertTrue(serverThread.isAlive());
+
+        assertEquals(0, ConversionClient.execute(server.getPort(), tokenFile,
+                new String[]{ConversionServer.STOP_COMMAND}, new ByteArrayOutputStream()));
+        serverThread.join(5000);
+        assertFalse(Files.exists(tokenFile));
+        assertThrows(ConnectException.class, () -> ConversionClient.execute(server.getPort(), tokenFile,
+                new String[]{}, new ByteArrayOutputStream()));
+    }
+
+    /**
+     * Тестирование закрытия соединения, по которому не пришел запрос: следующее задание выполняется.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testStalledClient(@TempDir Path tempDir) throws Exception {
+        server.setRequestTimeout(200);
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true"));
+        try (Socket stalled = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            ByteArrayOutputStream remote = new ByteArrayOutputStream();
+            assertEquals(0, ConversionClient.execute(server.getPort(), tokenFile,
+                    new String[]{"--file", testFile.toString()}, remote));
+            assertTrue(remote.toString(StandardCharsets.UTF_8).contains("\"name\":\"John\""));
+        }
+        assertTrue(serverLog.toString(StandardCharsets.UTF_8).contains("Request not received within 200 ms"));
+    }
+
+    /**
+     * Тестирование отклонения заданий, которые не завершаются сами.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testRejectedJobs(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true"));
+        ByteArrayOutputStream remote = new ByteArrayOutputStream();
+        assertEquals(1, ConversionClient.execute(server.getPort(), tokenFile,
+                new String[]{"--file", testFile.toString(), "--ndjson", "--follow"}, remote));
+        assertTrue(remote.toString(StandardCharsets.UTF_8).contains("--follow cannot be used in a server job"));
+        remote.reset();
+        assertEquals(1, ConversionClient.execute(server.getPort(), tokenFile, new String[]{"--server"}, remote));
+        assertTrue(remote.toString(StandardCharsets.UTF_8).contains("--server cannot be used in a server job"));
+    }
+
+    /**
+     * Тестирование разбора порта и абсолютных путей в запросе.
+     */
+    @Test
+    void testOptions() {
+        assertEquals(ConversionServer.DEFAULT_PORT, ConversionServer.parsePort(new String[]{"--server"}));
+        assertEquals(9000, ConversionServer.parsePort(new String[]{"--server", "--port", "9000"}));
+        assertThrows(IllegalArgumentException.class, () -> ConversionServer.parsePort(new String[]{"--port", "x"}));
+
+        String[] args = ConversionOptions.absolutizePaths(new String[]{"--file", "in.csv", "--pretty", "-o", "out.json"});
+        assertTrue(Path.of(args[1]).isAbsolute());
+        assertEquals("--pretty", args[2]);
+        assertTrue(Path.of(args[4]).isAbsolute());
+    }
+}
@@ -0,0 +1,86 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Тестовый класс для табличного перекодирования EBCDIC.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class EbcdicTranscoderTest {
+
+    private static final EbcdicTranscoder[] TRANSCODERS = {EbcdicTranscoder.CP037, EbcdicTranscoder.CP1047};
+
+    private static byte[] allBytes() {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+
+    /**
+     * Тестирование совпадения таблиц с кодировками IBM037 и IBM1047 JDK.
+     */
+    @Test
+    void testMatchesJdkCharsets() {
+        byte[] bytes = allBytes();
+        for (EbcdicTranscoder transcoder : TRANSCODERS) {
+            String expected = new String(bytes, Charset.forName(transcoder.getName()));
+            assertEquals(expected, transcoder.decode(bytes, 0, bytes.length), transcoder.getName());
+            for (int i = 0; i < bytes.length; i++) {
+                assertEquals(expected.charAt(i), transcoder.decode(bytes[i]));
+            }
+        }
+    }
+
+    /**
+     * Тестирование перекодирования в строку JSON: после разбора получаются те же символы.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testAppendJson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        byte[] bytes = allBytes();
+        for (EbcdicTranscoder transcoder : TRANSCODERS) {
+            byte[] json = new byte[2 + bytes.length * EbcdicTranscoder.MAX_JSON_BYTES];
+            json[0] = '"';
+            int end = transcoder.appendJson(bytes, 0, bytes.length, json, 1);
+            json[end++] = '"';
+            assertEquals(transcoder.decode(bytes, 0, bytes.length),
+                    mapper.readValue(new String(json, 0, end, StandardCharsets.UTF_8), String.class));
+        }
+
+        byte[] text = "a\"b\\c".getBytes(Charset.forName("IBM037"));
+        byte[] json = new byte[text.length * EbcdicTranscoder.MAX_JSON_BYTES];
+        int end = EbcdicTranscoder.CP037.appendJson(text, 0, text.length, json, 0);
+        assertEquals("a\\\"b\\\\c", new String(json, 0, end, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Тестирование поиска кодовой страницы по имени и кодирования служебных символов.
+     */
+    @Test
+    void testForNameAndEncode() {
+        assertSame(EbcdicTranscoder.CP037, EbcdicTranscoder.forName("CP037"));
+        assertSame(EbcdicTranscoder.CP037, EbcdicTranscoder.forName("ibm037"));
+        assertSame(EbcdicTranscoder.CP1047, EbcdicTranscoder.forName("cp1047"));
+        assertNull(EbcdicTranscoder.forName("cp500"));
+        assertNull(EbcdicTranscoder.forName(null));
+
+        assertEquals(0x40, EbcdicTranscoder.CP037.encode(' ') & 0xFF);
+        assertEquals(0x15, EbcdicTranscoder.CP1047.encode('\n') & 0xFF);
+        assertEquals((byte) 0xAD, EbcdicTranscoder.CP1047.encode('['));
+        assertEquals((byte) 0xBA, EbcdicTranscoder.CP037.encode('['));
+        assertThrows(IllegalArgumentException.class, () -> EbcdicTranscoder.CP037.encode('Ж'));
+    }
+}
@@ -0,0 +1,219 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для читателя записей фиксированной длины.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class FixedWidthRecordReaderTest {
+
+    private static final String CSV = "John,Doe,true,User John\n"
+            + "Jane,Smith,FALSE\n"
+            + "Bob,Brown,,Say \"hi\"\n"
+            + "Пётр,Иван,true,Описание\n";
+
+    private static String record(String name, String value, String flag, String description) {
+        return pad(name, 10) + pad(value, 10) + pad("", 10) + pad(flag, 5) + pad(description, 20);
+    }
+
+    // Длина поля PIC X считается в байтах
+    private static String pad(String value, int length) {
+        return value + " ".repeat(length - value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static final String FIXED = record("John", "Doe", "true", "User John")
+            + record("Jane", "Smith", "FALSE", "")
+            + record("Bob", "Brown", "", "Say \"hi\"")
+            + record("Пётр", "Иван", "true", "Описание");
+
+    /**
+     * Фиксированная временная метка для сравнения с разбором CSV.
+     */
+    @BeforeEach
+    void setUp() {
+        Main.setTimestampClock(new TimestampClock(java.time.Clock.fixed(
+                java.time.Instant.parse("2023-01-01T12:00:00Z"), java.time.ZoneOffset.UTC), false));
+    }
+
+    /**
+     * Восстановление системных часов после теста.
+     */
+    @AfterEach
+    void tearDown() {
+        Main.setTimestampClock(TimestampClock.system());
+    }
+
+    private static List<Main.WsRecord> readAll(RecordReader reader) throws Exception {
+        List<Main.WsRecord> records = new ArrayList<>();
+        Main.WsRecord record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        reader.close();
+        return records;
+    }
+
+    private static FixedWidthRecordReader reader(String text) {
+        return new FixedWidthRecordReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<String> displayStrings(List<Main.WsRecord> records) {
+        List<String> result = new ArrayList<>();
+        for (Main.WsRecord record : records) {
+            result.add(record.getName().trim() + "|" + record.getValue().trim() + "|" + record.getFlag() + "|"
+                    + record.getDescription().trim() + "|" + record.getTimestamp());
+        }
+        return result;
+    }
+
+    /**
+     * Тестирование совпадения записей с разбором CSV для записей подряд и по строкам.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testMatchesCsvParsing() throws Exception {
+        List<String> expected = displayStrings(readAll(new CsvRecordReader(new java.io.StringReader(CSV))));
+
+        assertEquals(expected, displayStrings(readAll(reader(FIXED))));
+
+        // По строкам, с CRLF, пустой строкой и удаленными хвостовыми пробелами
+        StringBuilder lines = new StringBuilder();
+        for (String line : new String[]{
+                record("John", "Doe", "true", "User John"),
+                "",
+                record("Jane", "Smith", "FALSE", "").stripTrailing(),
+                record("Bob", "Brown", "", "Say \"hi\""),
+                record("Пётр", "Иван", "true", "Описание").stripTrailing()}) {
+            lines.append(line).append("\r\n");
+        }
+        FixedWidthRecordReader lineReader = reader(lines.toString());
+        assertEquals(expected, displayStrings(readAll(lineReader)));
+        assertEquals(5, lineReader.getLineNumber());
+    }
+
+    /**
+     * Тестирование кодирования из байтов записи без создания строк.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testEncodeFromBytes() throws Exception {
+        List<Main.WsRecord> records = readAll(reader(FIXED));
+        FixedWidthRecordReader reader = reader(FIXED);
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        JsonRecordEncoder expected = new JsonRecordEncoder();
+        for (Main.WsRecord record : records) {
+            int length = reader.encodeNext(encoder);
+            assertEquals(expected.encodeToString(record), new String(encoder.buffer(), 0, length, StandardCharsets.UTF_8));
+        }
+        assertEquals(-1, reader.encodeNext(encoder));
+    }
+
+    /**
+     * Тестирование записей в EBCDIC: результат совпадает с чтением тех же записей в UTF-8.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testEbcdicRecords() throws Exception {
+        String[][] fields = {{"José", "Müller", "TRUE", "[a] \\ ^b"}, {"Jane", "Doe", "", ""},
+                {"Bob", "Brown", "false", "Say \"hi\""}};
+        StringBuilder utf8 = new StringBuilder();
+        StringBuilder ebcdic = new StringBuilder();
+        for (String[] f : fields) {
+            utf8.append(record(f[0], f[1], f[2], f[3]));
+            // В EBCDIC каждый символ занимает один байт
+            ebcdic.append(String.format("%-10s%-10s%-10s%-5s%-20s", f[0], f[1], "", f[2], f[3]));
+        }
+        String text = ebcdic.toString();
+        List<Main.WsRecord> expected = readAll(reader(utf8.toString()));
+        JsonRecordEncoder expectedEncoder = new JsonRecordEncoder();
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+
+        for (EbcdicTranscoder transcoder : new EbcdicTranscoder[]{EbcdicTranscoder.CP037, EbcdicTranscoder.CP1047}) {
+            // Записи подряд и по строкам с переводом строки EBCDIC
+            byte[] packed = text.getBytes(java.nio.charset.Charset.forName(transcoder.getName()));
+            byte[] lines = (text.substring(0, 110).stripTrailing() + "\n" + text.substring(110))
+                    .getBytes(java.nio.charset.Charset.forName(transcoder.getName()));
+            for (byte[] bytes : new byte[][]{packed, lines}) {
+                assertEquals(displayStrings(expected),
+                        displayStrings(readAll(new FixedWidthRecordReader(new ByteArrayInputStream(bytes), transcoder))));
+
+                FixedWidthRecordReader reader = new FixedWidthRecordReader(new ByteArrayInputStream(bytes), transcoder);
+                for (Main.WsRecord record : expected) {
+                    int length = reader.encodeNext(encoder);
+                    assertEquals(expectedEncoder.encodeToString(record),
+                            new String(encoder.buffer(), 0, length, StandardCharsets.UTF_8));
+                }
+                assertEquals(-1, reader.encodeNext(encoder));
+            }
+        }
+    }
+
+    /**
+     * Тестирование ошибки неверного флага с номером записи.
+     */
+    @Test
+    void testInvalidFlag() {
+        FixedWidthRecordReader reader = reader(record("John", "Doe", "true", "") + record("Jane", "Doe", "maybe", ""));
+        RecordFormatException error = assertThrows(RecordFormatException.class, () -> readAll(reader));
+        assertEquals(2, error.getLineNumber());
+        assertEquals(Main.ENABLED_FLAG_MESSAGE, error.getReason());
+    }
+
+    /**
+     * Тестирование файлового режима с опцией --fixed-width.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testFixedWidthMode(@TempDir Path tempDir) throws Exception {
+        Path fixedFile = tempDir.resolve("data.dat");
+        Files.write(fixedFile, FIXED.getBytes(StandardCharsets.UTF_8));
+        Path csvFile = tempDir.resolve("data.csv");
+        Files.writeString(csvFile, CSV);
+
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(log, true, StandardCharsets.UTF_8);
+        assertEquals(0, Main.run(new String[]{"--file", fixedFile.toString(), "--fixed-width", "-o",
+                tempDir.resolve("fixed.json").toString()}, out));
+        assertEquals(0, Main.run(new String[]{"--file", csvFile.toString(), "-o",
+                tempDir.resolve("csv.json").toString()}, out));
+        assertEquals(Files.readString(tempDir.resolve("csv.json")), Files.readString(tempDir.resolve("fixed.json")));
+
+        assertEquals(1, Main.run(new String[]{"--file", fixedFile.toString(), "--fixed-width", "--parallel"}, out));
+
+        // Те же записи в EBCDIC
+        Path ebcdicFile = tempDir.resolve("data.ebc");
+        String ascii = record("John", "Doe", "true", "User John") + record("Jane", "Smith", "FALSE", "");
+        Files.write(fixedFile, ascii.getBytes(StandardCharsets.UTF_8));
+        Files.write(ebcdicFile, ascii.getBytes(java.nio.charset.Charset.forName("IBM1047")));
+        assertEquals(0, Main.run(new String[]{"--file", ebcdicFile.toString(), "--fixed-width", "--encoding", "cp1047",
+                "--stream", "-o", tempDir.resolve("ebcdic.json").toString()}, out));
+        assertEquals(0, Main.run(new String[]{"--file", fixedFile.toString(), "--fixed-width", "--stream", "-o",
+                tempDir.resolve("fixed.json").toString()}, out));
+        assertEquals(Files.readString(tempDir.resolve("fixed.json")), Files.readString(tempDir.resolve("ebcdic.json")));
+
+        assertEquals(1, Main.run(new String[]{"--file", ebcdicFile.toString(), "--encoding", "cp1047"}, out));
+        assertEquals(1, Main.run(new String[]{"--file", ebcdicFile.toString(), "--fixed-width", "--encoding", "cp500"}, out));
+    }
+}
@@ -0,0 +1,246 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для отслеживания дописываемого файла.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class FollowConverterTest {
+
+    private static final long POLL_INTERVAL_MILLIS = 20;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private FollowConverter converter;
+    private Thread thread;
+
+    private void start(Path input) {
+        start(new FollowConverter(input, POLL_INTERVAL_MILLIS));
+    }
+
+    private void start(FollowConverter followConverter) {
+        converter = followConverter;
+        thread = new Thread(() -> {
+            try {
+                converter.follow(out);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        thread.start();
+    }
+
+    /**
+     * Остановка отслеживания после теста.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        if (converter != null) {
+            converter.stop();
+            thread.join(TIMEOUT_MILLIS);
+        }
+    }
+
+    private List<String> awaitNames(int count) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            List<String> names = new ArrayList<>();
+            for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+                if (!line.isEmpty()) {
+                    names.add(line.substring("{\"name\":\"".length(), line.indexOf("\",")));
+                }
+            }
+            if (names.size() >= count || System.currentTimeMillis() > deadline || failure.get() != null) {
+                assertNull(failure.get());
+                return names;
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS / 2);
+        }
+    }
+
+    private static void append(Path file, String text) throws Exception {
+        Files.writeString(file, text, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Тестирование преобразования дописанных строк, включая дописанную частями строку.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testFollowsAppendedLines(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("in.csv");
+        Files.writeString(input, "John,Doe\n");
+        start(input);
+        assertEquals(List.of("John"), awaitNames(1));
+
+        append(input, "Jane,Smith\nBo");
+        assertEquals(List.of("John", "Jane"), awaitNames(2));
+        append(input, "b,Brown\n");
+        assertEquals(List.of("John", "Jane", "Bob"), awaitNames(3));
+
+        converter.stop();
+        assertTrue(converter.awaitStopped(TIMEOUT_MILLIS));
+        assertEquals(3, converter.getRecordsProcessed());
+        assertEquals(out.size(), converter.getBytesWritten());
+    }
+
+    /**
+     * Тестирование продолжения отслеживания после неверных строк: без файла отклоненных строк
+     * строка пропускается, с ним - записывается в файл.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testMalformedLines(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("in.csv");
+        Files.writeString(input, "John,Doe\nbad\n");
+        start(input);
+        append(input, "Jane,Smith\n");
+        assertEquals(List.of("John", "Jane"), awaitNames(2));
+        assertEquals(1, converter.getRejectedCount());
+        converter.stop();
+        assertTrue(converter.awaitStopped(TIMEOUT_MILLIS));
+
+        out.reset();
+        Path rejectFile = tempDir.resolve("rejects.txt");
+        try (RejectWriter rejects = new RejectWriter(rejectFile, RejectWriter.DEFAULT_MAX_ERROR_RATE)) {
+            start(new FollowConverter(input, POLL_INTERVAL_MILLIS, ConversionMetrics.DISABLED, rejects));
+            assertEquals(List.of("John", "Jane"), awaitNames(2));
+            append(input, "Bob,Brown,maybe\nAlice,White\n");
+            assertEquals(List.of("John", "Jane", "Alice"), awaitNames(3));
+            assertEquals(2, rejects.getRejectedCount());
+            List<String> rejected = Files.readAllLines(rejectFile);
+            assertEquals(2, rejected.size());
+            assertTrue(rejected.get(0).startsWith("2\t") && rejected.get(0).endsWith("\tbad"), rejected.get(0));
+            assertTrue(rejected.get(1).startsWith("4\t"), rejected.get(1));
+            converter.stop();
+            assertTrue(converter.awaitStopped(TIMEOUT_MILLIS));
+        }
+    }
+
+    /**
+     * Тестирование определения файла по времени создания, если файловая система не дает ключа файла.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testIdentityWithoutFileKey(@TempDir Path tempDir) throws Exception {
+        Path input = Files.writeString(tempDir.resolve("in.csv"), "John,Doe\n");
+        BasicFileAttributes attributes = Files.readAttributes(input, BasicFileAttributes.class);
+        assertEquals(attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime(),
+                FollowConverter.identity(attributes));
+        FileTime created = FileTime.fromMillis(1000);
+        BasicFileAttributes withoutKey = new BasicFileAttributes() {
+            @Override
+            public FileTime lastModifiedTime() {
+                return created;
+            }
+
+            @Override
+            public FileTime lastAccessTime() {
+                return created;
+            }
+
+            @Override
+            public FileTime creationTime() {
+                return created;
+            }
+
+            @Override
+            public boolean isRegularFile() {
+                return true;
+            }
+
+            @Override
+            public boolean isDirectory() {
+                return false;
+            }
+
+            @Override
+            public boolean isSymbolicLink() {
+                return false;
+            }
+
+            @Override
+            public boolean isOther() {
+                return false;
+            }
+
+            @Override
+            public long size() {
+                return 0;
+            }
+
+            @Override
+            public Object fileKey() {
+                return null;
+            }
+        };
+        assertEquals(created, FollowConverter.identity(withoutKey));
+    }
+
+    /**
+     * Тестирование чтения с начала после усечения файла.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testTruncation(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("in.csv");
+        Files.writeString(input, "John,Doe\nJane,Smith\n");
+        start(input);
+        assertEquals(2, awaitNames(2).size());
+
+        Files.writeString(input, "Bob,Brown\n", StandardOpenOption.TRUNCATE_EXISTING);
+        assertEquals(List.of("John", "Jane", "Bob"), awaitNames(3));
+        assertEquals(1, converter.getReopenCount());
+    }
+
+    /**
+     * Тестирование дочитывания старого файла и перехода на новый при ротации.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testRotation(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("in.csv");
+        Files.writeString(input, "John,Doe\n");
+        start(input);
+        assertEquals(1, awaitNames(1).size());
+
+        Path rotated = tempDir.resolve("in.csv.1");
+        Files.move(input, rotated);
+        append(rotated, "Jane,Smith\n");
+        Files.writeString(input, "Bob,Brown\nAlice,White\n");
+
+        assertEquals(List.of("John", "Jane", "Bob", "Alice"), awaitNames(4));
+        assertEquals(1, converter.getReopenCount());
+    }
+}
@@ -0,0 +1,118 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.stripTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для потокового сжатия gzip.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class GzipCodecTest {
+
+    private static String gunzip(Path file) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Тестирование сжатого ввода и вывода во всех режимах сжатия: результат совпадает
+     * с преобразованием несжатого файла.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testCompressedInputAndOutput(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            csv.append("Name").append(i % 1000).append(",Пётр,").append(i % 2 == 0).append(",Line\n");
+        }
+        Path plain = tempDir.resolve("data.csv");
+        Files.writeString(plain, csv);
+        Path compressed = tempDir.resolve("data.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            out.write(csv.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+
+        Path expected = tempDir.resolve("expected.ndjson");
+        assertEquals(0, Main.run(new String[]{"--file", plain.toString(), "--ndjson", "--batch-timestamp",
+                "-o", expected.toString()}, out));
+        String expectedJson = stripTimestamps(Files.readString(expected));
+
+        String[][] variants = {
+                {"--file", compressed.toString()},
+                {"--file", compressed.toString(), "--gzip-async", "--gzip-buffer", "1000"},
+                {"--file", plain.toString(), "--parallel", "--gzip-level", "1"},
+                {"--file", compressed.toString(), "--stream", "--gzip-level", "9", "--gzip-async"}};
+        for (String[] variant : variants) {
+            Path output = tempDir.resolve("output.ndjson.gz");
+            String[] args = TestSupport.args(variant, "--ndjson", "--batch-timestamp", "-o", output.toString());
+            assertEquals(0, Main.run(args, out), String.join(" ", variant));
+            assertEquals(expectedJson, stripTimestamps(gunzip(output)),
+                    String.join(" ", variant));
+        }
+
+        // Сжатый вход без сжатого вывода и дописывание нового члена gzip
+        Path output = tempDir.resolve("output.json");
+        assertEquals(0, Main.run(new String[]{"--file", compressed.toString(), "-o", output.toString()}, out));
+        assertTrue(Files.readString(output).startsWith("[{\"name\":\"Name0\""));
+        Path appended = tempDir.resolve("appended.ndjson.gz");
+        for (int i = 0; i < 2; i++) {
+            assertEquals(0, Main.run(new String[]{"--file", compressed.toString(), "--ndjson", "--append", "-o",
+                    appended.toString()}, out));
+        }
+        assertEquals(10000, gunzip(appended).split("\n").length);
+    }
+
+    /**
+     * Тестирование неверных настроек и несовместимых режимов.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testInvalidOptions(@TempDir Path tempDir) throws Exception {
+        Path compressed = tempDir.resolve("data.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+            out.write("John,Doe\n".getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+        assertEquals(1, Main.run(new String[]{"--file", compressed.toString(), "--mmap"}, out));
+        assertEquals(1, Main.run(new String[]{"--file", compressed.toString(), "--parallel"}, out));
+        assertEquals(1, Main.run(new String[]{"--file", compressed.toString(), "--incremental", "-o", "out.json"}, out));
+        assertEquals(1, Main.run(new String[]{"--file", compressed.toString(), "--gzip-level", "10"}, out));
+        assertEquals(1, Main.run(new String[]{"--file", compressed.toString(), "--gzip-buffer", "0"}, out));
+        Path plain = tempDir.resolve("data.csv");
+        Files.writeString(plain, "John,Doe\n");
+        assertEquals(1, Main.run(new String[]{"--file", compressed.toString(), "--gzip-level", "1"}, out));
+        assertEquals(1, Main.run(new String[]{"--file", plain.toString(), "--gzip-async"}, out));
+        assertEquals(1, Main.run(new String[]{"--file", plain.toString(), "--gzip-buffer", "1000"}, out));
+        String console = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(console.contains("Compressed .gz files cannot be used with --mmap"), console);
+        assertTrue(console.contains("Invalid value for --gzip-level: 10"), console);
+        assertTrue(console.contains("--gzip-level cannot be combined with an uncompressed output file"), console);
+        assertTrue(console.contains("--gzip-async cannot be combined with an uncompressed output file"), console);
+        assertTrue(console.contains("--gzip-buffer cannot be combined with uncompressed input and output files"),
+                console);
+        assertThrows(IllegalArgumentException.class, () -> new GzipCodec(-1, GzipCodec.DEFAULT_BUFFER_SIZE, false));
+    }
+}
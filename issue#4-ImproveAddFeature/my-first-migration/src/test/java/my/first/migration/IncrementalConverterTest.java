@@ -0,0 +1,245 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.normalizeTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для инкрементального преобразования.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class IncrementalConverterTest {
+
+    private static void append(Path file, String text) throws Exception {
+        Files.writeString(file, text, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String fullConversion(Path input, OutputLayout layout) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new StreamingFileConverter(layout, CsvRecordReader::new).convert(input.toString(), out);
+        return normalizeTimestamps(out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path output) throws Exception {
+        return normalizeTimestamps(Files.readString(output));
+    }
+
+    /**
+     * Тестирование совпадения инкрементального вывода с полным преобразованием для всех форматов.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testAppendedLinesMatchFullConversion(@TempDir Path tempDir) throws Exception {
+        for (OutputLayout layout : OutputLayout.values()) {
+            Path input = tempDir.resolve(layout + ".csv");
+            Path output = tempDir.resolve(layout + ".out");
+            Files.writeString(input, "");
+
+            IncrementalConverter converter = new IncrementalConverter(layout);
+            converter.convert(input.toString(), output);
+            assertFalse(converter.isResumed());
+            assertEquals(fullConversion(input, layout), read(output));
+
+            append(input, "John,Doe,true,User John\n\nJane,Smith\n");
+            converter = new IncrementalConverter(layout);
+            converter.convert(input.toString(), output);
+            assertTrue(converter.isResumed());
+            assertEquals(2, converter.getRecordsProcessed());
+            assertEquals(fullConversion(input, layout), read(output));
+
+            // Незавершенная строка остается для следующего запуска
+            append(input, "Bob,Brown,false\nAli");
+            converter = new IncrementalConverter(layout);
+            converter.convert(input.toString(), output);
+            assertEquals(3, converter.getStartLineNumber());
+            assertEquals(1, converter.getRecordsProcessed());
+
+            append(input, "ce,White\n");
+            converter = new IncrementalConverter(layout);
+            converter.convert(input.toString(), output);
+            assertEquals(1, converter.getRecordsProcessed());
+            assertEquals(fullConversion(input, layout), read(output));
+
+            converter = new IncrementalConverter(layout);
+            converter.convert(input.toString(), output);
+            assertEquals(0, converter.getRecordsProcessed());
+            assertEquals(fullConversion(input, layout), read(output));
+        }
+    }
+
+    /**
+     * Тестирование полного преобразования после перезаписи входного файла.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testRewrittenInputIsConvertedFromStart(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("in.csv");
+        Path output = tempDir.resolve("out.ndjson");
+        Files.writeString(input, "John,Doe\nJane,Smith\n");
+        new IncrementalConverter(OutputLayout.NDJSON).convert(input.toString(), output);
+
+        Files.writeString(input, "Jack,Doe\nJane,Smith\nBob,Brown\n");
+        IncrementalConverter converter = new IncrementalConverter(OutputLayout.NDJSON);
+        converter.convert(input.toString(), output);
+        assertFalse(converter.isResumed());
+        assertEquals(3, converter.getRecordsProcessed());
+        assertEquals(fullConversion(input, OutputLayout.NDJSON), read(output));
+
+        Files.writeString(input, "Jack,Doe\n");
+        converter = new IncrementalConverter(OutputLayout.NDJSON);
+        converter.convert(input.toString(), output);
+        assertFalse(converter.isResumed());
+        assertEquals(fullConversion(input, OutputLayout.NDJSON), read(output));
+
+        // Изменение в середине большого файла без изменения длины
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            csv.append("Name").append(i % 10).append(",Value,true,Line\n");
+        }
+        Files.writeString(input, csv);
+        new IncrementalConverter(OutputLayout.NDJSON).convert(input.toString(), output);
+        int middle = csv.length() / 2;
+        csv.setCharAt(csv.indexOf("Value", middle), 'X');
+        Files.writeString(input, csv);
+        converter = new IncrementalConverter(OutputLayout.NDJSON);
+        converter.convert(input.toString(), output);
+        assertFalse(converter.isResumed());
+        assertEquals(fullConversion(input, OutputLayout.NDJSON), read(output));
+    }
+
+    /**
+     * Тестирование восстановления после прерванного запуска и ошибки формата.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testRecoversFromInterruptedRun(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("in.csv");
+        Path output = tempDir.resolve("out.json");
+        Files.writeString(input, "John,Doe\n");
+        new IncrementalConverter(OutputLayout.PRETTY_ARRAY).convert(input.toString(), output);
+
+        // Остатки прерванного запуска после сохраненного состояния отбрасываются
+        append(output, ",\n  {\"partial\"");
+        append(input, "Jane,Smith,maybe\n");
+        IncrementalConverter failing = new IncrementalConverter(OutputLayout.PRETTY_ARRAY);
+        RecordFormatException error = assertThrows(RecordFormatException.class,
+                () -> failing.convert(input.toString(), output));
+        assertEquals(2, error.getLineNumber());
+
+        Files.writeString(input, "John,Doe\nJane,Smith,false\n");
+        IncrementalConverter converter = new IncrementalConverter(OutputLayout.PRETTY_ARRAY);
+        converter.convert(input.toString(), output);
+        assertTrue(converter.isResumed());
+        assertEquals(1, converter.getRecordsProcessed());
+        assertEquals(fullConversion(input, OutputLayout.PRETTY_ARRAY), read(output));
+    }
+
+    /**
+     * Тестирование режима перезапуска: прерванный и продолженный запуск дает побайтно
+     * тот же вывод, что и непрерывный, включая временные метки и последнюю строку без перевода строки.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testRestartIsByteIdentical(@TempDir Path tempDir) throws Exception {
+        TimestampClock previousClock = Main.getTimestampClock();
+        TimestampClock firstRun = new TimestampClock(Clock.fixed(Instant.parse("2023-01-01T12:00:00Z"), ZoneOffset.UTC),
+                true);
+        TimestampClock secondRun = new TimestampClock(Clock.fixed(Instant.parse("2023-01-02T08:30:00Z"), ZoneOffset.UTC),
+                true);
+        try {
+            for (OutputLayout layout : OutputLayout.values()) {
+                StringBuilder valid = new StringBuilder();
+                for (int i = 1; i <= 24; i++) {
+                    valid.append("Name").append(i).append(",Value,").append(i % 3 == 0).append(",Line ").append(i)
+                            .append(i == 12 ? "\n\n" : "\n");
+                }
+                valid.append("Last,Value");
+                Path input = tempDir.resolve(layout + ".csv");
+                Path output = tempDir.resolve(layout + ".out");
+                Path checkpoint = ConversionCheckpoint.pathFor(output);
+                Files.writeString(input, valid.toString().replace("Name18,Value,true", "Name18,Value,maybe"));
+
+                Main.setTimestampClock(firstRun);
+                IncrementalConverter failing = new IncrementalConverter(layout, 5, true);
+                assertThrows(RecordFormatException.class, () -> failing.convert(input.toString(), output));
+                assertEquals(15, ConversionCheckpoint.load(checkpoint).getRecordCount());
+
+                // Строка с ошибкой идет после сохраненного состояния, поэтому ее исправление не мешает продолжению
+                Files.writeString(input, valid);
+                Main.setTimestampClock(secondRun);
+                IncrementalConverter resumed = new IncrementalConverter(layout, 5, true);
+                resumed.convert(input.toString(), output);
+                assertSame(secondRun, Main.getTimestampClock());
+                assertTrue(resumed.isResumed());
+                assertEquals(16, resumed.getStartLineNumber());
+                assertEquals(10, resumed.getRecordsProcessed());
+                assertFalse(Files.exists(checkpoint));
+
+                Path expected = tempDir.resolve(layout + ".expected");
+                Main.setTimestampClock(firstRun);
+                new IncrementalConverter(layout, 5, true).convert(input.toString(), expected);
+                assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(output), layout.toString());
+                assertTrue(Files.readString(output).contains("Last"), layout.toString());
+            }
+        } finally {
+            Main.setTimestampClock(previousClock);
+        }
+
+        Path input = tempDir.resolve(OutputLayout.NDJSON + ".csv");
+        Path output = tempDir.resolve("main.ndjson");
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--checkpoint", "-o", output.toString()}, out));
+        assertEquals(0, Main.run(new String[]{"--file", input.toString(), "--checkpoint", "--batch-timestamp", "--ndjson",
+                "-o", output.toString()}, out));
+        assertEquals(25, Files.readAllLines(output).size());
+        assertFalse(Files.exists(ConversionCheckpoint.pathFor(output)));
+    }
+
+    /**
+     * Тестирование смещений читателя и строки длиннее буфера.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testTailReaderOffsets(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("in.csv");
+        String padding = " ".repeat(CsvTailReader.BUFFER_SIZE * 2);
+        Files.writeString(input, "Пётр,Doe\n" + padding + "Jane,Smith" + padding + "\nBob");
+
+        try (CsvTailReader reader = new CsvTailReader(input, 0, 0)) {
+            assertEquals("Пётр", reader.next().getName().trim());
+            assertEquals("Пётр,Doe\n".getBytes(StandardCharsets.UTF_8).length, reader.getOffset());
+            assertEquals("Jane", reader.next().getName().trim());
+            assertNull(reader.next());
+            assertEquals(2, reader.getLineNumber());
+            assertEquals(Files.size(input) - 3, reader.getOffset());
+
+            append(input, ",Brown\n");
+            assertEquals("Bob", reader.next().getName().trim());
+            assertEquals(3, reader.getLineNumber());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тестовый класс для кодировщика JsonRecordEncoder.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class JsonRecordEncoderTest {
+
+    private static Main.WsRecord record(String name, String value, boolean flag, String description) {
+        Main.WsRecord record = new Main.WsRecord();
+        record.setName(name);
+        record.setValue(value);
+        record.setFlag(flag);
+        record.setDescription(description);
+        record.setTimestamp("2023-01-01 12:00:00");
+        return record;
+    }
+
+    private static String viaTemplate(Main.WsRecord record) {
+        return String.format(
+            Main.JSON_TEMPLATE,
+            record.getName().trim(),
+            record.getValue().trim(),
+            record.getFlag(),
+            record.getDescription().trim(),
+            record.getTimestamp()
+        );
+    }
+
+    /**
+     * Тестирование совпадения результата с JSON_TEMPLATE для дополненных полей.
+     */
+    @Test
+    void testEncodeMatchesTemplate() {
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+
+        Main.WsRecord enabled = record("Test Name ", "Test Value ", true, "Test Description    ");
+        assertEquals(viaTemplate(enabled), encoder.encodeToString(enabled));
+
+        Main.WsRecord disabled = record(Main.padToLength("John", 10), Main.padToLength("Doe", 10), false, " Desc ");
+        assertEquals(viaTemplate(disabled), encoder.encodeToString(disabled));
+    }
+
+    /**
+     * Тестирование красивого вывода: документ совпадает с generatePrettyJson и сдвигается
+     * на уровень вложенности без повторного прохода по строке.
+     */
+    @Test
+    void testPrettyEncoding() {
+        Main.WsRecord record = record("Test Name ", "Пётр", true, "Test Description    ");
+        String pretty = Main.generatePrettyJson(record);
+        assertEquals(pretty, JsonRecordEncoder.pretty(0).encodeToString(record));
+        assertTrue(JsonRecordEncoder.pretty(0).isPretty());
+        assertEquals(pretty.replace("\n", "\n  "),
+                JsonRecordEncoder.pretty(JsonArrayWriter.ELEMENT_DEPTH).encodeToString(record));
+
+        // Арена кодируется той же раскладкой
+        WsRecordArena arena = WsRecordArena.onHeap();
+        arena.add(record);
+        WsRecordArena.Cursor cursor = arena.cursor();
+        cursor.moveTo(0);
+        JsonRecordEncoder encoder = JsonRecordEncoder.pretty(2);
+        int length = encoder.encode(cursor);
+        assertEquals(pretty.replace("\n", "\n    "), new String(encoder.buffer(), 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Тестирование повторного использования буфера.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testBufferReuse() throws Exception {
+        JsonRecordEncoder encoder = new JsonRecordEncoder(8);
+        Main.WsRecord longRecord = record("LongName  ", "LongValue ", true, "Very long description");
+        Main.WsRecord shortRecord = record("A", "B", false, "C");
+
+        encoder.encode(longRecord);
+        int length = encoder.encode(shortRecord);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(out);
+        assertEquals(viaTemplate(shortRecord), out.toString(StandardCharsets.UTF_8));
+        assertEquals(length, out.size());
+    }
+
+    /**
+     * Тестирование кодирования не-ASCII символов в UTF-8.
+     */
+    @Test
+    void testEncodeNonAscii() {
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        Main.WsRecord record = record("Иван", "Пётр  ", true, "Тест 😀");
+
+        int length = encoder.encode(record);
+
+        String expected = viaTemplate(record);
+        assertEquals(expected, encoder.toString());
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, length);
+    }
+
+    /**
+     * Тестирование длины строк с одиночными суррогатами: она совпадает с выводом кодировщика.
+     */
+    @Test
+    void testUtf8LengthOfLoneSurrogates() {
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        Main.WsRecord record = record("a\uD83Db", "\uDE00x", true, "end\uD83D");
+
+        int length = encoder.encode(record);
+
+        assertEquals(viaTemplate(record).getBytes(StandardCharsets.UTF_8).length, length);
+        assertEquals(3, JsonRecordEncoder.utf8Length("a\uD83Db"));
+        assertEquals(2, JsonRecordEncoder.utf8Length("\uDE00x"));
+        assertEquals(4, JsonRecordEncoder.utf8Length("end\uD83D"));
+        assertEquals(4, JsonRecordEncoder.utf8Length("\uD83D\uDE00"));
+    }
+
+    /**
+     * Тестирование экранирования специальных символов.
+     */
+    @Test
+    void testEncodeEscapesSpecialCharacters() {
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        Main.WsRecord record = record("Say \"hi\"", "a\\b", true, "tab\there");
+
+        String json = encoder.encodeToString(record);
+
+        assertTrue(json.contains("\"name\":\"Say \\\"hi\\\"\""));
+        assertTrue(json.contains("\"value\":\"a\\\\b\""));
+        assertTrue(json.contains("\"description\":\"tab\\u0009here\""));
+    }
+}
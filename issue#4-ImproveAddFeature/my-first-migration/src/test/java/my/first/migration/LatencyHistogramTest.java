@@ -0,0 +1,55 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тестовый класс для гистограммы длительностей.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Тестирование процентилей: погрешность не больше размера корзины.
+     */
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(50_005_000_000L, histogram.getTotal());
+
+        for (double percentile : new double[]{50, 95, 99}) {
+            long expected = (long) (percentile * 100) * 1000;
+            long actual = histogram.getPercentile(percentile);
+            assertTrue(actual >= expected, percentile + ": " + actual);
+            assertTrue(actual <= expected + expected / LatencyHistogram.SUB_BUCKETS, percentile + ": " + actual);
+        }
+        assertEquals(10_000_000, histogram.getPercentile(100));
+    }
+
+    /**
+     * Тестирование малых, нулевых и очень больших значений.
+     */
+    @Test
+    void testBoundaries() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(0);
+        histogram.record(7);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getPercentile(25));
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(7, histogram.getPercentile(75));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+    }
+}
@@ -0,0 +1,120 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для чтения CSV через отображение в память.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class MappedCsvReaderTest {
+
+    private static final String CONTENT = "John,Doe,true,User John\r\n"
+            + "\n"
+            + "  Jane , Smith ,FALSE, User Jane \n"
+            + "Bob,Johnson,,\n"
+            + "Иван,Пётр,True,Описание,extra,fields\n"
+            + "Test,Value";
+    private static final FileModeSettings MAPPED = FileModeSettings.DEFAULT.withMemoryMapped(true);
+
+    private static void assertSameRecord(Main.WsRecord expected, Main.WsRecord actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getValue(), actual.getValue());
+        assertEquals(expected.getFlag(), actual.getFlag());
+        assertEquals(expected.getDescription(), actual.getDescription());
+    }
+
+    /**
+     * Тестирование совпадения результата с readRecordsFromFile при разных размерах окна.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testMatchesReadRecordsFromFile(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, CONTENT.getBytes(StandardCharsets.UTF_8));
+        List<Main.WsRecord> expected = Main.readRecordsFromFile(testFile.toString());
+
+        for (long windowSize : new long[]{64, 1024, MappedCsvReader.DEFAULT_WINDOW_SIZE}) {
+            try (MappedCsvReader reader = new MappedCsvReader(testFile.toString(), windowSize)) {
+                for (Main.WsRecord record : expected) {
+                    assertSameRecord(record, reader.next());
+                }
+                assertNull(reader.next());
+                assertEquals(6, reader.getLineNumber());
+            }
+        }
+        assertEquals(expected.size(), Main.readRecords(testFile.toString(), MAPPED).size());
+    }
+
+    /**
+     * Тестирование номеров строк в ошибках.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testReportsLineNumbers(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true,Desc", "", "John,Doe,yes,Desc"));
+
+        RecordFormatException e = assertThrows(RecordFormatException.class,
+                () -> Main.readRecords(testFile.toString(), MAPPED));
+        assertEquals(Main.ENABLED_FLAG_MESSAGE + " at line 3", e.getMessage());
+
+        Files.write(testFile, List.of("John"));
+        e = assertThrows(RecordFormatException.class, () -> Main.readRecords(testFile.toString(), MAPPED));
+        assertEquals(Main.INVALID_FILE_FORMAT + " at line 1", e.getMessage());
+
+        Files.write(testFile, List.of("John,Doe,true,VeryLongDescriptionExceeding20Chars"));
+        e = assertThrows(RecordFormatException.class, () -> Main.readRecords(testFile.toString(), MAPPED));
+        assertEquals(Main.DESCRIPTION_LIMIT_MESSAGE + " at line 1", e.getMessage());
+    }
+
+    /**
+     * Тестирование строки длиннее окна отображения.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testLineLongerThanWindow(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true,Desc", "Jane,Smith,false,Desc"));
+
+        try (MappedCsvReader reader = new MappedCsvReader(testFile.toString(), 8)) {
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+
+    /**
+     * Тестирование отказа от сочетания с параллельным режимом.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testParallelRejected(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true,Desc"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+        assertEquals(1, Main.run(new String[]{"--file", testFile.toString(), "--mmap", "--parallel"}, out));
+        String console = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(console.contains("Error: --mmap cannot be combined with --parallel"), console);
+    }
+}
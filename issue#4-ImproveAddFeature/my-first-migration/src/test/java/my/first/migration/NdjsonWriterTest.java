@@ -0,0 +1,111 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.normalizeTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для вывода в формате JSON Lines.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class NdjsonWriterTest {
+
+    /**
+     * Тестирование формата: один компактный документ на строку.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testOneRecordPerLine(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true,User John", "", "Jane,Smith,false,User Jane"));
+
+        StreamingFileConverter converter = new StreamingFileConverter(OutputLayout.NDJSON, CsvRecordReader::new);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.convert(testFile.toString(), out);
+
+        String expected = "{\"name\":\"John\",\"value\":\"Doe\",\"enabled\":true,\"description\":\"User John\",\"timestamp\":\"2023-01-01 12:00:00\"}\n"
+                + "{\"name\":\"Jane\",\"value\":\"Smith\",\"enabled\":false,\"description\":\"User Jane\",\"timestamp\":\"2023-01-01 12:00:00\"}\n";
+        String actual = out.toString(StandardCharsets.UTF_8);
+        assertEquals(expected, normalizeTimestamps(actual));
+        assertEquals(2, converter.getRecordsProcessed());
+        assertEquals(actual.length(), converter.getBytesWritten());
+    }
+
+    /**
+     * Тестирование совпадения параллельного и потокового вывода JSON Lines.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testParallelMatchesStreaming(@TempDir Path tempDir) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            lines.add("Name" + i + ",Value" + i + "," + (i % 2 == 0) + ",Desc " + i);
+        }
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, lines);
+
+        ByteArrayOutputStream streaming = new ByteArrayOutputStream();
+        new StreamingFileConverter(OutputLayout.NDJSON, CsvRecordReader::new).convert(testFile.toString(), streaming);
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        new ParallelFileConverter(FileModeSettings.of(OutputLayout.NDJSON), 4, 100).convert(testFile.toString(), parallel);
+
+        assertEquals(normalizeTimestamps(streaming.toString(StandardCharsets.UTF_8)),
+                normalizeTimestamps(parallel.toString(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Тестирование дописывания в конец существующего файла.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testAppendKeepsValidNdjson(@TempDir Path tempDir) throws Exception {
+        Path output = tempDir.resolve("out.ndjson");
+        for (String json : new String[]{"{\"a\":1}", "{\"b\":2}"}) {
+            try (OutputStream out = new ChannelOutputStream(output, true);
+                 NdjsonWriter writer = new NdjsonWriter(out)) {
+                byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+                writer.writeRecord(bytes, 0, bytes.length);
+                writer.flush();
+            }
+        }
+
+        assertEquals(List.of("{\"a\":1}", "{\"b\":2}"), Files.readAllLines(output));
+    }
+
+    /**
+     * Тестирование отказа от красивого вывода, который не помещается в одну строку.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testPrettyRejected(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.writeString(testFile, "John,Doe,true,User\n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+        assertEquals(1, Main.run(new String[]{"--file", testFile.toString(), "--ndjson", "--pretty"}, out));
+        String console = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(console.contains("Error: --pretty cannot be combined with --ndjson"), console);
+    }
+}
@@ -0,0 +1,117 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.normalizeTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для параллельного режима обработки файла.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ParallelFileConverterTest {
+
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add("Name" + i + ",Value" + i + "," + (i % 3 == 0) + ",Desc " + i);
+            if (i % 7 == 0) {
+                lines.add("");
+            }
+        }
+        return lines;
+    }
+
+    private static String convert(FileConverter converter, Path file) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.convert(file.toString(), out);
+        return normalizeTimestamps(out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Тестирование совпадения результата с потоковым режимом при мелких фрагментах.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testMatchesStreamingOutput(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, lines(500));
+
+        for (boolean pretty : new boolean[]{false, true}) {
+            ParallelFileConverter parallel = new ParallelFileConverter(pretty, 4, 64);
+            String expected = convert(new StreamingFileConverter(pretty), testFile);
+
+            assertEquals(expected, convert(parallel, testFile));
+            assertEquals(500, parallel.getRecordsProcessed());
+        }
+    }
+
+    /**
+     * Тестирование файла без перевода строки в конце и пустого файла.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testFileEdges(@TempDir Path tempDir) throws Exception {
+        Path noNewLine = tempDir.resolve("no-newline.csv");
+        Files.writeString(noNewLine, "John,Doe,true,Desc\nJane,Smith,false,Desc");
+        assertEquals(convert(new StreamingFileConverter(false), noNewLine),
+                convert(new ParallelFileConverter(false, 2, 8), noNewLine));
+
+        Path empty = tempDir.resolve("empty.csv");
+        Files.writeString(empty, "");
+        assertEquals("[]", convert(new ParallelFileConverter(false, 2, 8), empty));
+    }
+
+    /**
+     * Тестирование отказа, если перевода строки нет в пределах наибольшей длины фрагмента.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testChunkLengthLimit(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("long-line.csv");
+        Files.writeString(testFile, "John,Doe\n" + "x".repeat(200) + "\nJane,Smith\n");
+        FileModeSettings settings = FileModeSettings.DEFAULT;
+        IOException e = assertThrows(IOException.class, () -> new ParallelFileConverter(settings, 2, 8, 64)
+                .convert(testFile.toString(), new ByteArrayOutputStream()));
+        assertEquals("No line break within 64 bytes after offset 9, convert this file without "
+                + Main.PARALLEL_OPTION_PREFIX, e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new ParallelFileConverter(settings, 2, 128, 64));
+    }
+
+    /**
+     * Тестирование номера строки в ошибке из фрагмента в середине файла.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testReportsGlobalLineNumber(@TempDir Path tempDir) throws Exception {
+        List<String> lines = lines(300);
+        lines.set(250, "VeryLongNameExceeding10Chars,Value,true,Desc");
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, lines);
+
+        RecordFormatException e = assertThrows(RecordFormatException.class,
+                () -> new ParallelFileConverter(false, 4, 100).convert(testFile.toString(), new ByteArrayOutputStream()));
+        assertEquals(Main.NAME_LIMIT_MESSAGE + " at line 251", e.getMessage());
+        assertEquals(251, e.getLineNumber());
+        assertEquals(Main.NAME_LIMIT_MESSAGE, e.getReason());
+    }
+}
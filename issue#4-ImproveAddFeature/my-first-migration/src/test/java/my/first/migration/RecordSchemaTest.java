@@ -0,0 +1,155 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.stripTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для схемы записи и кодирования по схеме.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class RecordSchemaTest {
+
+    private static final String ITEM_SCHEMA = "      * Товар\n"
+            + "       01 ITEM-RECORD.\n"
+            + "          05 ITEM-CODE      PIC X(6).\n"
+            + "          05 FILLER         PIC X(4).\n"
+            + "          05 ITEM-TITLE     PIC X(12) VALUE ''.\n"
+            + "          05 ITEM-ACTIVE    PIC X(5) VALUE 'true'.\n"
+            + "          05 ITEM-COLOR     PIC X(8) VALUE 'none'.\n"
+            + "       NAME OF ITEM-CODE IS 'code'\n"
+            + "       NAME OF ITEM-ACTIVE IS 'active'\n"
+            + "       CONVERTING ITEM-ACTIVE TO JSON BOOLEAN\n";
+
+    /**
+     * Тестирование поставляемой схемы ws-record: вывод и ошибки совпадают с разбором parseRecord.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testWsRecordSchemaMatchesHardCodedParser(@TempDir Path tempDir) throws Exception {
+        RecordSchema schema = RecordSchema.wsRecord();
+        assertEquals("WS-RECORD", schema.getRecordName());
+        assertEquals(5, schema.getFields().size());
+        assertEquals(2, schema.getRequiredColumns());
+
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            csv.append(" Name").append(i % 10).append(" ,Пётр,").append(i % 3 == 0 ? "TRUE" : i % 3 == 1 ? "false" : "")
+                    .append(i % 4 == 0 ? "" : ",Line \"" + i + "\"").append('\n');
+            if (i % 50 == 0) {
+                csv.append("   \n");
+            }
+        }
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, csv);
+        Path schemaFile = tempDir.resolve("ws-record.cpy");
+        try (var in = RecordSchema.class.getResourceAsStream(RecordSchema.WS_RECORD_RESOURCE)) {
+            Files.copy(in, schemaFile);
+        }
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+
+        String[][] modes = {{}, {"--pretty"}, {"--ndjson"}};
+        for (String[] mode : modes) {
+            Path expected = tempDir.resolve("expected.json");
+            Path output = tempDir.resolve("output.json");
+            String[] args = {"--file", input.toString(), "--stream", "--batch-timestamp", "-o", expected.toString()};
+            assertEquals(0, Main.run(TestSupport.args(args, mode), out));
+            args[args.length - 1] = output.toString();
+            assertEquals(0, Main.run(TestSupport.args(TestSupport.args(args, mode), "--schema", schemaFile.toString()),
+                    out));
+            assertEquals(stripTimestamps(Files.readString(expected)),
+                    stripTimestamps(Files.readString(output)), String.join(" ", mode));
+        }
+
+        SchemaRecordEncoder encoder = new SchemaRecordEncoder(schema);
+        String[] invalidLines = {"John", "VeryLongName1,Doe", "John,VeryLongValue", "Jane,Doe,maybe",
+                "Jane,Doe,true,Description longer than 20"};
+        for (String line : invalidLines) {
+            RecordFormatException expected = assertThrows(RecordFormatException.class, () -> Main.parseRecord(line, 7));
+            RecordFormatException actual = assertThrows(RecordFormatException.class, () -> encoder.encodeLine(line, 7));
+            assertEquals(expected.getMessage(), actual.getMessage(), line);
+            assertEquals(line, actual.getLine());
+        }
+        assertEquals(-1, encoder.encodeLine("  \t", 1));
+    }
+
+    /**
+     * Тестирование собственной схемы: имена NAME OF, FILLER, логическое поле и значения по умолчанию.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testCustomSchema() throws Exception {
+        RecordSchema schema = RecordSchema.parse(new StringReader(ITEM_SCHEMA));
+        assertEquals(1, schema.getRequiredColumns());
+        TimestampClock previous = Main.getTimestampClock();
+        Main.setTimestampClock(TimestampClock.fixed("2024-01-01 00:00:00"));
+        try {
+            SchemaRecordEncoder encoder = new SchemaRecordEncoder(schema);
+            encoder.encodeLine("A1, Chair ", 1);
+            assertEquals("{\"code\":\"A1\",\"ITEM-TITLE\":\"Chair\",\"active\":true,\"ITEM-COLOR\":\"none\","
+                    + "\"timestamp\":\"2024-01-01 00:00:00\"}",
+                    new String(encoder.buffer(), 0, encoder.length(), StandardCharsets.UTF_8));
+            encoder.encodeLine("B2,,False,red,ignored", 2);
+            assertEquals("{\"code\":\"B2\",\"ITEM-TITLE\":\"\",\"active\":false,\"ITEM-COLOR\":\"red\","
+                    + "\"timestamp\":\"2024-01-01 00:00:00\"}",
+                    new String(encoder.buffer(), 0, encoder.length(), StandardCharsets.UTF_8));
+
+            SchemaRecordEncoder pretty = new SchemaRecordEncoder(schema, true, 0);
+            pretty.encodeLine("C3", 3);
+            assertEquals("{\n  \"code\": \"C3\",\n  \"ITEM-TITLE\": \"\",\n  \"active\": true,\n"
+                    + "  \"ITEM-COLOR\": \"none\",\n  \"timestamp\": \"2024-01-01 00:00:00\"\n}",
+                    new String(pretty.buffer(), 0, pretty.length(), StandardCharsets.UTF_8));
+
+            RecordFormatException error = assertThrows(RecordFormatException.class,
+                    () -> encoder.encodeLine("ABCDEFG,Chair", 4));
+            assertEquals("Code cannot exceed 6 characters", error.getReason());
+            error = assertThrows(RecordFormatException.class, () -> encoder.encodeLine("A1,Chair,yes", 5));
+            assertEquals("Active flag must be 'true' or 'false'", error.getReason());
+        } finally {
+            Main.setTimestampClock(previous);
+        }
+    }
+
+    /**
+     * Тестирование ошибок в схеме.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testInvalidSchema(@TempDir Path tempDir) throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> RecordSchema.parse(new StringReader(
+                "01 R.\n05 A PIC X(2).\nNAME OF B IS 'b'\n")));
+        assertThrows(IllegalArgumentException.class, () -> RecordSchema.parse(new StringReader(
+                "01 R.\n05 A PIC X(2) VALUE 'long'.\n")));
+        assertThrows(IllegalArgumentException.class, () -> RecordSchema.parse(new StringReader(
+                "01 R.\n05 A PIC 9(2).\n")));
+        assertThrows(IllegalArgumentException.class, () -> RecordSchema.parse(new StringReader("01 R.\n")));
+
+        Path schemaFile = tempDir.resolve("bad.cpy");
+        Files.writeString(schemaFile, "01 R.\n05 A PIC X(2) VALUE 'no'.\nCONVERTING A TO JSON BOOLEAN\n");
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, "John,Doe\n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--schema", schemaFile.toString()}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("Error: Invalid schema line 3"));
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--schema", schemaFile.toString(),
+                "--parallel"}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("--schema cannot be combined with --parallel"));
+    }
+}
@@ -0,0 +1,120 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.stripTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Тестовый класс для реализаций кодирования записей {@link SerializerEngine}.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class RecordSerializerTest {
+
+    /**
+     * Тестирование кодирования одной записи: все реализации выдают одинаковый документ,
+     * красивый вывод совпадает с generatePrettyJson.
+     */
+    @Test
+    void testEnginesProduceSameDocument() {
+        WsRecord record = Main.parseRecord("John,Пётр,true,User John", 1);
+        WsRecord second = Main.parseRecord("Jane,Doe,false,", 2);
+        String expected = new JsonRecordEncoder().encodeToString(record);
+
+        for (SerializerEngine engine : SerializerEngine.values()) {
+            RecordSerializer compact = engine.create(false);
+            assertFalse(compact.isPretty(), engine.name());
+            assertEquals(expected, compact.encodeToString(record), engine.name());
+            int length = compact.encode(second);
+            assertEquals(new JsonRecordEncoder().encodeToString(second),
+                    new String(compact.buffer(), 0, length, StandardCharsets.UTF_8), engine.name());
+            assertEquals(length, compact.length(), engine.name());
+
+            RecordSerializer pretty = engine.create(true);
+            assertTrue(pretty.isPretty(), engine.name());
+            assertEquals(Main.generatePrettyJson(record), pretty.encodeToString(record), engine.name());
+            assertEquals(Main.generatePrettyJson(second), pretty.encodeToString(second), engine.name());
+            assertEquals(Main.generatePrettyJson(record).replace("\n", "\n  "),
+                    engine.create(true, JsonArrayWriter.ELEMENT_DEPTH).encodeToString(record), engine.name());
+        }
+        assertEquals(SerializerEngine.JACKSON, SerializerEngine.forName("Jackson"));
+        assertNull(SerializerEngine.forName("gson"));
+    }
+
+    /**
+     * Тестирование экранирования: Jackson и собственный кодировщик выдают корректный JSON.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testSpecialCharactersAreEscaped() throws Exception {
+        WsRecord record = Main.parseRecord("Jo\"hn,Do\\e,true,Tab\there", 1);
+        ObjectMapper mapper = new ObjectMapper();
+        RecordSerializer[] serializers = {SerializerEngine.JACKSON.create(false), SerializerEngine.JACKSON.create(true),
+                SerializerEngine.ENCODER.create(false), SerializerEngine.ENCODER.create(true, 1)};
+        for (RecordSerializer serializer : serializers) {
+            String json = serializer.encodeToString(record);
+            assertEquals("Tab\there", mapper.readTree(json).get("description").asText(), json);
+            assertEquals("Jo\"hn", mapper.readTree(json).get("name").asText(), json);
+        }
+    }
+
+    /**
+     * Тестирование опции --serializer: вывод совпадает во всех режимах.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testSerializerOption(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            csv.append("Name").append(i % 10).append(",Пётр,").append(i % 2 == 0).append(",Line ").append(i)
+                    .append('\n');
+        }
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, csv);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+        String[][] modes = {{}, {"--pretty"}, {"--stream"}, {"--stream", "--pretty"}, {"--ndjson"}, {"--parallel"},
+                {"--parallel", "--pretty"}};
+        for (String[] mode : modes) {
+            Path expected = tempDir.resolve("expected.json");
+            assertEquals(0, Main.run(args(input, expected, mode, "--batch-timestamp"), out));
+            String expectedJson = stripTimestamps(Files.readString(expected));
+            for (SerializerEngine engine : SerializerEngine.values()) {
+                Path output = tempDir.resolve("output.json");
+                assertEquals(0, Main.run(args(input, output, mode, "--batch-timestamp", "--serializer",
+                        engine.optionValue()), out), bytes.toString(StandardCharsets.UTF_8));
+                assertEquals(expectedJson, stripTimestamps(Files.readString(output)),
+                        engine + " " + String.join(" ", mode));
+            }
+        }
+
+        bytes.reset();
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--serializer", "gson"}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("Unsupported value for --serializer: gson"));
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--serializer", "jackson", "--incremental",
+                "-o", tempDir.resolve("output.json").toString()}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("--serializer cannot be combined with --incremental"));
+    }
+
+    private static String[] args(Path input, Path output, String[] mode, String... extra) {
+        return TestSupport.args(TestSupport.args(new String[]{"--file", input.toString(), "-o", output.toString()}, mode),
+                extra);
+    }
+}
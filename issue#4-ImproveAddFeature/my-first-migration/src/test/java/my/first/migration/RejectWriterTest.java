@@ -0,0 +1,102 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для файла отклоненных строк.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class RejectWriterTest {
+
+    private static final String INPUT = "John,Doe,true,First\n"
+            + "VeryLongName1,Doe,true,Second\n"
+            + "\n"
+            + "Jane,Doe,maybe,Third\n"
+            + "Jim,Doe,false,Fourth\n";
+
+    /**
+     * Тестирование всех режимов: неверные строки записываются в файл, остальные преобразуются.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testRejectFile(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, INPUT);
+        String[][] modes = {{}, {"--mmap"}, {"--stream"}, {"--parallel"}, {"--ndjson"}};
+        for (String[] mode : modes) {
+            Path rejects = tempDir.resolve("rejects.txt");
+            Path output = tempDir.resolve("output.json");
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+            String[] args = TestSupport.args(new String[]{"--file", input.toString(), "-o", output.toString(),
+                    "--reject-file", rejects.toString()}, mode);
+
+            assertEquals(0, Main.run(args, out), String.join(" ", mode) + ": " + bytes);
+            String console = bytes.toString(StandardCharsets.UTF_8);
+            assertTrue(console.contains(Main.RECORDS_PROCESSED_MESSAGE + "2"), console);
+            assertTrue(console.contains(Main.REJECTED_MESSAGE + "2"), console);
+            String json = Files.readString(output);
+            assertTrue(json.contains("\"name\":\"John\"") && json.contains("\"name\":\"Jim\""), json);
+            assertFalse(json.contains("Jane"), json);
+
+            List<String> lines = Files.readAllLines(rejects);
+            assertEquals(List.of(
+                    "2\t" + Main.NAME_LIMIT_MESSAGE + "\tVeryLongName1,Doe,true,Second",
+                    "4\t" + Main.ENABLED_FLAG_MESSAGE + "\tJane,Doe,maybe,Third"), lines);
+        }
+    }
+
+    /**
+     * Тестирование ограничения доли отклоненных строк и проверки опций.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testMaxErrorRate(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, INPUT);
+        Path rejects = tempDir.resolve("rejects.txt");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+        // 2 из 5 строк отклонены
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--reject-file", rejects.toString(),
+                "--max-error-rate", "0.3"}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("Error rate exceeded: 2 of 5 lines rejected"));
+        assertEquals(0, Main.run(new String[]{"--file", input.toString(), "--reject-file", rejects.toString(),
+                "--max-error-rate", "0.4", "--stream"}, out));
+
+        bytes.reset();
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--max-error-rate", "0.1"}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("--max-error-rate requires --reject-file"));
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--reject-file", rejects.toString(),
+                "--max-error-rate", "2"}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("Invalid value for --max-error-rate: 2"));
+
+        // Во время чтения доля проверяется после MIN_LINES_FOR_RATE строк
+        try (RejectWriter writer = new RejectWriter(rejects, 0.01)) {
+            for (int i = 1; i <= 10; i++) {
+                writer.reject(new RecordFormatException(Main.NAME_LIMIT_MESSAGE, i, "line" + i), i);
+            }
+            assertEquals(10, writer.getRejectedCount());
+            assertThrows(IllegalStateException.class, () -> writer.reject(
+                    new RecordFormatException(Main.NAME_LIMIT_MESSAGE, RejectWriter.MIN_LINES_FOR_RATE),
+                    RejectWriter.MIN_LINES_FOR_RATE));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.normalizeTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Тестовый класс для потокового режима обработки файла.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class StreamingFileConverterTest {
+
+    /**
+     * Тестирование потокового преобразования в компактный JSON массив.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testConvertCompactArray(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true,User John", "", "Jane,Smith,false,User Jane"));
+
+        StreamingFileConverter converter = new StreamingFileConverter(false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.convert(testFile.toString(), out);
+
+        String expected = "[{\"name\":\"John\",\"value\":\"Doe\",\"enabled\":true,\"description\":\"User John\",\"timestamp\":\"2023-01-01 12:00:00\"},"
+                + "{\"name\":\"Jane\",\"value\":\"Smith\",\"enabled\":false,\"description\":\"User Jane\",\"timestamp\":\"2023-01-01 12:00:00\"}]";
+        String actual = out.toString(StandardCharsets.UTF_8);
+        assertEquals(expected, normalizeTimestamps(actual));
+        assertEquals(2, converter.getRecordsProcessed());
+        assertEquals(actual.length(), converter.getBytesWritten());
+    }
+
+    /**
+     * Тестирование потокового преобразования с красивым выводом.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testConvertPrettyArray(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true,User John", "Jane,Smith,false,User Jane"));
+
+        StreamingFileConverter converter = new StreamingFileConverter(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.convert(testFile.toString(), out);
+
+        // Ожидаемый результат строится так же, как в пакетном режиме
+        StringBuilder expected = new StringBuilder("[\n");
+        List<Main.WsRecord> records = Main.readRecordsFromFile(testFile.toString());
+        for (int i = 0; i < records.size(); i++) {
+            expected.append("  ").append(Main.generatePrettyJson(records.get(i)).replace("\n", "\n  "));
+            if (i < records.size() - 1) {
+                expected.append(",");
+            }
+            expected.append("\n");
+        }
+        expected.append("]");
+
+        assertEquals(normalizeTimestamps(expected.toString()),
+                normalizeTimestamps(out.toString(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Тестирование пустого файла: должен получиться пустой массив.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testConvertEmptyFile(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("empty.csv");
+        Files.write(testFile, List.of(""));
+
+        ByteArrayOutputStream compact = new ByteArrayOutputStream();
+        new StreamingFileConverter(false).convert(testFile.toString(), compact);
+        assertEquals("[]", compact.toString(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream pretty = new ByteArrayOutputStream();
+        new StreamingFileConverter(true).convert(testFile.toString(), pretty);
+        assertEquals("[\n]", pretty.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Тестирование сообщения об ошибке с номером строки.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testConvertReportsLineNumber(@TempDir Path tempDir) throws Exception {
+        Path testFile = tempDir.resolve("test.csv");
+        Files.write(testFile, List.of("John,Doe,true,Desc", "", "Jane,Smith,maybe,Desc"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new StreamingFileConverter(false).convert(testFile.toString(), new ByteArrayOutputStream()));
+        assertEquals(Main.ENABLED_FLAG_MESSAGE + " at line 3", e.getMessage());
+    }
+}
@@ -0,0 +1,55 @@
+package my.first.migration;
+
+/**
+ * Общие вспомогательные методы тестов: сравнение вывода без временных меток
+ * и сборка аргументов командной строки.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+final class TestSupport {
+
+    /** Временная метка в формате {@link Main#TIMESTAMP_FORMAT} */
+    static final String TIMESTAMP_REGEX = "\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}";
+    /** Постоянная метка, которой заменяются временные метки при сравнении */
+    static final String TIMESTAMP_STUB = "2023-01-01 12:00:00";
+    /** Поле timestamp в компактном и красивом JSON */
+    static final String TIMESTAMP_FIELD_REGEX = "\"timestamp\": ?\"[^\"]*\"";
+
+    private TestSupport() {
+    }
+
+    /**
+     * Заменяет все временные метки постоянной, чтобы вывод разных запусков можно было сравнить.
+     *
+     * @param json вывод преобразования
+     * @return вывод с метками {@link #TIMESTAMP_STUB}
+     */
+    static String normalizeTimestamps(String json) {
+        return json.replaceAll(TIMESTAMP_REGEX, TIMESTAMP_STUB);
+    }
+
+    /**
+     * Удаляет поля timestamp, чтобы сравнить вывод, записанный с разными метками.
+     *
+     * @param json вывод преобразования
+     * @return вывод без полей timestamp
+     */
+    static String stripTimestamps(String json) {
+        return json.replaceAll(TIMESTAMP_FIELD_REGEX, "");
+    }
+
+    /**
+     * Объединяет аргументы командной строки.
+     *
+     * @param first первые аргументы
+     * @param rest остальные аргументы
+     * @return новый массив аргументов
+     */
+    static String[] args(String[] first, String... rest) {
+        String[] result = new String[first.length + rest.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(rest, 0, result, first.length, rest.length);
+        return result;
+    }
+}
@@ -0,0 +1,176 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тестовый класс для кеширующего источника временных меток.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class TimestampClockTest {
+
+    /**
+     * Часы с вручную устанавливаемым временем.
+     */
+    private static final class ManualClock extends Clock {
+        private Instant instant;
+
+        ManualClock(String instant) {
+            this.instant = Instant.parse(instant);
+        }
+
+        void plusMillis(long millis) {
+            instant = instant.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    /**
+     * Часы, которые для первого вызова возвращают время до границы секунды, но отдают его
+     * только после сигнала, а для остальных вызовов - время после границы.
+     */
+    private static final class SteppingClock extends Clock {
+        private final Instant before = Instant.parse("2023-01-01T12:00:00.999Z");
+        private final Instant after = before.plusMillis(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            if (calls.incrementAndGet() > 1) {
+                return after;
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return before;
+        }
+    }
+
+    /**
+     * Восстановление системных часов после теста.
+     */
+    @AfterEach
+    void tearDown() {
+        Main.setTimestampClock(TimestampClock.system());
+    }
+
+    /**
+     * Тестирование кеширования метки в пределах секунды.
+     */
+    @Test
+    void testCachesWithinSecond() {
+        ManualClock clock = new ManualClock("2023-01-01T12:00:00.100Z");
+        TimestampClock timestamps = new TimestampClock(clock, false);
+
+        String first = timestamps.now();
+        clock.plusMillis(800);
+        assertSame(first, timestamps.now());
+        assertEquals("2023-01-01 12:00:00", first);
+        assertArrayEquals(first.getBytes(StandardCharsets.UTF_8), timestamps.nowBytes());
+
+        clock.plusMillis(200);
+        assertEquals("2023-01-01 12:00:01", timestamps.now());
+    }
+
+    /**
+     * Тестирование одной метки на весь запуск.
+     */
+    @Test
+    void testBatchWideTimestamp() {
+        ManualClock clock = new ManualClock("2023-01-01T23:59:59Z");
+        TimestampClock timestamps = new TimestampClock(clock, true);
+
+        assertEquals("2023-01-01 23:59:59", timestamps.now());
+        clock.plusMillis(5000);
+        assertEquals("2023-01-01 23:59:59", timestamps.now());
+        assertTrue(timestamps.isBatchWide());
+    }
+
+    /**
+     * Тестирование одной метки на весь запуск для двух потоков, первые обращения которых
+     * пришлись на разные стороны границы секунды.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testBatchWideTimestampRace() throws Exception {
+        SteppingClock clock = new SteppingClock();
+        TimestampClock timestamps = new TimestampClock(clock, true);
+        AtomicReference<String> slow = new AtomicReference<>();
+        Thread worker = new Thread(() -> slow.set(timestamps.now()));
+        worker.start();
+        while (clock.calls.get() == 0) {
+            Thread.onSpinWait();
+        }
+        // Второй поток читает время после границы и публикует метку первым
+        String fast = timestamps.now();
+        clock.release.countDown();
+        worker.join(5000);
+
+        assertEquals("2023-01-01 12:00:01", fast);
+        assertEquals(fast, slow.get());
+        assertEquals(fast, timestamps.now());
+    }
+
+    /**
+     * Тестирование детерминированных меток в записях через подменные часы.
+     */
+    @Test
+    void testDeterministicRecordTimestamp() {
+        Main.setTimestampClock(new TimestampClock(new ManualClock("2023-10-01T12:00:00Z"), false));
+
+        Main.WsRecord record = Main.parseRecord("John,Doe,true,Desc", 1);
+
+        assertEquals("2023-10-01 12:00:00", record.getTimestamp());
+        assertEquals("2023-10-01 12:00:00", Main.createWsRecordFromArgs(new String[]{}).getTimestamp());
+    }
+
+    /**
+     * Тестирование формата системных часов.
+     */
+    @Test
+    void testSystemClockFormat() {
+        assertTrue(TimestampClock.system().now().matches(TestSupport.TIMESTAMP_REGEX));
+        assertFalse(TimestampClock.system().isBatchWide());
+    }
+}
@@ -0,0 +1,145 @@
+package my.first.migration;
+
+import static my.first.migration.TestSupport.stripTimestamps;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import my.first.migration.Main.WsRecord;
+
+/**
+ * Тестовый класс для словаря повторяющихся значений.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class ValueDictionaryTest {
+
+    /**
+     * Тестирование всех режимов: вывод со словарем совпадает с выводом без словаря,
+     * а итог по словарю выводится после преобразования.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testDictionaryOutputMatches(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            csv.append("Name").append(i).append(",Город").append(i % 5).append(",true,")
+                    .append(i % 3 == 0 ? "" : "Say \"hi\" " + i % 4).append('\n');
+        }
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, csv);
+        String[][] modes = {{}, {"--mmap"}, {"--stream"}, {"--pretty"}, {"--ndjson"}};
+        for (String[] mode : modes) {
+            Path expected = tempDir.resolve("expected.json");
+            Path output = tempDir.resolve("output.json");
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+            String[] args = TestSupport.args(new String[]{"--file", input.toString(), "--batch-timestamp", "-o",
+                    expected.toString()}, mode);
+            assertEquals(0, Main.run(args, out));
+            args[4] = output.toString();
+            assertEquals(0, Main.run(TestSupport.args(args, "--dictionary", "64"), out), bytes.toString());
+            assertEquals(stripTimestamps(Files.readString(expected)),
+                    stripTimestamps(Files.readString(output)), String.join(" ", mode));
+
+            String console = bytes.toString(StandardCharsets.UTF_8);
+            assertTrue(console.contains(Main.DICTIONARY_ENABLED_MESSAGE + "64"), console);
+            // 5 значений value, 4 описания и описание по умолчанию; каждое поле ищется один раз
+            assertTrue(console.contains("Dictionary: 590 hits, 10 misses"), console);
+        }
+    }
+
+    /**
+     * Тестирование одинакового итога в памяти и в потоковом режиме: при чтении в память
+     * значения не ищутся в словаре повторно при кодировании.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testSummaryMatchesAcrossModes(@TempDir Path tempDir) throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            csv.append("Name").append(i).append(",Value").append(i).append(",true,Text ").append(i).append('\n');
+        }
+        Path input = tempDir.resolve("distinct.csv");
+        Files.writeString(input, csv);
+        String[][] modes = {{}, {"--mmap"}, {"--stream"}};
+        for (String[] mode : modes) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+            assertEquals(0, Main.run(TestSupport.args(new String[]{"--file", input.toString(), "-o",
+                    tempDir.resolve("output.json").toString(), "--dictionary", "8"}, mode), out));
+            String console = bytes.toString(StandardCharsets.UTF_8);
+            assertTrue(console.contains("Dictionary: 0 hits, 200 misses, hit rate 0.0%, 8 of 8 entries, 192 evicted"),
+                    String.join(" ", mode) + ": " + console);
+        }
+    }
+
+    /**
+     * Тестирование общих строк, кодирования значений и вытеснения при ограниченном размере.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testInternAndEviction(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, "A,Same,true,Text\nB,Same,false,Text\n");
+        ValueDictionary dictionary = new ValueDictionary();
+        List<WsRecord> records = Main.readRecords(input.toString(),
+                FileModeSettings.DEFAULT.withDictionary(dictionary));
+        assertSame(records.get(0).getValue(), records.get(1).getValue());
+        assertSame(records.get(0).getDescription(), records.get(1).getDescription());
+        assertEquals(2, dictionary.getHits());
+        assertEquals(0.5, dictionary.getHitRate());
+
+        assertEquals("a\\\"b\\\\ Ж", new String(dictionary.encoded("  a\"b\\ Ж  "), StandardCharsets.UTF_8));
+
+        ValueDictionary small = new ValueDictionary(2);
+        for (String value : new String[]{"one", "two", "one", "three", "two"}) {
+            small.encoded(value);
+        }
+        assertEquals(2, small.size());
+        assertEquals(1, small.getHits());
+        assertEquals(4, small.getMisses());
+        assertEquals(2, small.getEvictions());
+        assertEquals("Dictionary: 1 hits, 4 misses, hit rate 20.0%, 2 of 2 entries, 2 evicted", small.summary());
+        assertThrows(IllegalArgumentException.class, () -> new ValueDictionary(0));
+    }
+
+    /**
+     * Тестирование проверки опции --dictionary.
+     *
+     * @param tempDir временная директория для тестов
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testDictionaryOptions(@TempDir Path tempDir) throws Exception {
+        Path input = tempDir.resolve("data.csv");
+        Files.writeString(input, "John,Doe\n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--dictionary", "none"}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("Invalid value for --dictionary: none"));
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--dictionary", "16", "--parallel"}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("--dictionary cannot be combined with --parallel"));
+        assertEquals(1, Main.run(new String[]{"--file", input.toString(), "--dictionary", "16",
+                "--serializer", "jackson"}, out));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("--dictionary cannot be combined with --serializer"));
+        assertEquals(0, Main.run(new String[]{"--file", input.toString(), "--dictionary", "16",
+                "--serializer", "encoder"}, out));
+    }
+}
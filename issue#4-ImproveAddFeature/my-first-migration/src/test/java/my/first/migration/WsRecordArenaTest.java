@@ -0,0 +1,120 @@
+package my.first.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тестовый класс для компактного хранилища записей WsRecordArena.
+ *
+ * @author ScalabreseGD
+ * @version 1.0
+ */
+public class WsRecordArenaTest {
+
+    private static Main.WsRecord record(int i) {
+        Main.WsRecord record = new Main.WsRecord();
+        record.setName(Main.padToLength("Name" + i, Main.MAX_NAME_LENGTH));
+        record.setValue(Main.padToLength("V" + i, Main.MAX_VALUE_LENGTH));
+        record.setFlag(i % 2 == 0);
+        record.setDescription(Main.padToLength("Desc " + i, Main.MAX_DESCRIPTION_LENGTH));
+        record.setTimestamp("2023-01-01 12:00:00");
+        return record;
+    }
+
+    /**
+     * Тестирование порядка полей по структуре ws-record из json_generate.cbl.
+     * Текстовые поля вмещают до трех байт UTF-8 на символ.
+     */
+    @Test
+    void testCopybookLayout() {
+        assertEquals(0, WsRecordArena.NAME_OFFSET);
+        assertEquals(30, WsRecordArena.VALUE_OFFSET);
+        assertEquals(60, WsRecordArena.BLANK_OFFSET);
+        assertEquals(90, WsRecordArena.FLAG_OFFSET);
+        assertEquals(95, WsRecordArena.DESCRIPTION_OFFSET);
+        assertEquals(155, WsRecordArena.TIMESTAMP_OFFSET);
+        assertEquals(174, WsRecordArena.RECORD_LENGTH);
+    }
+
+    /**
+     * Тестирование чтения записей через курсор в куче и вне кучи.
+     */
+    @Test
+    void testCursorRoundTrip() {
+        for (WsRecordArena arena : new WsRecordArena[]{WsRecordArena.onHeap(), WsRecordArena.offHeap()}) {
+            int count = WsRecordArena.RECORDS_PER_SEGMENT + 3;
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, arena.add(record(i)));
+            }
+            assertEquals(count, arena.size());
+
+            WsRecordArena.Cursor cursor = arena.cursor();
+            for (int i : new int[]{0, 1, WsRecordArena.RECORDS_PER_SEGMENT, count - 1}) {
+                Main.WsRecord expected = record(i);
+                cursor.moveTo(i);
+                assertEquals(expected.getName(), cursor.getName());
+                assertEquals(expected.getValue(), cursor.getValue());
+                assertEquals(expected.getBlank(), cursor.getBlank());
+                assertEquals(expected.getFlag(), cursor.getFlag());
+                assertEquals(expected.getDescription(), cursor.getDescription());
+                assertEquals(expected.getTimestamp(), cursor.getTimestamp());
+                assertEquals(expected.getDisplayString(), cursor.toRecord().getDisplayString());
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> cursor.moveTo(count));
+        }
+    }
+
+    /**
+     * Тестирование кодирования в JSON напрямую из арены.
+     *
+     * @throws Exception если произошла ошибка
+     */
+    @Test
+    void testEncodeFromArena() throws Exception {
+        WsRecordArena arena = WsRecordArena.onHeap();
+        Main.WsRecord special = record(7);
+        special.setName("Пётр");
+        special.setDescription("Say \"hi\"");
+        arena.add(record(1));
+        arena.add(special);
+
+        JsonRecordEncoder encoder = new JsonRecordEncoder();
+        WsRecordArena.Cursor cursor = arena.cursor();
+        assertEquals(encoder.encodeToString(record(1)), toString(encoder, cursor.moveTo(0)));
+        assertEquals(encoder.encodeToString(special), toString(encoder, cursor.moveTo(1)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonArrayWriter writer = new JsonArrayWriter(out, false);
+        arena.writeTo(writer, false);
+        writer.finish();
+        assertEquals("[" + encoder.encodeToString(record(1)) + "," + encoder.encodeToString(special) + "]",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Тестирование ограничения длины поля в символах, как при разборе CSV.
+     */
+    @Test
+    void testFieldLimitInCharacters() {
+        Main.WsRecord record = Main.parseRecord("Абвгдежзий,Ёёёёёёёёёё,true,Описание на русском", 1);
+        WsRecordArena arena = WsRecordArena.onHeap();
+        arena.add(record);
+        WsRecordArena.Cursor cursor = arena.cursor();
+        assertEquals(record.getName(), cursor.getName());
+        assertEquals(record.getValue(), cursor.getValue());
+        assertEquals(record.getDescription(), cursor.getDescription());
+        assertEquals(new JsonRecordEncoder().encodeToString(record), toString(new JsonRecordEncoder(), cursor));
+
+        record.setName("Слишком длинное");
+        assertThrows(IllegalArgumentException.class, () -> arena.add(record));
+    }
+
+    private static String toString(JsonRecordEncoder encoder, WsRecordArena.Cursor cursor) {
+        int length = encoder.encode(cursor);
+        return new String(encoder.buffer(), 0, length, StandardCharsets.UTF_8);
+    }
+}